@@ -9,6 +9,8 @@ export type ApiResponse<T> = {
 
 export type LoginResponse = {
   token: string
+  refreshToken?: string | null
+  expiresIn?: number | null
 }
 
 export type RegisterRequest = {
@@ -42,3 +44,10 @@ export async function me() {
   const res = await http.get<ApiResponse<MeResponse>>('/api/v1/auth/me')
   return res.data
 }
+
+export async function logout(accessToken?: string, refreshToken?: string) {
+  const res = await http.post<ApiResponse<null>>('/api/v1/auth/logout', refreshToken ? { refreshToken } : {}, {
+    headers: accessToken ? { Authorization: `Bearer ${accessToken}` } : {},
+  })
+  return res.data
+}
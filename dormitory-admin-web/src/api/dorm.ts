@@ -5,7 +5,16 @@ export type PageResult<T> = {
   list: T[]
   page: number
   pageSize: number
-  total: number
+  total: number | null
+  hasMore: boolean
+  nextCursor: string | null
+}
+
+/** Server omits the count on cursor/no-total pages; keep the pager one page ahead while more rows exist. */
+export const pageTotal = <T>(data: PageResult<T>): number => {
+  if (data.total != null) return data.total
+  const seen = (data.page - 1) * data.pageSize + data.list.length
+  return data.hasMore ? seen + data.pageSize : seen
 }
 
 export type DormBuilding = {
@@ -99,6 +108,32 @@ export async function deleteBuilding(id: number) {
   return res.data
 }
 
+export type DormLayoutResult = {
+  buildingId: number
+  floors: number
+  rooms: number
+  beds: number
+  firstRoomNo: string
+  lastRoomNo: string
+}
+
+export async function generateBuildingLayout(
+  id: number,
+  payload: {
+    floors: number
+    startFloor?: number
+    roomsPerFloor: number
+    bedsPerRoom: number
+    roomType?: string
+    genderLimit?: string
+    roomNoPattern?: string
+    bedNoPattern?: string
+  }
+) {
+  const res = await http.post<ApiResponse<DormLayoutResult>>(`/api/v1/dorm/buildings/${id}/layout`, payload)
+  return res.data
+}
+
 export async function listRooms(params: {
   buildingId?: number
   floorNo?: number
@@ -185,6 +220,136 @@ export async function deleteBed(id: number) {
   return res.data
 }
 
+export type BedOccupancy = {
+  buildingId: number
+  floorNo: number | null
+  roomId: number | null
+  roomNo: string | null
+  total: number
+  available: number
+  occupied: number
+  free: number
+  held: number
+}
+
+export async function getBedOccupancy(params: { buildingId?: number; floorNo?: number; groupBy?: 'building' | 'floor' | 'room' }) {
+  const res = await http.get<ApiResponse<BedOccupancy[]>>('/api/v1/dorm/beds/occupancy', { params })
+  return res.data
+}
+
+export type AvailableBed = {
+  bedId: number
+  bedNo: string
+  roomId: number
+  roomNo: string
+  floorNo: number
+  buildingId: number
+  roomType: string | null
+  roomFreeBeds: number
+  roomOccupiedBeds: number
+  classmates: number
+}
+
+export async function findAvailableBeds(params: {
+  studentId?: number
+  gender?: string
+  buildingId?: number
+  floorFrom?: number
+  floorTo?: number
+  roomType?: string
+  classmatesOnly?: boolean
+  limit?: number
+}) {
+  const res = await http.get<ApiResponse<AvailableBed[]>>('/api/v1/dorm/beds/available', { params })
+  return res.data
+}
+
+export type BedHold = {
+  holdId: string
+  bedId: number
+  studentId: number | null
+  expiresAt: string
+}
+
+export async function holdBed(payload: { bedId: number; studentId?: number | null; ttlSeconds?: number }) {
+  const res = await http.post<ApiResponse<BedHold>>('/api/v1/dorm/bed-holds', payload)
+  return res.data
+}
+
+export async function releaseBedHold(holdId: string) {
+  const res = await http.delete<ApiResponse<null>>(`/api/v1/dorm/bed-holds/${holdId}`)
+  return res.data
+}
+
+export async function confirmBedHold(holdId: string, payload?: { studentId?: number | null; reason?: string | null }) {
+  const res = await http.post<ApiResponse<DormAssignment>>(`/api/v1/dorm/bed-holds/${holdId}/confirm`, payload || {})
+  return res.data
+}
+
+export type SelectionSession = {
+  sessionId: string
+  open: boolean
+  opensAt: string
+  closesAt: string
+  buildingIds: number[]
+  beds: number
+  remaining: number
+  claimed: number
+  persisted: number
+  failed: number
+  pending: number
+}
+
+export type SelectionRoom = {
+  roomId: number
+  roomNo: string
+  buildingId: number
+  floorNo: number
+  roomType: string | null
+  freeBeds: number
+}
+
+export type SelectionClaim = {
+  studentId: number
+  bedId: number | null
+  bedNo: string | null
+  roomId: number | null
+  roomNo: string | null
+  buildingId: number | null
+  status: 'PENDING' | 'PERSISTED' | 'FAILED'
+  message: string | null
+}
+
+export async function openSelection(payload: { buildingIds?: number[]; durationMinutes?: number }) {
+  const res = await http.post<ApiResponse<SelectionSession>>('/api/v1/dorm/selection/session', payload)
+  return res.data
+}
+
+export async function closeSelection() {
+  const res = await http.post<ApiResponse<SelectionSession>>('/api/v1/dorm/selection/session/close')
+  return res.data
+}
+
+export async function getSelection() {
+  const res = await http.get<ApiResponse<SelectionSession>>('/api/v1/dorm/selection/session')
+  return res.data
+}
+
+export async function listSelectionRooms(params: { buildingId?: number; gender?: string }) {
+  const res = await http.get<ApiResponse<SelectionRoom[]>>('/api/v1/dorm/selection/rooms', { params })
+  return res.data
+}
+
+export async function claimSelectionBed(payload: { studentId: number; bedId?: number; roomId?: number }) {
+  const res = await http.post<ApiResponse<SelectionClaim>>('/api/v1/dorm/selection/claims', payload)
+  return res.data
+}
+
+export async function getSelectionClaim(studentId: number) {
+  const res = await http.get<ApiResponse<SelectionClaim>>(`/api/v1/dorm/selection/claims/${studentId}`)
+  return res.data
+}
+
 export async function listAssignments(params: {
   studentId?: number
   buildingId?: number
@@ -210,7 +375,119 @@ export async function createAssignment(payload: { studentId: number; bedId: numb
   return res.data
 }
 
+export async function checkIn(payload: { studentId: number; bedId: number; reason?: string | null }) {
+  const res = await http.post<ApiResponse<DormAssignment>>('/api/v1/dorm/assignments/check-in', payload)
+  return res.data
+}
+
 export async function endAssignment(id: number, payload?: { reason?: string | null }) {
   const res = await http.post<ApiResponse<DormAssignment>>(`/api/v1/dorm/assignments/${id}/end`, payload || {})
   return res.data
 }
+
+export async function transferAssignment(payload: { studentId: number; toBedId: number; reason?: string | null }) {
+  const res = await http.post<ApiResponse<DormAssignment>>('/api/v1/dorm/assignments/transfer', payload)
+  return res.data
+}
+
+export async function swapAssignments(payload: { studentIdA: number; studentIdB: number; reason?: string | null }) {
+  const res = await http.post<ApiResponse<DormAssignment[]>>('/api/v1/dorm/assignments/swap', payload)
+  return res.data
+}
+
+export async function reshuffleAssignments(payload: { moves: { studentId: number; toBedId: number }[]; reason?: string | null }) {
+  const res = await http.post<ApiResponse<DormAssignment[]>>('/api/v1/dorm/assignments/reshuffle', payload)
+  return res.data
+}
+
+export type DormCheckOutJob = {
+  id: number
+  buildingId: number | null
+  college: string | null
+  className: string | null
+  studentStatus: string | null
+  reason: string | null
+  status: string
+  total: number
+  processed: number
+  lastAssignmentId: number
+  error: string | null
+  finishedAt: string | null
+  createdAt: string
+}
+
+export async function startCheckOut(payload: {
+  buildingId?: number | null
+  college?: string | null
+  className?: string | null
+  studentStatus?: string | null
+  reason?: string | null
+}) {
+  const res = await http.post<ApiResponse<DormCheckOutJob>>('/api/v1/dorm/assignments/check-out', payload)
+  return res.data
+}
+
+export async function getCheckOutJob(jobId: number) {
+  const res = await http.get<ApiResponse<DormCheckOutJob>>(`/api/v1/dorm/assignments/check-out/${jobId}`)
+  return res.data
+}
+
+export async function resumeCheckOutJob(jobId: number) {
+  const res = await http.post<ApiResponse<DormCheckOutJob>>(`/api/v1/dorm/assignments/check-out/${jobId}/resume`)
+  return res.data
+}
+
+export async function getOccupancyHistory(params: {
+  bedId?: number
+  roomId?: number
+  at?: string
+  from?: string
+  to?: string
+}) {
+  const res = await http.get<ApiResponse<DormAssignment[]>>('/api/v1/dorm/occupancy-history', { params })
+  return res.data
+}
+
+export async function getRoommateHistory(params: { studentId: number; at?: string; from?: string; to?: string }) {
+  const res = await http.get<ApiResponse<DormAssignment[]>>('/api/v1/dorm/occupancy-history/roommates', { params })
+  return res.data
+}
+
+export type DormAllocationItem = {
+  studentId: number
+  studentNo: string | null
+  studentName: string | null
+  buildingId: number | null
+  roomId: number | null
+  roomNo: string | null
+  bedId: number | null
+  bedNo: string | null
+  status: 'PLANNED' | 'ASSIGNED' | 'SKIPPED' | 'UNPLACED' | 'CONFLICT' | 'FAILED'
+  message: string | null
+}
+
+export type DormAllocationResult = {
+  dryRun: boolean
+  requested: number
+  planned: number
+  assigned: number
+  skipped: number
+  unplaced: number
+  conflicts: number
+  items: DormAllocationItem[]
+}
+
+export async function allocateBeds(payload: {
+  studentIds: number[]
+  buildingIds?: number[]
+  groupBy?: 'CLASS' | 'MAJOR' | 'COLLEGE' | 'NONE'
+  roomTypes?: string[]
+  roomTypeStrict?: boolean
+  fillOrder?: 'FLOOR_ASC' | 'FLOOR_DESC'
+  fillPartialRoomsFirst?: boolean
+  dryRun?: boolean
+  reason?: string | null
+}) {
+  const res = await http.post<ApiResponse<DormAllocationResult>>('/api/v1/dorm/assignments/allocate', payload)
+  return res.data
+}
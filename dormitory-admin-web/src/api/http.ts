@@ -1,15 +1,42 @@
-import axios, { AxiosError } from 'axios'
+import axios, { AxiosError, type InternalAxiosRequestConfig } from 'axios'
 import { ElMessage } from 'element-plus'
 import router from '../router'
-import { clearToken, getToken } from '../utils/token'
+import { clearToken, getRefreshToken, getToken, setRefreshToken, setToken } from '../utils/token'
 
 const http = axios.create({
   timeout: 15000,
 })
 
+let refreshPromise: Promise<string> | null = null
+
+function refreshAccessToken(): Promise<string> {
+  if (!refreshPromise) {
+    const refreshToken = getRefreshToken()
+    refreshPromise = (refreshToken
+      ? axios
+          .post('/api/v1/auth/refresh', { refreshToken }, { timeout: 15000 })
+          .then((res) => {
+            const data = res.data?.data
+            if (res.data?.code !== 0 || !data?.token) {
+              throw new Error('refresh failed')
+            }
+            setToken(data.token)
+            if (data.refreshToken) {
+              setRefreshToken(data.refreshToken)
+            }
+            return data.token as string
+          })
+      : Promise.reject(new Error('no refresh token'))
+    ).finally(() => {
+      refreshPromise = null
+    })
+  }
+  return refreshPromise
+}
+
 http.interceptors.request.use((config) => {
   const token = getToken()
-  if (token) {
+  if (token && !config.headers?.Authorization) {
     config.headers = config.headers || {}
     config.headers.Authorization = `Bearer ${token}`
   }
@@ -18,8 +45,20 @@ http.interceptors.request.use((config) => {
 
 http.interceptors.response.use(
   (res) => res,
-  (err: AxiosError) => {
+  async (err: AxiosError) => {
     const status = err.response?.status
+    const config = err.config as (InternalAxiosRequestConfig & { _retried?: boolean }) | undefined
+
+    if (status === 401 && config && !config._retried && !config.url?.includes('/api/v1/auth/')) {
+      try {
+        const token = await refreshAccessToken()
+        config._retried = true
+        config.headers.Authorization = `Bearer ${token}`
+        return http.request(config)
+      } catch {
+        // fall through to re-login
+      }
+    }
 
     if (status === 401) {
       clearToken()
@@ -33,6 +72,11 @@ http.interceptors.response.use(
       ElMessage.warning('无权限访问')
     }
 
+    if (status === 429) {
+      const retryAfter = err.response?.headers?.['retry-after']
+      ElMessage.warning(retryAfter ? `请求过于频繁，请 ${retryAfter} 秒后重试` : '请求过于频繁，请稍后重试')
+    }
+
     return Promise.reject(err)
   },
 )
@@ -27,6 +27,11 @@ export async function listStudents(params: {
   return res.data
 }
 
+export async function suggestStudents(q: string, limit = 20) {
+  const res = await http.get<ApiResponse<Student[]>>('/api/v1/students/suggest', { params: { q, limit } })
+  return res.data
+}
+
 export async function getStudent(id: number) {
   const res = await http.get<ApiResponse<Student>>(`/api/v1/students/${id}`)
   return res.data
@@ -67,3 +72,28 @@ export async function deleteStudent(id: number) {
   const res = await http.delete<ApiResponse<null>>(`/api/v1/students/${id}`)
   return res.data
 }
+
+export type StudentImportRow = {
+  line: number
+  studentNo: string | null
+  status: 'INVALID' | 'DUPLICATE' | 'EXISTS' | 'DELETED' | 'FAILED'
+  message: string
+}
+
+export type StudentImportResult = {
+  total: number
+  created: number
+  updated: number
+  skipped: number
+  failed: number
+  errorsTruncated: boolean
+  errors: StudentImportRow[]
+}
+
+export async function importStudents(file: Blob, params?: { updateExisting?: boolean }) {
+  const res = await http.post<ApiResponse<StudentImportResult>>('/api/v1/students/import', file, {
+    params,
+    headers: { 'Content-Type': 'text/csv' },
+  })
+  return res.data
+}
@@ -1,6 +1,6 @@
 import { defineStore } from 'pinia'
 import * as authApi from '../api/auth'
-import { clearToken, getToken, setToken } from '../utils/token'
+import { clearToken, getRefreshToken, getToken, setRefreshToken, setToken } from '../utils/token'
 
  let fetchMePromise: Promise<void> | null = null
 
@@ -26,6 +26,9 @@ export const useAuthStore = defineStore('auth', {
       }
       this.token = resp.data.token
       setToken(this.token)
+      if (resp.data.refreshToken) {
+        setRefreshToken(resp.data.refreshToken)
+      }
       await this.ensureMe()
     },
 
@@ -36,6 +39,9 @@ export const useAuthStore = defineStore('auth', {
       }
       this.token = resp.data.token
       setToken(this.token)
+      if (resp.data.refreshToken) {
+        setRefreshToken(resp.data.refreshToken)
+      }
       this.me = null
       await this.ensureMe()
     },
@@ -63,6 +69,10 @@ export const useAuthStore = defineStore('auth', {
     },
 
     logout() {
+      const refreshToken = getRefreshToken()
+      if (this.token || refreshToken) {
+        authApi.logout(this.token || undefined, refreshToken || undefined).catch(() => {})
+      }
       this.token = ''
       this.me = null
       clearToken()
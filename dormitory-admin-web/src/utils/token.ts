@@ -1,4 +1,5 @@
 const TOKEN_KEY = 'dormitory_admin_token'
+const REFRESH_TOKEN_KEY = 'dormitory_admin_refresh_token'
 
 export function getToken(): string {
   return localStorage.getItem(TOKEN_KEY) || ''
@@ -8,6 +9,15 @@ export function setToken(token: string) {
   localStorage.setItem(TOKEN_KEY, token)
 }
 
+export function getRefreshToken(): string {
+  return localStorage.getItem(REFRESH_TOKEN_KEY) || ''
+}
+
+export function setRefreshToken(token: string) {
+  localStorage.setItem(REFRESH_TOKEN_KEY, token)
+}
+
 export function clearToken() {
   localStorage.removeItem(TOKEN_KEY)
+  localStorage.removeItem(REFRESH_TOKEN_KEY)
 }
@@ -1,15 +1,18 @@
 package com.example.dormitory.auth.controller;
 
 import com.example.dormitory.auth.dto.LoginRequest;
+import com.example.dormitory.auth.dto.RefreshTokenRequest;
 import com.example.dormitory.auth.dto.RegisterRequest;
+import com.example.dormitory.auth.service.AuthTokenService;
 import com.example.dormitory.auth.vo.LoginResponse;
 import com.example.dormitory.auth.vo.MeResponse;
 import com.example.dormitory.common.ApiResponse;
-import com.example.dormitory.security.JwtService;
+import com.example.dormitory.security.ClientAddressResolver;
 import com.example.dormitory.security.SecurityUtils;
 import com.example.dormitory.security.UserPrincipal;
 import com.example.dormitory.sys.model.SysUser;
 import com.example.dormitory.sys.service.SysUserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -26,28 +29,45 @@ import java.util.List;
 public class AuthController {
 
     private final SysUserService sysUserService;
-    private final JwtService jwtService;
+    private final AuthTokenService authTokenService;
+    private final ClientAddressResolver clientAddressResolver;
 
-    public AuthController(SysUserService sysUserService, JwtService jwtService) {
+    public AuthController(SysUserService sysUserService, AuthTokenService authTokenService, ClientAddressResolver clientAddressResolver) {
         this.sysUserService = sysUserService;
-        this.jwtService = jwtService;
+        this.authTokenService = authTokenService;
+        this.clientAddressResolver = clientAddressResolver;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<LoginResponse>> login(@Valid @RequestBody LoginRequest req) {
-        SysUser user = sysUserService.authenticate(req.getUsername(), req.getPassword());
+    public ResponseEntity<ApiResponse<LoginResponse>> login(@Valid @RequestBody LoginRequest req, HttpServletRequest request) {
+        SysUser user = sysUserService.authenticate(req.getUsername(), req.getPassword(), clientAddressResolver.resolve(request));
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.fail(40101, "unauthorized"));
         }
-        String token = jwtService.createToken(user.getId(), user.getUsername());
-        return ResponseEntity.ok(ApiResponse.ok(new LoginResponse(token)));
+        return ResponseEntity.ok(ApiResponse.ok(authTokenService.issue(user)));
     }
 
     @PostMapping("/register")
     public ResponseEntity<ApiResponse<LoginResponse>> register(@Valid @RequestBody RegisterRequest req) {
         SysUser user = sysUserService.register(req.getUsername(), req.getPassword(), req.getRealName());
-        String token = jwtService.createToken(user.getId(), user.getUsername());
-        return ResponseEntity.ok(ApiResponse.ok(new LoginResponse(token)));
+        return ResponseEntity.ok(ApiResponse.ok(authTokenService.issue(user)));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<LoginResponse>> refresh(@Valid @RequestBody RefreshTokenRequest req) {
+        LoginResponse resp = authTokenService.refresh(req.getRefreshToken());
+        if (resp == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.fail(40102, "refresh token invalid"));
+        }
+        return ResponseEntity.ok(ApiResponse.ok(resp));
+    }
+
+    @PostMapping("/logout")
+    public ApiResponse<Void> logout(@RequestBody(required = false) RefreshTokenRequest req, HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        String accessToken = header != null && header.startsWith("Bearer ") ? header.substring("Bearer ".length()) : null;
+        authTokenService.logout(accessToken, req == null ? null : req.getRefreshToken());
+        return ApiResponse.ok(null);
     }
 
     @GetMapping("/me")
@@ -0,0 +1,59 @@
+package com.example.dormitory.auth.model;
+
+public class RefreshToken {
+
+    private Long id;
+    private Long userId;
+    private String familyId;
+    private String tokenHash;
+    private long expiresAtMillis;
+    private Integer revoked;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public void setFamilyId(String familyId) {
+        this.familyId = familyId;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public void setExpiresAtMillis(long expiresAtMillis) {
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public Integer getRevoked() {
+        return revoked;
+    }
+
+    public void setRevoked(Integer revoked) {
+        this.revoked = revoked;
+    }
+}
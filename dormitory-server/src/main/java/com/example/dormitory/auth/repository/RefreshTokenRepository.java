@@ -0,0 +1,86 @@
+package com.example.dormitory.auth.repository;
+
+import com.example.dormitory.auth.model.RefreshToken;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+public class RefreshTokenRepository {
+
+    private static final RowMapper<RefreshToken> ROW_MAPPER = (rs, rowNum) -> {
+        RefreshToken t = new RefreshToken();
+        t.setId(rs.getLong(1));
+        t.setUserId(rs.getLong(2));
+        t.setFamilyId(rs.getString(3));
+        t.setTokenHash(rs.getString(4));
+        Timestamp exp = rs.getTimestamp(5);
+        t.setExpiresAtMillis(exp == null ? 0 : exp.getTime());
+        t.setRevoked(rs.getInt(6));
+        return t;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RefreshTokenRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public RefreshToken findByHashForUpdate(String tokenHash) {
+        List<RefreshToken> list = jdbcTemplate.query(
+                "SELECT id, user_id, family_id, token_hash, expires_at, revoked FROM sys_refresh_token WHERE token_hash=? LIMIT 1 FOR UPDATE",
+                ROW_MAPPER,
+                tokenHash
+        );
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    public Long insert(RefreshToken token) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO sys_refresh_token (user_id, family_id, token_hash, expires_at, revoked) VALUES (?,?,?,?,0)",
+                    Statement.RETURN_GENERATED_KEYS
+            );
+            ps.setLong(1, token.getUserId());
+            ps.setString(2, token.getFamilyId());
+            ps.setString(3, token.getTokenHash());
+            ps.setTimestamp(4, new Timestamp(token.getExpiresAtMillis()));
+            return ps;
+        }, keyHolder);
+        Number key = keyHolder.getKey();
+        return key == null ? null : key.longValue();
+    }
+
+    public int markReplaced(Long id, Long replacedBy, long nowMillis) {
+        return jdbcTemplate.update(
+                "UPDATE sys_refresh_token SET revoked=1, revoked_at=?, replaced_by=? WHERE id=? AND revoked=0",
+                new Timestamp(nowMillis),
+                replacedBy,
+                id
+        );
+    }
+
+    public int revokeFamily(String familyId, long nowMillis) {
+        return jdbcTemplate.update(
+                "UPDATE sys_refresh_token SET revoked=1, revoked_at=? WHERE family_id=? AND revoked=0",
+                new Timestamp(nowMillis),
+                familyId
+        );
+    }
+
+    public int deleteExpiredBefore(long cutoffMillis, int limit) {
+        return jdbcTemplate.update(
+                "DELETE FROM sys_refresh_token WHERE expires_at < ? LIMIT ?",
+                new Timestamp(cutoffMillis),
+                limit
+        );
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.dormitory.auth.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+public class TokenRevocationRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TokenRevocationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(String jti, Long userId, long expiresAtMillis) {
+        jdbcTemplate.update(
+                "INSERT IGNORE INTO sys_token_revocation (jti, user_id, expires_at) VALUES (?,?,?)",
+                jti,
+                userId,
+                new Timestamp(expiresAtMillis)
+        );
+    }
+
+    public List<String> findActiveJtis(long nowMillis) {
+        return jdbcTemplate.query(
+                "SELECT jti FROM sys_token_revocation WHERE expires_at > ?",
+                (rs, rowNum) -> rs.getString(1),
+                new Timestamp(nowMillis)
+        );
+    }
+
+    public int deleteExpiredBefore(long cutoffMillis, int limit) {
+        return jdbcTemplate.update(
+                "DELETE FROM sys_token_revocation WHERE expires_at < ? LIMIT ?",
+                new Timestamp(cutoffMillis),
+                limit
+        );
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.dormitory.auth.service;
+
+import com.example.dormitory.auth.model.RefreshToken;
+import com.example.dormitory.auth.repository.RefreshTokenRepository;
+import com.example.dormitory.auth.vo.LoginResponse;
+import com.example.dormitory.common.BizException;
+import com.example.dormitory.security.JwtProperties;
+import com.example.dormitory.security.JwtService;
+import com.example.dormitory.security.PrincipalCache;
+import com.example.dormitory.security.TokenRevocationList;
+import com.example.dormitory.sys.model.SysUser;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+@Service
+public class AuthTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthTokenService.class);
+
+    private final JwtService jwtService;
+    private final JwtProperties jwtProperties;
+    private final PrincipalCache principalCache;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationList revocationList;
+    private final SecureRandom random = new SecureRandom();
+
+    public AuthTokenService(JwtService jwtService, JwtProperties jwtProperties, PrincipalCache principalCache,
+                            RefreshTokenRepository refreshTokenRepository, TokenRevocationList revocationList) {
+        this.jwtService = jwtService;
+        this.jwtProperties = jwtProperties;
+        this.principalCache = principalCache;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.revocationList = revocationList;
+    }
+
+    @Transactional
+    public LoginResponse issue(SysUser user) {
+        String accessToken = createAccessToken(user.getId(), user.getUsername());
+        String refreshToken = createRefreshToken(user.getId(), UUID.randomUUID().toString(), null);
+        return new LoginResponse(accessToken, refreshToken, jwtService.getExpirationSeconds());
+    }
+
+    @Transactional
+    public LoginResponse refresh(String refreshToken) {
+        long now = System.currentTimeMillis();
+        RefreshToken current = refreshTokenRepository.findByHashForUpdate(hash(refreshToken));
+        if (current == null || current.getExpiresAtMillis() <= now) {
+            return null;
+        }
+        if (current.getRevoked() != null && current.getRevoked() == 1) {
+            log.warn("refresh token reuse detected: userId={}, family={}", current.getUserId(), current.getFamilyId());
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            return null;
+        }
+
+        PrincipalCache.AuthenticatedUser user = principalCache.get(current.getUserId(), null);
+        if (user == null) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            return null;
+        }
+
+        String accessToken = jwtService.createToken(user);
+        String nextRefreshToken = createRefreshToken(current.getUserId(), current.getFamilyId(), current.getId());
+        return new LoginResponse(accessToken, nextRefreshToken, jwtService.getExpirationSeconds());
+    }
+
+    @Transactional
+    public void logout(String accessToken, String refreshToken) {
+        long now = System.currentTimeMillis();
+        if (accessToken != null && !accessToken.isBlank()) {
+            try {
+                Claims claims = jwtService.verify(accessToken);
+                if (claims.getId() != null && claims.getExpiration() != null) {
+                    revocationList.revoke(claims.getId(), Long.valueOf(claims.getSubject()), claims.getExpiration().getTime());
+                }
+            } catch (Exception e) {
+                log.debug("logout with invalid access token: {}", e.getMessage());
+            }
+        }
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            RefreshToken current = refreshTokenRepository.findByHashForUpdate(hash(refreshToken));
+            if (current != null) {
+                refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-purge-millis:3600000}")
+    public void purgeExpiredRefreshTokens() {
+        try {
+            refreshTokenRepository.deleteExpiredBefore(System.currentTimeMillis(), 5000);
+        } catch (Exception e) {
+            log.warn("purge refresh tokens failed: {}", e.getMessage());
+        }
+    }
+
+    private String createAccessToken(Long userId, String username) {
+        PrincipalCache.AuthenticatedUser authenticated = principalCache.get(userId, username);
+        if (authenticated == null) {
+            return jwtService.createToken(userId, username);
+        }
+        return jwtService.createToken(authenticated);
+    }
+
+    private String createRefreshToken(Long userId, String familyId, Long replacesId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken t = new RefreshToken();
+        t.setUserId(userId);
+        t.setFamilyId(familyId);
+        t.setTokenHash(hash(token));
+        t.setExpiresAtMillis(System.currentTimeMillis() + jwtProperties.getRefreshExpirationSeconds() * 1000L);
+        Long id = refreshTokenRepository.insert(t);
+        if (id == null) {
+            throw new BizException(50000, "issue refresh token failed");
+        }
+        if (replacesId != null) {
+            refreshTokenRepository.markReplaced(replacesId, id, System.currentTimeMillis());
+        }
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
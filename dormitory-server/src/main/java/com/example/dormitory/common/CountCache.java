@@ -0,0 +1,69 @@
+package com.example.dormitory.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+@Component
+public class CountCache {
+
+    private final long ttlMillis;
+    private final ExpiringLruCache<String, Long> cache;
+    private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public CountCache(CountCacheProperties properties, MeterRegistry meterRegistry) {
+        this.ttlMillis = properties.getTtlSeconds() * 1000L;
+        this.cache = new ExpiringLruCache<>(properties.getMaxSize());
+        this.cache.bindTo(meterRegistry, "list.count");
+    }
+
+    public long count(List<String> tables, String sql, List<Object> args, LongSupplier loader) {
+        if (ttlMillis <= 0) {
+            return loader.getAsLong();
+        }
+        StringBuilder key = new StringBuilder(sql.length() + 64);
+        for (String table : tables) {
+            key.append(table).append('@').append(version(table).get()).append(';');
+        }
+        key.append(sql).append('|').append(args);
+        String k = key.toString();
+
+        Long cached = cache.get(k);
+        if (cached != null) {
+            return cached;
+        }
+        long value = loader.getAsLong();
+        cache.put(k, value, System.currentTimeMillis() + ttlMillis);
+        return value;
+    }
+
+    public int afterWrite(String table, int affected) {
+        if (affected > 0) {
+            invalidate(table);
+        }
+        return affected;
+    }
+
+    public void invalidate(String table) {
+        AtomicLong v = version(table);
+        v.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    v.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private AtomicLong version(String table) {
+        return versions.computeIfAbsent(table, t -> new AtomicLong());
+    }
+}
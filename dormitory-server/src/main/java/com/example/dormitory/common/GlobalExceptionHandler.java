@@ -1,7 +1,9 @@
 package com.example.dormitory.common;
 
+import com.example.dormitory.common.export.ExportAbortedException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -34,6 +36,13 @@ public class GlobalExceptionHandler {
                  .body(ApiResponse.fail(ex.getCode(), ex.getMessage()));
      }
 
+     @ExceptionHandler(TooManyRequestsException.class)
+     public ResponseEntity<ApiResponse<Void>> handleTooManyRequests(TooManyRequestsException ex) {
+         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                 .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                 .body(ApiResponse.fail(ex.getCode(), ex.getMessage()));
+     }
+
      @ExceptionHandler(DataIntegrityViolationException.class)
      public ResponseEntity<ApiResponse<Void>> handleDataIntegrity(DataIntegrityViolationException ex) {
          return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -52,6 +61,12 @@ public class GlobalExceptionHandler {
         return ApiResponse.fail(40301, "forbidden");
     }
 
+    @ExceptionHandler(ExportAbortedException.class)
+    public void handleExportAborted(ExportAbortedException ex) {
+        // The export response is already committed; let the container close the connection mid-stream.
+        throw ex;
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ApiResponse<Void> handleAny(Exception ex) {
@@ -0,0 +1,51 @@
+package com.example.dormitory.common;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+public final class JdbcRows {
+
+    private JdbcRows() {
+    }
+
+    public static Long getLong(ResultSet rs, int column) throws SQLException {
+        long v = rs.getLong(column);
+        return rs.wasNull() ? null : v;
+    }
+
+    public static Integer getInt(ResultSet rs, int column) throws SQLException {
+        int v = rs.getInt(column);
+        return rs.wasNull() ? null : v;
+    }
+
+    public static LocalDateTime getLocalDateTime(ResultSet rs, int column) throws SQLException {
+        Timestamp t = rs.getTimestamp(column);
+        return t == null ? null : t.toLocalDateTime();
+    }
+
+    /**
+     * Runs the query with a forward-only, MySQL streaming result set (fetch size {@code Integer.MIN_VALUE}) and hands
+     * each mapped row to the consumer, so rows are never materialized as a list. The connection cannot run other
+     * statements until the stream has been fully read.
+     */
+    public static <T> void stream(JdbcTemplate jdbcTemplate, String sql, List<Object> args, RowMapper<T> mapper, Consumer<? super T> consumer) {
+        int[] rowNum = {0};
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapper.mapRow(rs, rowNum[0]++)));
+    }
+}
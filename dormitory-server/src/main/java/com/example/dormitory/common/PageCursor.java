@@ -0,0 +1,100 @@
+package com.example.dormitory.common;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+public final class PageCursor {
+
+    private final long id;
+    private final Object value;
+
+    private PageCursor(long id, Object value) {
+        this.id = id;
+        this.value = value;
+    }
+
+    public static PageCursor decode(String token, SortSpec<?> sort) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BizException(40001, "invalid cursor");
+        }
+        String[] parts = raw.split("\n", 4);
+        if (parts.length != 4) {
+            throw new BizException(40001, "invalid cursor");
+        }
+        if (!parts[0].equals(sort.signature())) {
+            throw new BizException(40001, "cursor does not match sort");
+        }
+        try {
+            long id = Long.parseLong(parts[1]);
+            Object value = switch (parts[2]) {
+                case "N" -> null;
+                case "L" -> Long.valueOf(parts[3]);
+                case "T" -> LocalDateTime.parse(parts[3]);
+                case "S" -> parts[3];
+                default -> throw new IllegalArgumentException(parts[2]);
+            };
+            return new PageCursor(id, value);
+        } catch (RuntimeException e) {
+            throw new BizException(40001, "invalid cursor");
+        }
+    }
+
+    public static <T> String encode(SortSpec<T> sort, T row) {
+        Object v = sort.isIdOnly() ? null : sort.valueOf(row);
+        String type;
+        String text;
+        if (v == null) {
+            type = "N";
+            text = "";
+        } else if (v instanceof Number n) {
+            type = "L";
+            text = String.valueOf(n.longValue());
+        } else if (v instanceof LocalDateTime t) {
+            type = "T";
+            text = t.toString();
+        } else {
+            type = "S";
+            text = v.toString();
+        }
+        String raw = sort.signature() + "\n" + sort.idOf(row) + "\n" + type + "\n" + text;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void appendSeek(StringBuilder sql, List<Object> args, SortSpec<?> sort) {
+        String idCol = sort.getIdColumn();
+        String col = sort.getColumn();
+        String cmp = sort.isAsc() ? ">" : "<";
+        if (sort.isIdOnly()) {
+            sql.append(" AND ").append(idCol).append(cmp).append("?");
+            args.add(id);
+            return;
+        }
+        if (value == null) {
+            if (sort.isAsc()) {
+                sql.append(" AND ((").append(col).append(" IS NULL AND ").append(idCol).append(">?) OR ").append(col).append(" IS NOT NULL)");
+            } else {
+                sql.append(" AND ").append(col).append(" IS NULL AND ").append(idCol).append("<?");
+            }
+            args.add(id);
+            return;
+        }
+        Object param = value instanceof LocalDateTime t ? Timestamp.valueOf(t) : value;
+        sql.append(" AND (").append(col).append(cmp).append("? OR (").append(col).append("=? AND ").append(idCol).append(cmp).append("?)");
+        if (!sort.isAsc()) {
+            sql.append(" OR ").append(col).append(" IS NULL");
+        }
+        sql.append(")");
+        args.add(param);
+        args.add(param);
+        args.add(id);
+    }
+}
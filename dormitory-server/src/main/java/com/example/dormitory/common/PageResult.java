@@ -7,12 +7,14 @@ public class PageResult<T> {
     private List<T> list;
     private int page;
     private int pageSize;
-    private long total;
+    private Long total;
+    private Boolean hasMore;
+    private String nextCursor;
 
     public PageResult() {
     }
 
-    public PageResult(List<T> list, int page, int pageSize, long total) {
+    public PageResult(List<T> list, int page, int pageSize, Long total) {
         this.list = list;
         this.page = page;
         this.pageSize = pageSize;
@@ -43,11 +45,27 @@ public class PageResult<T> {
         this.pageSize = pageSize;
     }
 
-    public long getTotal() {
+    public Long getTotal() {
         return total;
     }
 
-    public void setTotal(long total) {
+    public void setTotal(Long total) {
         this.total = total;
     }
+
+    public Boolean getHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(Boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
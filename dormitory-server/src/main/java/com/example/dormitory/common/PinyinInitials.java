@@ -0,0 +1,67 @@
+package com.example.dormitory.common;
+
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+
+/**
+ * Pinyin initials for GB2312 level-1 hanzi, resolved by their position in the pinyin-sorted code block. Level-2
+ * characters and polyphones beyond their first reading are not covered; unmapped hanzi are skipped.
+ */
+public final class PinyinInitials {
+
+    private static final int[] BOUNDARIES = {
+            0xB0A1, 0xB0C5, 0xB2C1, 0xB4EE, 0xB6EA, 0xB7A2, 0xB8C1, 0xB9FE, 0xBBF7, 0xBFA6, 0xC0AC, 0xC2E8,
+            0xC4C3, 0xC5B6, 0xC5BE, 0xC6DA, 0xC8BB, 0xC8F6, 0xCBFA, 0xCDDA, 0xCEF4, 0xD1B9, 0xD4D1, 0xD7FA
+    };
+    private static final char[] LETTERS = "abcdefghjklmnopqrstwxyz".toCharArray();
+    private static final Charset GB2312 = Charset.isSupported("GB2312") ? Charset.forName("GB2312") : null;
+
+    private PinyinInitials() {
+    }
+
+    public static boolean isSupported() {
+        return GB2312 != null;
+    }
+
+    public static String of(String text) {
+        if (text == null || text.isEmpty() || GB2312 == null) {
+            return "";
+        }
+        CharsetEncoder encoder = GB2312.newEncoder();
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if (Character.isLetterOrDigit(c)) {
+                    sb.append(Character.toLowerCase(c));
+                }
+                continue;
+            }
+            char initial = initial(encoder, c);
+            if (initial != 0) {
+                sb.append(initial);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static char initial(CharsetEncoder encoder, char c) {
+        if (!encoder.canEncode(c)) {
+            return 0;
+        }
+        byte[] bytes = String.valueOf(c).getBytes(GB2312);
+        if (bytes.length != 2) {
+            return 0;
+        }
+        int code = ((bytes[0] & 0xFF) << 8) | (bytes[1] & 0xFF);
+        if (code < BOUNDARIES[0] || code >= BOUNDARIES[BOUNDARIES.length - 1]) {
+            return 0;
+        }
+        for (int i = LETTERS.length - 1; i >= 0; i--) {
+            if (code >= BOUNDARIES[i]) {
+                return LETTERS[i];
+            }
+        }
+        return 0;
+    }
+}
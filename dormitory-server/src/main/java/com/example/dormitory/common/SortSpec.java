@@ -0,0 +1,63 @@
+package com.example.dormitory.common;
+
+import java.util.function.Function;
+
+public class SortSpec<T> {
+
+    private final String key;
+    private final String column;
+    private final String idColumn;
+    private final boolean asc;
+    private final Function<T, Object> valueOf;
+    private final Function<T, Long> idOf;
+
+    public SortSpec(String key, String column, String idColumn, boolean asc,
+                    Function<T, Object> valueOf, Function<T, Long> idOf) {
+        this.key = key;
+        this.column = column;
+        this.idColumn = idColumn;
+        this.asc = asc;
+        this.valueOf = valueOf;
+        this.idOf = idOf;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getIdColumn() {
+        return idColumn;
+    }
+
+    public boolean isAsc() {
+        return asc;
+    }
+
+    public boolean isIdOnly() {
+        return column.equals(idColumn);
+    }
+
+    public String signature() {
+        return key + "." + (asc ? "asc" : "desc");
+    }
+
+    public String orderBy() {
+        String dir = asc ? " asc" : " desc";
+        if (isIdOnly()) {
+            return idColumn + dir;
+        }
+        return column + dir + ", " + idColumn + dir;
+    }
+
+    public Object valueOf(T row) {
+        return valueOf.apply(row);
+    }
+
+    public Long idOf(T row) {
+        return idOf.apply(row);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.dormitory.common;
+
+public class TooManyRequestsException extends BizException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(int code, String message, long retryAfterSeconds) {
+        super(code, message);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.dormitory.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class ReplicaHealth implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHealth.class);
+
+    private final HikariDataSource dataSource;
+    private final long maxLagSeconds;
+    private final boolean allowStandalone;
+    private volatile boolean available;
+    private volatile long lagSeconds = -1;
+
+    public ReplicaHealth(ReplicaProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setPoolName("replica");
+        ds.setJdbcUrl(properties.getUrl());
+        ds.setUsername(properties.getUsername());
+        ds.setPassword(properties.getPassword());
+        ds.setMaximumPoolSize(properties.getMaxPoolSize());
+        ds.setConnectionTimeout(Math.max(250, properties.getConnectionTimeoutMillis()));
+        ds.setReadOnly(true);
+        // Start even if the replica is down; reads stay on the primary until a check passes.
+        ds.setInitializationFailTimeout(-1);
+        this.dataSource = ds;
+        this.maxLagSeconds = properties.getMaxLagSeconds();
+        this.allowStandalone = properties.isAllowStandalone();
+        Gauge.builder("datasource.replica.available", this, h -> h.available ? 1 : 0).register(meterRegistry);
+        Gauge.builder("datasource.replica.lag.seconds", this, h -> h.lagSeconds).register(meterRegistry);
+    }
+
+    public HikariDataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.health-check-millis:5000}")
+    public void check() {
+        try (Connection con = dataSource.getConnection(); Statement st = con.createStatement()) {
+            Long lag = readLag(st);
+            if (lag == null) {
+                markDown("replication is not running");
+                return;
+            }
+            lagSeconds = lag;
+            if (lag > maxLagSeconds) {
+                markDown("lag " + lag + "s exceeds " + maxLagSeconds + "s");
+                return;
+            }
+            if (!available) {
+                log.info("replica available: lag={}s", lag);
+            }
+            available = true;
+        } catch (SQLException e) {
+            lagSeconds = -1;
+            markDown(e.getMessage());
+        }
+    }
+
+    public void markDown(String reason) {
+        if (available) {
+            log.warn("replica unavailable, routing reads to primary: {}", reason);
+        }
+        available = false;
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+
+    private Long readLag(Statement st) throws SQLException {
+        try (ResultSet rs = st.executeQuery("SHOW REPLICA STATUS")) {
+            return readLag(rs, "Seconds_Behind_Source");
+        } catch (SQLException e) {
+            // MySQL before 8.0.22
+            try (ResultSet rs = st.executeQuery("SHOW SLAVE STATUS")) {
+                return readLag(rs, "Seconds_Behind_Master");
+            }
+        }
+    }
+
+    private Long readLag(ResultSet rs, String column) throws SQLException {
+        if (!rs.next()) {
+            // No replication configured: the URL points at a standalone or wrong server.
+            return allowStandalone ? 0L : null;
+        }
+        long lag = rs.getLong(column);
+        return rs.wasNull() ? null : lag;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.dormitory.common.datasource;
+
+import com.example.dormitory.common.AfterCommit;
+import com.example.dormitory.common.ExpiringLruCache;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the primary.
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the
+ * transaction's read-only flag is known when the physical connection is fetched.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReplicaHealth replica;
+    private final Supplier<Object> sessionKey;
+    private final long stickyMillis;
+    private final ExpiringLruCache<Object, Boolean> recentWriters = new ExpiringLruCache<>(10000);
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaHealth replica, Supplier<Object> sessionKey, ReplicaProperties properties) {
+        this.primary = primary;
+        this.replica = replica;
+        this.sessionKey = sessionKey;
+        // Once the replica is within maxLag and the lag reading is at most one check old, a session's
+        // own commits are visible there; until then its read-only transactions stay on the primary.
+        this.stickyMillis = properties.getMaxLagSeconds() * 1000L + properties.getHealthCheckMillis();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!useReplica()) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getDataSource().getConnection();
+        } catch (SQLException e) {
+            replica.markDown(e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    private boolean useReplica() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        Object key = sessionKey.get();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (key != null) {
+                AfterCommit.run(() -> recentWriters.put(key, Boolean.TRUE, System.currentTimeMillis() + stickyMillis));
+            }
+            return false;
+        }
+        if (!replica.isAvailable()) {
+            return false;
+        }
+        return key == null || recentWriters.get(key) == null;
+    }
+}
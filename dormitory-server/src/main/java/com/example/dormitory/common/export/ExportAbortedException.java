@@ -0,0 +1,19 @@
+package com.example.dormitory.common.export;
+
+/**
+ * Thrown when an export fails after part of it has already been sent. It must reach the servlet container unhandled so
+ * the connection is closed without completing the response.
+ */
+public class ExportAbortedException extends RuntimeException {
+
+    private final long rowsWritten;
+
+    public ExportAbortedException(long rowsWritten, Throwable cause) {
+        super("export aborted after " + rowsWritten + " rows", cause);
+        this.rowsWritten = rowsWritten;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+}
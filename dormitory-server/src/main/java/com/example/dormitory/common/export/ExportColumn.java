@@ -0,0 +1,26 @@
+package com.example.dormitory.common.export;
+
+import java.util.function.Function;
+
+public final class ExportColumn<T> {
+
+    private final String header;
+    private final Function<T, ?> getter;
+
+    private ExportColumn(String header, Function<T, ?> getter) {
+        this.header = header;
+        this.getter = getter;
+    }
+
+    public static <T> ExportColumn<T> of(String header, Function<T, ?> getter) {
+        return new ExportColumn<>(header, getter);
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public Object valueOf(T row) {
+        return getter.apply(row);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.dormitory.common.export;
+
+import com.example.dormitory.common.BizException;
+
+public enum ExportFormat {
+
+    CSV("text/csv;charset=UTF-8", "csv"),
+    NDJSON("application/x-ndjson;charset=UTF-8", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat parse(String format) {
+        if (format == null || format.isBlank()) {
+            return CSV;
+        }
+        for (ExportFormat f : values()) {
+            if (f.extension.equalsIgnoreCase(format.trim())) {
+                return f;
+            }
+        }
+        throw new BizException(40001, "invalid export format");
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.dormitory.common.export;
+
+import com.example.dormitory.common.csv.CsvWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes rows straight to the servlet response as they arrive from a streaming query, so memory use does not depend
+ * on the number of exported rows.
+ * <p>
+ * The streaming query keeps its pooled connection checked out until the last row has been written to the client, so
+ * a slow download holds a primary pool connection for its whole duration; concurrent exports count against the same
+ * pool as ordinary requests.
+ * <p>
+ * Use {@link #write} to run the query. A failure before the response is committed resets it so the usual error body
+ * is returned; a failure after that appends a {@value #FAILURE_MARKER} row (CSV) or an {@code error} line (NDJSON)
+ * and rethrows as {@link ExportAbortedException}, which lets the container drop the connection instead of ending the
+ * response cleanly, so clients can tell a truncated file from a complete one.
+ */
+public class ExportWriter<T> implements Consumer<T>, Closeable {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter FILE_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    static final String FAILURE_MARKER = "#EXPORT_FAILED";
+
+    private final HttpServletResponse response;
+    private final Writer writer;
+    private final List<ExportColumn<T>> columns;
+    private final CsvWriter csv;
+    private final JsonGenerator json;
+    private final ObjectWriter rowWriter;
+    private final List<Object> values;
+    private long rowCount;
+    private boolean failed;
+
+    private ExportWriter(HttpServletResponse response, Writer writer, ExportFormat format, List<ExportColumn<T>> columns, ObjectMapper objectMapper) throws IOException {
+        this.response = response;
+        this.writer = writer;
+        this.columns = columns;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.values = new ArrayList<>(columns.size());
+        if (format == ExportFormat.CSV) {
+            this.csv = new CsvWriter(writer);
+            this.json = null;
+            writer.write('\uFEFF');
+            List<String> headers = new ArrayList<>(columns.size());
+            for (ExportColumn<T> column : columns) {
+                headers.add(column.getHeader());
+            }
+            csv.writeRow(headers);
+        } else {
+            this.csv = null;
+            this.json = objectMapper.getFactory().createGenerator(writer);
+            this.json.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+    }
+
+    public static <T> ExportWriter<T> open(HttpServletResponse response, String baseName, ExportFormat format, boolean gzip,
+                                           List<ExportColumn<T>> columns, ObjectMapper objectMapper) throws IOException {
+        String fileName = baseName + "-" + LocalDateTime.now().format(FILE_SUFFIX) + "." + format.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : format.getContentType());
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+        response.setHeader("Cache-Control", "no-store");
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE, true);
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        return new ExportWriter<>(response, writer, format, columns, objectMapper);
+    }
+
+    @Override
+    public void accept(T row) {
+        try {
+            if (csv != null) {
+                values.clear();
+                for (ExportColumn<T> column : columns) {
+                    Object v = column.valueOf(row);
+                    values.add(v instanceof LocalDateTime t ? t.format(DATE_TIME) : v);
+                }
+                csv.writeRow(values);
+            } else {
+                rowWriter.writeValue(json, row);
+                json.writeRaw('\n');
+            }
+            rowCount++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Feeds this writer from {@code source} and completes the response, or aborts it as described on the class.
+     */
+    public void write(Consumer<Consumer<T>> source) throws IOException {
+        try {
+            source.accept(this);
+        } catch (RuntimeException e) {
+            abort(e);
+        }
+        close();
+    }
+
+    private void abort(RuntimeException cause) throws IOException {
+        failed = true;
+        if (!response.isCommitted()) {
+            response.reset();
+            throw cause;
+        }
+        try {
+            if (csv != null) {
+                csv.writeRow(List.of(FAILURE_MARKER, rowCount));
+            } else {
+                json.writeStartObject();
+                json.writeStringField("error", "export failed");
+                json.writeNumberField("rows", rowCount);
+                json.writeEndObject();
+                json.writeRaw('\n');
+                json.flush();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+        throw new ExportAbortedException(rowCount, cause);
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (failed) {
+            return;
+        }
+        if (json != null) {
+            json.flush();
+        }
+        writer.close();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.dormitory.config;
+
+import com.example.dormitory.common.CountCacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CountCacheProperties.class)
+public class CacheConfig {
+}
@@ -0,0 +1,48 @@
+package com.example.dormitory.config;
+
+import com.example.dormitory.common.datasource.ReplicaHealth;
+import com.example.dormitory.common.datasource.ReplicaProperties;
+import com.example.dormitory.common.datasource.ReplicaRoutingDataSource;
+import com.example.dormitory.security.SecurityUtils;
+import com.example.dormitory.security.UserPrincipal;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class DataSourceConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaHealth replicaHealth(ReplicaProperties properties, MeterRegistry meterRegistry) {
+        return new ReplicaHealth(properties, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaHealth replicaHealth, ReplicaProperties properties) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, replicaHealth, () -> {
+            UserPrincipal user = SecurityUtils.currentUser();
+            return user == null ? null : user.getId();
+        }, properties);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.dormitory.config;
+
+import com.example.dormitory.dorm.service.BedHoldProperties;
+import com.example.dormitory.dorm.service.DormCheckInProperties;
+import com.example.dormitory.dorm.service.DormCheckOutProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({DormCheckInProperties.class, DormCheckOutProperties.class, BedHoldProperties.class})
+public class DormConfig {
+}
@@ -2,6 +2,8 @@ package com.example.dormitory.config;
 
 import com.example.dormitory.security.JwtAuthenticationFilter;
 import com.example.dormitory.security.JwtProperties;
+import com.example.dormitory.security.LoginProperties;
+import com.example.dormitory.security.PrincipalCacheProperties;
 import com.example.dormitory.security.RestAccessDeniedHandler;
 import com.example.dormitory.security.RestAuthenticationEntryPoint;
 import org.springframework.context.annotation.Bean;
@@ -26,7 +28,7 @@ import java.util.List;
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
-@EnableConfigurationProperties(JwtProperties.class)
+@EnableConfigurationProperties({JwtProperties.class, PrincipalCacheProperties.class, LoginProperties.class})
 public class SecurityConfig {
 
     @Bean
@@ -52,6 +54,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/v1/ping").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/v1/auth/login").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/v1/auth/register").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/v1/auth/refresh").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/v1/auth/logout").permitAll()
                         .requestMatchers("/api/v1/**").authenticated()
                         .anyRequest().permitAll()
                 );
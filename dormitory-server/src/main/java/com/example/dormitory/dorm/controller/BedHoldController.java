@@ -0,0 +1,46 @@
+package com.example.dormitory.dorm.controller;
+
+import com.example.dormitory.common.ApiResponse;
+import com.example.dormitory.dorm.dto.ConfirmBedHoldRequest;
+import com.example.dormitory.dorm.dto.CreateBedHoldRequest;
+import com.example.dormitory.dorm.service.BedHoldService;
+import com.example.dormitory.dorm.vo.BedHoldVo;
+import com.example.dormitory.dorm.vo.DormAssignmentVo;
+import jakarta.validation.Valid;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/dorm/bed-holds")
+public class BedHoldController {
+
+    private final BedHoldService bedHoldService;
+
+    public BedHoldController(BedHoldService bedHoldService) {
+        this.bedHoldService = bedHoldService;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAuthority('dorm:assignment:write')")
+    public ApiResponse<BedHoldVo> hold(@Valid @RequestBody CreateBedHoldRequest req) {
+        return ApiResponse.ok(bedHoldService.hold(req));
+    }
+
+    @DeleteMapping("/{holdId}")
+    @PreAuthorize("hasAuthority('dorm:assignment:write')")
+    public ApiResponse<Void> release(@PathVariable String holdId) {
+        bedHoldService.release(holdId);
+        return ApiResponse.ok(null);
+    }
+
+    @PostMapping("/{holdId}/confirm")
+    @PreAuthorize("hasAuthority('dorm:assignment:write')")
+    public ApiResponse<DormAssignmentVo> confirm(@PathVariable String holdId, @RequestBody(required = false) ConfirmBedHoldRequest req) {
+        return ApiResponse.ok(bedHoldService.confirm(holdId, req));
+    }
+}
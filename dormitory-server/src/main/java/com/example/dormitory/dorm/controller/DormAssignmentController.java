@@ -2,10 +2,22 @@ package com.example.dormitory.dorm.controller;
 
 import com.example.dormitory.common.ApiResponse;
 import com.example.dormitory.common.PageResult;
+import com.example.dormitory.common.export.ExportFormat;
+import com.example.dormitory.common.export.ExportWriter;
 import com.example.dormitory.dorm.dto.CreateDormAssignmentRequest;
+import com.example.dormitory.dorm.dto.DormAllocationRequest;
+import com.example.dormitory.dorm.dto.DormReshuffleRequest;
+import com.example.dormitory.dorm.dto.DormSwapRequest;
+import com.example.dormitory.dorm.dto.DormTransferRequest;
 import com.example.dormitory.dorm.dto.EndDormAssignmentRequest;
+import com.example.dormitory.dorm.service.DormAllocationService;
 import com.example.dormitory.dorm.service.DormAssignmentService;
+import com.example.dormitory.dorm.service.DormCheckInService;
+import com.example.dormitory.dorm.service.DormTransferService;
+import com.example.dormitory.dorm.vo.DormAllocationResultVo;
 import com.example.dormitory.dorm.vo.DormAssignmentVo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,14 +28,26 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/dorm/assignments")
 public class DormAssignmentController {
 
     private final DormAssignmentService dormAssignmentService;
+    private final DormAllocationService dormAllocationService;
+    private final DormCheckInService dormCheckInService;
+    private final DormTransferService dormTransferService;
+    private final ObjectMapper objectMapper;
 
-    public DormAssignmentController(DormAssignmentService dormAssignmentService) {
+    public DormAssignmentController(DormAssignmentService dormAssignmentService, DormAllocationService dormAllocationService,
+                                    DormCheckInService dormCheckInService, DormTransferService dormTransferService, ObjectMapper objectMapper) {
         this.dormAssignmentService = dormAssignmentService;
+        this.dormAllocationService = dormAllocationService;
+        this.dormCheckInService = dormCheckInService;
+        this.dormTransferService = dormTransferService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -37,9 +61,28 @@ public class DormAssignmentController {
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer pageSize,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(required = false) String sortOrder
+            @RequestParam(required = false) String sortOrder,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Boolean withTotal
     ) {
-        return ApiResponse.ok(dormAssignmentService.list(studentId, buildingId, roomId, bedId, status, page, pageSize, sortBy, sortOrder));
+        return ApiResponse.ok(dormAssignmentService.list(studentId, buildingId, roomId, bedId, status, page, pageSize, sortBy, sortOrder, cursor, withTotal));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('dorm:assignment:read')")
+    public void export(
+            @RequestParam(required = false) Long studentId,
+            @RequestParam(required = false) Long buildingId,
+            @RequestParam(required = false) Long roomId,
+            @RequestParam(required = false) Long bedId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) Boolean gzip,
+            HttpServletResponse response
+    ) throws IOException {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        ExportWriter.open(response, "assignments", exportFormat, Boolean.TRUE.equals(gzip), DormAssignmentService.EXPORT_COLUMNS, objectMapper)
+                .write(writer -> dormAssignmentService.export(studentId, buildingId, roomId, bedId, status, writer));
     }
 
     @GetMapping("/{id}")
@@ -54,6 +97,36 @@ public class DormAssignmentController {
         return ApiResponse.ok(dormAssignmentService.create(req));
     }
 
+    @PostMapping("/check-in")
+    @PreAuthorize("hasAuthority('dorm:assignment:write')")
+    public ApiResponse<DormAssignmentVo> checkIn(@Valid @RequestBody CreateDormAssignmentRequest req) {
+        return ApiResponse.ok(dormCheckInService.checkIn(req));
+    }
+
+    @PostMapping("/allocate")
+    @PreAuthorize("hasAuthority('dorm:assignment:write')")
+    public ApiResponse<DormAllocationResultVo> allocate(@Valid @RequestBody DormAllocationRequest req) {
+        return ApiResponse.ok(dormAllocationService.allocate(req));
+    }
+
+    @PostMapping("/transfer")
+    @PreAuthorize("hasAuthority('dorm:assignment:write')")
+    public ApiResponse<DormAssignmentVo> transfer(@Valid @RequestBody DormTransferRequest req) {
+        return ApiResponse.ok(dormTransferService.transfer(req));
+    }
+
+    @PostMapping("/swap")
+    @PreAuthorize("hasAuthority('dorm:assignment:write')")
+    public ApiResponse<List<DormAssignmentVo>> swap(@Valid @RequestBody DormSwapRequest req) {
+        return ApiResponse.ok(dormTransferService.swap(req));
+    }
+
+    @PostMapping("/reshuffle")
+    @PreAuthorize("hasAuthority('dorm:assignment:write')")
+    public ApiResponse<List<DormAssignmentVo>> reshuffle(@Valid @RequestBody DormReshuffleRequest req) {
+        return ApiResponse.ok(dormTransferService.reshuffle(req));
+    }
+
     @PostMapping("/{id}/end")
     @PreAuthorize("hasAuthority('dorm:assignment:write')")
     public ApiResponse<DormAssignmentVo> end(@PathVariable Long id, @RequestBody(required = false) EndDormAssignmentRequest req) {
@@ -5,6 +5,8 @@ import com.example.dormitory.common.PageResult;
 import com.example.dormitory.dorm.dto.CreateDormBedRequest;
 import com.example.dormitory.dorm.dto.UpdateDormBedRequest;
 import com.example.dormitory.dorm.service.DormBedService;
+import com.example.dormitory.dorm.vo.AvailableBedVo;
+import com.example.dormitory.dorm.vo.BedOccupancyVo;
 import com.example.dormitory.dorm.vo.DormBedVo;
 import jakarta.validation.Valid;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,6 +20,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/dorm/beds")
 public class DormBedController {
@@ -38,9 +42,36 @@ public class DormBedController {
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer pageSize,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(required = false) String sortOrder
+            @RequestParam(required = false) String sortOrder,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Boolean withTotal
+    ) {
+        return ApiResponse.ok(dormBedService.list(buildingId, roomId, status, keyword, page, pageSize, sortBy, sortOrder, cursor, withTotal));
+    }
+
+    @GetMapping("/available")
+    @PreAuthorize("hasAuthority('dorm:bed:read')")
+    public ApiResponse<List<AvailableBedVo>> available(
+            @RequestParam(required = false) Long studentId,
+            @RequestParam(required = false) String gender,
+            @RequestParam(required = false) Long buildingId,
+            @RequestParam(required = false) Integer floorFrom,
+            @RequestParam(required = false) Integer floorTo,
+            @RequestParam(required = false) String roomType,
+            @RequestParam(required = false) Boolean classmatesOnly,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ApiResponse.ok(dormBedService.available(studentId, gender, buildingId, floorFrom, floorTo, roomType, classmatesOnly, limit));
+    }
+
+    @GetMapping("/occupancy")
+    @PreAuthorize("hasAuthority('dorm:bed:read')")
+    public ApiResponse<List<BedOccupancyVo>> occupancy(
+            @RequestParam(required = false) Long buildingId,
+            @RequestParam(required = false) Integer floorNo,
+            @RequestParam(required = false) String groupBy
     ) {
-        return ApiResponse.ok(dormBedService.list(buildingId, roomId, status, keyword, page, pageSize, sortBy, sortOrder));
+        return ApiResponse.ok(dormBedService.occupancy(buildingId, floorNo, groupBy));
     }
 
     @GetMapping("/{id}")
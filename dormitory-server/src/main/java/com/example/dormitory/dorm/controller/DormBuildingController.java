@@ -3,9 +3,12 @@ package com.example.dormitory.dorm.controller;
 import com.example.dormitory.common.ApiResponse;
 import com.example.dormitory.common.PageResult;
 import com.example.dormitory.dorm.dto.CreateDormBuildingRequest;
+import com.example.dormitory.dorm.dto.DormLayoutRequest;
 import com.example.dormitory.dorm.dto.UpdateDormBuildingRequest;
 import com.example.dormitory.dorm.service.DormBuildingService;
+import com.example.dormitory.dorm.service.DormLayoutService;
 import com.example.dormitory.dorm.vo.DormBuildingVo;
+import com.example.dormitory.dorm.vo.DormLayoutResultVo;
 import jakarta.validation.Valid;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -23,9 +26,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class DormBuildingController {
 
     private final DormBuildingService dormBuildingService;
+    private final DormLayoutService dormLayoutService;
 
-    public DormBuildingController(DormBuildingService dormBuildingService) {
+    public DormBuildingController(DormBuildingService dormBuildingService, DormLayoutService dormLayoutService) {
         this.dormBuildingService = dormBuildingService;
+        this.dormLayoutService = dormLayoutService;
     }
 
     @GetMapping
@@ -36,9 +41,11 @@ public class DormBuildingController {
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer pageSize,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(required = false) String sortOrder
+            @RequestParam(required = false) String sortOrder,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Boolean withTotal
     ) {
-        return ApiResponse.ok(dormBuildingService.list(keyword, genderLimit, page, pageSize, sortBy, sortOrder));
+        return ApiResponse.ok(dormBuildingService.list(keyword, genderLimit, page, pageSize, sortBy, sortOrder, cursor, withTotal));
     }
 
     @GetMapping("/{id}")
@@ -53,6 +60,12 @@ public class DormBuildingController {
         return ApiResponse.ok(dormBuildingService.create(req));
     }
 
+    @PostMapping("/{id}/layout")
+    @PreAuthorize("hasAuthority('dorm:room:write') and hasAuthority('dorm:bed:write')")
+    public ApiResponse<DormLayoutResultVo> layout(@PathVariable Long id, @Valid @RequestBody DormLayoutRequest req) {
+        return ApiResponse.ok(dormLayoutService.generate(id, req));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('dorm:building:write')")
     public ApiResponse<DormBuildingVo> update(@PathVariable Long id, @Valid @RequestBody UpdateDormBuildingRequest req) {
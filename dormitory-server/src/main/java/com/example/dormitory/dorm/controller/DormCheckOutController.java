@@ -0,0 +1,43 @@
+package com.example.dormitory.dorm.controller;
+
+import com.example.dormitory.common.ApiResponse;
+import com.example.dormitory.dorm.dto.DormCheckOutRequest;
+import com.example.dormitory.dorm.service.DormCheckOutService;
+import com.example.dormitory.dorm.vo.DormCheckOutJobVo;
+import jakarta.validation.Valid;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/dorm/assignments/check-out")
+public class DormCheckOutController {
+
+    private final DormCheckOutService dormCheckOutService;
+
+    public DormCheckOutController(DormCheckOutService dormCheckOutService) {
+        this.dormCheckOutService = dormCheckOutService;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAuthority('dorm:assignment:write')")
+    public ApiResponse<DormCheckOutJobVo> start(@Valid @RequestBody DormCheckOutRequest req) {
+        return ApiResponse.ok(dormCheckOutService.start(req));
+    }
+
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasAuthority('dorm:assignment:read')")
+    public ApiResponse<DormCheckOutJobVo> get(@PathVariable Long jobId) {
+        return ApiResponse.ok(dormCheckOutService.get(jobId));
+    }
+
+    @PostMapping("/{jobId}/resume")
+    @PreAuthorize("hasAuthority('dorm:assignment:write')")
+    public ApiResponse<DormCheckOutJobVo> resume(@PathVariable Long jobId) {
+        return ApiResponse.ok(dormCheckOutService.resume(jobId));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.dormitory.dorm.controller;
+
+import com.example.dormitory.common.ApiResponse;
+import com.example.dormitory.dorm.service.DormOccupancyHistoryService;
+import com.example.dormitory.dorm.vo.DormAssignmentVo;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/dorm/occupancy-history")
+public class DormOccupancyHistoryController {
+
+    private final DormOccupancyHistoryService dormOccupancyHistoryService;
+
+    public DormOccupancyHistoryController(DormOccupancyHistoryService dormOccupancyHistoryService) {
+        this.dormOccupancyHistoryService = dormOccupancyHistoryService;
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAuthority('dorm:assignment:read')")
+    public ApiResponse<List<DormAssignmentVo>> occupants(
+            @RequestParam(required = false) Long bedId,
+            @RequestParam(required = false) Long roomId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        return ApiResponse.ok(dormOccupancyHistoryService.occupants(bedId, roomId, at, from, to));
+    }
+
+    @GetMapping("/roommates")
+    @PreAuthorize("hasAuthority('dorm:assignment:read')")
+    public ApiResponse<List<DormAssignmentVo>> roommates(
+            @RequestParam Long studentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        return ApiResponse.ok(dormOccupancyHistoryService.roommates(studentId, at, from, to));
+    }
+}
@@ -39,9 +39,11 @@ public class DormRoomController {
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer pageSize,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(required = false) String sortOrder
+            @RequestParam(required = false) String sortOrder,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Boolean withTotal
     ) {
-        return ApiResponse.ok(dormRoomService.list(buildingId, floorNo, roomNo, status, keyword, page, pageSize, sortBy, sortOrder));
+        return ApiResponse.ok(dormRoomService.list(buildingId, floorNo, roomNo, status, keyword, page, pageSize, sortBy, sortOrder, cursor, withTotal));
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,74 @@
+package com.example.dormitory.dorm.controller;
+
+import com.example.dormitory.common.ApiResponse;
+import com.example.dormitory.dorm.dto.OpenSelectionRequest;
+import com.example.dormitory.dorm.dto.SelectionClaimRequest;
+import com.example.dormitory.dorm.service.DormSelectionService;
+import com.example.dormitory.dorm.vo.SelectionClaimVo;
+import com.example.dormitory.dorm.vo.SelectionRoomVo;
+import com.example.dormitory.dorm.vo.SelectionSessionVo;
+import jakarta.validation.Valid;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Bed selection desk. Accounts are not linked to students, so {@code dorm:selection:claim} is a staff permission:
+ * whoever holds it places and looks up claims on behalf of any student, and it must not be granted to student roles.
+ */
+@RestController
+@RequestMapping("/api/v1/dorm/selection")
+public class DormSelectionController {
+
+    private final DormSelectionService dormSelectionService;
+
+    public DormSelectionController(DormSelectionService dormSelectionService) {
+        this.dormSelectionService = dormSelectionService;
+    }
+
+    @PostMapping("/session")
+    @PreAuthorize("hasAuthority('dorm:assignment:write')")
+    public ApiResponse<SelectionSessionVo> open(@Valid @RequestBody OpenSelectionRequest req) {
+        return ApiResponse.ok(dormSelectionService.open(req));
+    }
+
+    @PostMapping("/session/close")
+    @PreAuthorize("hasAuthority('dorm:assignment:write')")
+    public ApiResponse<SelectionSessionVo> close() {
+        return ApiResponse.ok(dormSelectionService.close());
+    }
+
+    @GetMapping("/session")
+    @PreAuthorize("hasAuthority('dorm:assignment:read') or hasAuthority('dorm:selection:claim')")
+    public ApiResponse<SelectionSessionVo> status() {
+        return ApiResponse.ok(dormSelectionService.status());
+    }
+
+    @GetMapping("/rooms")
+    @PreAuthorize("hasAuthority('dorm:selection:claim')")
+    public ApiResponse<List<SelectionRoomVo>> rooms(
+            @RequestParam(required = false) Long buildingId,
+            @RequestParam(required = false) String gender
+    ) {
+        return ApiResponse.ok(dormSelectionService.rooms(buildingId, gender));
+    }
+
+    @PostMapping("/claims")
+    @PreAuthorize("hasAuthority('dorm:selection:claim')")
+    public ApiResponse<SelectionClaimVo> claim(@Valid @RequestBody SelectionClaimRequest req) {
+        return ApiResponse.ok(dormSelectionService.claim(req));
+    }
+
+    @GetMapping("/claims/{studentId}")
+    @PreAuthorize("hasAuthority('dorm:selection:claim')")
+    public ApiResponse<SelectionClaimVo> findClaim(@PathVariable Long studentId) {
+        return ApiResponse.ok(dormSelectionService.findClaim(studentId));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.dormitory.dorm.dto;
+
+public class ConfirmBedHoldRequest {
+
+    private Long studentId;
+
+    private String reason;
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
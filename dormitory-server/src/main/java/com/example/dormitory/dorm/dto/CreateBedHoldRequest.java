@@ -0,0 +1,37 @@
+package com.example.dormitory.dorm.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public class CreateBedHoldRequest {
+
+    @NotNull(message = "bedId required")
+    private Long bedId;
+
+    private Long studentId;
+
+    private Integer ttlSeconds;
+
+    public Long getBedId() {
+        return bedId;
+    }
+
+    public void setBedId(Long bedId) {
+        this.bedId = bedId;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public Integer getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(Integer ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.dormitory.dorm.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class DormAllocationRequest {
+
+    @NotEmpty(message = "studentIds required")
+    @Size(max = 10000, message = "at most 10000 students per allocation")
+    private List<Long> studentIds;
+
+    private List<Long> buildingIds;
+
+    private String groupBy;
+
+    private List<String> roomTypes;
+
+    private Boolean roomTypeStrict;
+
+    private String fillOrder;
+
+    private Boolean fillPartialRoomsFirst;
+
+    private Boolean dryRun;
+
+    private String reason;
+
+    public List<Long> getStudentIds() {
+        return studentIds;
+    }
+
+    public void setStudentIds(List<Long> studentIds) {
+        this.studentIds = studentIds;
+    }
+
+    public List<Long> getBuildingIds() {
+        return buildingIds;
+    }
+
+    public void setBuildingIds(List<Long> buildingIds) {
+        this.buildingIds = buildingIds;
+    }
+
+    public String getGroupBy() {
+        return groupBy;
+    }
+
+    public void setGroupBy(String groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    public List<String> getRoomTypes() {
+        return roomTypes;
+    }
+
+    public void setRoomTypes(List<String> roomTypes) {
+        this.roomTypes = roomTypes;
+    }
+
+    public Boolean getRoomTypeStrict() {
+        return roomTypeStrict;
+    }
+
+    public void setRoomTypeStrict(Boolean roomTypeStrict) {
+        this.roomTypeStrict = roomTypeStrict;
+    }
+
+    public String getFillOrder() {
+        return fillOrder;
+    }
+
+    public void setFillOrder(String fillOrder) {
+        this.fillOrder = fillOrder;
+    }
+
+    public Boolean getFillPartialRoomsFirst() {
+        return fillPartialRoomsFirst;
+    }
+
+    public void setFillPartialRoomsFirst(Boolean fillPartialRoomsFirst) {
+        this.fillPartialRoomsFirst = fillPartialRoomsFirst;
+    }
+
+    public Boolean getDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(Boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
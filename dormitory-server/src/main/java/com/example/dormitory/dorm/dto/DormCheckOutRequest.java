@@ -0,0 +1,60 @@
+package com.example.dormitory.dorm.dto;
+
+import jakarta.validation.constraints.Size;
+
+public class DormCheckOutRequest {
+
+    private Long buildingId;
+
+    @Size(max = 64, message = "college too long")
+    private String college;
+
+    @Size(max = 64, message = "className too long")
+    private String className;
+
+    @Size(max = 16, message = "studentStatus too long")
+    private String studentStatus;
+
+    @Size(max = 255, message = "reason too long")
+    private String reason;
+
+    public Long getBuildingId() {
+        return buildingId;
+    }
+
+    public void setBuildingId(Long buildingId) {
+        this.buildingId = buildingId;
+    }
+
+    public String getCollege() {
+        return college;
+    }
+
+    public void setCollege(String college) {
+        this.college = college;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public String getStudentStatus() {
+        return studentStatus;
+    }
+
+    public void setStudentStatus(String studentStatus) {
+        this.studentStatus = studentStatus;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.dormitory.dorm.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public class DormLayoutRequest {
+
+    @NotNull(message = "floors required")
+    @Min(value = 1, message = "floors must be between 1 and 200")
+    @Max(value = 200, message = "floors must be between 1 and 200")
+    private Integer floors;
+
+    private Integer startFloor;
+
+    @NotNull(message = "roomsPerFloor required")
+    @Min(value = 1, message = "roomsPerFloor must be between 1 and 500")
+    @Max(value = 500, message = "roomsPerFloor must be between 1 and 500")
+    private Integer roomsPerFloor;
+
+    @NotNull(message = "bedsPerRoom required")
+    @Min(value = 1, message = "bedsPerRoom must be between 1 and 20")
+    @Max(value = 20, message = "bedsPerRoom must be between 1 and 20")
+    private Integer bedsPerRoom;
+
+    private String roomType;
+
+    private String genderLimit;
+
+    /**
+     * Tokens: {floor}, {room}; append :N to zero-pad to N digits or :A for letters (1=A, 27=AA).
+     * Defaults to {floor}{room:2}, i.e. 101, 102, ..., 1012.
+     */
+    private String roomNoPattern;
+
+    /**
+     * Tokens: {floor}, {room}, {bed}, with the same modifiers. Defaults to {bed:A}.
+     */
+    private String bedNoPattern;
+
+    public Integer getFloors() {
+        return floors;
+    }
+
+    public void setFloors(Integer floors) {
+        this.floors = floors;
+    }
+
+    public Integer getStartFloor() {
+        return startFloor;
+    }
+
+    public void setStartFloor(Integer startFloor) {
+        this.startFloor = startFloor;
+    }
+
+    public Integer getRoomsPerFloor() {
+        return roomsPerFloor;
+    }
+
+    public void setRoomsPerFloor(Integer roomsPerFloor) {
+        this.roomsPerFloor = roomsPerFloor;
+    }
+
+    public Integer getBedsPerRoom() {
+        return bedsPerRoom;
+    }
+
+    public void setBedsPerRoom(Integer bedsPerRoom) {
+        this.bedsPerRoom = bedsPerRoom;
+    }
+
+    public String getRoomType() {
+        return roomType;
+    }
+
+    public void setRoomType(String roomType) {
+        this.roomType = roomType;
+    }
+
+    public String getGenderLimit() {
+        return genderLimit;
+    }
+
+    public void setGenderLimit(String genderLimit) {
+        this.genderLimit = genderLimit;
+    }
+
+    public String getRoomNoPattern() {
+        return roomNoPattern;
+    }
+
+    public void setRoomNoPattern(String roomNoPattern) {
+        this.roomNoPattern = roomNoPattern;
+    }
+
+    public String getBedNoPattern() {
+        return bedNoPattern;
+    }
+
+    public void setBedNoPattern(String bedNoPattern) {
+        this.bedNoPattern = bedNoPattern;
+    }
+}
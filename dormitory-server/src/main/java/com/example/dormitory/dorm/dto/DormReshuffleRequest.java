@@ -0,0 +1,33 @@
+package com.example.dormitory.dorm.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class DormReshuffleRequest {
+
+    @NotEmpty(message = "moves required")
+    @Size(max = 2000, message = "at most 2000 moves per request")
+    @Valid
+    private List<DormTransferRequest> moves;
+
+    private String reason;
+
+    public List<DormTransferRequest> getMoves() {
+        return moves;
+    }
+
+    public void setMoves(List<DormTransferRequest> moves) {
+        this.moves = moves;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.dormitory.dorm.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public class DormSwapRequest {
+
+    @NotNull(message = "studentIdA required")
+    private Long studentIdA;
+
+    @NotNull(message = "studentIdB required")
+    private Long studentIdB;
+
+    private String reason;
+
+    public Long getStudentIdA() {
+        return studentIdA;
+    }
+
+    public void setStudentIdA(Long studentIdA) {
+        this.studentIdA = studentIdA;
+    }
+
+    public Long getStudentIdB() {
+        return studentIdB;
+    }
+
+    public void setStudentIdB(Long studentIdB) {
+        this.studentIdB = studentIdB;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.dormitory.dorm.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public class DormTransferRequest {
+
+    @NotNull(message = "studentId required")
+    private Long studentId;
+
+    @NotNull(message = "toBedId required")
+    private Long toBedId;
+
+    private String reason;
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public Long getToBedId() {
+        return toBedId;
+    }
+
+    public void setToBedId(Long toBedId) {
+        this.toBedId = toBedId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.dormitory.dorm.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import java.util.List;
+
+public class OpenSelectionRequest {
+
+    private List<Long> buildingIds;
+
+    @Min(value = 1, message = "durationMinutes must be between 1 and 240")
+    @Max(value = 240, message = "durationMinutes must be between 1 and 240")
+    private Integer durationMinutes;
+
+    public List<Long> getBuildingIds() {
+        return buildingIds;
+    }
+
+    public void setBuildingIds(List<Long> buildingIds) {
+        this.buildingIds = buildingIds;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.dormitory.dorm.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public class SelectionClaimRequest {
+
+    @NotNull(message = "studentId required")
+    private Long studentId;
+
+    private Long bedId;
+
+    private Long roomId;
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public Long getBedId() {
+        return bedId;
+    }
+
+    public void setBedId(Long bedId) {
+        this.bedId = bedId;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+}
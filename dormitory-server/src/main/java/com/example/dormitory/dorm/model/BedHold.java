@@ -0,0 +1,38 @@
+package com.example.dormitory.dorm.model;
+
+public class BedHold {
+
+    private final String holdId;
+    private final Long bedId;
+    private final Long studentId;
+    private final Long userId;
+    private final long expiresAtMillis;
+
+    public BedHold(String holdId, Long bedId, Long studentId, Long userId, long expiresAtMillis) {
+        this.holdId = holdId;
+        this.bedId = bedId;
+        this.studentId = studentId;
+        this.userId = userId;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getHoldId() {
+        return holdId;
+    }
+
+    public Long getBedId() {
+        return bedId;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.dormitory.dorm.model;
+
+public class BedSlot {
+
+    private Long bedId;
+    private Long roomId;
+    private String bedNo;
+    private String status;
+    private Long buildingId;
+    private Integer floorNo;
+    private String roomNo;
+    private String roomType;
+    private String roomGenderLimit;
+    private String buildingGenderLimit;
+    private Boolean allocatable;
+    private Boolean roomActive;
+    private Boolean buildingActive;
+
+    public Long getBedId() {
+        return bedId;
+    }
+
+    public void setBedId(Long bedId) {
+        this.bedId = bedId;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public String getBedNo() {
+        return bedNo;
+    }
+
+    public void setBedNo(String bedNo) {
+        this.bedNo = bedNo;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getBuildingId() {
+        return buildingId;
+    }
+
+    public void setBuildingId(Long buildingId) {
+        this.buildingId = buildingId;
+    }
+
+    public Integer getFloorNo() {
+        return floorNo;
+    }
+
+    public void setFloorNo(Integer floorNo) {
+        this.floorNo = floorNo;
+    }
+
+    public String getRoomNo() {
+        return roomNo;
+    }
+
+    public void setRoomNo(String roomNo) {
+        this.roomNo = roomNo;
+    }
+
+    public String getRoomType() {
+        return roomType;
+    }
+
+    public void setRoomType(String roomType) {
+        this.roomType = roomType;
+    }
+
+    public String getRoomGenderLimit() {
+        return roomGenderLimit;
+    }
+
+    public void setRoomGenderLimit(String roomGenderLimit) {
+        this.roomGenderLimit = roomGenderLimit;
+    }
+
+    public String getBuildingGenderLimit() {
+        return buildingGenderLimit;
+    }
+
+    public void setBuildingGenderLimit(String buildingGenderLimit) {
+        this.buildingGenderLimit = buildingGenderLimit;
+    }
+
+    public Boolean getAllocatable() {
+        return allocatable;
+    }
+
+    public void setAllocatable(Boolean allocatable) {
+        this.allocatable = allocatable;
+    }
+
+    public Boolean getRoomActive() {
+        return roomActive;
+    }
+
+    public void setRoomActive(Boolean roomActive) {
+        this.roomActive = roomActive;
+    }
+
+    public Boolean getBuildingActive() {
+        return buildingActive;
+    }
+
+    public void setBuildingActive(Boolean buildingActive) {
+        this.buildingActive = buildingActive;
+    }
+}
@@ -1,8 +1,14 @@
 package com.example.dormitory.dorm.repository;
 
+import com.example.dormitory.common.CountCache;
+import com.example.dormitory.common.JdbcRows;
+import com.example.dormitory.common.PageCursor;
+import com.example.dormitory.common.SortSpec;
+import com.example.dormitory.dorm.model.AssignmentInterval;
 import com.example.dormitory.dorm.model.DormAssignment;
 import com.example.dormitory.dorm.vo.DormAssignmentVo;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
@@ -12,71 +18,89 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Repository
 public class DormAssignmentRepository {
 
+    private static final String TABLE = "dorm_assignment";
+    private static final List<String> COUNT_TABLES = List.of("dorm_assignment", "dorm_bed", "dorm_room");
+
+    private static final String COLUMNS = "id, student_id, bed_id, start_at, end_at, status, reason, deleted";
+    private static final String VO_SELECT =
+            "SELECT a.id, a.student_id, s.student_no, s.name AS student_name, a.bed_id, bed.bed_no, r.id AS room_id, r.room_no, b.id AS building_id, b.code AS building_code, b.name AS building_name, a.start_at, a.end_at, a.status, a.reason " +
+                    "FROM dorm_assignment a " +
+                    "JOIN student s ON s.id=a.student_id " +
+                    "JOIN dorm_bed bed ON bed.id=a.bed_id " +
+                    "JOIN dorm_room r ON r.id=bed.room_id " +
+                    "JOIN dorm_building b ON b.id=r.building_id ";
+
+    private static final String CHECK_OUT_FROM =
+            "FROM dorm_assignment a " +
+                    "JOIN student s ON s.id=a.student_id " +
+                    "JOIN dorm_bed bed ON bed.id=a.bed_id " +
+                    "JOIN dorm_room r ON r.id=bed.room_id " +
+                    "WHERE a.status='ACTIVE' AND a.deleted=0";
+
+    private static final RowMapper<DormAssignment> ROW_MAPPER = (rs, rowNum) -> {
+        DormAssignment a = new DormAssignment();
+        a.setId(rs.getLong(1));
+        a.setStudentId(rs.getLong(2));
+        a.setBedId(rs.getLong(3));
+        a.setStartAt(JdbcRows.getLocalDateTime(rs, 4));
+        a.setEndAt(JdbcRows.getLocalDateTime(rs, 5));
+        a.setStatus(rs.getString(6));
+        a.setReason(rs.getString(7));
+        a.setDeleted(rs.getInt(8));
+        return a;
+    };
+
+    private static final RowMapper<DormAssignmentVo> VO_MAPPER = (rs, rowNum) -> {
+        DormAssignmentVo vo = new DormAssignmentVo();
+        vo.setId(rs.getLong(1));
+        vo.setStudentId(rs.getLong(2));
+        vo.setStudentNo(rs.getString(3));
+        vo.setStudentName(rs.getString(4));
+        vo.setBedId(rs.getLong(5));
+        vo.setBedNo(rs.getString(6));
+        vo.setRoomId(rs.getLong(7));
+        vo.setRoomNo(rs.getString(8));
+        vo.setBuildingId(rs.getLong(9));
+        vo.setBuildingCode(rs.getString(10));
+        vo.setBuildingName(rs.getString(11));
+        vo.setStartAt(JdbcRows.getLocalDateTime(rs, 12));
+        vo.setEndAt(JdbcRows.getLocalDateTime(rs, 13));
+        vo.setStatus(rs.getString(14));
+        vo.setReason(rs.getString(15));
+        return vo;
+    };
+
     private final JdbcTemplate jdbcTemplate;
+    private final CountCache countCache;
 
-    public DormAssignmentRepository(JdbcTemplate jdbcTemplate) {
+    public DormAssignmentRepository(JdbcTemplate jdbcTemplate, CountCache countCache) {
         this.jdbcTemplate = jdbcTemplate;
+        this.countCache = countCache;
     }
 
     public DormAssignment findById(Long id) {
         List<DormAssignment> list = jdbcTemplate.query(
-                "SELECT id, student_id, bed_id, start_at, end_at, status, reason, deleted FROM dorm_assignment WHERE id=? AND deleted=0 LIMIT 1",
-                (rs, rowNum) -> {
-                    DormAssignment a = new DormAssignment();
-                    a.setId(rs.getLong("id"));
-                    a.setStudentId(rs.getLong("student_id"));
-                    a.setBedId(rs.getLong("bed_id"));
-                    Timestamp s = rs.getTimestamp("start_at");
-                    a.setStartAt(s == null ? null : s.toLocalDateTime());
-                    Timestamp e = rs.getTimestamp("end_at");
-                    a.setEndAt(e == null ? null : e.toLocalDateTime());
-                    a.setStatus(rs.getString("status"));
-                    a.setReason(rs.getString("reason"));
-                    a.setDeleted(rs.getInt("deleted"));
-                    return a;
-                },
+                "SELECT " + COLUMNS + " FROM dorm_assignment WHERE id=? AND deleted=0 LIMIT 1",
+                ROW_MAPPER,
                 id
         );
         return list.isEmpty() ? null : list.get(0);
     }
 
     public DormAssignmentVo findVoById(Long id) {
-        List<DormAssignmentVo> list = jdbcTemplate.query(
-                "SELECT a.id, a.student_id, s.student_no, s.name AS student_name, a.bed_id, bed.bed_no, r.id AS room_id, r.room_no, b.id AS building_id, b.code AS building_code, b.name AS building_name, a.start_at, a.end_at, a.status, a.reason " +
-                        "FROM dorm_assignment a " +
-                        "JOIN student s ON s.id=a.student_id " +
-                        "JOIN dorm_bed bed ON bed.id=a.bed_id " +
-                        "JOIN dorm_room r ON r.id=bed.room_id " +
-                        "JOIN dorm_building b ON b.id=r.building_id " +
-                        "WHERE a.id=? AND a.deleted=0 LIMIT 1",
-                (rs, rowNum) -> {
-                    DormAssignmentVo vo = new DormAssignmentVo();
-                    vo.setId(rs.getLong("id"));
-                    vo.setStudentId(rs.getLong("student_id"));
-                    vo.setStudentNo(rs.getString("student_no"));
-                    vo.setStudentName(rs.getString("student_name"));
-                    vo.setBedId(rs.getLong("bed_id"));
-                    vo.setBedNo(rs.getString("bed_no"));
-                    vo.setRoomId(rs.getLong("room_id"));
-                    vo.setRoomNo(rs.getString("room_no"));
-                    vo.setBuildingId(rs.getLong("building_id"));
-                    vo.setBuildingCode(rs.getString("building_code"));
-                    vo.setBuildingName(rs.getString("building_name"));
-                    Timestamp s = rs.getTimestamp("start_at");
-                    vo.setStartAt(s == null ? null : s.toLocalDateTime());
-                    Timestamp e = rs.getTimestamp("end_at");
-                    vo.setEndAt(e == null ? null : e.toLocalDateTime());
-                    vo.setStatus(rs.getString("status"));
-                    vo.setReason(rs.getString("reason"));
-                    return vo;
-                },
-                id
-        );
+        List<DormAssignmentVo> list = jdbcTemplate.query(VO_SELECT + "WHERE a.id=? AND a.deleted=0 LIMIT 1", VO_MAPPER, id);
         return list.isEmpty() ? null : list.get(0);
     }
 
@@ -88,105 +112,294 @@ public class DormAssignmentRepository {
                         "WHERE a.deleted=0"
         );
         List<Object> args = new ArrayList<>();
-        if (studentId != null) {
-            sql.append(" AND a.student_id=?");
-            args.add(studentId);
-        }
-        if (buildingId != null) {
-            sql.append(" AND r.building_id=?");
-            args.add(buildingId);
-        }
-        if (roomId != null) {
-            sql.append(" AND bed.room_id=?");
-            args.add(roomId);
+        appendFilters(sql, args, studentId, buildingId, roomId, bedId, status);
+        return countCache.count(COUNT_TABLES, sql.toString(), args, () -> {
+            Long cnt = jdbcTemplate.queryForObject(sql.toString(), args.toArray(), Long.class);
+            return cnt == null ? 0 : cnt;
+        });
+    }
+
+    public List<DormAssignmentVo> list(Long studentId, Long buildingId, Long roomId, Long bedId, String status, SortSpec<?> sort, PageCursor after, int limit, int offset) {
+        StringBuilder sql = new StringBuilder(VO_SELECT + "WHERE a.deleted=0");
+        List<Object> args = new ArrayList<>();
+        appendFilters(sql, args, studentId, buildingId, roomId, bedId, status);
+
+        if (after != null) {
+            after.appendSeek(sql, args, sort);
         }
-        if (bedId != null) {
-            sql.append(" AND a.bed_id=?");
-            args.add(bedId);
+        sql.append(" ORDER BY ").append(sort.orderBy()).append(" LIMIT ? OFFSET ?");
+        args.add(limit);
+        args.add(offset);
+
+        return jdbcTemplate.query(sql.toString(), VO_MAPPER, args.toArray());
+    }
+
+    public void export(Long studentId, Long buildingId, Long roomId, Long bedId, String status, Consumer<DormAssignmentVo> consumer) {
+        StringBuilder sql = new StringBuilder(VO_SELECT + "WHERE a.deleted=0");
+        List<Object> args = new ArrayList<>();
+        appendFilters(sql, args, studentId, buildingId, roomId, bedId, status);
+        sql.append(" ORDER BY a.id");
+        JdbcRows.stream(jdbcTemplate, sql.toString(), args, VO_MAPPER, consumer);
+    }
+
+    public boolean existsActiveForStudent(Long studentId) {
+        Long cnt = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM dorm_assignment WHERE student_id=? AND status='ACTIVE' AND deleted=0",
+                new Object[]{studentId},
+                Long.class
+        );
+        return cnt != null && cnt > 0;
+    }
+
+    public boolean existsActiveForBed(Long bedId) {
+        Long cnt = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM dorm_assignment WHERE bed_id=? AND status='ACTIVE' AND deleted=0",
+                new Object[]{bedId},
+                Long.class
+        );
+        return cnt != null && cnt > 0;
+    }
+
+    public Set<Long> findActiveStudentIds(Collection<Long> studentIds) {
+        if (studentIds == null || studentIds.isEmpty()) {
+            return Collections.emptySet();
         }
-        if (status != null && !status.isBlank()) {
-            sql.append(" AND a.status=?");
-            args.add(status.trim());
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT student_id FROM dorm_assignment WHERE status='ACTIVE' AND deleted=0 AND student_id IN (" + placeholders(studentIds.size()) + ")",
+                Long.class,
+                studentIds.toArray()
+        ));
+    }
+
+    public List<DormAssignmentVo> findActiveVosByStudentIds(Collection<Long> studentIds) {
+        if (studentIds == null || studentIds.isEmpty()) {
+            return Collections.emptyList();
         }
-        Long cnt = jdbcTemplate.queryForObject(sql.toString(), args.toArray(), Long.class);
-        return cnt == null ? 0 : cnt;
+        return jdbcTemplate.query(
+                VO_SELECT + "WHERE a.status='ACTIVE' AND a.deleted=0 AND a.student_id IN (" + placeholders(studentIds.size()) + ")",
+                VO_MAPPER,
+                studentIds.toArray()
+        );
     }
 
-    public List<DormAssignmentVo> list(Long studentId, Long buildingId, Long roomId, Long bedId, String status, String orderBy, int limit, int offset) {
+    public Map<Long, Set<String>> findActiveGendersByRoom(Collection<Long> buildingIds) {
         StringBuilder sql = new StringBuilder(
-                "SELECT a.id, a.student_id, s.student_no, s.name AS student_name, a.bed_id, bed.bed_no, r.id AS room_id, r.room_no, b.id AS building_id, b.code AS building_code, b.name AS building_name, a.start_at, a.end_at, a.status, a.reason " +
-                        "FROM dorm_assignment a " +
-                        "JOIN student s ON s.id=a.student_id " +
+                "SELECT bed.room_id, s.gender FROM dorm_assignment a " +
                         "JOIN dorm_bed bed ON bed.id=a.bed_id " +
                         "JOIN dorm_room r ON r.id=bed.room_id " +
-                        "JOIN dorm_building b ON b.id=r.building_id " +
-                        "WHERE a.deleted=0"
+                        "JOIN student s ON s.id=a.student_id " +
+                        "WHERE a.status='ACTIVE' AND a.deleted=0"
         );
         List<Object> args = new ArrayList<>();
-        if (studentId != null) {
-            sql.append(" AND a.student_id=?");
-            args.add(studentId);
+        if (buildingIds != null && !buildingIds.isEmpty()) {
+            sql.append(" AND r.building_id IN (").append(placeholders(buildingIds.size())).append(")");
+            args.addAll(buildingIds);
         }
-        if (buildingId != null) {
-            sql.append(" AND r.building_id=?");
-            args.add(buildingId);
+        sql.append(" GROUP BY bed.room_id, s.gender");
+        return jdbcTemplate.query(sql.toString(), rs -> {
+            Map<Long, Set<String>> map = new HashMap<>();
+            while (rs.next()) {
+                map.computeIfAbsent(rs.getLong(1), k -> new HashSet<>()).add(rs.getString(2));
+            }
+            return map;
+        }, args.toArray());
+    }
+
+    public Map<Long, Integer> countActiveClassmatesByRoom(Long studentId, String college, String major, String className) {
+        return jdbcTemplate.query(
+                "SELECT bed.room_id, COUNT(*) FROM student s " +
+                        "JOIN dorm_assignment a ON a.student_id=s.id AND a.status='ACTIVE' AND a.deleted=0 " +
+                        "JOIN dorm_bed bed ON bed.id=a.bed_id " +
+                        "WHERE s.deleted=0 AND s.class_name=? AND s.major<=>? AND s.college<=>? AND s.id<>? " +
+                        "GROUP BY bed.room_id",
+                rs -> {
+                    Map<Long, Integer> map = new HashMap<>();
+                    while (rs.next()) {
+                        map.put(rs.getLong(1), rs.getInt(2));
+                    }
+                    return map;
+                },
+                className, major, college, studentId
+        );
+    }
+
+    public void scanActiveBedIds(Consumer<Long> consumer) {
+        JdbcRows.stream(jdbcTemplate, "SELECT bed_id FROM dorm_assignment WHERE status='ACTIVE' AND deleted=0", List.of(),
+                (rs, rowNum) -> rs.getLong(1), consumer);
+    }
+
+    public List<DormAssignment> lockActiveByStudentIds(Collection<Long> studentIds) {
+        if (studentIds == null || studentIds.isEmpty()) {
+            return Collections.emptyList();
         }
-        if (roomId != null) {
-            sql.append(" AND bed.room_id=?");
-            args.add(roomId);
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM dorm_assignment WHERE status='ACTIVE' AND deleted=0 AND student_id IN (" + placeholders(studentIds.size()) + ") " +
+                        "ORDER BY id FOR UPDATE",
+                ROW_MAPPER,
+                studentIds.toArray()
+        );
+    }
+
+    public List<DormAssignment> findActiveByBedIds(Collection<Long> bedIds) {
+        if (bedIds == null || bedIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM dorm_assignment WHERE status='ACTIVE' AND deleted=0 AND bed_id IN (" + placeholders(bedIds.size()) + ")",
+                ROW_MAPPER,
+                bedIds.toArray()
+        );
+    }
+
+    /**
+     * Streams assignment intervals with their room; with {@code updatedSince} only rows touched since then, deleted ones included.
+     */
+    public void scanIntervals(LocalDateTime updatedSince, Consumer<AssignmentInterval> consumer) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT a.id, a.student_id, a.bed_id, bed.room_id, a.start_at, a.end_at, a.deleted, a.updated_at " +
+                        "FROM dorm_assignment a JOIN dorm_bed bed ON bed.id=a.bed_id"
+        );
+        List<Object> args = new ArrayList<>();
+        if (updatedSince == null) {
+            sql.append(" WHERE a.deleted=0");
+        } else {
+            sql.append(" WHERE a.updated_at>=?");
+            args.add(Timestamp.valueOf(updatedSince));
+        }
+        JdbcRows.stream(jdbcTemplate, sql.toString(), args, (rs, rowNum) -> {
+            AssignmentInterval interval = new AssignmentInterval();
+            interval.setId(rs.getLong(1));
+            interval.setStudentId(rs.getLong(2));
+            interval.setBedId(rs.getLong(3));
+            interval.setRoomId(rs.getLong(4));
+            interval.setStartAt(JdbcRows.getLocalDateTime(rs, 5));
+            interval.setEndAt(JdbcRows.getLocalDateTime(rs, 6));
+            interval.setDeleted(rs.getInt(7));
+            interval.setUpdatedAt(JdbcRows.getLocalDateTime(rs, 8));
+            return interval;
+        }, consumer);
+    }
+
+    public List<DormAssignmentVo> findVosByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
         }
+        return jdbcTemplate.query(
+                VO_SELECT + "WHERE a.id IN (" + placeholders(ids.size()) + ") ORDER BY a.start_at, a.id",
+                VO_MAPPER,
+                ids.toArray()
+        );
+    }
+
+    /**
+     * Stays in the bed or room that overlap {@code [from, to)}; an open {@code to} means up to now and beyond.
+     */
+    public List<DormAssignmentVo> findOverlapping(Long bedId, Long roomId, LocalDateTime from, LocalDateTime to) {
+        StringBuilder sql = new StringBuilder(VO_SELECT + "WHERE a.deleted=0");
+        List<Object> args = new ArrayList<>();
         if (bedId != null) {
             sql.append(" AND a.bed_id=?");
             args.add(bedId);
         }
-        if (status != null && !status.isBlank()) {
-            sql.append(" AND a.status=?");
-            args.add(status.trim());
+        if (roomId != null) {
+            sql.append(" AND bed.room_id=?");
+            args.add(roomId);
+        }
+        sql.append(" AND (a.end_at IS NULL OR a.end_at>?)");
+        args.add(Timestamp.valueOf(from));
+        if (to != null) {
+            sql.append(" AND a.start_at<?");
+            args.add(Timestamp.valueOf(to));
         }
+        sql.append(" ORDER BY a.start_at, a.id");
+        return jdbcTemplate.query(sql.toString(), VO_MAPPER, args.toArray());
+    }
 
-        sql.append(" ORDER BY ").append(orderBy).append(" LIMIT ? OFFSET ?");
-        args.add(limit);
-        args.add(offset);
+    /**
+     * Other students' stays in the same room that overlap one of the student's own stays within {@code [from, to)}.
+     */
+    public List<DormAssignmentVo> findRoommates(Long studentId, LocalDateTime from, LocalDateTime to) {
+        StringBuilder sql = new StringBuilder(VO_SELECT +
+                "JOIN dorm_assignment me ON me.student_id=? AND me.deleted=0 AND (me.end_at IS NULL OR me.end_at>?) " +
+                "JOIN dorm_bed my_bed ON my_bed.id=me.bed_id " +
+                "WHERE a.deleted=0 AND bed.room_id=my_bed.room_id AND a.student_id<>me.student_id " +
+                "AND (a.end_at IS NULL OR (a.end_at>? AND a.end_at>me.start_at)) " +
+                "AND (me.end_at IS NULL OR a.start_at<me.end_at)");
+        List<Object> args = new ArrayList<>();
+        args.add(studentId);
+        args.add(Timestamp.valueOf(from));
+        args.add(Timestamp.valueOf(from));
+        if (to != null) {
+            sql.append(" AND me.start_at<? AND a.start_at<?");
+            args.add(Timestamp.valueOf(to));
+            args.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY a.start_at, a.id");
+        return jdbcTemplate.query(sql.toString(), VO_MAPPER, args.toArray());
+    }
 
-        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
-            DormAssignmentVo vo = new DormAssignmentVo();
-            vo.setId(rs.getLong("id"));
-            vo.setStudentId(rs.getLong("student_id"));
-            vo.setStudentNo(rs.getString("student_no"));
-            vo.setStudentName(rs.getString("student_name"));
-            vo.setBedId(rs.getLong("bed_id"));
-            vo.setBedNo(rs.getString("bed_no"));
-            vo.setRoomId(rs.getLong("room_id"));
-            vo.setRoomNo(rs.getString("room_no"));
-            vo.setBuildingId(rs.getLong("building_id"));
-            vo.setBuildingCode(rs.getString("building_code"));
-            vo.setBuildingName(rs.getString("building_name"));
-            Timestamp s = rs.getTimestamp("start_at");
-            vo.setStartAt(s == null ? null : s.toLocalDateTime());
-            Timestamp e = rs.getTimestamp("end_at");
-            vo.setEndAt(e == null ? null : e.toLocalDateTime());
-            vo.setStatus(rs.getString("status"));
-            vo.setReason(rs.getString("reason"));
-            return vo;
-        }, args.toArray());
+    public long countActiveForCheckOut(Long buildingId, String college, String className, String studentStatus) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) " + CHECK_OUT_FROM);
+        List<Object> args = new ArrayList<>();
+        appendCheckOutFilters(sql, args, buildingId, college, className, studentStatus);
+        Long cnt = jdbcTemplate.queryForObject(sql.toString(), args.toArray(), Long.class);
+        return cnt == null ? 0 : cnt;
     }
 
-    public boolean existsActiveForStudent(Long studentId) {
-        Long cnt = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM dorm_assignment WHERE student_id=? AND status='ACTIVE' AND deleted=0",
-                new Object[]{studentId},
-                Long.class
+    public List<DormAssignment> findActiveForCheckOut(Long buildingId, String college, String className, String studentStatus, Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT a.id, a.student_id, a.bed_id, a.start_at, a.end_at, a.status, a.reason, a.deleted " + CHECK_OUT_FROM);
+        List<Object> args = new ArrayList<>();
+        appendCheckOutFilters(sql, args, buildingId, college, className, studentStatus);
+        sql.append(" AND a.id>? ORDER BY a.id LIMIT ?");
+        args.add(afterId);
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    public List<DormAssignment> lockActiveByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM dorm_assignment WHERE status='ACTIVE' AND deleted=0 AND id IN (" + placeholders(ids.size()) + ") " +
+                        "ORDER BY id FOR UPDATE",
+                ROW_MAPPER,
+                ids.toArray()
         );
-        return cnt != null && cnt > 0;
     }
 
-    public boolean existsActiveForBed(Long bedId) {
-        Long cnt = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM dorm_assignment WHERE bed_id=? AND status='ACTIVE' AND deleted=0",
-                new Object[]{bedId},
-                Long.class
+    public int endAssignments(Collection<Long> ids, LocalDateTime endAt, String reason) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>(ids.size() + 2);
+        args.add(Timestamp.valueOf(endAt));
+        args.add(reason);
+        args.addAll(ids);
+        return countCache.afterWrite(TABLE, jdbcTemplate.update(
+                "UPDATE dorm_assignment SET status='ENDED', end_at=?, reason=? WHERE status='ACTIVE' AND deleted=0 AND id IN (" + placeholders(ids.size()) + ")",
+                args.toArray()
+        ));
+    }
+
+    public void batchInsert(List<DormAssignment> assignments) {
+        if (assignments.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO dorm_assignment(student_id, bed_id, start_at, end_at, status, reason, deleted) VALUES (?,?,?,?,?,?,0)",
+                assignments,
+                assignments.size(),
+                (ps, a) -> {
+                    ps.setLong(1, a.getStudentId());
+                    ps.setLong(2, a.getBedId());
+                    ps.setTimestamp(3, Timestamp.valueOf(a.getStartAt()));
+                    ps.setTimestamp(4, a.getEndAt() == null ? null : Timestamp.valueOf(a.getEndAt()));
+                    ps.setString(5, a.getStatus());
+                    ps.setString(6, a.getReason());
+                }
         );
-        return cnt != null && cnt > 0;
+        countCache.invalidate(TABLE);
     }
 
     public Long insert(DormAssignment a) {
@@ -208,18 +421,65 @@ public class DormAssignmentRepository {
             ps.setString(6, a.getReason());
             return ps;
         }, keyHolder);
+        countCache.invalidate(TABLE);
         Number key = keyHolder.getKey();
         return key == null ? null : key.longValue();
     }
 
     public int endAssignment(Long id, LocalDateTime endAt, String reason) {
-        return jdbcTemplate.update(
+        return countCache.afterWrite(TABLE, jdbcTemplate.update(
                 "UPDATE dorm_assignment SET status='ENDED', end_at=?, reason=? WHERE id=? AND status='ACTIVE' AND deleted=0",
                 ps -> {
                     ps.setTimestamp(1, Timestamp.valueOf(endAt));
                     ps.setString(2, reason);
                     ps.setLong(3, id);
                 }
-        );
+        ));
+    }
+
+    private static void appendFilters(StringBuilder sql, List<Object> args, Long studentId, Long buildingId, Long roomId, Long bedId, String status) {
+        if (studentId != null) {
+            sql.append(" AND a.student_id=?");
+            args.add(studentId);
+        }
+        if (buildingId != null) {
+            sql.append(" AND r.building_id=?");
+            args.add(buildingId);
+        }
+        if (roomId != null) {
+            sql.append(" AND bed.room_id=?");
+            args.add(roomId);
+        }
+        if (bedId != null) {
+            sql.append(" AND a.bed_id=?");
+            args.add(bedId);
+        }
+        if (status != null && !status.isBlank()) {
+            sql.append(" AND a.status=?");
+            args.add(status.trim());
+        }
+    }
+
+    private static void appendCheckOutFilters(StringBuilder sql, List<Object> args, Long buildingId, String college, String className, String studentStatus) {
+        if (buildingId != null) {
+            sql.append(" AND r.building_id=?");
+            args.add(buildingId);
+        }
+        if (college != null) {
+            sql.append(" AND s.college=?");
+            args.add(college);
+        }
+        if (className != null) {
+            sql.append(" AND s.class_name=?");
+            args.add(className);
+        }
+        if (studentStatus != null) {
+            sql.append(" AND s.status=?");
+            args.add(studentStatus);
+        }
+    }
+
+    private static String placeholders(int n) {
+        return String.join(",", Collections.nCopies(n, "?"));
     }
 }
@@ -1,8 +1,14 @@
 package com.example.dormitory.dorm.repository;
 
+import com.example.dormitory.common.CountCache;
+import com.example.dormitory.common.JdbcRows;
+import com.example.dormitory.common.PageCursor;
+import com.example.dormitory.common.SortSpec;
+import com.example.dormitory.dorm.model.BedSlot;
 import com.example.dormitory.dorm.model.DormBed;
 import com.example.dormitory.dorm.vo.DormBedVo;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
@@ -10,55 +16,89 @@ import org.springframework.stereotype.Repository;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Repository
 public class DormBedRepository {
 
+    private static final String TABLE = "dorm_bed";
+    private static final List<String> COUNT_TABLES = List.of("dorm_bed", "dorm_room", "dorm_building");
+
+    private static final String COLUMNS = "id, room_id, bed_no, status, deleted";
+    private static final String VO_SELECT =
+            "SELECT bed.id, bed.room_id, r.room_no, r.building_id, b.code AS building_code, b.name AS building_name, bed.bed_no, bed.status " +
+                    "FROM dorm_bed bed " +
+                    "JOIN dorm_room r ON r.id=bed.room_id " +
+                    "JOIN dorm_building b ON b.id=r.building_id ";
+
+    private static final String SLOT_SELECT =
+            "SELECT bed.id, bed.room_id, bed.bed_no, bed.status, r.building_id, r.floor_no, r.room_no, r.room_type, r.gender_limit, b.gender_limit " +
+                    "FROM dorm_bed bed " +
+                    "JOIN dorm_room r ON r.id=bed.room_id " +
+                    "JOIN dorm_building b ON b.id=r.building_id ";
+
+    private static final RowMapper<DormBed> ROW_MAPPER = (rs, rowNum) -> {
+        DormBed b = new DormBed();
+        b.setId(rs.getLong(1));
+        b.setRoomId(rs.getLong(2));
+        b.setBedNo(rs.getString(3));
+        b.setStatus(rs.getString(4));
+        b.setDeleted(rs.getInt(5));
+        return b;
+    };
+
+    private static final RowMapper<DormBedVo> VO_MAPPER = (rs, rowNum) -> {
+        DormBedVo vo = new DormBedVo();
+        vo.setId(rs.getLong(1));
+        vo.setRoomId(rs.getLong(2));
+        vo.setRoomNo(rs.getString(3));
+        vo.setBuildingId(rs.getLong(4));
+        vo.setBuildingCode(rs.getString(5));
+        vo.setBuildingName(rs.getString(6));
+        vo.setBedNo(rs.getString(7));
+        vo.setStatus(rs.getString(8));
+        return vo;
+    };
+
+    private static final RowMapper<BedSlot> SLOT_MAPPER = (rs, rowNum) -> {
+        BedSlot slot = new BedSlot();
+        slot.setBedId(rs.getLong(1));
+        slot.setRoomId(rs.getLong(2));
+        slot.setBedNo(rs.getString(3));
+        slot.setStatus(rs.getString(4));
+        slot.setBuildingId(rs.getLong(5));
+        slot.setFloorNo(rs.getInt(6));
+        slot.setRoomNo(rs.getString(7));
+        slot.setRoomType(rs.getString(8));
+        slot.setRoomGenderLimit(rs.getString(9));
+        slot.setBuildingGenderLimit(rs.getString(10));
+        return slot;
+    };
+
     private final JdbcTemplate jdbcTemplate;
+    private final CountCache countCache;
 
-    public DormBedRepository(JdbcTemplate jdbcTemplate) {
+    public DormBedRepository(JdbcTemplate jdbcTemplate, CountCache countCache) {
         this.jdbcTemplate = jdbcTemplate;
+        this.countCache = countCache;
     }
 
     public DormBed findById(Long id) {
         List<DormBed> list = jdbcTemplate.query(
-                "SELECT id, room_id, bed_no, status, deleted FROM dorm_bed WHERE id=? AND deleted=0 LIMIT 1",
-                (rs, rowNum) -> {
-                    DormBed b = new DormBed();
-                    b.setId(rs.getLong("id"));
-                    b.setRoomId(rs.getLong("room_id"));
-                    b.setBedNo(rs.getString("bed_no"));
-                    b.setStatus(rs.getString("status"));
-                    b.setDeleted(rs.getInt("deleted"));
-                    return b;
-                },
+                "SELECT " + COLUMNS + " FROM dorm_bed WHERE id=? AND deleted=0 LIMIT 1",
+                ROW_MAPPER,
                 id
         );
         return list.isEmpty() ? null : list.get(0);
     }
 
     public DormBedVo findVoById(Long id) {
-        List<DormBedVo> list = jdbcTemplate.query(
-                "SELECT bed.id, bed.room_id, r.room_no, r.building_id, b.code AS building_code, b.name AS building_name, bed.bed_no, bed.status " +
-                        "FROM dorm_bed bed " +
-                        "JOIN dorm_room r ON r.id=bed.room_id " +
-                        "JOIN dorm_building b ON b.id=r.building_id " +
-                        "WHERE bed.id=? AND bed.deleted=0 LIMIT 1",
-                (rs, rowNum) -> {
-                    DormBedVo vo = new DormBedVo();
-                    vo.setId(rs.getLong("id"));
-                    vo.setRoomId(rs.getLong("room_id"));
-                    vo.setRoomNo(rs.getString("room_no"));
-                    vo.setBuildingId(rs.getLong("building_id"));
-                    vo.setBuildingCode(rs.getString("building_code"));
-                    vo.setBuildingName(rs.getString("building_name"));
-                    vo.setBedNo(rs.getString("bed_no"));
-                    vo.setStatus(rs.getString("status"));
-                    return vo;
-                },
-                id
-        );
+        List<DormBedVo> list = jdbcTemplate.query(VO_SELECT + "WHERE bed.id=? AND bed.deleted=0 LIMIT 1", VO_MAPPER, id);
         return list.isEmpty() ? null : list.get(0);
     }
 
@@ -90,18 +130,14 @@ public class DormBedRepository {
             args.add(like);
             args.add(like);
         }
-        Long cnt = jdbcTemplate.queryForObject(sql.toString(), args.toArray(), Long.class);
-        return cnt == null ? 0 : cnt;
+        return countCache.count(COUNT_TABLES, sql.toString(), args, () -> {
+            Long cnt = jdbcTemplate.queryForObject(sql.toString(), args.toArray(), Long.class);
+            return cnt == null ? 0 : cnt;
+        });
     }
 
-    public List<DormBedVo> list(Long buildingId, Long roomId, String status, String keyword, String orderBy, int limit, int offset) {
-        StringBuilder sql = new StringBuilder(
-                "SELECT bed.id, bed.room_id, r.room_no, r.building_id, b.code AS building_code, b.name AS building_name, bed.bed_no, bed.status " +
-                        "FROM dorm_bed bed " +
-                        "JOIN dorm_room r ON r.id=bed.room_id " +
-                        "JOIN dorm_building b ON b.id=r.building_id " +
-                        "WHERE bed.deleted=0"
-        );
+    public List<DormBedVo> list(Long buildingId, Long roomId, String status, String keyword, SortSpec<?> sort, PageCursor after, int limit, int offset) {
+        StringBuilder sql = new StringBuilder(VO_SELECT + "WHERE bed.deleted=0");
         List<Object> args = new ArrayList<>();
         if (buildingId != null) {
             sql.append(" AND r.building_id=?");
@@ -123,22 +159,14 @@ public class DormBedRepository {
             args.add(like);
             args.add(like);
         }
-        sql.append(" ORDER BY ").append(orderBy).append(" LIMIT ? OFFSET ?");
+        if (after != null) {
+            after.appendSeek(sql, args, sort);
+        }
+        sql.append(" ORDER BY ").append(sort.orderBy()).append(" LIMIT ? OFFSET ?");
         args.add(limit);
         args.add(offset);
 
-        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
-            DormBedVo vo = new DormBedVo();
-            vo.setId(rs.getLong("id"));
-            vo.setRoomId(rs.getLong("room_id"));
-            vo.setRoomNo(rs.getString("room_no"));
-            vo.setBuildingId(rs.getLong("building_id"));
-            vo.setBuildingCode(rs.getString("building_code"));
-            vo.setBuildingName(rs.getString("building_name"));
-            vo.setBedNo(rs.getString("bed_no"));
-            vo.setStatus(rs.getString("status"));
-            return vo;
-        }, args.toArray());
+        return jdbcTemplate.query(sql.toString(), VO_MAPPER, args.toArray());
     }
 
     public Long insert(DormBed bed) {
@@ -153,38 +181,173 @@ public class DormBedRepository {
             ps.setString(3, bed.getStatus());
             return ps;
         }, keyHolder);
+        countCache.invalidate(TABLE);
         Number key = keyHolder.getKey();
         return key == null ? null : key.longValue();
     }
 
+    public void batchInsert(List<DormBed> beds, int batchSize) {
+        if (beds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO dorm_bed(room_id, bed_no, status, deleted) VALUES (?,?,?,0)",
+                beds,
+                batchSize,
+                (ps, bed) -> {
+                    ps.setLong(1, bed.getRoomId());
+                    ps.setString(2, bed.getBedNo());
+                    ps.setString(3, bed.getStatus());
+                }
+        );
+        countCache.invalidate(TABLE);
+    }
+
+    public List<BedSlot> findSlots(Collection<Long> buildingIds) {
+        StringBuilder sql = new StringBuilder(SLOT_SELECT +
+                "WHERE bed.deleted=0 AND r.deleted=0 AND b.deleted=0 AND r.status='ACTIVE' AND b.status='ACTIVE'");
+        List<Object> args = new ArrayList<>();
+        if (buildingIds != null && !buildingIds.isEmpty()) {
+            sql.append(" AND r.building_id IN (").append(placeholders(buildingIds.size())).append(")");
+            args.addAll(buildingIds);
+        }
+        sql.append(" ORDER BY r.building_id, r.floor_no, r.room_no, bed.bed_no");
+        return jdbcTemplate.query(sql.toString(), SLOT_MAPPER, args.toArray());
+    }
+
+    public void scanOccupancySlots(Consumer<BedSlot> consumer) {
+        String sql = "SELECT bed.id, bed.room_id, bed.bed_no, bed.status, r.building_id, r.floor_no, r.room_no, r.room_type, r.gender_limit, b.gender_limit, " +
+                "(r.deleted=0 AND r.status='ACTIVE') AS room_active, (b.deleted=0 AND b.status='ACTIVE') AS building_active " +
+                "FROM dorm_bed bed " +
+                "JOIN dorm_room r ON r.id=bed.room_id " +
+                "JOIN dorm_building b ON b.id=r.building_id " +
+                "WHERE bed.deleted=0 " +
+                "ORDER BY r.building_id, r.floor_no, r.room_no, r.id, bed.bed_no";
+        JdbcRows.stream(jdbcTemplate, sql, List.of(), (rs, rowNum) -> {
+            BedSlot slot = SLOT_MAPPER.mapRow(rs, rowNum);
+            slot.setRoomActive(rs.getBoolean(11));
+            slot.setBuildingActive(rs.getBoolean(12));
+            slot.setAllocatable(slot.getRoomActive() && slot.getBuildingActive());
+            return slot;
+        }, consumer);
+    }
+
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM dorm_bed WHERE deleted=0 AND id IN (" + placeholders(ids.size()) + ")",
+                Long.class,
+                ids.toArray()
+        ));
+    }
+
+    public int[] batchOccupy(List<Long> bedIds) {
+        if (bedIds.isEmpty()) {
+            return new int[0];
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "UPDATE dorm_bed SET status='OCCUPIED' WHERE id=? AND status='AVAILABLE' AND deleted=0",
+                bedIds,
+                bedIds.size(),
+                (ps, id) -> ps.setLong(1, id)
+        );
+        countCache.invalidate(TABLE);
+        return counts.length == 0 ? new int[0] : counts[0];
+    }
+
     public int update(Long id, DormBed bed) {
-        return jdbcTemplate.update(
+        return countCache.afterWrite(TABLE, jdbcTemplate.update(
                 "UPDATE dorm_bed SET room_id=?, bed_no=?, status=? WHERE id=? AND deleted=0",
                 bed.getRoomId(),
                 bed.getBedNo(),
                 bed.getStatus(),
                 id
+        ));
+    }
+
+    /**
+     * Locks the beds in ascending id order so concurrent multi-bed moves cannot deadlock each other.
+     */
+    public List<DormBed> lockByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM dorm_bed WHERE deleted=0 AND id IN (" + placeholders(ids.size()) + ") ORDER BY id FOR UPDATE",
+                ROW_MAPPER,
+                ids.toArray()
         );
     }
 
+    /**
+     * Sets {@code vacate} beds AVAILABLE and {@code occupy} beds OCCUPIED in one statement.
+     */
+    public int moveOccupancy(Collection<Long> vacate, Collection<Long> occupy) {
+        if (vacate.isEmpty() && occupy.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("UPDATE dorm_bed SET status=");
+        if (vacate.isEmpty() || occupy.isEmpty()) {
+            sql.append(vacate.isEmpty() ? "'OCCUPIED'" : "'AVAILABLE'");
+        } else {
+            sql.append("CASE WHEN id IN (").append(placeholders(vacate.size())).append(") THEN 'AVAILABLE' ELSE 'OCCUPIED' END");
+            args.addAll(vacate);
+        }
+        sql.append(" WHERE deleted=0 AND id IN (").append(placeholders(vacate.size() + occupy.size())).append(")");
+        args.addAll(vacate);
+        args.addAll(occupy);
+        return countCache.afterWrite(TABLE, jdbcTemplate.update(sql.toString(), args.toArray()));
+    }
+
+    /**
+     * Marks the beds available unless another active assignment still points at them. Returns the beds that were
+     * released; they stay locked until the transaction ends.
+     */
+    public List<Long> releaseIfUnassigned(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> released = jdbcTemplate.queryForList(
+                "SELECT id FROM dorm_bed WHERE deleted=0 AND id IN (" + placeholders(ids.size()) + ") " +
+                        "AND NOT EXISTS (SELECT 1 FROM dorm_assignment a WHERE a.bed_id=dorm_bed.id AND a.status='ACTIVE' AND a.deleted=0) " +
+                        "ORDER BY id FOR UPDATE",
+                Long.class,
+                ids.toArray()
+        );
+        if (!released.isEmpty()) {
+            countCache.afterWrite(TABLE, jdbcTemplate.update(
+                    "UPDATE dorm_bed SET status='AVAILABLE' WHERE id IN (" + placeholders(released.size()) + ")",
+                    released.toArray()
+            ));
+        }
+        return released;
+    }
+
     public int updateStatusIfCurrent(Long id, String currentStatus, String nextStatus) {
-        return jdbcTemplate.update(
+        return countCache.afterWrite(TABLE, jdbcTemplate.update(
                 "UPDATE dorm_bed SET status=? WHERE id=? AND status=? AND deleted=0",
                 nextStatus,
                 id,
                 currentStatus
-        );
+        ));
     }
 
     public int updateStatus(Long id, String nextStatus) {
-        return jdbcTemplate.update(
+        return countCache.afterWrite(TABLE, jdbcTemplate.update(
                 "UPDATE dorm_bed SET status=? WHERE id=? AND deleted=0",
                 nextStatus,
                 id
-        );
+        ));
     }
 
     public int softDelete(Long id) {
-        return jdbcTemplate.update("UPDATE dorm_bed SET deleted=1 WHERE id=? AND deleted=0", id);
+        return countCache.afterWrite(TABLE, jdbcTemplate.update("UPDATE dorm_bed SET deleted=1 WHERE id=? AND deleted=0", id));
+    }
+
+    private static String placeholders(int n) {
+        return String.join(",", Collections.nCopies(n, "?"));
     }
 }
@@ -1,5 +1,8 @@
 package com.example.dormitory.dorm.repository;
 
+import com.example.dormitory.common.CountCache;
+import com.example.dormitory.common.PageCursor;
+import com.example.dormitory.common.SortSpec;
 import com.example.dormitory.dorm.model.DormBuilding;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -15,16 +18,35 @@ import java.util.List;
 @Repository
 public class DormBuildingRepository {
 
+    private static final String TABLE = "dorm_building";
+    private static final List<String> COUNT_TABLES = List.of("dorm_building");
+
+    private static final String COLUMNS = "id, code, name, gender_limit, address, status, deleted";
+
+    private static final RowMapper<DormBuilding> ROW_MAPPER = (rs, rowNum) -> {
+        DormBuilding b = new DormBuilding();
+        b.setId(rs.getLong(1));
+        b.setCode(rs.getString(2));
+        b.setName(rs.getString(3));
+        b.setGenderLimit(rs.getString(4));
+        b.setAddress(rs.getString(5));
+        b.setStatus(rs.getString(6));
+        b.setDeleted(rs.getInt(7));
+        return b;
+    };
+
     private final JdbcTemplate jdbcTemplate;
+    private final CountCache countCache;
 
-    public DormBuildingRepository(JdbcTemplate jdbcTemplate) {
+    public DormBuildingRepository(JdbcTemplate jdbcTemplate, CountCache countCache) {
         this.jdbcTemplate = jdbcTemplate;
+        this.countCache = countCache;
     }
 
     public DormBuilding findById(Long id) {
         List<DormBuilding> list = jdbcTemplate.query(
-                "SELECT id, code, name, gender_limit, address, status, deleted FROM dorm_building WHERE id=? AND deleted=0 LIMIT 1",
-                rowMapper(),
+                "SELECT " + COLUMNS + " FROM dorm_building WHERE id=? AND deleted=0 LIMIT 1",
+                ROW_MAPPER,
                 id
         );
         return list.isEmpty() ? null : list.get(0);
@@ -43,12 +65,14 @@ public class DormBuildingRepository {
             sql.append(" AND gender_limit=?");
             args.add(genderLimit.trim());
         }
-        Long cnt = jdbcTemplate.queryForObject(sql.toString(), args.toArray(), Long.class);
-        return cnt == null ? 0 : cnt;
+        return countCache.count(COUNT_TABLES, sql.toString(), args, () -> {
+            Long cnt = jdbcTemplate.queryForObject(sql.toString(), args.toArray(), Long.class);
+            return cnt == null ? 0 : cnt;
+        });
     }
 
-    public List<DormBuilding> list(String keyword, String genderLimit, String orderBy, int limit, int offset) {
-        StringBuilder sql = new StringBuilder("SELECT id, code, name, gender_limit, address, status, deleted FROM dorm_building WHERE deleted=0");
+    public List<DormBuilding> list(String keyword, String genderLimit, SortSpec<?> sort, PageCursor after, int limit, int offset) {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM dorm_building WHERE deleted=0");
         List<Object> args = new ArrayList<>();
         if (keyword != null && !keyword.isBlank()) {
             sql.append(" AND (code LIKE ? OR name LIKE ?)");
@@ -60,10 +84,13 @@ public class DormBuildingRepository {
             sql.append(" AND gender_limit=?");
             args.add(genderLimit.trim());
         }
-        sql.append(" ORDER BY ").append(orderBy).append(" LIMIT ? OFFSET ?");
+        if (after != null) {
+            after.appendSeek(sql, args, sort);
+        }
+        sql.append(" ORDER BY ").append(sort.orderBy()).append(" LIMIT ? OFFSET ?");
         args.add(limit);
         args.add(offset);
-        return jdbcTemplate.query(sql.toString(), rowMapper(), args.toArray());
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
     }
 
     public Long insert(DormBuilding building) {
@@ -80,12 +107,13 @@ public class DormBuildingRepository {
             ps.setString(5, building.getStatus());
             return ps;
         }, keyHolder);
+        countCache.invalidate(TABLE);
         Number key = keyHolder.getKey();
         return key == null ? null : key.longValue();
     }
 
     public int update(Long id, DormBuilding building) {
-        return jdbcTemplate.update(
+        return countCache.afterWrite(TABLE, jdbcTemplate.update(
                 "UPDATE dorm_building SET code=?, name=?, gender_limit=?, address=?, status=? WHERE id=? AND deleted=0",
                 building.getCode(),
                 building.getName(),
@@ -93,24 +121,10 @@ public class DormBuildingRepository {
                 building.getAddress(),
                 building.getStatus(),
                 id
-        );
+        ));
     }
 
     public int softDelete(Long id) {
-        return jdbcTemplate.update("UPDATE dorm_building SET deleted=1 WHERE id=? AND deleted=0", id);
-    }
-
-    private RowMapper<DormBuilding> rowMapper() {
-        return (rs, rowNum) -> {
-            DormBuilding b = new DormBuilding();
-            b.setId(rs.getLong("id"));
-            b.setCode(rs.getString("code"));
-            b.setName(rs.getString("name"));
-            b.setGenderLimit(rs.getString("gender_limit"));
-            b.setAddress(rs.getString("address"));
-            b.setStatus(rs.getString("status"));
-            b.setDeleted(rs.getInt("deleted"));
-            return b;
-        };
+        return countCache.afterWrite(TABLE, jdbcTemplate.update("UPDATE dorm_building SET deleted=1 WHERE id=? AND deleted=0", id));
     }
 }
@@ -0,0 +1,141 @@
+package com.example.dormitory.dorm.repository;
+
+import com.example.dormitory.common.JdbcRows;
+import com.example.dormitory.dorm.model.DormCheckOutJob;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public class DormCheckOutJobRepository {
+
+    private static final String COLUMNS = "id, building_id, college, class_name, student_status, reason, status, total, processed, last_assignment_id, lease_until, error, finished_at, created_at, created_by";
+
+    private static final RowMapper<DormCheckOutJob> ROW_MAPPER = (rs, rowNum) -> {
+        DormCheckOutJob job = new DormCheckOutJob();
+        job.setId(rs.getLong(1));
+        job.setBuildingId(JdbcRows.getLong(rs, 2));
+        job.setCollege(rs.getString(3));
+        job.setClassName(rs.getString(4));
+        job.setStudentStatus(rs.getString(5));
+        job.setReason(rs.getString(6));
+        job.setStatus(rs.getString(7));
+        job.setTotal(rs.getInt(8));
+        job.setProcessed(rs.getInt(9));
+        job.setLastAssignmentId(rs.getLong(10));
+        job.setLeaseUntil(JdbcRows.getLocalDateTime(rs, 11));
+        job.setError(rs.getString(12));
+        job.setFinishedAt(JdbcRows.getLocalDateTime(rs, 13));
+        job.setCreatedAt(JdbcRows.getLocalDateTime(rs, 14));
+        job.setCreatedBy(JdbcRows.getLong(rs, 15));
+        return job;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DormCheckOutJobRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public DormCheckOutJob findById(Long id) {
+        List<DormCheckOutJob> list = jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM dorm_check_out_job WHERE id=? LIMIT 1",
+                ROW_MAPPER,
+                id
+        );
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    public Long insert(DormCheckOutJob job) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO dorm_check_out_job(building_id, college, class_name, student_status, reason, status, total, created_by) VALUES (?,?,?,?,?,?,?,?)",
+                    Statement.RETURN_GENERATED_KEYS
+            );
+            if (job.getBuildingId() == null) {
+                ps.setNull(1, Types.BIGINT);
+            } else {
+                ps.setLong(1, job.getBuildingId());
+            }
+            ps.setString(2, job.getCollege());
+            ps.setString(3, job.getClassName());
+            ps.setString(4, job.getStudentStatus());
+            ps.setString(5, job.getReason());
+            ps.setString(6, job.getStatus());
+            ps.setInt(7, job.getTotal());
+            if (job.getCreatedBy() == null) {
+                ps.setNull(8, Types.BIGINT);
+            } else {
+                ps.setLong(8, job.getCreatedBy());
+            }
+            return ps;
+        }, keyHolder);
+        Number key = keyHolder.getKey();
+        return key == null ? null : key.longValue();
+    }
+
+    /**
+     * Jobs waiting to start and running jobs whose worker stopped renewing its lease.
+     */
+    public List<Long> findRunnableIds(LocalDateTime now, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM dorm_check_out_job WHERE status='PENDING' OR (status='RUNNING' AND lease_until<?) ORDER BY id LIMIT ?",
+                Long.class,
+                Timestamp.valueOf(now),
+                limit
+        );
+    }
+
+    /**
+     * Takes the lease for {@code owner}. Later writes by the worker must present the same owner, so a worker whose
+     * lease expired and was taken over can no longer move the job.
+     */
+    public int claim(Long id, String owner, LocalDateTime now, LocalDateTime leaseUntil) {
+        return jdbcTemplate.update(
+                "UPDATE dorm_check_out_job SET status='RUNNING', lease_until=?, lease_owner=? WHERE id=? AND (status='PENDING' OR (status='RUNNING' AND lease_until<?))",
+                Timestamp.valueOf(leaseUntil),
+                owner,
+                id,
+                Timestamp.valueOf(now)
+        );
+    }
+
+    public int advance(Long id, String owner, int processed, Long lastAssignmentId, LocalDateTime leaseUntil) {
+        return jdbcTemplate.update(
+                "UPDATE dorm_check_out_job SET processed=processed+?, last_assignment_id=?, lease_until=? WHERE id=? AND status='RUNNING' AND lease_owner=?",
+                processed,
+                lastAssignmentId,
+                Timestamp.valueOf(leaseUntil),
+                id,
+                owner
+        );
+    }
+
+    public int finish(Long id, String owner, String status, String error) {
+        return jdbcTemplate.update(
+                "UPDATE dorm_check_out_job SET status=?, error=?, lease_until=NULL, lease_owner=NULL, finished_at=? WHERE id=? AND status='RUNNING' AND lease_owner=?",
+                status,
+                error,
+                Timestamp.valueOf(LocalDateTime.now()),
+                id,
+                owner
+        );
+    }
+
+    public int requeue(Long id) {
+        return jdbcTemplate.update(
+                "UPDATE dorm_check_out_job SET status='PENDING', error=NULL, lease_until=NULL, lease_owner=NULL, finished_at=NULL WHERE id=? AND status='FAILED'",
+                id
+        );
+    }
+}
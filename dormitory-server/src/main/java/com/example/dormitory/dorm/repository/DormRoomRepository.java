@@ -1,8 +1,12 @@
 package com.example.dormitory.dorm.repository;
 
+import com.example.dormitory.common.CountCache;
+import com.example.dormitory.common.PageCursor;
+import com.example.dormitory.common.SortSpec;
 import com.example.dormitory.dorm.model.DormRoom;
 import com.example.dormitory.dorm.vo.DormRoomVo;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
@@ -10,55 +14,65 @@ import org.springframework.stereotype.Repository;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public class DormRoomRepository {
 
+    private static final String TABLE = "dorm_room";
+    private static final List<String> COUNT_TABLES = List.of("dorm_room", "dorm_building");
+
+    private static final String COLUMNS = "id, building_id, floor_no, room_no, room_type, gender_limit, status, deleted";
+    private static final String VO_SELECT =
+            "SELECT r.id, r.building_id, b.code AS building_code, b.name AS building_name, r.floor_no, r.room_no, r.room_type, r.gender_limit, r.status " +
+                    "FROM dorm_room r JOIN dorm_building b ON b.id=r.building_id ";
+
+    private static final RowMapper<DormRoom> ROW_MAPPER = (rs, rowNum) -> {
+        DormRoom r = new DormRoom();
+        r.setId(rs.getLong(1));
+        r.setBuildingId(rs.getLong(2));
+        r.setFloorNo(rs.getInt(3));
+        r.setRoomNo(rs.getString(4));
+        r.setRoomType(rs.getString(5));
+        r.setGenderLimit(rs.getString(6));
+        r.setStatus(rs.getString(7));
+        r.setDeleted(rs.getInt(8));
+        return r;
+    };
+
+    private static final RowMapper<DormRoomVo> VO_MAPPER = (rs, rowNum) -> {
+        DormRoomVo vo = new DormRoomVo();
+        vo.setId(rs.getLong(1));
+        vo.setBuildingId(rs.getLong(2));
+        vo.setBuildingCode(rs.getString(3));
+        vo.setBuildingName(rs.getString(4));
+        vo.setFloorNo(rs.getInt(5));
+        vo.setRoomNo(rs.getString(6));
+        vo.setRoomType(rs.getString(7));
+        vo.setGenderLimit(rs.getString(8));
+        vo.setStatus(rs.getString(9));
+        return vo;
+    };
+
     private final JdbcTemplate jdbcTemplate;
+    private final CountCache countCache;
 
-    public DormRoomRepository(JdbcTemplate jdbcTemplate) {
+    public DormRoomRepository(JdbcTemplate jdbcTemplate, CountCache countCache) {
         this.jdbcTemplate = jdbcTemplate;
+        this.countCache = countCache;
     }
 
     public DormRoomVo findVoById(Long id) {
-        List<DormRoomVo> list = jdbcTemplate.query(
-                "SELECT r.id, r.building_id, b.code AS building_code, b.name AS building_name, r.floor_no, r.room_no, r.room_type, r.gender_limit, r.status " +
-                        "FROM dorm_room r JOIN dorm_building b ON b.id=r.building_id " +
-                        "WHERE r.id=? AND r.deleted=0 LIMIT 1",
-                (rs, rowNum) -> {
-                    DormRoomVo vo = new DormRoomVo();
-                    vo.setId(rs.getLong("id"));
-                    vo.setBuildingId(rs.getLong("building_id"));
-                    vo.setBuildingCode(rs.getString("building_code"));
-                    vo.setBuildingName(rs.getString("building_name"));
-                    vo.setFloorNo(rs.getInt("floor_no"));
-                    vo.setRoomNo(rs.getString("room_no"));
-                    vo.setRoomType(rs.getString("room_type"));
-                    vo.setGenderLimit(rs.getString("gender_limit"));
-                    vo.setStatus(rs.getString("status"));
-                    return vo;
-                },
-                id
-        );
+        List<DormRoomVo> list = jdbcTemplate.query(VO_SELECT + "WHERE r.id=? AND r.deleted=0 LIMIT 1", VO_MAPPER, id);
         return list.isEmpty() ? null : list.get(0);
     }
 
     public DormRoom findById(Long id) {
         List<DormRoom> list = jdbcTemplate.query(
-                "SELECT id, building_id, floor_no, room_no, room_type, gender_limit, status, deleted FROM dorm_room WHERE id=? AND deleted=0 LIMIT 1",
-                (rs, rowNum) -> {
-                    DormRoom r = new DormRoom();
-                    r.setId(rs.getLong("id"));
-                    r.setBuildingId(rs.getLong("building_id"));
-                    r.setFloorNo(rs.getInt("floor_no"));
-                    r.setRoomNo(rs.getString("room_no"));
-                    r.setRoomType(rs.getString("room_type"));
-                    r.setGenderLimit(rs.getString("gender_limit"));
-                    r.setStatus(rs.getString("status"));
-                    r.setDeleted(rs.getInt("deleted"));
-                    return r;
-                },
+                "SELECT " + COLUMNS + " FROM dorm_room WHERE id=? AND deleted=0 LIMIT 1",
+                ROW_MAPPER,
                 id
         );
         return list.isEmpty() ? null : list.get(0);
@@ -91,15 +105,14 @@ public class DormRoomRepository {
             args.add(like);
             args.add(like);
         }
-        Long cnt = jdbcTemplate.queryForObject(sql.toString(), args.toArray(), Long.class);
-        return cnt == null ? 0 : cnt;
+        return countCache.count(COUNT_TABLES, sql.toString(), args, () -> {
+            Long cnt = jdbcTemplate.queryForObject(sql.toString(), args.toArray(), Long.class);
+            return cnt == null ? 0 : cnt;
+        });
     }
 
-    public List<DormRoomVo> list(Long buildingId, Integer floorNo, String roomNo, String status, String keyword, String orderBy, int limit, int offset) {
-        StringBuilder sql = new StringBuilder(
-                "SELECT r.id, r.building_id, b.code AS building_code, b.name AS building_name, r.floor_no, r.room_no, r.room_type, r.gender_limit, r.status " +
-                        "FROM dorm_room r JOIN dorm_building b ON b.id=r.building_id WHERE r.deleted=0"
-        );
+    public List<DormRoomVo> list(Long buildingId, Integer floorNo, String roomNo, String status, String keyword, SortSpec<?> sort, PageCursor after, int limit, int offset) {
+        StringBuilder sql = new StringBuilder(VO_SELECT + "WHERE r.deleted=0");
         List<Object> args = new ArrayList<>();
         if (buildingId != null) {
             sql.append(" AND r.building_id=?");
@@ -125,23 +138,14 @@ public class DormRoomRepository {
             args.add(like);
             args.add(like);
         }
-        sql.append(" ORDER BY ").append(orderBy).append(" LIMIT ? OFFSET ?");
+        if (after != null) {
+            after.appendSeek(sql, args, sort);
+        }
+        sql.append(" ORDER BY ").append(sort.orderBy()).append(" LIMIT ? OFFSET ?");
         args.add(limit);
         args.add(offset);
 
-        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
-            DormRoomVo vo = new DormRoomVo();
-            vo.setId(rs.getLong("id"));
-            vo.setBuildingId(rs.getLong("building_id"));
-            vo.setBuildingCode(rs.getString("building_code"));
-            vo.setBuildingName(rs.getString("building_name"));
-            vo.setFloorNo(rs.getInt("floor_no"));
-            vo.setRoomNo(rs.getString("room_no"));
-            vo.setRoomType(rs.getString("room_type"));
-            vo.setGenderLimit(rs.getString("gender_limit"));
-            vo.setStatus(rs.getString("status"));
-            return vo;
-        }, args.toArray());
+        return jdbcTemplate.query(sql.toString(), VO_MAPPER, args.toArray());
     }
 
     public Long insert(DormRoom room) {
@@ -159,12 +163,52 @@ public class DormRoomRepository {
             ps.setString(6, room.getStatus());
             return ps;
         }, keyHolder);
+        countCache.invalidate(TABLE);
         Number key = keyHolder.getKey();
         return key == null ? null : key.longValue();
     }
 
+    public List<String> findRoomNosByBuilding(Long buildingId) {
+        // The unique key does not include deleted, so soft-deleted rooms still hold their numbers.
+        return jdbcTemplate.queryForList("SELECT room_no FROM dorm_room WHERE building_id=?", String.class, buildingId);
+    }
+
+    public Map<String, Long> findIdsByBuilding(Long buildingId) {
+        return jdbcTemplate.query(
+                "SELECT id, room_no FROM dorm_room WHERE building_id=? AND deleted=0",
+                rs -> {
+                    Map<String, Long> map = new HashMap<>();
+                    while (rs.next()) {
+                        map.put(rs.getString(2), rs.getLong(1));
+                    }
+                    return map;
+                },
+                buildingId
+        );
+    }
+
+    public void batchInsert(List<DormRoom> rooms, int batchSize) {
+        if (rooms.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO dorm_room(building_id, floor_no, room_no, room_type, gender_limit, status, deleted) VALUES (?,?,?,?,?,?,0)",
+                rooms,
+                batchSize,
+                (ps, room) -> {
+                    ps.setLong(1, room.getBuildingId());
+                    ps.setInt(2, room.getFloorNo());
+                    ps.setString(3, room.getRoomNo());
+                    ps.setString(4, room.getRoomType());
+                    ps.setString(5, room.getGenderLimit());
+                    ps.setString(6, room.getStatus());
+                }
+        );
+        countCache.invalidate(TABLE);
+    }
+
     public int update(Long id, DormRoom room) {
-        return jdbcTemplate.update(
+        return countCache.afterWrite(TABLE, jdbcTemplate.update(
                 "UPDATE dorm_room SET building_id=?, floor_no=?, room_no=?, room_type=?, gender_limit=?, status=? WHERE id=? AND deleted=0",
                 room.getBuildingId(),
                 room.getFloorNo(),
@@ -173,10 +217,10 @@ public class DormRoomRepository {
                 room.getGenderLimit(),
                 room.getStatus(),
                 id
-        );
+        ));
     }
 
     public int softDelete(Long id) {
-        return jdbcTemplate.update("UPDATE dorm_room SET deleted=1 WHERE id=? AND deleted=0", id);
+        return countCache.afterWrite(TABLE, jdbcTemplate.update("UPDATE dorm_room SET deleted=1 WHERE id=? AND deleted=0", id));
     }
 }
@@ -0,0 +1,335 @@
+package com.example.dormitory.dorm.service;
+
+import com.example.dormitory.dorm.model.AssignmentInterval;
+import com.example.dormitory.dorm.repository.DormAssignmentRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assignment history as intervals {@code [start_at, end_at)} grouped per bed and per student. Each group is sorted by
+ * start with a running maximum of end, so an overlap query binary-searches the first start past the window and walks
+ * back only while an earlier stay could still reach into it; a room query is the union of its beds. The index is
+ * refreshed from rows whose {@code updated_at} moved and fully rebuilt on the reconcile schedule.
+ */
+@Component
+public class AssignmentIntervalIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AssignmentIntervalIndex.class);
+
+    private static final long OPEN = Long.MAX_VALUE;
+    // Re-read this much history on every refresh so rows committed slightly after their updated_at are not missed.
+    private static final long REFRESH_OVERLAP_SECONDS = 30;
+
+    private final DormAssignmentRepository assignmentRepository;
+    private final Object writeLock = new Object();
+    private volatile View view;
+    private LocalDateTime watermark;
+
+    public AssignmentIntervalIndex(DormAssignmentRepository assignmentRepository, MeterRegistry meterRegistry) {
+        this.assignmentRepository = assignmentRepository;
+        Gauge.builder("dorm.assignment.interval.size", this, i -> {
+            View v = i.view;
+            return v == null ? 0 : v.byId.size();
+        }).register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return view != null;
+    }
+
+    /**
+     * Ids of stays in the bed overlapping {@code [from, to)}, or {@code null} before the first build.
+     */
+    public List<Long> findByBed(Long bedId, LocalDateTime from, LocalDateTime to) {
+        View v = view;
+        if (v == null) {
+            return null;
+        }
+        List<Stay> out = new ArrayList<>();
+        Stays stays = v.byBed.get(bedId);
+        if (stays != null) {
+            stays.overlapping(toMillis(from), toMillis(to), out);
+        }
+        return ids(out);
+    }
+
+    public List<Long> findByRoom(Long roomId, LocalDateTime from, LocalDateTime to) {
+        View v = view;
+        if (v == null) {
+            return null;
+        }
+        List<Stay> out = new ArrayList<>();
+        v.overlappingInRoom(roomId, toMillis(from), toMillis(to), out);
+        return ids(out);
+    }
+
+    /**
+     * Ids of other students' stays sharing a room with one of the student's stays inside {@code [from, to)}.
+     */
+    public List<Long> findRoommates(Long studentId, LocalDateTime from, LocalDateTime to) {
+        View v = view;
+        if (v == null) {
+            return null;
+        }
+        Stays own = v.byStudent.get(studentId);
+        if (own == null) {
+            return List.of();
+        }
+        long lo = toMillis(from);
+        long hi = toMillis(to);
+        List<Stay> mine = new ArrayList<>();
+        own.overlapping(lo, hi, mine);
+        List<Stay> out = new ArrayList<>();
+        for (Stay stay : mine) {
+            int before = out.size();
+            v.overlappingInRoom(stay.roomId, Math.max(lo, stay.start), Math.min(hi, stay.end), out);
+            out.subList(before, out.size()).removeIf(s -> s.studentId == studentId);
+        }
+        return ids(out);
+    }
+
+    @Scheduled(fixedDelayString = "${app.occupancy-history.refresh-millis:1000}")
+    public void refresh() {
+        synchronized (writeLock) {
+            if (view == null) {
+                rebuild();
+                return;
+            }
+            List<AssignmentInterval> changed = new ArrayList<>();
+            try {
+                assignmentRepository.scanIntervals(watermark.minusSeconds(REFRESH_OVERLAP_SECONDS), changed::add);
+            } catch (Exception e) {
+                log.warn("refresh assignment interval index failed: {}", e.getMessage());
+                return;
+            }
+            Set<Long> beds = new LinkedHashSet<>();
+            Set<Long> students = new LinkedHashSet<>();
+            for (AssignmentInterval row : changed) {
+                advanceWatermark(row.getUpdatedAt());
+                Stay old = view.byId.get(row.getId());
+                Stay next = row.getDeleted() != null && row.getDeleted() != 0 ? null : Stay.of(row);
+                if (old != null && old.equals(next)) {
+                    continue;
+                }
+                if (old != null) {
+                    view.remove(old);
+                    beds.add(old.bedId);
+                    students.add(old.studentId);
+                }
+                if (next != null) {
+                    view.add(next);
+                    beds.add(next.bedId);
+                    students.add(next.studentId);
+                }
+            }
+            view.publish(beds, students);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.occupancy-history.reconcile-millis:600000}", initialDelayString = "${app.occupancy-history.reconcile-millis:600000}")
+    public void reconcile() {
+        synchronized (writeLock) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        View fresh = new View();
+        LocalDateTime previous = watermark;
+        watermark = null;
+        try {
+            assignmentRepository.scanIntervals(null, row -> {
+                advanceWatermark(row.getUpdatedAt());
+                fresh.add(Stay.of(row));
+            });
+        } catch (Exception e) {
+            watermark = previous;
+            log.warn("rebuild assignment interval index failed: {}", e.getMessage());
+            return;
+        }
+        if (watermark == null) {
+            watermark = LocalDateTime.now();
+        }
+        fresh.publish(new ArrayList<>(fresh.bedMembers.keySet()), new ArrayList<>(fresh.studentMembers.keySet()));
+        view = fresh;
+        log.debug("assignment interval index built: stays={}, tookMs={}", fresh.byId.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    private void advanceWatermark(LocalDateTime updatedAt) {
+        if (updatedAt != null && (watermark == null || updatedAt.isAfter(watermark))) {
+            watermark = updatedAt;
+        }
+    }
+
+    private static long toMillis(LocalDateTime t) {
+        return t == null ? OPEN : t.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static List<Long> ids(List<Stay> stays) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Stay s : stays) {
+            ids.add(s.assignmentId);
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * Query side is the concurrent maps of immutable {@link Stays}; the member maps are only touched under the write lock.
+     */
+    private static final class View {
+        private final Map<Long, Stay> byId = new ConcurrentHashMap<>();
+        private final Map<Long, Stays> byBed = new ConcurrentHashMap<>();
+        private final Map<Long, Stays> byStudent = new ConcurrentHashMap<>();
+        private final Map<Long, long[]> roomBeds = new ConcurrentHashMap<>();
+        private final Map<Long, Map<Long, Stay>> bedMembers = new HashMap<>();
+        private final Map<Long, Map<Long, Stay>> studentMembers = new HashMap<>();
+        private final Map<Long, Set<Long>> roomMembers = new HashMap<>();
+
+        void add(Stay stay) {
+            byId.put(stay.assignmentId, stay);
+            bedMembers.computeIfAbsent(stay.bedId, k -> new HashMap<>()).put(stay.assignmentId, stay);
+            studentMembers.computeIfAbsent(stay.studentId, k -> new HashMap<>()).put(stay.assignmentId, stay);
+            if (roomMembers.computeIfAbsent(stay.roomId, k -> new LinkedHashSet<>()).add(stay.bedId)) {
+                roomBeds.put(stay.roomId, roomMembers.get(stay.roomId).stream().mapToLong(Long::longValue).toArray());
+            }
+        }
+
+        void remove(Stay stay) {
+            byId.remove(stay.assignmentId);
+            Map<Long, Stay> bed = bedMembers.get(stay.bedId);
+            if (bed != null) {
+                bed.remove(stay.assignmentId);
+            }
+            Map<Long, Stay> student = studentMembers.get(stay.studentId);
+            if (student != null) {
+                student.remove(stay.assignmentId);
+            }
+        }
+
+        void publish(Collection<Long> beds, Collection<Long> students) {
+            for (Long bedId : beds) {
+                publish(bedId, bedMembers, byBed);
+            }
+            for (Long studentId : students) {
+                publish(studentId, studentMembers, byStudent);
+            }
+        }
+
+        private static void publish(Long key, Map<Long, Map<Long, Stay>> members, Map<Long, Stays> target) {
+            Map<Long, Stay> m = members.get(key);
+            if (m == null || m.isEmpty()) {
+                members.remove(key);
+                target.remove(key);
+            } else {
+                target.put(key, new Stays(m.values()));
+            }
+        }
+
+        void overlappingInRoom(long roomId, long from, long to, List<Stay> out) {
+            long[] beds = roomBeds.get(roomId);
+            if (beds == null) {
+                return;
+            }
+            for (long bedId : beds) {
+                Stays stays = byBed.get(bedId);
+                if (stays != null) {
+                    stays.overlapping(from, to, out);
+                }
+            }
+        }
+    }
+
+    private static final class Stays {
+        private final Stay[] items;
+        private final long[] starts;
+        private final long[] maxEnds;
+
+        Stays(Collection<Stay> stays) {
+            items = stays.toArray(new Stay[0]);
+            Arrays.sort(items, Comparator.comparingLong((Stay s) -> s.start).thenComparingLong(s -> s.assignmentId));
+            starts = new long[items.length];
+            maxEnds = new long[items.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < items.length; i++) {
+                starts[i] = items[i].start;
+                max = Math.max(max, items[i].end);
+                maxEnds[i] = max;
+            }
+        }
+
+        /**
+         * Appends stays with {@code start < to && end > from}, latest start first.
+         */
+        void overlapping(long from, long to, List<Stay> out) {
+            int lo = 0;
+            int hi = starts.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] < to) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            for (int i = lo - 1; i >= 0 && maxEnds[i] > from; i--) {
+                if (items[i].end > from) {
+                    out.add(items[i]);
+                }
+            }
+        }
+    }
+
+    private static final class Stay {
+        private final long assignmentId;
+        private final long studentId;
+        private final long bedId;
+        private final long roomId;
+        private final long start;
+        private final long end;
+
+        private Stay(long assignmentId, long studentId, long bedId, long roomId, long start, long end) {
+            this.assignmentId = assignmentId;
+            this.studentId = studentId;
+            this.bedId = bedId;
+            this.roomId = roomId;
+            this.start = start;
+            this.end = end;
+        }
+
+        static Stay of(AssignmentInterval row) {
+            return new Stay(row.getId(), row.getStudentId(), row.getBedId(), row.getRoomId(), toMillis(row.getStartAt()), toMillis(row.getEndAt()));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Stay s)) {
+                return false;
+            }
+            return assignmentId == s.assignmentId && studentId == s.studentId && bedId == s.bedId
+                    && roomId == s.roomId && start == s.start && end == s.end;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(assignmentId);
+        }
+    }
+}
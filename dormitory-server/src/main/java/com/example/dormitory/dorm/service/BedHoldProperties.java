@@ -0,0 +1,37 @@
+package com.example.dormitory.dorm.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.bed-hold")
+public class BedHoldProperties {
+
+    private int defaultTtlSeconds = 120;
+
+    private int maxTtlSeconds = 600;
+
+    private int maxHolds = 20000;
+
+    public int getDefaultTtlSeconds() {
+        return defaultTtlSeconds;
+    }
+
+    public void setDefaultTtlSeconds(int defaultTtlSeconds) {
+        this.defaultTtlSeconds = defaultTtlSeconds;
+    }
+
+    public int getMaxTtlSeconds() {
+        return maxTtlSeconds;
+    }
+
+    public void setMaxTtlSeconds(int maxTtlSeconds) {
+        this.maxTtlSeconds = maxTtlSeconds;
+    }
+
+    public int getMaxHolds() {
+        return maxHolds;
+    }
+
+    public void setMaxHolds(int maxHolds) {
+        this.maxHolds = maxHolds;
+    }
+}
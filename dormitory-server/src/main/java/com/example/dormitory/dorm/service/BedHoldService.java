@@ -0,0 +1,119 @@
+package com.example.dormitory.dorm.service;
+
+import com.example.dormitory.common.BizException;
+import com.example.dormitory.dorm.dto.ConfirmBedHoldRequest;
+import com.example.dormitory.dorm.dto.CreateBedHoldRequest;
+import com.example.dormitory.dorm.dto.CreateDormAssignmentRequest;
+import com.example.dormitory.dorm.model.BedHold;
+import com.example.dormitory.dorm.model.DormBed;
+import com.example.dormitory.dorm.repository.DormAssignmentRepository;
+import com.example.dormitory.dorm.repository.DormBedRepository;
+import com.example.dormitory.dorm.vo.BedHoldVo;
+import com.example.dormitory.dorm.vo.DormAssignmentVo;
+import com.example.dormitory.security.SecurityUtils;
+import com.example.dormitory.security.UserPrincipal;
+import com.example.dormitory.student.repository.StudentRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class BedHoldService {
+
+    private final BedHoldTable holdTable;
+    private final BedOccupancyIndex occupancyIndex;
+    private final DormAssignmentService assignmentService;
+    private final DormAssignmentRepository assignmentRepository;
+    private final DormBedRepository bedRepository;
+    private final StudentRepository studentRepository;
+    private final BedHoldProperties properties;
+
+    public BedHoldService(BedHoldTable holdTable, BedOccupancyIndex occupancyIndex, DormAssignmentService assignmentService,
+                          DormAssignmentRepository assignmentRepository, DormBedRepository bedRepository, StudentRepository studentRepository,
+                          BedHoldProperties properties) {
+        this.holdTable = holdTable;
+        this.occupancyIndex = occupancyIndex;
+        this.assignmentService = assignmentService;
+        this.assignmentRepository = assignmentRepository;
+        this.bedRepository = bedRepository;
+        this.studentRepository = studentRepository;
+        this.properties = properties;
+    }
+
+    public BedHoldVo hold(CreateBedHoldRequest req) {
+        int ttl = req.getTtlSeconds() == null ? properties.getDefaultTtlSeconds() : req.getTtlSeconds();
+        if (ttl < 1 || ttl > properties.getMaxTtlSeconds()) {
+            throw new BizException(40001, "ttlSeconds must be between 1 and " + properties.getMaxTtlSeconds());
+        }
+        if (req.getStudentId() != null) {
+            if (studentRepository.findById(req.getStudentId()) == null) {
+                throw new BizException(40004, "student not found");
+            }
+            if (assignmentRepository.existsActiveForStudent(req.getStudentId())) {
+                throw new BizException(40901, "student already has active assignment");
+            }
+        }
+        if (holdTable.isHeld(req.getBedId(), null)) {
+            throw new BizException(40905, "bed is held");
+        }
+        Boolean free = occupancyIndex.isFree(req.getBedId());
+        if (free == null) {
+            DormBed bed = bedRepository.findById(req.getBedId());
+            if (bed == null) {
+                throw new BizException(40004, "bed not found");
+            }
+            free = "AVAILABLE".equalsIgnoreCase(bed.getStatus()) && !assignmentRepository.existsActiveForBed(req.getBedId());
+        }
+        if (!free) {
+            throw new BizException(40902, "bed already occupied");
+        }
+
+        UserPrincipal user = SecurityUtils.currentUser();
+        BedHold hold = holdTable.hold(req.getBedId(), req.getStudentId(), user == null ? null : user.getId(), TimeUnit.SECONDS.toMillis(ttl));
+        return toVo(hold);
+    }
+
+    public void release(String holdId) {
+        if (!holdTable.release(holdId)) {
+            throw new BizException(40004, "hold not found");
+        }
+    }
+
+    public DormAssignmentVo confirm(String holdId, ConfirmBedHoldRequest req) {
+        BedHold hold = holdTable.find(holdId);
+        if (hold == null) {
+            throw new BizException(40004, "hold not found or expired");
+        }
+        Long studentId = req == null ? null : req.getStudentId();
+        if (hold.getStudentId() != null) {
+            if (studentId != null && !studentId.equals(hold.getStudentId())) {
+                throw new BizException(40001, "hold belongs to another student");
+            }
+            studentId = hold.getStudentId();
+        }
+        if (studentId == null) {
+            throw new BizException(40001, "studentId required");
+        }
+
+        CreateDormAssignmentRequest create = new CreateDormAssignmentRequest();
+        create.setStudentId(studentId);
+        create.setBedId(hold.getBedId());
+        create.setReason(req == null ? null : req.getReason());
+        // A failed confirm keeps the hold so the caller can fix the request and retry before it expires.
+        DormAssignmentVo vo = assignmentService.create(create, holdId);
+        holdTable.release(holdId);
+        return vo;
+    }
+
+    private static BedHoldVo toVo(BedHold hold) {
+        BedHoldVo vo = new BedHoldVo();
+        vo.setHoldId(hold.getHoldId());
+        vo.setBedId(hold.getBedId());
+        vo.setStudentId(hold.getStudentId());
+        vo.setExpiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(hold.getExpiresAtMillis()), ZoneId.systemDefault()));
+        return vo;
+    }
+}
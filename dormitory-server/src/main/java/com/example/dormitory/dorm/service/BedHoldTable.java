@@ -0,0 +1,159 @@
+package com.example.dormitory.dorm.service;
+
+import com.example.dormitory.common.BizException;
+import com.example.dormitory.common.TooManyRequestsException;
+import com.example.dormitory.dorm.model.BedHold;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory bed reservations. Holds sit in a hashed timer wheel keyed by expiry tick, so each tick only looks at
+ * one bucket; entries for a later lap stay in place until their own tick comes round. Nothing here touches the
+ * database: expiry just clears the held bit in {@link BedOccupancyIndex}.
+ */
+@Component
+public class BedHoldTable {
+
+    private static final int WHEEL_SIZE = 512;
+    private static final long TICK_MILLIS = 1000;
+
+    private final BedOccupancyIndex occupancyIndex;
+    private final int maxHolds;
+    private final Counter expiredCounter;
+    private final Object lock = new Object();
+    private final Map<String, BedHold> byId = new HashMap<>();
+    private final Map<Long, BedHold> byBed = new HashMap<>();
+    private final Map<Long, BedHold> byStudent = new HashMap<>();
+    private final List<List<BedHold>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private long lastTick = System.currentTimeMillis() / TICK_MILLIS;
+
+    public BedHoldTable(BedOccupancyIndex occupancyIndex, BedHoldProperties properties, MeterRegistry meterRegistry) {
+        this.occupancyIndex = occupancyIndex;
+        this.maxHolds = Math.max(1, properties.getMaxHolds());
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        this.expiredCounter = Counter.builder("dorm.bed.hold.expired").register(meterRegistry);
+        Gauge.builder("dorm.bed.hold.active", this, BedHoldTable::size).register(meterRegistry);
+    }
+
+    /**
+     * Holds the bed, replacing an earlier hold by the same student. Fails with 40905 when another live hold owns the bed.
+     */
+    public BedHold hold(Long bedId, Long studentId, Long userId, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            BedHold existing = byBed.get(bedId);
+            if (existing != null && existing.getExpiresAtMillis() > now) {
+                throw new BizException(40905, "bed is held");
+            }
+            if (existing != null) {
+                remove(existing);
+            }
+            if (studentId != null) {
+                BedHold prior = byStudent.get(studentId);
+                if (prior != null) {
+                    remove(prior);
+                }
+            }
+            if (byId.size() >= maxHolds) {
+                throw new TooManyRequestsException(42904, "too many bed holds, retry later", 1);
+            }
+            BedHold hold = new BedHold(UUID.randomUUID().toString(), bedId, studentId, userId, now + ttlMillis);
+            byId.put(hold.getHoldId(), hold);
+            byBed.put(bedId, hold);
+            if (studentId != null) {
+                byStudent.put(studentId, hold);
+            }
+            long tick = Math.max((hold.getExpiresAtMillis() + TICK_MILLIS - 1) / TICK_MILLIS, lastTick + 1);
+            wheel.get((int) (tick % WHEEL_SIZE)).add(hold);
+            occupancyIndex.setHeld(bedId, true);
+            return hold;
+        }
+    }
+
+    /**
+     * The live hold with this id, or {@code null} when it was released or has expired.
+     */
+    public BedHold find(String holdId) {
+        synchronized (lock) {
+            BedHold hold = byId.get(holdId);
+            return hold == null || hold.getExpiresAtMillis() <= System.currentTimeMillis() ? null : hold;
+        }
+    }
+
+    /**
+     * Whether a live hold other than {@code exceptHoldId} owns the bed.
+     */
+    public boolean isHeld(Long bedId, String exceptHoldId) {
+        synchronized (lock) {
+            BedHold hold = byBed.get(bedId);
+            return hold != null
+                    && hold.getExpiresAtMillis() > System.currentTimeMillis()
+                    && !hold.getHoldId().equals(exceptHoldId);
+        }
+    }
+
+    public boolean release(String holdId) {
+        synchronized (lock) {
+            BedHold hold = byId.get(holdId);
+            if (hold == null) {
+                return false;
+            }
+            // The wheel entry is dropped when its tick comes round.
+            remove(hold);
+            return true;
+        }
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return byId.size();
+        }
+    }
+
+    @Scheduled(fixedDelay = TICK_MILLIS)
+    public void expire() {
+        long now = System.currentTimeMillis();
+        long currentTick = now / TICK_MILLIS;
+        synchronized (lock) {
+            // After a long pause one lap covers every bucket.
+            long from = Math.max(lastTick + 1, currentTick - WHEEL_SIZE + 1);
+            for (long tick = from; tick <= currentTick; tick++) {
+                Iterator<BedHold> it = wheel.get((int) (tick % WHEEL_SIZE)).iterator();
+                while (it.hasNext()) {
+                    BedHold hold = it.next();
+                    if (hold.getExpiresAtMillis() <= now) {
+                        it.remove();
+                        if (byId.get(hold.getHoldId()) == hold) {
+                            remove(hold);
+                            expiredCounter.increment();
+                        }
+                    }
+                }
+            }
+            lastTick = Math.max(lastTick, currentTick);
+        }
+    }
+
+    private void remove(BedHold hold) {
+        byId.remove(hold.getHoldId());
+        if (byBed.get(hold.getBedId()) == hold) {
+            byBed.remove(hold.getBedId());
+            occupancyIndex.setHeld(hold.getBedId(), false);
+        }
+        if (hold.getStudentId() != null && byStudent.get(hold.getStudentId()) == hold) {
+            byStudent.remove(hold.getStudentId());
+        }
+    }
+}
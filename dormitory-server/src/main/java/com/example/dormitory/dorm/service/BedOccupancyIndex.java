@@ -0,0 +1,714 @@
+package com.example.dormitory.dorm.service;
+
+import com.example.dormitory.dorm.model.BedSlot;
+import com.example.dormitory.dorm.repository.DormAssignmentRepository;
+import com.example.dormitory.dorm.repository.DormBedRepository;
+import com.example.dormitory.dorm.vo.AvailableBedVo;
+import com.example.dormitory.dorm.vo.BedOccupancyVo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bed availability laid out building -> floor -> room: beds get dense positions in that order, so every room,
+ * floor and building is a contiguous position range and availability is two bitmaps over those positions.
+ * Assignment, bed status and room/building attribute writes update it after commit; structural edits (adding,
+ * removing, moving or renumbering beds and rooms) and the periodic reconcile rebuild it from the database.
+ */
+@Component
+public class BedOccupancyIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BedOccupancyIndex.class);
+
+    private static final String AVAILABLE = "AVAILABLE";
+    private static final String OCCUPIED = "OCCUPIED";
+
+    private final DormBedRepository bedRepository;
+    private final DormAssignmentRepository assignmentRepository;
+    private final Counter driftCounter;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Snapshot snapshot;
+    private List<Consumer<Snapshot>> pendingDuringRebuild;
+    private boolean rebuildRequested;
+
+    public BedOccupancyIndex(DormBedRepository bedRepository, DormAssignmentRepository assignmentRepository, MeterRegistry meterRegistry) {
+        this.bedRepository = bedRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.driftCounter = Counter.builder("bed.occupancy.drift").register(meterRegistry);
+        Gauge.builder("bed.occupancy.beds", this, i -> i.read(s -> s == null ? 0 : s.beds)).register(meterRegistry);
+        Gauge.builder("bed.occupancy.free", this, i -> i.read(s -> s == null ? 0 : s.free.cardinality())).register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return read(s -> s != null);
+    }
+
+    public void assign(Long bedId) {
+        apply(new Op(bedId, true, OCCUPIED, null));
+    }
+
+    public void assignAll(Collection<Long> bedIds) {
+        for (Long bedId : bedIds) {
+            assign(bedId);
+        }
+    }
+
+    public void release(Long bedId) {
+        apply(new Op(bedId, false, AVAILABLE, null));
+    }
+
+    public void updateStatus(Long bedId, String status) {
+        apply(new Op(bedId, null, status, null));
+    }
+
+    /**
+     * Marks a bed as held by a reservation; held beds stay out of the free bitmap until released.
+     */
+    public void setHeld(Long bedId, boolean held) {
+        apply(new Op(bedId, null, null, held));
+    }
+
+    /**
+     * Room type, gender limit and status in place; a room that changes building, floor or number needs {@link #rebuild()}.
+     */
+    public void updateRoom(Long roomId, String roomType, String genderLimit, boolean active) {
+        if (roomId != null) {
+            mutate(s -> s.updateRoom(roomId, roomType, genderLimit, active));
+        }
+    }
+
+    public void updateBuilding(Long buildingId, String genderLimit, boolean active) {
+        if (buildingId != null) {
+            mutate(s -> s.updateBuilding(buildingId, genderLimit, active));
+        }
+    }
+
+    /**
+     * Whether the bed is AVAILABLE, unassigned and not held, or {@code null} when the bed is unknown or the index is not built yet.
+     */
+    public Boolean isFree(Long bedId) {
+        return read(s -> {
+            Integer pos = s == null ? null : s.bedPos.get(bedId);
+            return pos == null ? null : s.free.get(pos);
+        });
+    }
+
+    /**
+     * Same semantics as {@code DormBedRepository.count} without a keyword, or {@code null} when not built yet.
+     */
+    public Long countBeds(Long buildingId, Long roomId, String status) {
+        return read(s -> {
+            if (s == null) {
+                return null;
+            }
+            int[] range = s.bedRange(buildingId, null, roomId);
+            if (status == null || status.isBlank()) {
+                return (long) (range[1] - range[0]);
+            }
+            Integer code = s.statusCodes.get(status.trim().toUpperCase(Locale.ROOT));
+            if (code == null) {
+                return 0L;
+            }
+            long n = 0;
+            for (int i = range[0]; i < range[1]; i++) {
+                if (s.bedStatus[i] == code) {
+                    n++;
+                }
+            }
+            return n;
+        });
+    }
+
+    /**
+     * Occupancy grouped by {@code building}, {@code floor} or {@code room} within the optional building/floor scope,
+     * or {@code null} when not built yet.
+     */
+    public List<BedOccupancyVo> occupancy(Long buildingId, Integer floorNo, String groupBy) {
+        return read(s -> {
+            if (s == null) {
+                return null;
+            }
+            List<BedOccupancyVo> result = new ArrayList<>();
+            int[] rooms = s.roomRange(buildingId, floorNo);
+            BedOccupancyVo current = null;
+            for (int r = rooms[0]; r < rooms[1]; r++) {
+                int b = s.roomBuilding[r];
+                boolean same = current != null && switch (groupBy) {
+                    case "building" -> current.getBuildingId() == s.buildingIds[b];
+                    case "floor" -> current.getBuildingId() == s.buildingIds[b] && current.getFloorNo() == s.roomFloor[r];
+                    default -> false;
+                };
+                if (!same) {
+                    current = new BedOccupancyVo();
+                    current.setBuildingId(s.buildingIds[b]);
+                    if (!"building".equals(groupBy)) {
+                        current.setFloorNo(s.roomFloor[r]);
+                    }
+                    if ("room".equals(groupBy)) {
+                        current.setRoomId(s.roomIds[r]);
+                        current.setRoomNo(s.roomNos[r]);
+                    }
+                    result.add(current);
+                }
+                int from = s.roomBedStart[r];
+                int to = s.roomBedStart[r + 1];
+                current.setTotal(current.getTotal() + to - from);
+                current.setAvailable(current.getAvailable() + s.countStatus(from, to, s.availableCode));
+                current.setOccupied(current.getOccupied() + count(s.assigned, from, to));
+                current.setFree(current.getFree() + count(s.free, from, to));
+                current.setHeld(current.getHeld() + count(s.held, from, to));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Free beds in allocatable rooms matching the filters, in building/floor/room order, or {@code null} when not built yet.
+     */
+    public List<BedSlot> findFree(Long buildingId, Integer floorNo, Long roomId, String gender, String roomType, int limit) {
+        String g = gender == null || gender.isBlank() ? null : gender.trim().toUpperCase(Locale.ROOT);
+        String type = roomType == null || roomType.isBlank() ? null : roomType.trim();
+        return read(s -> {
+            if (s == null) {
+                return null;
+            }
+            List<BedSlot> result = new ArrayList<>(Math.min(limit, 256));
+            int[] range = s.bedRange(buildingId, floorNo, roomId);
+            int pos = s.free.nextSetBit(range[0]);
+            while (pos >= 0 && pos < range[1] && result.size() < limit) {
+                int r = s.bedRoom[pos];
+                if (!s.roomMatches(r, g, type)) {
+                    pos = s.free.nextSetBit(s.roomBedStart[r + 1]);
+                    continue;
+                }
+                result.add(s.slot(pos));
+                pos = s.free.nextSetBit(pos + 1);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Free beds in allocatable rooms matching the filters, or {@code null} when not built yet. Rooms holding more
+     * classmates rank first, then partially filled rooms, then building/floor/room order.
+     */
+    public List<AvailableBedVo> findAvailable(Long buildingId, Integer floorFrom, Integer floorTo, String gender, String roomType,
+                                              Map<Long, Integer> classmatesByRoom, boolean classmateRoomsOnly, int limit) {
+        String g = gender == null || gender.isBlank() ? null : gender.trim().toUpperCase(Locale.ROOT);
+        String type = roomType == null || roomType.isBlank() ? null : roomType.trim();
+        Map<Long, Integer> classmates = classmatesByRoom == null ? Map.of() : classmatesByRoom;
+        return read(s -> {
+            if (s == null) {
+                return null;
+            }
+            int[] rooms = s.roomRange(buildingId, null);
+            List<int[]> candidates = new ArrayList<>();
+            for (int r = rooms[0]; r < rooms[1]; r++) {
+                if ((floorFrom != null && s.roomFloor[r] < floorFrom) || (floorTo != null && s.roomFloor[r] > floorTo)) {
+                    continue;
+                }
+                int mates = classmates.getOrDefault(s.roomIds[r], 0);
+                if ((classmateRoomsOnly && mates == 0) || !s.roomMatches(r, g, type)) {
+                    continue;
+                }
+                int from = s.roomBedStart[r];
+                int to = s.roomBedStart[r + 1];
+                int free = count(s.free, from, to);
+                if (free > 0) {
+                    candidates.add(new int[]{r, mates, count(s.assigned, from, to), free});
+                }
+            }
+            candidates.sort(Comparator.<int[]>comparingInt(c -> -c[1])
+                    .thenComparingInt(c -> c[2] > 0 ? 0 : 1)
+                    .thenComparingInt(c -> c[0]));
+
+            List<AvailableBedVo> result = new ArrayList<>(Math.min(limit, 256));
+            for (int[] c : candidates) {
+                int r = c[0];
+                for (int pos = s.free.nextSetBit(s.roomBedStart[r]); pos >= 0 && pos < s.roomBedStart[r + 1]; pos = s.free.nextSetBit(pos + 1)) {
+                    if (result.size() >= limit) {
+                        return result;
+                    }
+                    AvailableBedVo vo = new AvailableBedVo();
+                    vo.setBedId(s.bedIds[pos]);
+                    vo.setBedNo(s.bedNos[pos]);
+                    vo.setRoomId(s.roomIds[r]);
+                    vo.setRoomNo(s.roomNos[r]);
+                    vo.setFloorNo(s.roomFloor[r]);
+                    vo.setBuildingId(s.buildingIds[s.roomBuilding[r]]);
+                    vo.setRoomType(s.roomTypes[r]);
+                    vo.setClassmates(c[1]);
+                    vo.setRoomOccupiedBeds(c[2]);
+                    vo.setRoomFreeBeds(c[3]);
+                    result.add(vo);
+                }
+            }
+            return result;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.bed-occupancy.reconcile-millis:300000}")
+    public void reconcile() {
+        rebuild(true);
+    }
+
+    public void rebuild() {
+        rebuild(false);
+    }
+
+    private void rebuild(boolean checkDrift) {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                // The running scan may predate the caller's commit; run another one once it finishes.
+                rebuildRequested = true;
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        boolean again;
+        do {
+            rebuildOnce(checkDrift);
+            lock.writeLock().lock();
+            try {
+                again = rebuildRequested;
+                rebuildRequested = false;
+                pendingDuringRebuild = again ? new ArrayList<>() : null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } while (again);
+    }
+
+    private void rebuildOnce(boolean checkDrift) {
+        long startedAt = System.currentTimeMillis();
+        Snapshot fresh;
+        try {
+            fresh = scan();
+        } catch (Exception e) {
+            log.warn("rebuild bed occupancy index failed: {}", e.getMessage());
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (snapshot != null) {
+                // Holds live only in memory, so carry them over from the snapshot being replaced.
+                for (int i = snapshot.held.nextSetBit(0); i >= 0; i = snapshot.held.nextSetBit(i + 1)) {
+                    Integer pos = fresh.bedPos.get(snapshot.bedIds[i]);
+                    if (pos != null) {
+                        fresh.held.set(pos);
+                        fresh.free.clear(pos);
+                    }
+                }
+            }
+            for (Consumer<Snapshot> change : pendingDuringRebuild) {
+                change.accept(fresh);
+            }
+            pendingDuringRebuild.clear();
+            if (checkDrift && snapshot != null) {
+                int drift = snapshot.diff(fresh);
+                if (drift > 0) {
+                    driftCounter.increment(drift);
+                    log.warn("bed occupancy index drifted from database: {} beds differ", drift);
+                }
+            }
+            snapshot = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("bed occupancy index built: beds={}, tookMs={}", fresh.beds, System.currentTimeMillis() - startedAt);
+    }
+
+    private Snapshot scan() {
+        Snapshot.Builder builder = new Snapshot.Builder();
+        bedRepository.scanOccupancySlots(builder::add);
+        Snapshot fresh = builder.build();
+        assignmentRepository.scanActiveBedIds(bedId -> {
+            Integer pos = fresh.bedPos.get(bedId);
+            if (pos != null) {
+                fresh.assigned.set(pos);
+                fresh.free.clear(pos);
+            }
+        });
+        return fresh;
+    }
+
+    private void apply(Op op) {
+        if (op.bedId != null) {
+            mutate(s -> s.apply(op));
+        }
+    }
+
+    private void mutate(Consumer<Snapshot> change) {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+            if (snapshot != null) {
+                change.accept(snapshot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Function<Snapshot, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(snapshot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int count(BitSet bits, int from, int to) {
+        int n = 0;
+        for (int i = bits.nextSetBit(from); i >= 0 && i < to; i = bits.nextSetBit(i + 1)) {
+            n++;
+        }
+        return n;
+    }
+
+    private static final class Op {
+
+        private final Long bedId;
+        private final Boolean assigned;
+        private final String status;
+        private final Boolean held;
+
+        private Op(Long bedId, Boolean assigned, String status, Boolean held) {
+            this.bedId = bedId;
+            this.assigned = assigned;
+            this.status = status;
+            this.held = held;
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final int beds;
+        private final long[] bedIds;
+        private final String[] bedNos;
+        private final int[] bedRoom;
+        private final byte[] bedStatus;
+        private final BitSet assigned;
+        private final BitSet free;
+        private final BitSet held;
+        private final Map<String, Integer> statusCodes;
+        private final List<String> statusNames;
+        private final int availableCode;
+
+        private final long[] roomIds;
+        private final int[] roomBedStart;
+        private final int[] roomFloor;
+        private final int[] roomBuilding;
+        private final String[] roomNos;
+        private final String[] roomTypes;
+        private final String[] roomGender;
+        private final boolean[] roomActive;
+        private final boolean[] roomAllocatable;
+
+        private final long[] buildingIds;
+        private final int[] buildingRoomStart;
+        private final String[] buildingGender;
+        private final boolean[] buildingActive;
+
+        private final Map<Long, Integer> bedPos;
+        private final Map<Long, Integer> roomPos;
+        private final Map<Long, Integer> buildingPos;
+
+        private Snapshot(Builder b) {
+            this.beds = b.bedIds.size();
+            this.bedIds = toLongs(b.bedIds);
+            this.bedNos = b.bedNos.toArray(new String[0]);
+            this.bedRoom = toInts(b.bedRoom);
+            this.bedStatus = new byte[beds];
+            this.statusCodes = b.statusCodes;
+            this.statusNames = b.statusNames;
+            for (int i = 0; i < beds; i++) {
+                bedStatus[i] = b.bedStatus.get(i);
+            }
+            this.availableCode = code(statusCodes, statusNames, AVAILABLE);
+            this.assigned = new BitSet(beds);
+            this.free = new BitSet(beds);
+            this.held = new BitSet(beds);
+            for (int i = 0; i < beds; i++) {
+                if (bedStatus[i] == availableCode) {
+                    free.set(i);
+                }
+            }
+
+            int rooms = b.roomIds.size();
+            this.roomIds = toLongs(b.roomIds);
+            b.roomBedStart.add(beds);
+            this.roomBedStart = toInts(b.roomBedStart);
+            this.roomFloor = toInts(b.roomFloor);
+            this.roomBuilding = toInts(b.roomBuilding);
+            this.roomNos = b.roomNos.toArray(new String[0]);
+            this.roomTypes = b.roomTypes.toArray(new String[0]);
+            this.roomGender = b.roomGender.toArray(new String[0]);
+
+            this.buildingIds = toLongs(b.buildingIds);
+            b.buildingRoomStart.add(rooms);
+            this.buildingRoomStart = toInts(b.buildingRoomStart);
+            this.buildingGender = b.buildingGender.toArray(new String[0]);
+            this.buildingActive = new boolean[buildingIds.length];
+            for (int i = 0; i < buildingActive.length; i++) {
+                buildingActive[i] = b.buildingActive.get(i);
+            }
+            this.roomActive = new boolean[rooms];
+            this.roomAllocatable = new boolean[rooms];
+            for (int i = 0; i < rooms; i++) {
+                roomActive[i] = b.roomActive.get(i);
+                roomAllocatable[i] = roomActive[i] && buildingActive[roomBuilding[i]];
+            }
+
+            this.bedPos = index(bedIds);
+            this.roomPos = index(roomIds);
+            this.buildingPos = index(buildingIds);
+        }
+
+        private void apply(Op op) {
+            Integer pos = bedPos.get(op.bedId);
+            if (pos == null) {
+                return;
+            }
+            if (op.assigned != null) {
+                assigned.set(pos, op.assigned);
+            }
+            if (op.status != null) {
+                bedStatus[pos] = (byte) code(statusCodes, statusNames, op.status.trim().toUpperCase(Locale.ROOT));
+            }
+            if (op.held != null) {
+                held.set(pos, op.held);
+            }
+            free.set(pos, bedStatus[pos] == availableCode && !assigned.get(pos) && !held.get(pos));
+        }
+
+        private void updateRoom(Long roomId, String roomType, String genderLimit, boolean active) {
+            Integer r = roomPos.get(roomId);
+            if (r == null) {
+                return;
+            }
+            roomTypes[r] = roomType;
+            roomGender[r] = genderLimit;
+            roomActive[r] = active;
+            roomAllocatable[r] = active && buildingActive[roomBuilding[r]];
+        }
+
+        private void updateBuilding(Long buildingId, String genderLimit, boolean active) {
+            Integer b = buildingPos.get(buildingId);
+            if (b == null) {
+                return;
+            }
+            buildingGender[b] = genderLimit;
+            buildingActive[b] = active;
+            for (int r = buildingRoomStart[b]; r < buildingRoomStart[b + 1]; r++) {
+                roomAllocatable[r] = roomActive[r] && active;
+            }
+        }
+
+        private int[] roomRange(Long buildingId, Integer floorNo) {
+            if (buildingId == null) {
+                return new int[]{0, roomIds.length};
+            }
+            Integer b = buildingPos.get(buildingId);
+            if (b == null) {
+                return new int[]{0, 0};
+            }
+            int from = buildingRoomStart[b];
+            int to = buildingRoomStart[b + 1];
+            if (floorNo == null) {
+                return new int[]{from, to};
+            }
+            // Rooms within a building are ordered by floor.
+            while (from < to && roomFloor[from] < floorNo) {
+                from++;
+            }
+            int end = from;
+            while (end < to && roomFloor[end] == floorNo) {
+                end++;
+            }
+            return new int[]{from, end};
+        }
+
+        private int[] bedRange(Long buildingId, Integer floorNo, Long roomId) {
+            if (roomId != null) {
+                Integer r = roomPos.get(roomId);
+                if (r == null
+                        || (buildingId != null && buildingIds[roomBuilding[r]] != buildingId)
+                        || (floorNo != null && roomFloor[r] != floorNo)) {
+                    return new int[]{0, 0};
+                }
+                return new int[]{roomBedStart[r], roomBedStart[r + 1]};
+            }
+            int[] rooms = roomRange(buildingId, floorNo);
+            return new int[]{roomBedStart[rooms[0]], roomBedStart[rooms[1]]};
+        }
+
+        private boolean roomMatches(int r, String gender, String roomType) {
+            if (!roomAllocatable[r]) {
+                return false;
+            }
+            if (roomType != null && !roomType.equals(roomTypes[r])) {
+                return false;
+            }
+            return gender == null || (allows(roomGender[r], gender) && allows(buildingGender[roomBuilding[r]], gender));
+        }
+
+        private int countStatus(int from, int to, int code) {
+            int n = 0;
+            for (int i = from; i < to; i++) {
+                if (bedStatus[i] == code) {
+                    n++;
+                }
+            }
+            return n;
+        }
+
+        private BedSlot slot(int pos) {
+            int r = bedRoom[pos];
+            BedSlot slot = new BedSlot();
+            slot.setBedId(bedIds[pos]);
+            slot.setRoomId(roomIds[r]);
+            slot.setBedNo(bedNos[pos]);
+            slot.setStatus(statusNames.get(bedStatus[pos]));
+            slot.setBuildingId(buildingIds[roomBuilding[r]]);
+            slot.setFloorNo(roomFloor[r]);
+            slot.setRoomNo(roomNos[r]);
+            slot.setRoomType(roomTypes[r]);
+            slot.setRoomGenderLimit(roomGender[r]);
+            slot.setBuildingGenderLimit(buildingGender[roomBuilding[r]]);
+            slot.setAllocatable(roomAllocatable[r]);
+            return slot;
+        }
+
+        /**
+         * Number of beds whose status or assignment differs from {@code other}; structural differences count every bed.
+         */
+        private int diff(Snapshot other) {
+            if (!Arrays.equals(bedIds, other.bedIds)) {
+                return Math.max(beds, other.beds);
+            }
+            int n = 0;
+            for (int i = 0; i < beds; i++) {
+                if (assigned.get(i) != other.assigned.get(i)
+                        || !statusNames.get(bedStatus[i]).equals(other.statusNames.get(other.bedStatus[i]))) {
+                    n++;
+                }
+            }
+            return n;
+        }
+
+        private static boolean allows(String limit, String gender) {
+            return limit == null || limit.isBlank() || "UNLIMITED".equalsIgnoreCase(limit) || gender.equalsIgnoreCase(limit);
+        }
+
+        private static int code(Map<String, Integer> codes, List<String> names, String status) {
+            Integer c = codes.get(status);
+            if (c == null) {
+                c = names.size();
+                codes.put(status, c);
+                names.add(status);
+            }
+            return c;
+        }
+
+        private static Map<Long, Integer> index(long[] ids) {
+            Map<Long, Integer> map = new HashMap<>(ids.length * 2);
+            for (int i = 0; i < ids.length; i++) {
+                map.put(ids[i], i);
+            }
+            return map;
+        }
+
+        private static long[] toLongs(List<Long> list) {
+            long[] a = new long[list.size()];
+            for (int i = 0; i < a.length; i++) {
+                a[i] = list.get(i);
+            }
+            return a;
+        }
+
+        private static int[] toInts(List<Integer> list) {
+            int[] a = new int[list.size()];
+            for (int i = 0; i < a.length; i++) {
+                a[i] = list.get(i);
+            }
+            return a;
+        }
+
+        private static final class Builder {
+
+            private final List<Long> bedIds = new ArrayList<>();
+            private final List<String> bedNos = new ArrayList<>();
+            private final List<Integer> bedRoom = new ArrayList<>();
+            private final List<Byte> bedStatus = new ArrayList<>();
+            private final Map<String, Integer> statusCodes = new HashMap<>();
+            private final List<String> statusNames = new ArrayList<>();
+
+            private final List<Long> roomIds = new ArrayList<>();
+            private final List<Integer> roomBedStart = new ArrayList<>();
+            private final List<Integer> roomFloor = new ArrayList<>();
+            private final List<Integer> roomBuilding = new ArrayList<>();
+            private final List<String> roomNos = new ArrayList<>();
+            private final List<String> roomTypes = new ArrayList<>();
+            private final List<String> roomGender = new ArrayList<>();
+            private final List<Boolean> roomActive = new ArrayList<>();
+
+            private final List<Long> buildingIds = new ArrayList<>();
+            private final List<Integer> buildingRoomStart = new ArrayList<>();
+            private final List<String> buildingGender = new ArrayList<>();
+            private final List<Boolean> buildingActive = new ArrayList<>();
+
+            private void add(BedSlot slot) {
+                if (buildingIds.isEmpty() || buildingIds.get(buildingIds.size() - 1).longValue() != slot.getBuildingId()) {
+                    buildingIds.add(slot.getBuildingId());
+                    buildingRoomStart.add(roomIds.size());
+                    buildingGender.add(slot.getBuildingGenderLimit());
+                    buildingActive.add(Boolean.TRUE.equals(slot.getBuildingActive()));
+                }
+                if (roomIds.isEmpty() || roomIds.get(roomIds.size() - 1).longValue() != slot.getRoomId()) {
+                    roomIds.add(slot.getRoomId());
+                    roomBedStart.add(bedIds.size());
+                    roomFloor.add(slot.getFloorNo() == null ? 0 : slot.getFloorNo());
+                    roomBuilding.add(buildingIds.size() - 1);
+                    roomNos.add(slot.getRoomNo());
+                    roomTypes.add(slot.getRoomType());
+                    roomGender.add(slot.getRoomGenderLimit());
+                    roomActive.add(Boolean.TRUE.equals(slot.getRoomActive()));
+                }
+                bedIds.add(slot.getBedId());
+                bedNos.add(slot.getBedNo());
+                bedRoom.add(roomIds.size() - 1);
+                String status = slot.getStatus() == null ? "" : slot.getStatus().trim().toUpperCase(Locale.ROOT);
+                bedStatus.add((byte) code(statusCodes, statusNames, status));
+            }
+
+            private Snapshot build() {
+                return new Snapshot(this);
+            }
+        }
+    }
+}
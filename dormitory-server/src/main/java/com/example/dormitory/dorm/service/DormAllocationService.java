@@ -0,0 +1,373 @@
+package com.example.dormitory.dorm.service;
+
+import com.example.dormitory.common.AfterCommit;
+import com.example.dormitory.common.BizException;
+import com.example.dormitory.dorm.dto.DormAllocationRequest;
+import com.example.dormitory.dorm.model.BedSlot;
+import com.example.dormitory.dorm.model.DormAssignment;
+import com.example.dormitory.dorm.repository.DormAssignmentRepository;
+import com.example.dormitory.dorm.repository.DormBedRepository;
+import com.example.dormitory.dorm.vo.DormAllocationItemVo;
+import com.example.dormitory.dorm.vo.DormAllocationResultVo;
+import com.example.dormitory.student.model.Student;
+import com.example.dormitory.student.repository.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Plans a whole cohort against an in-memory snapshot of the candidate beds, then commits the plan in
+ * batches. Each batch re-checks students and flips beds with a conditional update, so anything taken
+ * concurrently since the snapshot is reported as a conflict instead of double-booked.
+ */
+@Service
+public class DormAllocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(DormAllocationService.class);
+
+    private static final int LOOKUP_CHUNK = 1000;
+    private static final int COMMIT_BATCH = 500;
+    private static final String UNLIMITED = "UNLIMITED";
+
+    private final StudentRepository studentRepository;
+    private final DormBedRepository bedRepository;
+    private final DormAssignmentRepository assignmentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BedOccupancyIndex occupancyIndex;
+    private final BedHoldTable holdTable;
+
+    public DormAllocationService(StudentRepository studentRepository, DormBedRepository bedRepository,
+                                 DormAssignmentRepository assignmentRepository, TransactionTemplate transactionTemplate,
+                                 BedOccupancyIndex occupancyIndex, BedHoldTable holdTable) {
+        this.studentRepository = studentRepository;
+        this.bedRepository = bedRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.occupancyIndex = occupancyIndex;
+        this.holdTable = holdTable;
+    }
+
+    public DormAllocationResultVo allocate(DormAllocationRequest req) {
+        Function<Student, String> groupKey = groupKey(req.getGroupBy());
+        boolean floorDesc = parseFillOrder(req.getFillOrder());
+        boolean dryRun = Boolean.TRUE.equals(req.getDryRun());
+        List<Long> buildingIds = req.getBuildingIds() == null ? Collections.emptyList() : new ArrayList<>(new LinkedHashSet<>(req.getBuildingIds()));
+        List<Long> studentIds = new ArrayList<>(new LinkedHashSet<>(req.getStudentIds()));
+
+        List<DormAllocationItemVo> items = new ArrayList<>(studentIds.size());
+        Map<String, List<Student>> byGender = loadStudents(studentIds, items);
+
+        List<Room> rooms = loadRooms(buildingIds);
+        Comparator<Room> order = roomOrder(req, buildingIds, floorDesc);
+        List<DormAllocationItemVo> planned = new ArrayList<>();
+        for (Map.Entry<String, List<Student>> e : byGender.entrySet()) {
+            String gender = e.getKey();
+            List<Student> students = e.getValue();
+            students.sort(Comparator.comparing(groupKey).thenComparing(Student::getStudentNo, Comparator.nullsLast(Comparator.naturalOrder())));
+            plan(gender, groups(students, groupKey), rooms, order, req, planned, items);
+        }
+
+        DormAllocationResultVo result = new DormAllocationResultVo();
+        result.setDryRun(dryRun);
+        result.setRequested(studentIds.size());
+        result.setPlanned(planned.size());
+        if (!dryRun) {
+            commit(planned, req.getReason());
+        }
+        items.addAll(planned);
+        for (DormAllocationItemVo item : items) {
+            switch (item.getStatus()) {
+                case "ASSIGNED" -> result.setAssigned(result.getAssigned() + 1);
+                case "SKIPPED" -> result.setSkipped(result.getSkipped() + 1);
+                case "UNPLACED" -> result.setUnplaced(result.getUnplaced() + 1);
+                case "CONFLICT", "FAILED" -> result.setConflicts(result.getConflicts() + 1);
+                default -> {
+                }
+            }
+        }
+        result.setItems(items);
+        return result;
+    }
+
+    private Map<String, List<Student>> loadStudents(List<Long> studentIds, List<DormAllocationItemVo> items) {
+        Map<Long, Student> found = new HashMap<>();
+        Set<Long> active = new HashSet<>();
+        for (int from = 0; from < studentIds.size(); from += LOOKUP_CHUNK) {
+            List<Long> chunk = studentIds.subList(from, Math.min(studentIds.size(), from + LOOKUP_CHUNK));
+            for (Student s : studentRepository.findByIds(chunk)) {
+                found.put(s.getId(), s);
+            }
+            active.addAll(assignmentRepository.findActiveStudentIds(chunk));
+        }
+
+        Map<String, List<Student>> byGender = new TreeMap<>();
+        for (Long id : studentIds) {
+            Student s = found.get(id);
+            if (s == null) {
+                items.add(item(id, null, "SKIPPED", "student not found"));
+            } else if (!"IN_SCHOOL".equalsIgnoreCase(s.getStatus())) {
+                items.add(item(id, s, "SKIPPED", "student not in school"));
+            } else if (active.contains(id)) {
+                items.add(item(id, s, "SKIPPED", "student already has active assignment"));
+            } else if (s.getGender() == null || s.getGender().isBlank()) {
+                items.add(item(id, s, "SKIPPED", "student gender missing"));
+            } else {
+                byGender.computeIfAbsent(s.getGender().trim().toUpperCase(Locale.ROOT), k -> new ArrayList<>()).add(s);
+            }
+        }
+        return byGender;
+    }
+
+    private List<Room> loadRooms(List<Long> buildingIds) {
+        Map<Long, Set<String>> genders = assignmentRepository.findActiveGendersByRoom(buildingIds);
+        Map<Long, Room> rooms = new LinkedHashMap<>();
+        for (BedSlot slot : bedRepository.findSlots(buildingIds)) {
+            Room room = rooms.computeIfAbsent(slot.getRoomId(), id -> new Room(slot, genders.getOrDefault(id, Collections.emptySet())));
+            if ("AVAILABLE".equalsIgnoreCase(slot.getStatus()) && !holdTable.isHeld(slot.getBedId(), null)) {
+                room.free.add(slot);
+            } else {
+                room.occupied++;
+            }
+        }
+        return new ArrayList<>(rooms.values());
+    }
+
+    private static List<List<Student>> groups(List<Student> sorted, Function<Student, String> groupKey) {
+        Map<String, List<Student>> groups = new LinkedHashMap<>();
+        for (Student s : sorted) {
+            groups.computeIfAbsent(groupKey.apply(s), k -> new ArrayList<>()).add(s);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    /**
+     * Packs each group into rooms it can fill on its own first, then spills what is left of every group, in group order,
+     * into the remaining beds. Rooms only mix groups when no whole-room fit is left.
+     */
+    private static void plan(String gender, List<List<Student>> groups, List<Room> rooms, Comparator<Room> order,
+                             DormAllocationRequest req, List<DormAllocationItemVo> planned, List<DormAllocationItemVo> items) {
+        boolean strictType = Boolean.TRUE.equals(req.getRoomTypeStrict()) && req.getRoomTypes() != null && !req.getRoomTypes().isEmpty();
+        List<Room> eligible = new ArrayList<>();
+        for (Room room : rooms) {
+            if (room.acceptsGender(gender) && (!strictType || req.getRoomTypes().contains(room.roomType))) {
+                eligible.add(room);
+            }
+        }
+        // Rooms reserved for this gender go before UNLIMITED ones, so mixed-use stock is left for whoever still needs it.
+        eligible.sort(Comparator.comparingInt((Room r) -> r.reservedFor(gender) ? 0 : 1).thenComparing(order));
+
+        List<Student> rest = new ArrayList<>();
+        for (List<Student> group : groups) {
+            int next = 0;
+            for (Room room : eligible) {
+                int beds = room.free.size();
+                if (beds == 0 || group.size() - next < beds || !room.acceptsGender(gender)) {
+                    continue;
+                }
+                for (int i = 0; i < beds; i++) {
+                    place(room, gender, group.get(next++), planned);
+                }
+            }
+            rest.addAll(group.subList(next, group.size()));
+        }
+
+        int next = 0;
+        for (Room room : eligible) {
+            if (next >= rest.size()) {
+                break;
+            }
+            if (room.free.isEmpty() || !room.acceptsGender(gender)) {
+                continue;
+            }
+            while (!room.free.isEmpty() && next < rest.size()) {
+                place(room, gender, rest.get(next++), planned);
+            }
+        }
+        for (int i = next; i < rest.size(); i++) {
+            Student s = rest.get(i);
+            items.add(item(s.getId(), s, "UNPLACED", "no eligible bed"));
+        }
+    }
+
+    private static void place(Room room, String gender, Student s, List<DormAllocationItemVo> planned) {
+        BedSlot bed = room.free.remove(0);
+        DormAllocationItemVo item = item(s.getId(), s, "PLANNED", null);
+        item.setBuildingId(bed.getBuildingId());
+        item.setRoomId(bed.getRoomId());
+        item.setRoomNo(bed.getRoomNo());
+        item.setBedId(bed.getBedId());
+        item.setBedNo(bed.getBedNo());
+        planned.add(item);
+        room.genders.add(gender);
+    }
+
+    private void commit(List<DormAllocationItemVo> planned, String reason) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < planned.size(); from += COMMIT_BATCH) {
+            List<DormAllocationItemVo> batch = planned.subList(from, Math.min(planned.size(), from + COMMIT_BATCH));
+            try {
+                transactionTemplate.executeWithoutResult(status -> commitBatch(batch, reason, now));
+            } catch (Exception e) {
+                log.warn("allocation batch failed: {}", e.getMessage());
+                for (DormAllocationItemVo item : batch) {
+                    item.setStatus("FAILED");
+                    item.setMessage("write failed");
+                }
+            }
+        }
+    }
+
+    private void commitBatch(List<DormAllocationItemVo> batch, String reason, LocalDateTime now) {
+        List<Long> studentIds = new ArrayList<>(batch.size());
+        for (DormAllocationItemVo item : batch) {
+            studentIds.add(item.getStudentId());
+        }
+        Set<Long> active = assignmentRepository.findActiveStudentIds(studentIds);
+
+        List<DormAllocationItemVo> candidates = new ArrayList<>(batch.size());
+        List<Long> bedIds = new ArrayList<>(batch.size());
+        for (DormAllocationItemVo item : batch) {
+            if (active.contains(item.getStudentId())) {
+                item.setStatus("CONFLICT");
+                item.setMessage("student already has active assignment");
+            } else if (holdTable.isHeld(item.getBedId(), null)) {
+                item.setStatus("CONFLICT");
+                item.setMessage("bed is held");
+            } else {
+                candidates.add(item);
+                bedIds.add(item.getBedId());
+            }
+        }
+
+        int[] occupied = bedRepository.batchOccupy(bedIds);
+        List<DormAssignment> inserts = new ArrayList<>(candidates.size());
+        List<DormAllocationItemVo> assigned = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            DormAllocationItemVo item = candidates.get(i);
+            if (i < occupied.length && occupied[i] == 0) {
+                item.setStatus("CONFLICT");
+                item.setMessage("bed already occupied");
+                continue;
+            }
+            DormAssignment a = new DormAssignment();
+            a.setStudentId(item.getStudentId());
+            a.setBedId(item.getBedId());
+            a.setStartAt(now);
+            a.setStatus("ACTIVE");
+            a.setReason(reason);
+            inserts.add(a);
+            assigned.add(item);
+        }
+        assignmentRepository.batchInsert(inserts);
+        List<Long> assignedBedIds = new ArrayList<>(assigned.size());
+        for (DormAllocationItemVo item : assigned) {
+            item.setStatus("ASSIGNED");
+            assignedBedIds.add(item.getBedId());
+        }
+        AfterCommit.run(() -> occupancyIndex.assignAll(assignedBedIds));
+    }
+
+    private static Comparator<Room> roomOrder(DormAllocationRequest req, List<Long> buildingIds, boolean floorDesc) {
+        List<String> roomTypes = req.getRoomTypes() == null ? Collections.emptyList() : req.getRoomTypes();
+        Comparator<Room> order = Comparator.comparingInt(r -> {
+            int i = roomTypes.indexOf(r.roomType);
+            return i < 0 ? roomTypes.size() : i;
+        });
+        if (Boolean.TRUE.equals(req.getFillPartialRoomsFirst())) {
+            order = order.thenComparingInt(r -> r.occupied > 0 ? 0 : 1);
+        }
+        order = order.thenComparingLong(r -> {
+            int i = buildingIds.indexOf(r.buildingId);
+            return i < 0 ? r.buildingId : i;
+        });
+        Comparator<Room> floor = Comparator.comparingInt(r -> r.floorNo);
+        return order.thenComparing(floorDesc ? floor.reversed() : floor);
+    }
+
+    private static Function<Student, String> groupKey(String groupBy) {
+        String g = groupBy == null || groupBy.isBlank() ? "CLASS" : groupBy.trim().toUpperCase(Locale.ROOT);
+        return switch (g) {
+            case "CLASS" -> s -> nz(s.getCollege()) + '\u0000' + nz(s.getMajor()) + '\u0000' + nz(s.getClassName());
+            case "MAJOR" -> s -> nz(s.getCollege()) + '\u0000' + nz(s.getMajor());
+            case "COLLEGE" -> s -> nz(s.getCollege());
+            case "NONE" -> s -> "";
+            default -> throw new BizException(40001, "invalid groupBy");
+        };
+    }
+
+    private static boolean parseFillOrder(String fillOrder) {
+        if (fillOrder == null || fillOrder.isBlank() || "FLOOR_ASC".equalsIgnoreCase(fillOrder.trim())) {
+            return false;
+        }
+        if ("FLOOR_DESC".equalsIgnoreCase(fillOrder.trim())) {
+            return true;
+        }
+        throw new BizException(40001, "invalid fillOrder");
+    }
+
+    private static DormAllocationItemVo item(Long studentId, Student s, String status, String message) {
+        DormAllocationItemVo item = new DormAllocationItemVo();
+        item.setStudentId(studentId);
+        if (s != null) {
+            item.setStudentNo(s.getStudentNo());
+            item.setStudentName(s.getName());
+        }
+        item.setStatus(status);
+        item.setMessage(message);
+        return item;
+    }
+
+    private static String nz(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static final class Room {
+
+        private final long buildingId;
+        private final int floorNo;
+        private final String roomType;
+        private final String roomGenderLimit;
+        private final String buildingGenderLimit;
+        private final Set<String> genders;
+        private final List<BedSlot> free = new ArrayList<>();
+        private int occupied;
+
+        private Room(BedSlot slot, Set<String> genders) {
+            this.buildingId = slot.getBuildingId();
+            this.floorNo = slot.getFloorNo();
+            this.roomType = slot.getRoomType();
+            this.roomGenderLimit = slot.getRoomGenderLimit();
+            this.buildingGenderLimit = slot.getBuildingGenderLimit();
+            this.genders = new HashSet<>(genders);
+        }
+
+        private boolean acceptsGender(String gender) {
+            return allows(buildingGenderLimit, gender) && allows(roomGenderLimit, gender)
+                    && (genders.isEmpty() || (genders.size() == 1 && genders.contains(gender)));
+        }
+
+        private boolean reservedFor(String gender) {
+            return gender.equalsIgnoreCase(roomGenderLimit) || gender.equalsIgnoreCase(buildingGenderLimit);
+        }
+
+        private static boolean allows(String limit, String gender) {
+            return limit == null || limit.isBlank() || UNLIMITED.equalsIgnoreCase(limit) || gender.equalsIgnoreCase(limit);
+        }
+    }
+}
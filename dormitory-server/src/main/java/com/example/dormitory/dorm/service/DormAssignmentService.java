@@ -1,7 +1,11 @@
 package com.example.dormitory.dorm.service;
 
+import com.example.dormitory.common.AfterCommit;
 import com.example.dormitory.common.BizException;
+import com.example.dormitory.common.PageCursor;
 import com.example.dormitory.common.PageResult;
+import com.example.dormitory.common.SortSpec;
+import com.example.dormitory.common.export.ExportColumn;
 import com.example.dormitory.dorm.dto.CreateDormAssignmentRequest;
 import com.example.dormitory.dorm.dto.EndDormAssignmentRequest;
 import com.example.dormitory.dorm.model.DormAssignment;
@@ -16,32 +20,70 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class DormAssignmentService {
 
+    public static final List<ExportColumn<DormAssignmentVo>> EXPORT_COLUMNS = List.of(
+            ExportColumn.of("id", DormAssignmentVo::getId),
+            ExportColumn.of("studentId", DormAssignmentVo::getStudentId),
+            ExportColumn.of("studentNo", DormAssignmentVo::getStudentNo),
+            ExportColumn.of("studentName", DormAssignmentVo::getStudentName),
+            ExportColumn.of("buildingCode", DormAssignmentVo::getBuildingCode),
+            ExportColumn.of("buildingName", DormAssignmentVo::getBuildingName),
+            ExportColumn.of("roomNo", DormAssignmentVo::getRoomNo),
+            ExportColumn.of("bedId", DormAssignmentVo::getBedId),
+            ExportColumn.of("bedNo", DormAssignmentVo::getBedNo),
+            ExportColumn.of("startAt", DormAssignmentVo::getStartAt),
+            ExportColumn.of("endAt", DormAssignmentVo::getEndAt),
+            ExportColumn.of("status", DormAssignmentVo::getStatus),
+            ExportColumn.of("reason", DormAssignmentVo::getReason)
+    );
+
     private final DormAssignmentRepository assignmentRepository;
     private final DormBedRepository bedRepository;
     private final StudentRepository studentRepository;
+    private final BedOccupancyIndex occupancyIndex;
+    private final BedHoldTable holdTable;
 
-    public DormAssignmentService(DormAssignmentRepository assignmentRepository, DormBedRepository bedRepository, StudentRepository studentRepository) {
+    public DormAssignmentService(DormAssignmentRepository assignmentRepository, DormBedRepository bedRepository, StudentRepository studentRepository,
+                                 BedOccupancyIndex occupancyIndex, BedHoldTable holdTable) {
         this.assignmentRepository = assignmentRepository;
         this.bedRepository = bedRepository;
         this.studentRepository = studentRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.holdTable = holdTable;
     }
 
+    @Transactional(readOnly = true)
     public PageResult<DormAssignmentVo> list(Long studentId, Long buildingId, Long roomId, Long bedId, String status,
-                                            Integer page, Integer pageSize, String sortBy, String sortOrder) {
+                                            Integer page, Integer pageSize, String sortBy, String sortOrder, String cursor, Boolean withTotal) {
         int p = page == null || page < 1 ? 1 : page;
         int ps = pageSize == null || pageSize < 1 ? 20 : Math.min(pageSize, 200);
-        int offset = (p - 1) * ps;
 
-        String orderBy = resolveOrderBy(sortBy, sortOrder);
-        long total = assignmentRepository.count(studentId, buildingId, roomId, bedId, status);
-        List<DormAssignmentVo> list = assignmentRepository.list(studentId, buildingId, roomId, bedId, status, orderBy, ps, offset);
-        return new PageResult<>(list, p, ps, total);
+        SortSpec<DormAssignmentVo> sort = resolveSort(sortBy, sortOrder);
+        PageCursor after = PageCursor.decode(cursor, sort);
+        int offset = cursor == null ? (p - 1) * ps : 0;
+        Long total = withTotal == null || withTotal ? assignmentRepository.count(studentId, buildingId, roomId, bedId, status) : null;
+        List<DormAssignmentVo> list = assignmentRepository.list(studentId, buildingId, roomId, bedId, status, sort, after, ps + 1, offset);
+        boolean hasMore = list.size() > ps;
+        if (hasMore) {
+            list = list.subList(0, ps);
+        }
+        PageResult<DormAssignmentVo> result = new PageResult<>(list, p, ps, total);
+        result.setHasMore(hasMore);
+        if (cursor != null && hasMore) {
+            result.setNextCursor(PageCursor.encode(sort, list.get(list.size() - 1)));
+        }
+        return result;
+    }
+
+    public void export(Long studentId, Long buildingId, Long roomId, Long bedId, String status, Consumer<DormAssignmentVo> consumer) {
+        assignmentRepository.export(studentId, buildingId, roomId, bedId, status, consumer);
     }
 
+    @Transactional(readOnly = true)
     public DormAssignmentVo get(Long id) {
         DormAssignmentVo vo = assignmentRepository.findVoById(id);
         if (vo == null) {
@@ -52,6 +94,14 @@ public class DormAssignmentService {
 
     @Transactional
     public DormAssignmentVo create(CreateDormAssignmentRequest req) {
+        return create(req, null);
+    }
+
+    /**
+     * Creates the assignment; {@code holdId} names the caller's own hold on the bed, any other live hold blocks it.
+     */
+    @Transactional
+    public DormAssignmentVo create(CreateDormAssignmentRequest req, String holdId) {
         Student student = studentRepository.findById(req.getStudentId());
         if (student == null) {
             throw new BizException(40004, "student not found");
@@ -61,6 +111,9 @@ public class DormAssignmentService {
             throw new BizException(40004, "bed not found");
         }
 
+        if (holdTable.isHeld(req.getBedId(), holdId)) {
+            throw new BizException(40905, "bed is held");
+        }
         if (assignmentRepository.existsActiveForStudent(req.getStudentId())) {
             throw new BizException(40901, "student already has active assignment");
         }
@@ -85,6 +138,7 @@ public class DormAssignmentService {
         if (id == null) {
             throw new BizException(50000, "create assignment failed");
         }
+        AfterCommit.run(() -> occupancyIndex.assign(req.getBedId()));
         return get(id);
     }
 
@@ -105,27 +159,18 @@ public class DormAssignmentService {
         }
 
         bedRepository.updateStatus(a.getBedId(), "AVAILABLE");
+        AfterCommit.run(() -> occupancyIndex.release(a.getBedId()));
         return get(id);
     }
 
-    private String resolveOrderBy(String sortBy, String sortOrder) {
-        String column;
+    private SortSpec<DormAssignmentVo> resolveSort(String sortBy, String sortOrder) {
+        boolean asc = "asc".equalsIgnoreCase(sortOrder);
         if ("startAt".equalsIgnoreCase(sortBy) || "start_at".equalsIgnoreCase(sortBy)) {
-            column = "a.start_at";
-        } else if ("endAt".equalsIgnoreCase(sortBy) || "end_at".equalsIgnoreCase(sortBy)) {
-            column = "a.end_at";
-        } else if ("id".equalsIgnoreCase(sortBy)) {
-            column = "a.id";
-        } else {
-            column = "a.id";
+            return new SortSpec<>("startAt", "a.start_at", "a.id", asc, DormAssignmentVo::getStartAt, DormAssignmentVo::getId);
         }
-
-        String order = "desc";
-        if ("asc".equalsIgnoreCase(sortOrder)) {
-            order = "asc";
-        } else if ("desc".equalsIgnoreCase(sortOrder)) {
-            order = "desc";
+        if ("endAt".equalsIgnoreCase(sortBy) || "end_at".equalsIgnoreCase(sortBy)) {
+            return new SortSpec<>("endAt", "a.end_at", "a.id", asc, DormAssignmentVo::getEndAt, DormAssignmentVo::getId);
         }
-        return column + " " + order;
+        return new SortSpec<>("id", "a.id", "a.id", asc, DormAssignmentVo::getId, DormAssignmentVo::getId);
     }
 }
@@ -1,37 +1,70 @@
 package com.example.dormitory.dorm.service;
 
+import com.example.dormitory.common.AfterCommit;
 import com.example.dormitory.common.BizException;
+import com.example.dormitory.common.PageCursor;
 import com.example.dormitory.common.PageResult;
+import com.example.dormitory.common.SortSpec;
 import com.example.dormitory.dorm.dto.CreateDormBedRequest;
 import com.example.dormitory.dorm.dto.UpdateDormBedRequest;
 import com.example.dormitory.dorm.model.DormBed;
+import com.example.dormitory.dorm.repository.DormAssignmentRepository;
 import com.example.dormitory.dorm.repository.DormBedRepository;
+import com.example.dormitory.dorm.vo.AvailableBedVo;
+import com.example.dormitory.dorm.vo.BedOccupancyVo;
 import com.example.dormitory.dorm.vo.DormBedVo;
+import com.example.dormitory.student.model.Student;
+import com.example.dormitory.student.repository.StudentRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @Service
 public class DormBedService {
 
+    private static final int AVAILABLE_DEFAULT_LIMIT = 50;
+    private static final int AVAILABLE_MAX_LIMIT = 500;
+
     private final DormBedRepository repository;
+    private final DormAssignmentRepository assignmentRepository;
+    private final StudentRepository studentRepository;
+    private final BedOccupancyIndex occupancyIndex;
 
-    public DormBedService(DormBedRepository repository) {
+    public DormBedService(DormBedRepository repository, DormAssignmentRepository assignmentRepository, StudentRepository studentRepository,
+                          BedOccupancyIndex occupancyIndex) {
         this.repository = repository;
+        this.assignmentRepository = assignmentRepository;
+        this.studentRepository = studentRepository;
+        this.occupancyIndex = occupancyIndex;
     }
 
+    @Transactional(readOnly = true)
     public PageResult<DormBedVo> list(Long buildingId, Long roomId, String status, String keyword,
-                                     Integer page, Integer pageSize, String sortBy, String sortOrder) {
+                                     Integer page, Integer pageSize, String sortBy, String sortOrder, String cursor, Boolean withTotal) {
         int p = page == null || page < 1 ? 1 : page;
         int ps = pageSize == null || pageSize < 1 ? 20 : Math.min(pageSize, 200);
-        int offset = (p - 1) * ps;
 
-        String orderBy = resolveOrderBy(sortBy, sortOrder);
-        long total = repository.count(buildingId, roomId, status, keyword);
-        List<DormBedVo> list = repository.list(buildingId, roomId, status, keyword, orderBy, ps, offset);
-        return new PageResult<>(list, p, ps, total);
+        SortSpec<DormBedVo> sort = resolveSort(sortBy, sortOrder);
+        PageCursor after = PageCursor.decode(cursor, sort);
+        int offset = cursor == null ? (p - 1) * ps : 0;
+        Long total = withTotal == null || withTotal ? count(buildingId, roomId, status, keyword) : null;
+        List<DormBedVo> list = repository.list(buildingId, roomId, status, keyword, sort, after, ps + 1, offset);
+        boolean hasMore = list.size() > ps;
+        if (hasMore) {
+            list = list.subList(0, ps);
+        }
+        PageResult<DormBedVo> result = new PageResult<>(list, p, ps, total);
+        result.setHasMore(hasMore);
+        if (cursor != null && hasMore) {
+            result.setNextCursor(PageCursor.encode(sort, list.get(list.size() - 1)));
+        }
+        return result;
     }
 
+    @Transactional(readOnly = true)
     public DormBedVo get(Long id) {
         DormBedVo vo = repository.findVoById(id);
         if (vo == null) {
@@ -40,6 +73,7 @@ public class DormBedService {
         return vo;
     }
 
+    @Transactional
     public DormBedVo create(CreateDormBedRequest req) {
         DormBed bed = new DormBed();
         bed.setRoomId(req.getRoomId());
@@ -49,10 +83,16 @@ public class DormBedService {
         if (id == null) {
             throw new BizException(50000, "create bed failed");
         }
+        AfterCommit.run(occupancyIndex::rebuild);
         return get(id);
     }
 
+    @Transactional
     public DormBedVo update(Long id, UpdateDormBedRequest req) {
+        DormBed before = repository.findById(id);
+        if (before == null) {
+            throw new BizException(40004, "bed not found");
+        }
         DormBed bed = new DormBed();
         bed.setRoomId(req.getRoomId());
         bed.setBedNo(req.getBedNo().trim());
@@ -61,34 +101,90 @@ public class DormBedService {
         if (affected == 0) {
             throw new BizException(40004, "bed not found");
         }
+        if (before.getRoomId().equals(bed.getRoomId()) && before.getBedNo().equals(bed.getBedNo())) {
+            AfterCommit.run(() -> occupancyIndex.updateStatus(id, bed.getStatus()));
+        } else {
+            AfterCommit.run(occupancyIndex::rebuild);
+        }
         return get(id);
     }
 
+    @Transactional
     public void delete(Long id) {
         int affected = repository.softDelete(id);
         if (affected == 0) {
             throw new BizException(40004, "bed not found");
         }
+        AfterCommit.run(occupancyIndex::rebuild);
     }
 
-    private String resolveOrderBy(String sortBy, String sortOrder) {
-        String column;
-        if ("bedNo".equalsIgnoreCase(sortBy) || "bed_no".equalsIgnoreCase(sortBy)) {
-            column = "bed.bed_no";
-        } else if ("roomId".equalsIgnoreCase(sortBy) || "room_id".equalsIgnoreCase(sortBy)) {
-            column = "bed.room_id";
-        } else if ("status".equalsIgnoreCase(sortBy)) {
-            column = "bed.status";
-        } else {
-            column = "bed.id";
+    public List<BedOccupancyVo> occupancy(Long buildingId, Integer floorNo, String groupBy) {
+        String g = groupBy == null || groupBy.isBlank() ? "building" : groupBy.trim().toLowerCase(Locale.ROOT);
+        if (!"building".equals(g) && !"floor".equals(g) && !"room".equals(g)) {
+            throw new BizException(40001, "groupBy must be building, floor or room");
+        }
+        List<BedOccupancyVo> list = occupancyIndex.occupancy(buildingId, floorNo, g);
+        if (list == null) {
+            throw new BizException(50000, "bed occupancy index is not ready");
         }
+        return list;
+    }
 
-        String order = "desc";
-        if ("asc".equalsIgnoreCase(sortOrder)) {
-            order = "asc";
-        } else if ("desc".equalsIgnoreCase(sortOrder)) {
-            order = "desc";
+    @Transactional(readOnly = true)
+    public List<AvailableBedVo> available(Long studentId, String gender, Long buildingId, Integer floorFrom, Integer floorTo, String roomType,
+                                          Boolean classmatesOnly, Integer limit) {
+        if (floorFrom != null && floorTo != null && floorFrom > floorTo) {
+            throw new BizException(40001, "floorFrom must not be greater than floorTo");
+        }
+        boolean onlyClassmates = Boolean.TRUE.equals(classmatesOnly);
+        if (onlyClassmates && studentId == null) {
+            throw new BizException(40001, "classmatesOnly requires studentId");
+        }
+        int n = limit == null || limit < 1 ? AVAILABLE_DEFAULT_LIMIT : Math.min(limit, AVAILABLE_MAX_LIMIT);
+
+        String g = gender;
+        Map<Long, Integer> classmates = null;
+        if (studentId != null) {
+            Student student = studentRepository.findById(studentId);
+            if (student == null) {
+                throw new BizException(40004, "student not found");
+            }
+            if (g == null || g.isBlank()) {
+                g = student.getGender();
+            }
+            if (student.getClassName() != null && !student.getClassName().isBlank()) {
+                classmates = assignmentRepository.countActiveClassmatesByRoom(studentId, student.getCollege(), student.getMajor(), student.getClassName());
+            }
+        }
+
+        List<AvailableBedVo> list = occupancyIndex.findAvailable(buildingId, floorFrom, floorTo, g, roomType, classmates, onlyClassmates, n);
+        if (list == null) {
+            throw new BizException(50000, "bed occupancy index is not ready");
+        }
+        return list;
+    }
+
+    private long count(Long buildingId, Long roomId, String status, String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            Long cnt = occupancyIndex.countBeds(buildingId, roomId, status);
+            if (cnt != null) {
+                return cnt;
+            }
+        }
+        return repository.count(buildingId, roomId, status, keyword);
+    }
+
+    private SortSpec<DormBedVo> resolveSort(String sortBy, String sortOrder) {
+        boolean asc = "asc".equalsIgnoreCase(sortOrder);
+        if ("bedNo".equalsIgnoreCase(sortBy) || "bed_no".equalsIgnoreCase(sortBy)) {
+            return new SortSpec<>("bedNo", "bed.bed_no", "bed.id", asc, DormBedVo::getBedNo, DormBedVo::getId);
+        }
+        if ("roomId".equalsIgnoreCase(sortBy) || "room_id".equalsIgnoreCase(sortBy)) {
+            return new SortSpec<>("roomId", "bed.room_id", "bed.id", asc, DormBedVo::getRoomId, DormBedVo::getId);
+        }
+        if ("status".equalsIgnoreCase(sortBy)) {
+            return new SortSpec<>("status", "bed.status", "bed.id", asc, DormBedVo::getStatus, DormBedVo::getId);
         }
-        return column + " " + order;
+        return new SortSpec<>("id", "bed.id", "bed.id", asc, DormBedVo::getId, DormBedVo::getId);
     }
 }
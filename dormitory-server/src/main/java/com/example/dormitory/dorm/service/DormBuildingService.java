@@ -1,7 +1,10 @@
 package com.example.dormitory.dorm.service;
 
+import com.example.dormitory.common.AfterCommit;
 import com.example.dormitory.common.BizException;
+import com.example.dormitory.common.PageCursor;
 import com.example.dormitory.common.PageResult;
+import com.example.dormitory.common.SortSpec;
 import com.example.dormitory.dorm.dto.CreateDormBuildingRequest;
 import com.example.dormitory.dorm.dto.UpdateDormBuildingRequest;
 import com.example.dormitory.dorm.model.DormBuilding;
@@ -15,22 +18,34 @@ import java.util.List;
 public class DormBuildingService {
 
     private final DormBuildingRepository repository;
+    private final BedOccupancyIndex occupancyIndex;
 
-    public DormBuildingService(DormBuildingRepository repository) {
+    public DormBuildingService(DormBuildingRepository repository, BedOccupancyIndex occupancyIndex) {
         this.repository = repository;
+        this.occupancyIndex = occupancyIndex;
     }
 
-    public PageResult<DormBuildingVo> list(String keyword, String genderLimit, Integer page, Integer pageSize, String sortBy, String sortOrder) {
+    public PageResult<DormBuildingVo> list(String keyword, String genderLimit, Integer page, Integer pageSize, String sortBy, String sortOrder, String cursor, Boolean withTotal) {
         int p = page == null || page < 1 ? 1 : page;
         int ps = pageSize == null || pageSize < 1 ? 20 : Math.min(pageSize, 200);
 
-        String orderBy = resolveOrderBy(sortBy, sortOrder);
-        int offset = (p - 1) * ps;
+        SortSpec<DormBuildingVo> sort = resolveSort(sortBy, sortOrder);
+        PageCursor after = PageCursor.decode(cursor, sort);
+        int offset = cursor == null ? (p - 1) * ps : 0;
 
-        long total = repository.count(keyword, genderLimit);
-        List<DormBuilding> list = repository.list(keyword, genderLimit, orderBy, ps, offset);
+        Long total = withTotal == null || withTotal ? repository.count(keyword, genderLimit) : null;
+        List<DormBuilding> list = repository.list(keyword, genderLimit, sort, after, ps + 1, offset);
+        boolean hasMore = list.size() > ps;
+        if (hasMore) {
+            list = list.subList(0, ps);
+        }
         List<DormBuildingVo> voList = list.stream().map(this::toVo).toList();
-        return new PageResult<>(voList, p, ps, total);
+        PageResult<DormBuildingVo> result = new PageResult<>(voList, p, ps, total);
+        result.setHasMore(hasMore);
+        if (cursor != null && hasMore) {
+            result.setNextCursor(PageCursor.encode(sort, voList.get(voList.size() - 1)));
+        }
+        return result;
     }
 
     public DormBuildingVo get(Long id) {
@@ -66,14 +81,16 @@ public class DormBuildingService {
         if (affected == 0) {
             throw new BizException(40004, "building not found");
         }
+        AfterCommit.run(() -> occupancyIndex.updateBuilding(id, b.getGenderLimit(), "ACTIVE".equalsIgnoreCase(b.getStatus())));
         return get(id);
     }
 
     public void delete(Long id) {
-        int affected = repository.softDelete(id);
-        if (affected == 0) {
+        DormBuilding before = repository.findById(id);
+        if (before == null || repository.softDelete(id) == 0) {
             throw new BizException(40004, "building not found");
         }
+        AfterCommit.run(() -> occupancyIndex.updateBuilding(id, before.getGenderLimit(), false));
     }
 
     private DormBuildingVo toVo(DormBuilding b) {
@@ -87,26 +104,20 @@ public class DormBuildingService {
         return vo;
     }
 
-    private String resolveOrderBy(String sortBy, String sortOrder) {
-        String column;
+    private SortSpec<DormBuildingVo> resolveSort(String sortBy, String sortOrder) {
+        boolean asc = "asc".equalsIgnoreCase(sortOrder);
         if ("code".equalsIgnoreCase(sortBy)) {
-            column = "code";
-        } else if ("name".equalsIgnoreCase(sortBy)) {
-            column = "name";
-        } else if ("genderLimit".equalsIgnoreCase(sortBy) || "gender_limit".equalsIgnoreCase(sortBy)) {
-            column = "gender_limit";
-        } else if ("status".equalsIgnoreCase(sortBy)) {
-            column = "status";
-        } else {
-            column = "id";
+            return new SortSpec<>("code", "code", "id", asc, DormBuildingVo::getCode, DormBuildingVo::getId);
         }
-
-        String order = "desc";
-        if ("asc".equalsIgnoreCase(sortOrder)) {
-            order = "asc";
-        } else if ("desc".equalsIgnoreCase(sortOrder)) {
-            order = "desc";
+        if ("name".equalsIgnoreCase(sortBy)) {
+            return new SortSpec<>("name", "name", "id", asc, DormBuildingVo::getName, DormBuildingVo::getId);
+        }
+        if ("genderLimit".equalsIgnoreCase(sortBy) || "gender_limit".equalsIgnoreCase(sortBy)) {
+            return new SortSpec<>("genderLimit", "gender_limit", "id", asc, DormBuildingVo::getGenderLimit, DormBuildingVo::getId);
+        }
+        if ("status".equalsIgnoreCase(sortBy)) {
+            return new SortSpec<>("status", "status", "id", asc, DormBuildingVo::getStatus, DormBuildingVo::getId);
         }
-        return column + " " + order;
+        return new SortSpec<>("id", "id", "id", asc, DormBuildingVo::getId, DormBuildingVo::getId);
     }
 }
@@ -0,0 +1,57 @@
+package com.example.dormitory.dorm.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.check-in")
+public class DormCheckInProperties {
+
+    private int batchSize = 200;
+
+    private long maxWaitMillis = 5;
+
+    private int queueCapacity = 5000;
+
+    private long timeoutMillis = 10000;
+
+    private long busyRetryAfterSeconds = 1;
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public long getBusyRetryAfterSeconds() {
+        return busyRetryAfterSeconds;
+    }
+
+    public void setBusyRetryAfterSeconds(long busyRetryAfterSeconds) {
+        this.busyRetryAfterSeconds = busyRetryAfterSeconds;
+    }
+}
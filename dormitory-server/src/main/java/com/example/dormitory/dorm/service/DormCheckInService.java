@@ -0,0 +1,352 @@
+package com.example.dormitory.dorm.service;
+
+import com.example.dormitory.common.AfterCommit;
+import com.example.dormitory.common.BizException;
+import com.example.dormitory.common.TooManyRequestsException;
+import com.example.dormitory.dorm.dto.CreateDormAssignmentRequest;
+import com.example.dormitory.dorm.model.DormAssignment;
+import com.example.dormitory.dorm.repository.DormAssignmentRepository;
+import com.example.dormitory.dorm.repository.DormBedRepository;
+import com.example.dormitory.dorm.vo.DormAssignmentVo;
+import com.example.dormitory.student.model.Student;
+import com.example.dormitory.student.repository.StudentRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-writer check-in path: requests are queued, conflicts on the same student or bed are settled in memory in
+ * arrival order, and the rest of each batch is committed with one multi-row occupy/insert transaction. A task is
+ * either taken by the writer or cancelled by a caller that gave up waiting, never both, so a busy answer always means
+ * nothing was written.
+ */
+@Service
+public class DormCheckInService {
+
+    private static final Logger log = LoggerFactory.getLogger(DormCheckInService.class);
+
+    private final DormAssignmentRepository assignmentRepository;
+    private final DormBedRepository bedRepository;
+    private final StudentRepository studentRepository;
+    private final BedOccupancyIndex occupancyIndex;
+    private final BedHoldTable holdTable;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long maxWaitNanos;
+    private final long timeoutMillis;
+    private final long busyRetryAfterSeconds;
+    private final BlockingQueue<Task> queue;
+    private final Thread writer;
+    private final Timer latencyTimer;
+    private final Timer commitTimer;
+    private final DistributionSummary batchSummary;
+    private volatile boolean running = true;
+
+    public DormCheckInService(DormAssignmentRepository assignmentRepository, DormBedRepository bedRepository, StudentRepository studentRepository,
+                              BedOccupancyIndex occupancyIndex, BedHoldTable holdTable, TransactionTemplate transactionTemplate,
+                              DormCheckInProperties properties, MeterRegistry meterRegistry) {
+        this.assignmentRepository = assignmentRepository;
+        this.bedRepository = bedRepository;
+        this.studentRepository = studentRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.holdTable = holdTable;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, properties.getMaxWaitMillis()));
+        this.timeoutMillis = properties.getTimeoutMillis();
+        this.busyRetryAfterSeconds = properties.getBusyRetryAfterSeconds();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+
+        this.latencyTimer = Timer.builder("dorm.checkin.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder("dorm.checkin.commit")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchSummary = DistributionSummary.builder("dorm.checkin.batch.size")
+                .register(meterRegistry);
+        Gauge.builder("dorm.checkin.queue.depth", queue, BlockingQueue::size)
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::runWriter, "dorm-check-in");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public DormAssignmentVo checkIn(CreateDormAssignmentRequest req) {
+        Task task = new Task(req.getStudentId(), req.getBedId(), req.getReason());
+        if (!running || !queue.offer(task)) {
+            throw new TooManyRequestsException(42903, "check-in busy, retry later", busyRetryAfterSeconds);
+        }
+        try {
+            return task.future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (task.cancel()) {
+                throw new TooManyRequestsException(42903, "check-in busy, retry later", busyRetryAfterSeconds);
+            }
+            // The writer already took the task; its outcome is on the way.
+            try {
+                return task.future.join();
+            } catch (CompletionException ce) {
+                if (ce.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw ce;
+            }
+        } catch (InterruptedException e) {
+            task.cancel();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writer.interrupt();
+    }
+
+    private void runWriter() {
+        List<Task> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Task first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long left = deadline - System.nanoTime();
+                    Task next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                process(batch);
+            } catch (InterruptedException e) {
+                for (Task task : batch) {
+                    task.fail(new BizException(50000, "check-in service stopped"));
+                }
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("check-in batch failed", e);
+                for (Task task : batch) {
+                    task.fail(new BizException(50000, "check-in failed"));
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+        List<Task> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (Task task : rest) {
+            task.fail(new BizException(50000, "check-in service stopped"));
+        }
+    }
+
+    private void process(List<Task> batch) {
+        // Arrival order decides who wins a student or bed that appears twice in the same batch.
+        List<Task> accepted = new ArrayList<>(batch.size());
+        Set<Long> students = new HashSet<>();
+        Set<Long> beds = new HashSet<>();
+        for (Task task : batch) {
+            if (!task.take()) {
+                continue;
+            }
+            if (!students.add(task.studentId)) {
+                task.fail(new BizException(40901, "student already has active assignment"));
+            } else if (!beds.add(task.bedId)) {
+                task.fail(new BizException(40902, "bed already occupied"));
+            } else if (holdTable.isHeld(task.bedId, null)) {
+                task.fail(new BizException(40905, "bed is held"));
+            } else {
+                accepted.add(task);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        batchSummary.record(accepted.size());
+
+        long startedAt = System.nanoTime();
+        List<Task> committed;
+        try {
+            committed = transactionTemplate.execute(status -> commit(accepted));
+        } catch (RuntimeException e) {
+            log.warn("check-in batch of {} rolled back, retrying one by one: {}", accepted.size(), e.getMessage());
+            committed = new ArrayList<>(accepted.size());
+            for (Task task : accepted) {
+                task.failure = null;
+                try {
+                    List<Task> one = transactionTemplate.execute(status -> commit(List.of(task)));
+                    if (one != null) {
+                        committed.addAll(one);
+                    }
+                } catch (RuntimeException ex) {
+                    task.failure = ex instanceof BizException ? ex : new BizException(50000, "create assignment failed");
+                }
+            }
+        }
+        commitTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+
+        complete(accepted, committed == null ? List.of() : committed);
+    }
+
+    private List<Task> commit(List<Task> tasks) {
+        List<Long> studentIds = new ArrayList<>(tasks.size());
+        List<Long> bedIds = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            studentIds.add(task.studentId);
+            bedIds.add(task.bedId);
+        }
+        Set<Long> existingStudents = new HashSet<>();
+        for (Student s : studentRepository.findByIds(studentIds)) {
+            existingStudents.add(s.getId());
+        }
+        Set<Long> existingBeds = bedRepository.findExistingIds(bedIds);
+        Set<Long> active = assignmentRepository.findActiveStudentIds(studentIds);
+
+        List<Task> candidates = new ArrayList<>(tasks.size());
+        List<Long> candidateBeds = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (!existingStudents.contains(task.studentId)) {
+                task.failure = new BizException(40004, "student not found");
+            } else if (!existingBeds.contains(task.bedId)) {
+                task.failure = new BizException(40004, "bed not found");
+            } else if (active.contains(task.studentId)) {
+                task.failure = new BizException(40901, "student already has active assignment");
+            } else {
+                candidates.add(task);
+                candidateBeds.add(task.bedId);
+            }
+        }
+
+        int[] occupied = bedRepository.batchOccupy(candidateBeds);
+        LocalDateTime now = LocalDateTime.now();
+        List<Task> inserted = new ArrayList<>(candidates.size());
+        List<DormAssignment> inserts = new ArrayList<>(candidates.size());
+        List<Long> insertedBeds = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Task task = candidates.get(i);
+            if (i < occupied.length && occupied[i] == 0) {
+                task.failure = new BizException(40902, "bed already occupied");
+                continue;
+            }
+            DormAssignment a = new DormAssignment();
+            a.setStudentId(task.studentId);
+            a.setBedId(task.bedId);
+            a.setStartAt(now);
+            a.setStatus("ACTIVE");
+            a.setReason(task.reason);
+            inserts.add(a);
+            inserted.add(task);
+            insertedBeds.add(task.bedId);
+        }
+        assignmentRepository.batchInsert(inserts);
+        AfterCommit.run(() -> occupancyIndex.assignAll(insertedBeds));
+        return inserted;
+    }
+
+    private void complete(List<Task> accepted, List<Task> committed) {
+        Map<Long, DormAssignmentVo> vos = new HashMap<>();
+        if (!committed.isEmpty()) {
+            List<Long> studentIds = new ArrayList<>(committed.size());
+            for (Task task : committed) {
+                studentIds.add(task.studentId);
+            }
+            for (DormAssignmentVo vo : assignmentRepository.findActiveVosByStudentIds(studentIds)) {
+                vos.put(vo.getStudentId(), vo);
+            }
+        }
+        Set<Task> done = new HashSet<>(committed);
+        for (Task task : accepted) {
+            if (done.contains(task)) {
+                DormAssignmentVo vo = vos.get(task.studentId);
+                if (vo == null) {
+                    task.fail(new BizException(50000, "create assignment failed"));
+                } else {
+                    task.complete(vo);
+                }
+            } else {
+                task.fail(task.failure == null ? new BizException(50000, "create assignment failed") : task.failure);
+            }
+        }
+    }
+
+    private final class Task {
+
+        private static final int QUEUED = 0;
+        private static final int TAKEN = 1;
+        private static final int CANCELLED = 2;
+
+        private final Long studentId;
+        private final Long bedId;
+        private final String reason;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<DormAssignmentVo> future = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private RuntimeException failure;
+
+        private Task(Long studentId, Long bedId, String reason) {
+            this.studentId = studentId;
+            this.bedId = bedId;
+            this.reason = reason;
+        }
+
+        private boolean take() {
+            return state.compareAndSet(QUEUED, TAKEN);
+        }
+
+        private boolean cancel() {
+            if (!state.compareAndSet(QUEUED, CANCELLED)) {
+                return false;
+            }
+            future.cancel(false);
+            return true;
+        }
+
+        private void complete(DormAssignmentVo vo) {
+            latencyTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+            future.complete(vo);
+        }
+
+        private void fail(RuntimeException e) {
+            latencyTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+            future.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.dormitory.dorm.service;
+
+import com.example.dormitory.common.AfterCommit;
+import com.example.dormitory.common.BizException;
+import com.example.dormitory.dorm.dto.DormCheckOutRequest;
+import com.example.dormitory.dorm.model.DormAssignment;
+import com.example.dormitory.dorm.model.DormCheckOutJob;
+import com.example.dormitory.dorm.repository.DormAssignmentRepository;
+import com.example.dormitory.dorm.repository.DormBedRepository;
+import com.example.dormitory.dorm.repository.DormCheckOutJobRepository;
+import com.example.dormitory.dorm.vo.DormCheckOutJobVo;
+import com.example.dormitory.security.SecurityUtils;
+import com.example.dormitory.security.UserPrincipal;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * End-of-term mass check-out. A job stores its filter and an assignment id cursor; a background worker walks the
+ * matching ACTIVE assignments in id order and ends one chunk per transaction, advancing the cursor in the same
+ * transaction. Workers hold a lease on the job row under a per-run owner token, so a job left RUNNING by a stopped
+ * instance is picked up again by the poller and continues from its cursor, and the stale worker's writes are fenced.
+ */
+@Service
+public class DormCheckOutService {
+
+    private static final Logger log = LoggerFactory.getLogger(DormCheckOutService.class);
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final DormCheckOutJobRepository jobRepository;
+    private final DormAssignmentRepository assignmentRepository;
+    private final DormBedRepository bedRepository;
+    private final BedOccupancyIndex occupancyIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final long leaseSeconds;
+    private final Set<Long> submitted = ConcurrentHashMap.newKeySet();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "dorm-check-out");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public DormCheckOutService(DormCheckOutJobRepository jobRepository, DormAssignmentRepository assignmentRepository,
+                               DormBedRepository bedRepository, BedOccupancyIndex occupancyIndex, TransactionTemplate transactionTemplate,
+                               DormCheckOutProperties properties) {
+        this.jobRepository = jobRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.bedRepository = bedRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = Math.max(1, properties.getChunkSize());
+        this.leaseSeconds = Math.max(1, properties.getLeaseSeconds());
+    }
+
+    public DormCheckOutJobVo start(DormCheckOutRequest req) {
+        DormCheckOutJob job = new DormCheckOutJob();
+        job.setBuildingId(req.getBuildingId());
+        job.setCollege(trimToNull(req.getCollege()));
+        job.setClassName(trimToNull(req.getClassName()));
+        job.setStudentStatus(trimToNull(req.getStudentStatus()));
+        job.setReason(trimToNull(req.getReason()));
+        if (job.getBuildingId() == null && job.getCollege() == null && job.getClassName() == null && job.getStudentStatus() == null) {
+            throw new BizException(40001, "at least one filter required");
+        }
+        long total = assignmentRepository.countActiveForCheckOut(job.getBuildingId(), job.getCollege(), job.getClassName(), job.getStudentStatus());
+        job.setTotal((int) total);
+        job.setStatus("PENDING");
+        UserPrincipal user = SecurityUtils.currentUser();
+        job.setCreatedBy(user == null ? null : user.getId());
+
+        Long id = jobRepository.insert(job);
+        submit(id);
+        return get(id);
+    }
+
+    public DormCheckOutJobVo get(Long id) {
+        DormCheckOutJob job = jobRepository.findById(id);
+        if (job == null) {
+            throw new BizException(40004, "check-out job not found");
+        }
+        return toVo(job);
+    }
+
+    public DormCheckOutJobVo resume(Long id) {
+        DormCheckOutJob job = jobRepository.findById(id);
+        if (job == null) {
+            throw new BizException(40004, "check-out job not found");
+        }
+        if ("COMPLETED".equals(job.getStatus())) {
+            throw new BizException(40908, "check-out job already completed");
+        }
+        jobRepository.requeue(id);
+        submit(id);
+        return get(id);
+    }
+
+    @Scheduled(fixedDelayString = "${app.check-out.poll-millis:10000}")
+    public void poll() {
+        for (Long id : jobRepository.findRunnableIds(LocalDateTime.now(), 10)) {
+            submit(id);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void submit(Long id) {
+        if (!submitted.add(id)) {
+            return;
+        }
+        try {
+            worker.execute(() -> {
+                try {
+                    run(id);
+                } finally {
+                    submitted.remove(id);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            submitted.remove(id);
+        }
+    }
+
+    private void run(Long id) {
+        String owner = UUID.randomUUID().toString();
+        if (jobRepository.claim(id, owner, LocalDateTime.now(), leaseUntil()) == 0) {
+            return;
+        }
+        DormCheckOutJob job = jobRepository.findById(id);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Long last = transactionTemplate.execute(status -> checkOutChunk(job, owner));
+                if (last == null) {
+                    if (jobRepository.finish(id, owner, "COMPLETED", null) == 0) {
+                        throw new LeaseLostException();
+                    }
+                    return;
+                }
+                job.setLastAssignmentId(last);
+            }
+            // Interrupted by shutdown: the lease runs out and the poller picks the job up again.
+        } catch (LeaseLostException e) {
+            log.warn("check-out job {} was taken over by another worker", id);
+        } catch (RuntimeException e) {
+            log.warn("check-out job {} failed", id, e);
+            String message = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            jobRepository.finish(id, owner, "FAILED", message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        }
+    }
+
+    /**
+     * Ends the next chunk after the job's cursor. Returns the new cursor, or {@code null} when nothing is left.
+     */
+    private Long checkOutChunk(DormCheckOutJob job, String owner) {
+        List<DormAssignment> candidates = assignmentRepository.findActiveForCheckOut(job.getBuildingId(), job.getCollege(), job.getClassName(),
+                job.getStudentStatus(), job.getLastAssignmentId(), chunkSize);
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        List<Long> candidateIds = new ArrayList<>(candidates.size());
+        for (DormAssignment a : candidates) {
+            candidateIds.add(a.getId());
+        }
+        Long last = candidateIds.get(candidateIds.size() - 1);
+
+        // Rows ended or moved since the scan drop out here; the rest stay locked until commit.
+        List<Long> endIds = new ArrayList<>(candidates.size());
+        List<Long> bedIds = new ArrayList<>(candidates.size());
+        for (DormAssignment a : assignmentRepository.lockActiveByIds(candidateIds)) {
+            endIds.add(a.getId());
+            bedIds.add(a.getBedId());
+        }
+        int ended = assignmentRepository.endAssignments(endIds, LocalDateTime.now(), job.getReason());
+        List<Long> released = bedRepository.releaseIfUnassigned(bedIds);
+        if (jobRepository.advance(job.getId(), owner, ended, last, leaseUntil()) == 0) {
+            throw new LeaseLostException();
+        }
+        AfterCommit.run(() -> released.forEach(occupancyIndex::release));
+        return last;
+    }
+
+    private LocalDateTime leaseUntil() {
+        return LocalDateTime.now().plusSeconds(leaseSeconds);
+    }
+
+    private static String trimToNull(String s) {
+        if (s == null) {
+            return null;
+        }
+        String t = s.trim();
+        return t.isEmpty() ? null : t;
+    }
+
+    private static DormCheckOutJobVo toVo(DormCheckOutJob job) {
+        DormCheckOutJobVo vo = new DormCheckOutJobVo();
+        vo.setId(job.getId());
+        vo.setBuildingId(job.getBuildingId());
+        vo.setCollege(job.getCollege());
+        vo.setClassName(job.getClassName());
+        vo.setStudentStatus(job.getStudentStatus());
+        vo.setReason(job.getReason());
+        vo.setStatus(job.getStatus());
+        vo.setTotal(job.getTotal());
+        vo.setProcessed(job.getProcessed());
+        vo.setLastAssignmentId(job.getLastAssignmentId());
+        vo.setError(job.getError());
+        vo.setFinishedAt(job.getFinishedAt());
+        vo.setCreatedAt(job.getCreatedAt());
+        return vo;
+    }
+
+    private static class LeaseLostException extends RuntimeException {
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.dormitory.dorm.service;
+
+import com.example.dormitory.common.AfterCommit;
+import com.example.dormitory.common.BizException;
+import com.example.dormitory.dorm.dto.DormLayoutRequest;
+import com.example.dormitory.dorm.model.DormBed;
+import com.example.dormitory.dorm.model.DormBuilding;
+import com.example.dormitory.dorm.model.DormRoom;
+import com.example.dormitory.dorm.repository.DormBedRepository;
+import com.example.dormitory.dorm.repository.DormBuildingRepository;
+import com.example.dormitory.dorm.repository.DormRoomRepository;
+import com.example.dormitory.dorm.vo.DormLayoutResultVo;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class DormLayoutService {
+
+    private static final int MAX_BEDS = 20000;
+    private static final int BATCH_SIZE = 1000;
+    private static final int ROOM_NO_MAX_LENGTH = 32;
+    private static final int BED_NO_MAX_LENGTH = 16;
+    private static final String DEFAULT_ROOM_NO_PATTERN = "{floor}{room:2}";
+    private static final String DEFAULT_BED_NO_PATTERN = "{bed:A}";
+
+    private final DormBuildingRepository buildingRepository;
+    private final DormRoomRepository roomRepository;
+    private final DormBedRepository bedRepository;
+    private final BedOccupancyIndex occupancyIndex;
+
+    public DormLayoutService(DormBuildingRepository buildingRepository, DormRoomRepository roomRepository, DormBedRepository bedRepository,
+                             BedOccupancyIndex occupancyIndex) {
+        this.buildingRepository = buildingRepository;
+        this.roomRepository = roomRepository;
+        this.bedRepository = bedRepository;
+        this.occupancyIndex = occupancyIndex;
+    }
+
+    @Transactional
+    public DormLayoutResultVo generate(Long buildingId, DormLayoutRequest req) {
+        DormBuilding building = buildingRepository.findById(buildingId);
+        if (building == null) {
+            throw new BizException(40004, "building not found");
+        }
+        int floors = req.getFloors();
+        int startFloor = req.getStartFloor() == null ? 1 : req.getStartFloor();
+        int roomsPerFloor = req.getRoomsPerFloor();
+        int bedsPerRoom = req.getBedsPerRoom();
+        if ((long) floors * roomsPerFloor * bedsPerRoom > MAX_BEDS) {
+            throw new BizException(40001, "layout exceeds " + MAX_BEDS + " beds");
+        }
+        String roomNoPattern = blankToDefault(req.getRoomNoPattern(), DEFAULT_ROOM_NO_PATTERN);
+        String bedNoPattern = blankToDefault(req.getBedNoPattern(), DEFAULT_BED_NO_PATTERN);
+        String roomType = blankToDefault(req.getRoomType(), null);
+        String genderLimit = blankToDefault(req.getGenderLimit(), building.getGenderLimit());
+
+        List<DormRoom> rooms = new ArrayList<>(floors * roomsPerFloor);
+        Set<String> roomNos = new HashSet<>();
+        for (int f = 0; f < floors; f++) {
+            int floor = startFloor + f;
+            for (int r = 1; r <= roomsPerFloor; r++) {
+                String roomNo = format(roomNoPattern, floor, r, 0);
+                if (roomNo.isEmpty() || roomNo.length() > ROOM_NO_MAX_LENGTH) {
+                    throw new BizException(40001, "invalid room no: " + roomNo);
+                }
+                if (!roomNos.add(roomNo)) {
+                    throw new BizException(40001, "roomNoPattern generates duplicate room no: " + roomNo);
+                }
+                DormRoom room = new DormRoom();
+                room.setBuildingId(buildingId);
+                room.setFloorNo(floor);
+                room.setRoomNo(roomNo);
+                room.setRoomType(roomType);
+                room.setGenderLimit(genderLimit);
+                room.setStatus("ACTIVE");
+                rooms.add(room);
+            }
+        }
+
+        List<String> taken = new ArrayList<>();
+        for (String existing : roomRepository.findRoomNosByBuilding(buildingId)) {
+            if (roomNos.contains(existing) && taken.size() < 10) {
+                taken.add(existing);
+            }
+        }
+        if (!taken.isEmpty()) {
+            throw new BizException(40904, "room no already exists: " + String.join(",", taken));
+        }
+
+        roomRepository.batchInsert(rooms, BATCH_SIZE);
+        Map<String, Long> roomIds = roomRepository.findIdsByBuilding(buildingId);
+
+        List<DormBed> beds = new ArrayList<>(rooms.size() * bedsPerRoom);
+        for (int i = 0; i < rooms.size(); i++) {
+            DormRoom room = rooms.get(i);
+            Long roomId = roomIds.get(room.getRoomNo());
+            int roomIndex = i % roomsPerFloor + 1;
+            Set<String> bedNos = new HashSet<>();
+            for (int b = 1; b <= bedsPerRoom; b++) {
+                String bedNo = format(bedNoPattern, room.getFloorNo(), roomIndex, b);
+                if (bedNo.isEmpty() || bedNo.length() > BED_NO_MAX_LENGTH) {
+                    throw new BizException(40001, "invalid bed no: " + bedNo);
+                }
+                if (!bedNos.add(bedNo)) {
+                    throw new BizException(40001, "bedNoPattern generates duplicate bed no: " + bedNo);
+                }
+                DormBed bed = new DormBed();
+                bed.setRoomId(roomId);
+                bed.setBedNo(bedNo);
+                bed.setStatus("AVAILABLE");
+                beds.add(bed);
+            }
+        }
+        bedRepository.batchInsert(beds, BATCH_SIZE);
+        AfterCommit.run(occupancyIndex::rebuild);
+
+        DormLayoutResultVo vo = new DormLayoutResultVo();
+        vo.setBuildingId(buildingId);
+        vo.setFloors(floors);
+        vo.setRooms(rooms.size());
+        vo.setBeds(beds.size());
+        vo.setFirstRoomNo(rooms.get(0).getRoomNo());
+        vo.setLastRoomNo(rooms.get(rooms.size() - 1).getRoomNo());
+        return vo;
+    }
+
+    private static String format(String pattern, int floor, int room, int bed) {
+        StringBuilder sb = new StringBuilder(pattern.length() + 8);
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            int close = c == '{' ? pattern.indexOf('}', i) : -1;
+            if (close < 0) {
+                sb.append(c);
+                i++;
+                continue;
+            }
+            String token = pattern.substring(i + 1, close);
+            int colon = token.indexOf(':');
+            String name = colon < 0 ? token : token.substring(0, colon);
+            String modifier = colon < 0 ? "" : token.substring(colon + 1);
+            int value = switch (name) {
+                case "floor" -> floor;
+                case "room" -> room;
+                case "bed" -> bed;
+                default -> throw new BizException(40001, "unknown pattern token: {" + token + "}");
+            };
+            sb.append(formatNumber(value, modifier, token));
+            i = close + 1;
+        }
+        return sb.toString();
+    }
+
+    private static String formatNumber(int value, String modifier, String token) {
+        if (modifier.isEmpty()) {
+            return Integer.toString(value);
+        }
+        if ("A".equals(modifier) || "a".equals(modifier)) {
+            StringBuilder letters = new StringBuilder();
+            int n = value;
+            while (n > 0) {
+                n--;
+                letters.append((char) ('A' + n % 26));
+                n /= 26;
+            }
+            String s = letters.reverse().toString();
+            return "a".equals(modifier) ? s.toLowerCase(Locale.ROOT) : s;
+        }
+        int width;
+        try {
+            width = Integer.parseInt(modifier);
+        } catch (NumberFormatException e) {
+            throw new BizException(40001, "invalid pattern token: {" + token + "}");
+        }
+        String digits = Integer.toString(value);
+        if (width <= digits.length()) {
+            return digits;
+        }
+        return "0".repeat(Math.min(width, 16) - digits.length()) + digits;
+    }
+
+    private static String blankToDefault(String value, String defaultValue) {
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.dormitory.dorm.service;
+
+import com.example.dormitory.common.BizException;
+import com.example.dormitory.dorm.repository.DormAssignmentRepository;
+import com.example.dormitory.dorm.vo.DormAssignmentVo;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class DormOccupancyHistoryService {
+
+    private final AssignmentIntervalIndex intervalIndex;
+    private final DormAssignmentRepository assignmentRepository;
+
+    public DormOccupancyHistoryService(AssignmentIntervalIndex intervalIndex, DormAssignmentRepository assignmentRepository) {
+        this.intervalIndex = intervalIndex;
+        this.assignmentRepository = assignmentRepository;
+    }
+
+    /**
+     * Stays in a bed or room at a point in time ({@code at}) or overlapping {@code [from, to)}.
+     */
+    public List<DormAssignmentVo> occupants(Long bedId, Long roomId, LocalDateTime at, LocalDateTime from, LocalDateTime to) {
+        if ((bedId == null) == (roomId == null)) {
+            throw new BizException(40001, "exactly one of bedId and roomId required");
+        }
+        LocalDateTime[] window = window(at, from, to);
+        List<Long> ids = bedId != null
+                ? intervalIndex.findByBed(bedId, window[0], window[1])
+                : intervalIndex.findByRoom(roomId, window[0], window[1]);
+        if (ids == null) {
+            return assignmentRepository.findOverlapping(bedId, roomId, window[0], window[1]);
+        }
+        return assignmentRepository.findVosByIds(ids);
+    }
+
+    public List<DormAssignmentVo> roommates(Long studentId, LocalDateTime at, LocalDateTime from, LocalDateTime to) {
+        if (studentId == null) {
+            throw new BizException(40001, "studentId required");
+        }
+        LocalDateTime[] window = window(at, from, to);
+        List<Long> ids = intervalIndex.findRoommates(studentId, window[0], window[1]);
+        if (ids != null) {
+            return assignmentRepository.findVosByIds(ids);
+        }
+        // A stay can overlap several of the student's own stays in the same room.
+        Set<Long> seen = new HashSet<>();
+        List<DormAssignmentVo> result = new ArrayList<>();
+        for (DormAssignmentVo vo : assignmentRepository.findRoommates(studentId, window[0], window[1])) {
+            if (seen.add(vo.getId())) {
+                result.add(vo);
+            }
+        }
+        return result;
+    }
+
+    private static LocalDateTime[] window(LocalDateTime at, LocalDateTime from, LocalDateTime to) {
+        if (at != null) {
+            if (from != null || to != null) {
+                throw new BizException(40001, "use either at or from/to");
+            }
+            return new LocalDateTime[]{at, at.plusNanos(1_000_000)};
+        }
+        if (from == null) {
+            throw new BizException(40001, "at or from required");
+        }
+        if (to != null && !to.isAfter(from)) {
+            throw new BizException(40001, "to must be after from");
+        }
+        return new LocalDateTime[]{from, to};
+    }
+}
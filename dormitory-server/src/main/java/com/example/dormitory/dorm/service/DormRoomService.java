@@ -1,7 +1,10 @@
 package com.example.dormitory.dorm.service;
 
+import com.example.dormitory.common.AfterCommit;
 import com.example.dormitory.common.BizException;
+import com.example.dormitory.common.PageCursor;
 import com.example.dormitory.common.PageResult;
+import com.example.dormitory.common.SortSpec;
 import com.example.dormitory.dorm.dto.CreateDormRoomRequest;
 import com.example.dormitory.dorm.dto.UpdateDormRoomRequest;
 import com.example.dormitory.dorm.model.DormRoom;
@@ -15,21 +18,33 @@ import java.util.List;
 public class DormRoomService {
 
     private final DormRoomRepository repository;
+    private final BedOccupancyIndex occupancyIndex;
 
-    public DormRoomService(DormRoomRepository repository) {
+    public DormRoomService(DormRoomRepository repository, BedOccupancyIndex occupancyIndex) {
         this.repository = repository;
+        this.occupancyIndex = occupancyIndex;
     }
 
     public PageResult<DormRoomVo> list(Long buildingId, Integer floorNo, String roomNo, String status, String keyword,
-                                      Integer page, Integer pageSize, String sortBy, String sortOrder) {
+                                      Integer page, Integer pageSize, String sortBy, String sortOrder, String cursor, Boolean withTotal) {
         int p = page == null || page < 1 ? 1 : page;
         int ps = pageSize == null || pageSize < 1 ? 20 : Math.min(pageSize, 200);
-        int offset = (p - 1) * ps;
 
-        String orderBy = resolveOrderBy(sortBy, sortOrder);
-        long total = repository.count(buildingId, floorNo, roomNo, status, keyword);
-        List<DormRoomVo> list = repository.list(buildingId, floorNo, roomNo, status, keyword, orderBy, ps, offset);
-        return new PageResult<>(list, p, ps, total);
+        SortSpec<DormRoomVo> sort = resolveSort(sortBy, sortOrder);
+        PageCursor after = PageCursor.decode(cursor, sort);
+        int offset = cursor == null ? (p - 1) * ps : 0;
+        Long total = withTotal == null || withTotal ? repository.count(buildingId, floorNo, roomNo, status, keyword) : null;
+        List<DormRoomVo> list = repository.list(buildingId, floorNo, roomNo, status, keyword, sort, after, ps + 1, offset);
+        boolean hasMore = list.size() > ps;
+        if (hasMore) {
+            list = list.subList(0, ps);
+        }
+        PageResult<DormRoomVo> result = new PageResult<>(list, p, ps, total);
+        result.setHasMore(hasMore);
+        if (cursor != null && hasMore) {
+            result.setNextCursor(PageCursor.encode(sort, list.get(list.size() - 1)));
+        }
+        return result;
     }
 
     public DormRoomVo get(Long id) {
@@ -56,6 +71,10 @@ public class DormRoomService {
     }
 
     public DormRoomVo update(Long id, UpdateDormRoomRequest req) {
+        DormRoom before = repository.findById(id);
+        if (before == null) {
+            throw new BizException(40004, "room not found");
+        }
         DormRoom room = new DormRoom();
         room.setBuildingId(req.getBuildingId());
         room.setFloorNo(req.getFloorNo());
@@ -67,36 +86,38 @@ public class DormRoomService {
         if (affected == 0) {
             throw new BizException(40004, "room not found");
         }
+        if (before.getBuildingId().equals(room.getBuildingId()) && before.getFloorNo().equals(room.getFloorNo())
+                && before.getRoomNo().equals(room.getRoomNo())) {
+            AfterCommit.run(() -> occupancyIndex.updateRoom(id, room.getRoomType(), room.getGenderLimit(), "ACTIVE".equalsIgnoreCase(room.getStatus())));
+        } else {
+            AfterCommit.run(occupancyIndex::rebuild);
+        }
         return get(id);
     }
 
     public void delete(Long id) {
-        int affected = repository.softDelete(id);
-        if (affected == 0) {
+        DormRoom before = repository.findById(id);
+        if (before == null || repository.softDelete(id) == 0) {
             throw new BizException(40004, "room not found");
         }
+        // Beds of a deleted room stay in the index as not allocatable, the same as a rebuild would leave them.
+        AfterCommit.run(() -> occupancyIndex.updateRoom(id, before.getRoomType(), before.getGenderLimit(), false));
     }
 
-    private String resolveOrderBy(String sortBy, String sortOrder) {
-        String column;
+    private SortSpec<DormRoomVo> resolveSort(String sortBy, String sortOrder) {
+        boolean asc = "asc".equalsIgnoreCase(sortOrder);
         if ("roomNo".equalsIgnoreCase(sortBy) || "room_no".equalsIgnoreCase(sortBy)) {
-            column = "r.room_no";
-        } else if ("floorNo".equalsIgnoreCase(sortBy) || "floor_no".equalsIgnoreCase(sortBy)) {
-            column = "r.floor_no";
-        } else if ("buildingId".equalsIgnoreCase(sortBy) || "building_id".equalsIgnoreCase(sortBy)) {
-            column = "r.building_id";
-        } else if ("status".equalsIgnoreCase(sortBy)) {
-            column = "r.status";
-        } else {
-            column = "r.id";
+            return new SortSpec<>("roomNo", "r.room_no", "r.id", asc, DormRoomVo::getRoomNo, DormRoomVo::getId);
         }
-
-        String order = "desc";
-        if ("asc".equalsIgnoreCase(sortOrder)) {
-            order = "asc";
-        } else if ("desc".equalsIgnoreCase(sortOrder)) {
-            order = "desc";
+        if ("floorNo".equalsIgnoreCase(sortBy) || "floor_no".equalsIgnoreCase(sortBy)) {
+            return new SortSpec<>("floorNo", "r.floor_no", "r.id", asc, DormRoomVo::getFloorNo, DormRoomVo::getId);
+        }
+        if ("buildingId".equalsIgnoreCase(sortBy) || "building_id".equalsIgnoreCase(sortBy)) {
+            return new SortSpec<>("buildingId", "r.building_id", "r.id", asc, DormRoomVo::getBuildingId, DormRoomVo::getId);
+        }
+        if ("status".equalsIgnoreCase(sortBy)) {
+            return new SortSpec<>("status", "r.status", "r.id", asc, DormRoomVo::getStatus, DormRoomVo::getId);
         }
-        return column + " " + order;
+        return new SortSpec<>("id", "r.id", "r.id", asc, DormRoomVo::getId, DormRoomVo::getId);
     }
 }
@@ -0,0 +1,660 @@
+package com.example.dormitory.dorm.service;
+
+import com.example.dormitory.common.AfterCommit;
+import com.example.dormitory.common.BizException;
+import com.example.dormitory.dorm.dto.OpenSelectionRequest;
+import com.example.dormitory.dorm.dto.SelectionClaimRequest;
+import com.example.dormitory.dorm.model.BedSlot;
+import com.example.dormitory.dorm.model.DormAssignment;
+import com.example.dormitory.dorm.repository.DormAssignmentRepository;
+import com.example.dormitory.dorm.repository.DormBedRepository;
+import com.example.dormitory.dorm.vo.SelectionClaimVo;
+import com.example.dormitory.dorm.vo.SelectionRoomVo;
+import com.example.dormitory.dorm.vo.SelectionSessionVo;
+import com.example.dormitory.student.model.Student;
+import com.example.dormitory.student.repository.StudentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Timed bed selection, placed by staff on behalf of students; accounts are not linked to students yet, so there is no
+ * student self-service path (see {@code docs/01-requirements-scope.md}). Opening a session snapshots the free beds of
+ * the chosen buildings and the genders already living in each room; claims then race on per-bed compare-and-set slots
+ * with one claim per student, and a background flush persists them in batches. A room without a gender limit takes
+ * the gender of its first occupant, existing or claimed, for the rest of the session. Each claim also holds its bed in
+ * {@link BedHoldTable} until it is persisted or dropped, so staff check-ins, allocation and transfers skip it. The
+ * claim path never touches the database except for a one-off eligibility lookup per student.
+ */
+@Service
+public class DormSelectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(DormSelectionService.class);
+
+    private static final int DEFAULT_DURATION_MINUTES = 30;
+    private static final int FLUSH_BATCH = 500;
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+    private static final String UNLIMITED = "UNLIMITED";
+    // Room gender when existing occupants already disagree; matches no student.
+    private static final String MIXED = "";
+    private static final long CLAIM_WAIT_MILLIS = 1000;
+    // Claims still pending when the session closes keep their hold while the flush catches up.
+    private static final long HOLD_GRACE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final String PENDING = "PENDING";
+    private static final String PERSISTED = "PERSISTED";
+    private static final String FAILED = "FAILED";
+
+    private final DormBedRepository bedRepository;
+    private final DormAssignmentRepository assignmentRepository;
+    private final StudentRepository studentRepository;
+    private final BedOccupancyIndex occupancyIndex;
+    private final BedHoldTable holdTable;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter claimCounter;
+    private final Counter conflictCounter;
+    private volatile Session current;
+
+    public DormSelectionService(DormBedRepository bedRepository, DormAssignmentRepository assignmentRepository, StudentRepository studentRepository,
+                                BedOccupancyIndex occupancyIndex, BedHoldTable holdTable, TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry) {
+        this.bedRepository = bedRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.studentRepository = studentRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.holdTable = holdTable;
+        this.transactionTemplate = transactionTemplate;
+        this.claimCounter = Counter.builder("dorm.selection.claims").register(meterRegistry);
+        this.conflictCounter = Counter.builder("dorm.selection.conflicts").register(meterRegistry);
+    }
+
+    public synchronized SelectionSessionVo open(OpenSelectionRequest req) {
+        Session s = current;
+        if (s != null && (s.isOpen(System.currentTimeMillis()) || !s.pending.isEmpty())) {
+            throw new BizException(40907, "selection session already open");
+        }
+        List<Long> buildingIds = req.getBuildingIds() == null ? Collections.emptyList() : new ArrayList<>(new LinkedHashSet<>(req.getBuildingIds()));
+        int minutes = req.getDurationMinutes() == null ? DEFAULT_DURATION_MINUTES : req.getDurationMinutes();
+
+        Map<Long, List<BedSlot>> byRoom = new LinkedHashMap<>();
+        for (BedSlot slot : bedRepository.findSlots(buildingIds)) {
+            if (!"AVAILABLE".equalsIgnoreCase(slot.getStatus())
+                    || holdTable.isHeld(slot.getBedId(), null)
+                    || Boolean.FALSE.equals(occupancyIndex.isFree(slot.getBedId()))) {
+                continue;
+            }
+            byRoom.computeIfAbsent(slot.getRoomId(), k -> new ArrayList<>()).add(slot);
+        }
+        if (byRoom.isEmpty()) {
+            throw new BizException(40001, "no free beds in the selected buildings");
+        }
+        Map<Long, Set<String>> genders = assignmentRepository.findActiveGendersByRoom(buildingIds);
+
+        long now = System.currentTimeMillis();
+        Session session = new Session(buildingIds, now, now + TimeUnit.MINUTES.toMillis(minutes), byRoom, genders);
+        current = session;
+        log.info("selection session {} opened: buildings={}, beds={}, minutes={}", session.id, buildingIds, session.beds, minutes);
+        return toVo(session);
+    }
+
+    public synchronized SelectionSessionVo close() {
+        Session s = requireSession();
+        s.closesAt = Math.min(s.closesAt, System.currentTimeMillis());
+        return toVo(s);
+    }
+
+    public SelectionSessionVo status() {
+        return toVo(requireSession());
+    }
+
+    public List<SelectionRoomVo> rooms(Long buildingId, String gender) {
+        Session s = requireSession();
+        String g = normalizeGender(gender);
+        List<SelectionRoomVo> list = new ArrayList<>();
+        for (Room room : s.rooms) {
+            int free = room.free.get();
+            if (free <= 0 || (buildingId != null && !buildingId.equals(room.buildingId)) || (g != null && !room.allows(g))) {
+                continue;
+            }
+            SelectionRoomVo vo = new SelectionRoomVo();
+            vo.setRoomId(room.roomId);
+            vo.setRoomNo(room.roomNo);
+            vo.setBuildingId(room.buildingId);
+            vo.setFloorNo(room.floorNo);
+            vo.setRoomType(room.roomType);
+            vo.setFreeBeds(free);
+            list.add(vo);
+        }
+        return list;
+    }
+
+    /**
+     * Claims a bed for the student: the given bed, any free bed in the given room, or any bed the student may take.
+     * Repeating a claim returns the student's existing one; a repeat that arrives while the first is still picking a
+     * bed waits for it.
+     */
+    public SelectionClaimVo claim(SelectionClaimRequest req) {
+        Session s = current;
+        long now = System.currentTimeMillis();
+        if (s == null || !s.isOpen(now)) {
+            throw new BizException(40906, "selection is not open");
+        }
+        Long studentId = req.getStudentId();
+        Claim existing = s.claims.get(studentId);
+        if (existing != null && awaitTaken(existing)) {
+            return idempotent(existing, req);
+        }
+
+        Eligibility eligibility = s.students.get(studentId);
+        if (eligibility == null) {
+            eligibility = loadEligibility(studentId);
+            Eligibility raced = s.students.putIfAbsent(studentId, eligibility);
+            if (raced != null) {
+                eligibility = raced;
+            }
+        }
+        if (eligibility.errorCode != 0) {
+            throw new BizException(eligibility.errorCode, eligibility.errorMessage);
+        }
+
+        Claim claim = new Claim(studentId);
+        while ((existing = s.claims.putIfAbsent(studentId, claim)) != null) {
+            if (awaitTaken(existing)) {
+                return idempotent(existing, req);
+            }
+        }
+        try {
+            s.take(claim, req, eligibility.gender);
+            while (!reserve(s, claim)) {
+                conflictCounter.increment();
+                if (req.getBedId() != null) {
+                    throw new BizException(40902, "bed already occupied");
+                }
+                s.take(claim, req, eligibility.gender);
+            }
+        } catch (BizException e) {
+            s.claims.remove(studentId, claim);
+            claim.taken.countDown();
+            if (e.getCode() == 40902) {
+                conflictCounter.increment();
+            }
+            throw e;
+        }
+        claim.taken.countDown();
+        claimCounter.increment();
+        s.pending.add(claim);
+        return toVo(claim);
+    }
+
+    /**
+     * Registers the claimed bed in the hold table. A bed that was assigned or held outside the session since it opened
+     * is retired from the session pool and {@code false} is returned so the caller can pick another one.
+     */
+    private boolean reserve(Session s, Claim claim) {
+        Room room = claim.room;
+        if (!Boolean.FALSE.equals(occupancyIndex.isFree(claim.bedId))) {
+            long ttl = Math.max(0, s.closesAt - System.currentTimeMillis()) + HOLD_GRACE_MILLIS;
+            try {
+                claim.holdId = holdTable.hold(claim.bedId, claim.studentId, null, ttl).getHoldId();
+                return true;
+            } catch (BizException e) {
+                if (e.getCode() != 40905) {
+                    room.release(claim);
+                    claim.clearBed();
+                    throw e;
+                }
+            }
+        }
+        room.retire(claim);
+        claim.clearBed();
+        return false;
+    }
+
+    public SelectionClaimVo findClaim(Long studentId) {
+        Claim claim = requireSession().claims.get(studentId);
+        if (claim == null || !awaitTaken(claim)) {
+            throw new BizException(40004, "claim not found");
+        }
+        return toVo(claim);
+    }
+
+    @Scheduled(fixedDelayString = "${app.selection.flush-millis:200}")
+    public void flush() {
+        Session s = current;
+        if (s == null) {
+            return;
+        }
+        while (!s.pending.isEmpty()) {
+            List<Claim> batch = new ArrayList<>(FLUSH_BATCH);
+            Claim c;
+            while (batch.size() < FLUSH_BATCH && (c = s.pending.poll()) != null) {
+                batch.add(c);
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> persist(s, batch));
+            } catch (RuntimeException e) {
+                log.warn("persist {} selection claims failed: {}", batch.size(), e.getMessage());
+                for (Claim claim : batch) {
+                    if (++claim.attempts >= MAX_FLUSH_ATTEMPTS) {
+                        s.fail(claim, "persist failed", true);
+                    } else {
+                        s.pending.add(claim);
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    private void persist(Session s, List<Claim> batch) {
+        List<Long> studentIds = new ArrayList<>(batch.size());
+        for (Claim claim : batch) {
+            studentIds.add(claim.studentId);
+        }
+        Set<Long> active = assignmentRepository.findActiveStudentIds(studentIds);
+        List<Claim> candidates = new ArrayList<>(batch.size());
+        List<Long> bedIds = new ArrayList<>(batch.size());
+        for (Claim claim : batch) {
+            if (active.contains(claim.studentId)) {
+                // The bed goes back to the pool; the student already lives somewhere.
+                AfterCommit.run(() -> s.fail(claim, "student already has active assignment", true));
+            } else {
+                candidates.add(claim);
+                bedIds.add(claim.bedId);
+            }
+        }
+
+        int[] occupied = bedRepository.batchOccupy(bedIds);
+        LocalDateTime now = LocalDateTime.now();
+        List<DormAssignment> inserts = new ArrayList<>(candidates.size());
+        List<Claim> persisted = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Claim claim = candidates.get(i);
+            if (i < occupied.length && occupied[i] == 0) {
+                // Someone took the bed outside the session; it stays out of the pool and the student may pick again.
+                AfterCommit.run(() -> {
+                    s.fail(claim, "bed already occupied", false);
+                    s.claims.remove(claim.studentId, claim);
+                });
+                continue;
+            }
+            DormAssignment a = new DormAssignment();
+            a.setStudentId(claim.studentId);
+            a.setBedId(claim.bedId);
+            a.setStartAt(now);
+            a.setStatus("ACTIVE");
+            a.setReason("bed-selection " + s.id);
+            inserts.add(a);
+            persisted.add(claim);
+        }
+        assignmentRepository.batchInsert(inserts);
+        AfterCommit.run(() -> {
+            for (Claim claim : persisted) {
+                claim.status = PERSISTED;
+                s.persisted.incrementAndGet();
+                occupancyIndex.assign(claim.bedId);
+                holdTable.release(claim.holdId);
+            }
+        });
+    }
+
+    private Eligibility loadEligibility(Long studentId) {
+        Student student = studentRepository.findById(studentId);
+        if (student == null) {
+            return new Eligibility(null, 40004, "student not found");
+        }
+        if (student.getStatus() != null && !"IN_SCHOOL".equalsIgnoreCase(student.getStatus())) {
+            return new Eligibility(null, 40001, "student is not in school");
+        }
+        if (assignmentRepository.existsActiveForStudent(studentId)) {
+            return new Eligibility(null, 40901, "student already has active assignment");
+        }
+        return new Eligibility(student.getGender(), 0, null);
+    }
+
+    /**
+     * Waits until the claim has a bed or was dropped. Returns {@code false} when it was dropped, i.e. the first request
+     * failed and the student holds no claim.
+     */
+    private static boolean awaitTaken(Claim claim) {
+        try {
+            if (!claim.taken.await(CLAIM_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                throw new BizException(40902, "claim is still in progress");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BizException(40902, "claim is still in progress");
+        }
+        return claim.bedId != null;
+    }
+
+    private static String normalizeGender(String gender) {
+        return gender == null || gender.isBlank() ? null : gender.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private SelectionClaimVo idempotent(Claim existing, SelectionClaimRequest req) {
+        boolean sameTarget = (req.getBedId() == null || req.getBedId().equals(existing.bedId))
+                && (req.getRoomId() == null || existing.room == null || req.getRoomId().equals(existing.room.roomId));
+        if (!sameTarget) {
+            throw new BizException(40901, "student already selected a bed");
+        }
+        return toVo(existing);
+    }
+
+    private Session requireSession() {
+        Session s = current;
+        if (s == null) {
+            throw new BizException(40004, "no selection session");
+        }
+        return s;
+    }
+
+    private static SelectionSessionVo toVo(Session s) {
+        SelectionSessionVo vo = new SelectionSessionVo();
+        vo.setSessionId(s.id);
+        vo.setOpen(s.isOpen(System.currentTimeMillis()));
+        vo.setOpensAt(toLocal(s.opensAt));
+        vo.setClosesAt(toLocal(s.closesAt));
+        vo.setBuildingIds(s.buildingIds);
+        vo.setBeds(s.beds);
+        int remaining = 0;
+        for (Room room : s.rooms) {
+            remaining += Math.max(0, room.free.get());
+        }
+        vo.setRemaining(remaining);
+        vo.setClaimed(s.claims.size());
+        vo.setPersisted(s.persisted.get());
+        vo.setFailed(s.failed.get());
+        vo.setPending(s.pending.size());
+        return vo;
+    }
+
+    private static SelectionClaimVo toVo(Claim claim) {
+        SelectionClaimVo vo = new SelectionClaimVo();
+        vo.setStudentId(claim.studentId);
+        vo.setBedId(claim.bedId);
+        vo.setBedNo(claim.bedNo);
+        if (claim.room != null) {
+            vo.setRoomId(claim.room.roomId);
+            vo.setRoomNo(claim.room.roomNo);
+            vo.setBuildingId(claim.room.buildingId);
+        }
+        vo.setStatus(claim.status);
+        vo.setMessage(claim.message);
+        return vo;
+    }
+
+    private static LocalDateTime toLocal(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private final class Session {
+
+        private final String id = UUID.randomUUID().toString();
+        private final List<Long> buildingIds;
+        private final long opensAt;
+        private volatile long closesAt;
+        private final List<Room> rooms;
+        private final Map<Long, Room> roomsById;
+        private final Map<Long, int[]> bedPos;
+        private final int beds;
+        private final ConcurrentHashMap<Long, Claim> claims = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Long, Eligibility> students = new ConcurrentHashMap<>();
+        private final Queue<Claim> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger persisted = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        private Session(List<Long> buildingIds, long opensAt, long closesAt, Map<Long, List<BedSlot>> byRoom, Map<Long, Set<String>> genders) {
+            this.buildingIds = buildingIds;
+            this.opensAt = opensAt;
+            this.closesAt = closesAt;
+            this.rooms = new ArrayList<>(byRoom.size());
+            this.roomsById = new HashMap<>(byRoom.size() * 2);
+            this.bedPos = new HashMap<>();
+            int total = 0;
+            for (List<BedSlot> slots : byRoom.values()) {
+                Room room = new Room(slots, genders.getOrDefault(slots.get(0).getRoomId(), Collections.emptySet()));
+                for (int i = 0; i < slots.size(); i++) {
+                    bedPos.put(slots.get(i).getBedId(), new int[]{rooms.size(), i});
+                }
+                rooms.add(room);
+                roomsById.put(room.roomId, room);
+                total += slots.size();
+            }
+            this.beds = total;
+        }
+
+        private boolean isOpen(long now) {
+            return now >= opensAt && now < closesAt;
+        }
+
+        private void take(Claim claim, SelectionClaimRequest req, String studentGender) {
+            String gender = normalizeGender(studentGender);
+            if (req.getBedId() != null) {
+                int[] pos = bedPos.get(req.getBedId());
+                if (pos == null) {
+                    throw new BizException(40902, "bed is not available for selection");
+                }
+                Room room = rooms.get(pos[0]);
+                if (req.getRoomId() != null && !req.getRoomId().equals(room.roomId)) {
+                    throw new BizException(40001, "bed is not in the given room");
+                }
+                checkGender(room, gender);
+                if (!room.take(pos[1], claim, gender)) {
+                    checkGender(room, gender);
+                    throw new BizException(40902, "bed already occupied");
+                }
+                return;
+            }
+            if (req.getRoomId() != null) {
+                Room room = roomsById.get(req.getRoomId());
+                if (room == null) {
+                    throw new BizException(40902, "room has no beds for selection");
+                }
+                checkGender(room, gender);
+                if (!room.takeAny(claim, gender)) {
+                    checkGender(room, gender);
+                    throw new BizException(40902, "room is full");
+                }
+                return;
+            }
+            for (Room room : rooms) {
+                if (room.free.get() > 0 && room.allows(gender) && room.takeAny(claim, gender)) {
+                    return;
+                }
+            }
+            throw new BizException(40902, "no free beds left");
+        }
+
+        private void fail(Claim claim, String message, boolean releaseBed) {
+            claim.status = FAILED;
+            claim.message = message;
+            failed.incrementAndGet();
+            holdTable.release(claim.holdId);
+            if (releaseBed) {
+                claim.room.release(claim);
+            }
+        }
+
+        private void checkGender(Room room, String gender) {
+            if (!room.allows(gender)) {
+                throw new BizException(40001, "room gender limit does not match student");
+            }
+        }
+    }
+
+    private static final class Room {
+
+        private final Long roomId;
+        private final String roomNo;
+        private final Long buildingId;
+        private final Integer floorNo;
+        private final String roomType;
+        private final String roomGenderLimit;
+        private final String buildingGenderLimit;
+        // Gender of the people in the room, null while it is empty and unlimited.
+        private final AtomicReference<String> gender;
+        private final long[] bedIds;
+        private final String[] bedNos;
+        // 0 means free, -1 retired from the session, otherwise the claiming student's id.
+        private final AtomicLongArray owners;
+        private final AtomicInteger free;
+
+        private Room(List<BedSlot> slots, Set<String> occupantGenders) {
+            BedSlot first = slots.get(0);
+            this.roomId = first.getRoomId();
+            this.roomNo = first.getRoomNo();
+            this.buildingId = first.getBuildingId();
+            this.floorNo = first.getFloorNo();
+            this.roomType = first.getRoomType();
+            this.roomGenderLimit = first.getRoomGenderLimit();
+            this.buildingGenderLimit = first.getBuildingGenderLimit();
+            Set<String> occupants = new HashSet<>();
+            for (String g : occupantGenders) {
+                if (normalizeGender(g) != null) {
+                    occupants.add(normalizeGender(g));
+                }
+            }
+            this.gender = new AtomicReference<>(occupants.isEmpty() ? null : occupants.size() == 1 ? occupants.iterator().next() : MIXED);
+            this.bedIds = new long[slots.size()];
+            this.bedNos = new String[slots.size()];
+            for (int i = 0; i < slots.size(); i++) {
+                bedIds[i] = slots.get(i).getBedId();
+                bedNos[i] = slots.get(i).getBedNo();
+            }
+            this.owners = new AtomicLongArray(slots.size());
+            this.free = new AtomicInteger(slots.size());
+        }
+
+        private boolean take(int i, Claim claim, String gender) {
+            if (!owners.compareAndSet(i, 0, claim.studentId)) {
+                return false;
+            }
+            if (!lockGender(gender)) {
+                owners.set(i, 0);
+                return false;
+            }
+            free.decrementAndGet();
+            claim.room = this;
+            claim.bedId = bedIds[i];
+            claim.bedNo = bedNos[i];
+            return true;
+        }
+
+        private boolean takeAny(Claim claim, String gender) {
+            for (int i = 0; i < bedIds.length && allows(gender); i++) {
+                if (owners.get(i) == 0 && take(i, claim, gender)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Keeps the claim's bed out of the session for good, e.g. because it was taken through another path.
+         */
+        private void retire(Claim claim) {
+            for (int i = 0; i < bedIds.length; i++) {
+                if (bedIds[i] == claim.bedId && owners.compareAndSet(i, claim.studentId, -1)) {
+                    return;
+                }
+            }
+        }
+
+        private void release(Claim claim) {
+            for (int i = 0; i < bedIds.length; i++) {
+                if (bedIds[i] == claim.bedId && owners.compareAndSet(i, claim.studentId, 0)) {
+                    free.incrementAndGet();
+                    return;
+                }
+            }
+        }
+
+        private boolean allows(String gender) {
+            if (gender == null) {
+                return true;
+            }
+            String current = this.gender.get();
+            return allows(roomGenderLimit, gender) && allows(buildingGenderLimit, gender) && (current == null || current.equals(gender));
+        }
+
+        /**
+         * Fixes the room to the gender once a bed in it is taken, unless another gender got there first. The room keeps
+         * it even if that claim is dropped later, which can only turn students away, never mix a room.
+         */
+        private boolean lockGender(String gender) {
+            if (gender == null) {
+                return true;
+            }
+            String current = this.gender.get();
+            return current != null ? current.equals(gender) : this.gender.compareAndSet(null, gender) || gender.equals(this.gender.get());
+        }
+
+        private static boolean allows(String limit, String gender) {
+            return limit == null || limit.isBlank() || UNLIMITED.equalsIgnoreCase(limit) || gender.equalsIgnoreCase(limit.trim());
+        }
+    }
+
+    private static final class Claim {
+
+        private final Long studentId;
+        private volatile Room room;
+        private volatile Long bedId;
+        private volatile String bedNo;
+        private volatile String holdId;
+        private volatile String status = PENDING;
+        private volatile String message;
+        private final CountDownLatch taken = new CountDownLatch(1);
+        private int attempts;
+
+        private Claim(Long studentId) {
+            this.studentId = studentId;
+        }
+
+        private void clearBed() {
+            room = null;
+            bedId = null;
+            bedNo = null;
+        }
+    }
+
+    private static final class Eligibility {
+
+        private final String gender;
+        private final int errorCode;
+        private final String errorMessage;
+
+        private Eligibility(String gender, int errorCode, String errorMessage) {
+            this.gender = gender;
+            this.errorCode = errorCode;
+            this.errorMessage = errorMessage;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.dormitory.dorm.service;
+
+import com.example.dormitory.common.AfterCommit;
+import com.example.dormitory.common.BizException;
+import com.example.dormitory.dorm.dto.DormReshuffleRequest;
+import com.example.dormitory.dorm.dto.DormSwapRequest;
+import com.example.dormitory.dorm.dto.DormTransferRequest;
+import com.example.dormitory.dorm.model.DormAssignment;
+import com.example.dormitory.dorm.model.DormBed;
+import com.example.dormitory.dorm.repository.DormAssignmentRepository;
+import com.example.dormitory.dorm.repository.DormBedRepository;
+import com.example.dormitory.dorm.vo.DormAssignmentVo;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Moves students between beds in one transaction. Every operation is a set of moves: the students' active assignments
+ * are locked first, then every bed involved in ascending id order; a target bed must be free or vacated by another
+ * move in the same set, so swaps and floor reshuffles are just permutations.
+ */
+@Service
+public class DormTransferService {
+
+    private final DormAssignmentRepository assignmentRepository;
+    private final DormBedRepository bedRepository;
+    private final BedOccupancyIndex occupancyIndex;
+    private final BedHoldTable holdTable;
+
+    public DormTransferService(DormAssignmentRepository assignmentRepository, DormBedRepository bedRepository,
+                               BedOccupancyIndex occupancyIndex, BedHoldTable holdTable) {
+        this.assignmentRepository = assignmentRepository;
+        this.bedRepository = bedRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.holdTable = holdTable;
+    }
+
+    @Transactional
+    public DormAssignmentVo transfer(DormTransferRequest req) {
+        Map<Long, Long> moves = new LinkedHashMap<>();
+        moves.put(req.getStudentId(), req.getToBedId());
+        return apply(moves, req.getReason()).get(0);
+    }
+
+    @Transactional
+    public List<DormAssignmentVo> swap(DormSwapRequest req) {
+        if (req.getStudentIdA().equals(req.getStudentIdB())) {
+            throw new BizException(40001, "cannot swap a student with themselves");
+        }
+        Map<Long, DormAssignment> current = lockActive(List.of(req.getStudentIdA(), req.getStudentIdB()));
+        Map<Long, Long> moves = new LinkedHashMap<>();
+        moves.put(req.getStudentIdA(), current.get(req.getStudentIdB()).getBedId());
+        moves.put(req.getStudentIdB(), current.get(req.getStudentIdA()).getBedId());
+        return apply(moves, req.getReason());
+    }
+
+    @Transactional
+    public List<DormAssignmentVo> reshuffle(DormReshuffleRequest req) {
+        Map<Long, Long> moves = new LinkedHashMap<>();
+        for (DormTransferRequest move : req.getMoves()) {
+            if (moves.put(move.getStudentId(), move.getToBedId()) != null) {
+                throw new BizException(40001, "student appears twice: " + move.getStudentId());
+            }
+        }
+        return apply(moves, req.getReason());
+    }
+
+    private List<DormAssignmentVo> apply(Map<Long, Long> moves, String reason) {
+        Map<Long, DormAssignment> current = lockActive(moves.keySet());
+
+        Set<Long> fromBeds = new HashSet<>();
+        Set<Long> toBeds = new HashSet<>();
+        for (Map.Entry<Long, Long> move : moves.entrySet()) {
+            Long from = current.get(move.getKey()).getBedId();
+            if (from.equals(move.getValue())) {
+                throw new BizException(40001, "student " + move.getKey() + " already lives in bed " + from);
+            }
+            if (!toBeds.add(move.getValue())) {
+                throw new BizException(40001, "bed targeted twice: " + move.getValue());
+            }
+            fromBeds.add(from);
+        }
+
+        Set<Long> allBeds = new TreeSet<>(fromBeds);
+        allBeds.addAll(toBeds);
+        Map<Long, DormBed> beds = new HashMap<>();
+        for (DormBed bed : bedRepository.lockByIds(allBeds)) {
+            beds.put(bed.getId(), bed);
+        }
+
+        // Beds that are neither vacated in this set nor free block the move.
+        List<Long> newlyOccupied = new ArrayList<>();
+        for (Long bedId : toBeds) {
+            if (fromBeds.contains(bedId)) {
+                continue;
+            }
+            DormBed bed = beds.get(bedId);
+            if (bed == null) {
+                throw new BizException(40004, "bed not found: " + bedId);
+            }
+            if (!"AVAILABLE".equalsIgnoreCase(bed.getStatus())) {
+                throw new BizException(40902, "bed already occupied: " + bedId);
+            }
+            if (holdTable.isHeld(bedId, null)) {
+                throw new BizException(40905, "bed is held: " + bedId);
+            }
+            newlyOccupied.add(bedId);
+        }
+        if (!assignmentRepository.findActiveByBedIds(newlyOccupied).isEmpty()) {
+            throw new BizException(40902, "bed already occupied");
+        }
+        List<Long> vacated = new ArrayList<>();
+        for (Long bedId : fromBeds) {
+            if (!toBeds.contains(bedId)) {
+                vacated.add(bedId);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> endIds = new ArrayList<>(current.size());
+        List<DormAssignment> inserts = new ArrayList<>(moves.size());
+        for (Map.Entry<Long, Long> move : moves.entrySet()) {
+            endIds.add(current.get(move.getKey()).getId());
+            DormAssignment a = new DormAssignment();
+            a.setStudentId(move.getKey());
+            a.setBedId(move.getValue());
+            a.setStartAt(now);
+            a.setStatus("ACTIVE");
+            a.setReason(reason);
+            inserts.add(a);
+        }
+        if (assignmentRepository.endAssignments(endIds, now, reason) != endIds.size()) {
+            throw new BizException(40903, "assignment not active");
+        }
+        bedRepository.moveOccupancy(vacated, newlyOccupied);
+        assignmentRepository.batchInsert(inserts);
+        AfterCommit.run(() -> {
+            vacated.forEach(occupancyIndex::release);
+            newlyOccupied.forEach(occupancyIndex::assign);
+        });
+
+        Map<Long, DormAssignmentVo> vos = new HashMap<>();
+        for (DormAssignmentVo vo : assignmentRepository.findActiveVosByStudentIds(moves.keySet())) {
+            vos.put(vo.getStudentId(), vo);
+        }
+        List<DormAssignmentVo> result = new ArrayList<>(moves.size());
+        for (Long studentId : moves.keySet()) {
+            result.add(vos.get(studentId));
+        }
+        return result;
+    }
+
+    private Map<Long, DormAssignment> lockActive(Iterable<Long> studentIds) {
+        List<Long> ids = new ArrayList<>();
+        studentIds.forEach(ids::add);
+        Map<Long, DormAssignment> current = new HashMap<>();
+        for (DormAssignment a : assignmentRepository.lockActiveByStudentIds(ids)) {
+            current.put(a.getStudentId(), a);
+        }
+        for (Long studentId : ids) {
+            if (!current.containsKey(studentId)) {
+                throw new BizException(40903, "student has no active assignment: " + studentId);
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.dormitory.dorm.vo;
+
+public class AvailableBedVo {
+
+    private Long bedId;
+    private String bedNo;
+    private Long roomId;
+    private String roomNo;
+    private Integer floorNo;
+    private Long buildingId;
+    private String roomType;
+    private int roomFreeBeds;
+    private int roomOccupiedBeds;
+    private int classmates;
+
+    public Long getBedId() {
+        return bedId;
+    }
+
+    public void setBedId(Long bedId) {
+        this.bedId = bedId;
+    }
+
+    public String getBedNo() {
+        return bedNo;
+    }
+
+    public void setBedNo(String bedNo) {
+        this.bedNo = bedNo;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public String getRoomNo() {
+        return roomNo;
+    }
+
+    public void setRoomNo(String roomNo) {
+        this.roomNo = roomNo;
+    }
+
+    public Integer getFloorNo() {
+        return floorNo;
+    }
+
+    public void setFloorNo(Integer floorNo) {
+        this.floorNo = floorNo;
+    }
+
+    public Long getBuildingId() {
+        return buildingId;
+    }
+
+    public void setBuildingId(Long buildingId) {
+        this.buildingId = buildingId;
+    }
+
+    public String getRoomType() {
+        return roomType;
+    }
+
+    public void setRoomType(String roomType) {
+        this.roomType = roomType;
+    }
+
+    public int getRoomFreeBeds() {
+        return roomFreeBeds;
+    }
+
+    public void setRoomFreeBeds(int roomFreeBeds) {
+        this.roomFreeBeds = roomFreeBeds;
+    }
+
+    public int getRoomOccupiedBeds() {
+        return roomOccupiedBeds;
+    }
+
+    public void setRoomOccupiedBeds(int roomOccupiedBeds) {
+        this.roomOccupiedBeds = roomOccupiedBeds;
+    }
+
+    public int getClassmates() {
+        return classmates;
+    }
+
+    public void setClassmates(int classmates) {
+        this.classmates = classmates;
+    }
+}
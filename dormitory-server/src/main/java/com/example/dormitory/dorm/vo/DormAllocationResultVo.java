@@ -0,0 +1,79 @@
+package com.example.dormitory.dorm.vo;
+
+import java.util.List;
+
+public class DormAllocationResultVo {
+
+    private boolean dryRun;
+    private int requested;
+    private int planned;
+    private int assigned;
+    private int skipped;
+    private int unplaced;
+    private int conflicts;
+    private List<DormAllocationItemVo> items;
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getPlanned() {
+        return planned;
+    }
+
+    public void setPlanned(int planned) {
+        this.planned = planned;
+    }
+
+    public int getAssigned() {
+        return assigned;
+    }
+
+    public void setAssigned(int assigned) {
+        this.assigned = assigned;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+
+    public int getUnplaced() {
+        return unplaced;
+    }
+
+    public void setUnplaced(int unplaced) {
+        this.unplaced = unplaced;
+    }
+
+    public int getConflicts() {
+        return conflicts;
+    }
+
+    public void setConflicts(int conflicts) {
+        this.conflicts = conflicts;
+    }
+
+    public List<DormAllocationItemVo> getItems() {
+        return items;
+    }
+
+    public void setItems(List<DormAllocationItemVo> items) {
+        this.items = items;
+    }
+}
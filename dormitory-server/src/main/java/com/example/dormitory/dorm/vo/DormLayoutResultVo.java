@@ -0,0 +1,59 @@
+package com.example.dormitory.dorm.vo;
+
+public class DormLayoutResultVo {
+
+    private Long buildingId;
+    private int floors;
+    private int rooms;
+    private int beds;
+    private String firstRoomNo;
+    private String lastRoomNo;
+
+    public Long getBuildingId() {
+        return buildingId;
+    }
+
+    public void setBuildingId(Long buildingId) {
+        this.buildingId = buildingId;
+    }
+
+    public int getFloors() {
+        return floors;
+    }
+
+    public void setFloors(int floors) {
+        this.floors = floors;
+    }
+
+    public int getRooms() {
+        return rooms;
+    }
+
+    public void setRooms(int rooms) {
+        this.rooms = rooms;
+    }
+
+    public int getBeds() {
+        return beds;
+    }
+
+    public void setBeds(int beds) {
+        this.beds = beds;
+    }
+
+    public String getFirstRoomNo() {
+        return firstRoomNo;
+    }
+
+    public void setFirstRoomNo(String firstRoomNo) {
+        this.firstRoomNo = firstRoomNo;
+    }
+
+    public String getLastRoomNo() {
+        return lastRoomNo;
+    }
+
+    public void setLastRoomNo(String lastRoomNo) {
+        this.lastRoomNo = lastRoomNo;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.dormitory.dorm.vo;
+
+public class SelectionRoomVo {
+
+    private Long roomId;
+    private String roomNo;
+    private Long buildingId;
+    private Integer floorNo;
+    private String roomType;
+    private int freeBeds;
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public String getRoomNo() {
+        return roomNo;
+    }
+
+    public void setRoomNo(String roomNo) {
+        this.roomNo = roomNo;
+    }
+
+    public Long getBuildingId() {
+        return buildingId;
+    }
+
+    public void setBuildingId(Long buildingId) {
+        this.buildingId = buildingId;
+    }
+
+    public Integer getFloorNo() {
+        return floorNo;
+    }
+
+    public void setFloorNo(Integer floorNo) {
+        this.floorNo = floorNo;
+    }
+
+    public String getRoomType() {
+        return roomType;
+    }
+
+    public void setRoomType(String roomType) {
+        this.roomType = roomType;
+    }
+
+    public int getFreeBeds() {
+        return freeBeds;
+    }
+
+    public void setFreeBeds(int freeBeds) {
+        this.freeBeds = freeBeds;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.dormitory.dorm.vo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class SelectionSessionVo {
+
+    private String sessionId;
+    private boolean open;
+    private LocalDateTime opensAt;
+    private LocalDateTime closesAt;
+    private List<Long> buildingIds;
+    private int beds;
+    private int remaining;
+    private int claimed;
+    private int persisted;
+    private int failed;
+    private int pending;
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public boolean getOpen() {
+        return open;
+    }
+
+    public void setOpen(boolean open) {
+        this.open = open;
+    }
+
+    public LocalDateTime getOpensAt() {
+        return opensAt;
+    }
+
+    public void setOpensAt(LocalDateTime opensAt) {
+        this.opensAt = opensAt;
+    }
+
+    public LocalDateTime getClosesAt() {
+        return closesAt;
+    }
+
+    public void setClosesAt(LocalDateTime closesAt) {
+        this.closesAt = closesAt;
+    }
+
+    public List<Long> getBuildingIds() {
+        return buildingIds;
+    }
+
+    public void setBuildingIds(List<Long> buildingIds) {
+        this.buildingIds = buildingIds;
+    }
+
+    public int getBeds() {
+        return beds;
+    }
+
+    public void setBeds(int beds) {
+        this.beds = beds;
+    }
+
+    public int getRemaining() {
+        return remaining;
+    }
+
+    public void setRemaining(int remaining) {
+        this.remaining = remaining;
+    }
+
+    public int getClaimed() {
+        return claimed;
+    }
+
+    public void setClaimed(int claimed) {
+        this.claimed = claimed;
+    }
+
+    public int getPersisted() {
+        return persisted;
+    }
+
+    public void setPersisted(int persisted) {
+        this.persisted = persisted;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public void setPending(int pending) {
+        this.pending = pending;
+    }
+}
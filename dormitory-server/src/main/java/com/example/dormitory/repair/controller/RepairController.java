@@ -2,6 +2,8 @@ package com.example.dormitory.repair.controller;
 
 import com.example.dormitory.common.ApiResponse;
 import com.example.dormitory.common.PageResult;
+import com.example.dormitory.common.export.ExportFormat;
+import com.example.dormitory.common.export.ExportWriter;
 import com.example.dormitory.repair.dto.AssignRepairRequest;
 import com.example.dormitory.repair.dto.CreateRepairRequest;
 import com.example.dormitory.repair.dto.TransitionRepairRequest;
@@ -9,6 +11,8 @@ import com.example.dormitory.repair.service.RepairService;
 import com.example.dormitory.repair.vo.RepairLogVo;
 import com.example.dormitory.repair.vo.RepairOrderDetailVo;
 import com.example.dormitory.repair.vo.RepairOrderVo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,6 +23,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -26,9 +31,11 @@ import java.util.List;
 public class RepairController {
 
     private final RepairService repairService;
+    private final ObjectMapper objectMapper;
 
-    public RepairController(RepairService repairService) {
+    public RepairController(RepairService repairService, ObjectMapper objectMapper) {
         this.repairService = repairService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -41,9 +48,27 @@ public class RepairController {
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer pageSize,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(required = false) String sortOrder
+            @RequestParam(required = false) String sortOrder,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Boolean withTotal
     ) {
-        return ApiResponse.ok(repairService.list(status, priority, assigneeUserId, keyword, page, pageSize, sortBy, sortOrder));
+        return ApiResponse.ok(repairService.list(status, priority, assigneeUserId, keyword, page, pageSize, sortBy, sortOrder, cursor, withTotal));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('repair:order:read')")
+    public void export(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) Long assigneeUserId,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) Boolean gzip,
+            HttpServletResponse response
+    ) throws IOException {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        ExportWriter.open(response, "repairs", exportFormat, Boolean.TRUE.equals(gzip), RepairService.EXPORT_COLUMNS, objectMapper)
+                .write(writer -> repairService.export(status, priority, assigneeUserId, keyword, writer));
     }
 
     @GetMapping("/{id}")
@@ -1,20 +1,32 @@
 package com.example.dormitory.repair.repository;
 
+import com.example.dormitory.common.JdbcRows;
 import com.example.dormitory.repair.model.RepairLog;
 import com.example.dormitory.repair.vo.RepairLogVo;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
 import java.sql.Statement;
-import java.sql.Timestamp;
 import java.util.List;
 
 @Repository
 public class RepairLogRepository {
 
+    private static final RowMapper<RepairLogVo> VO_MAPPER = (rs, rowNum) -> {
+        RepairLogVo vo = new RepairLogVo();
+        vo.setId(rs.getLong(1));
+        vo.setRepairOrderId(rs.getLong(2));
+        vo.setAction(rs.getString(3));
+        vo.setContent(rs.getString(4));
+        vo.setCreatedAt(JdbcRows.getLocalDateTime(rs, 5));
+        vo.setCreatedBy(JdbcRows.getLong(rs, 6));
+        return vo;
+    };
+
     private final JdbcTemplate jdbcTemplate;
 
     public RepairLogRepository(JdbcTemplate jdbcTemplate) {
@@ -25,18 +37,7 @@ public class RepairLogRepository {
         return jdbcTemplate.query(
                 "SELECT id, repair_order_id, action, content, created_at, created_by " +
                         "FROM repair_log WHERE repair_order_id=? AND deleted=0 ORDER BY id ASC",
-                (rs, rowNum) -> {
-                    RepairLogVo vo = new RepairLogVo();
-                    vo.setId(rs.getLong("id"));
-                    vo.setRepairOrderId(rs.getLong("repair_order_id"));
-                    vo.setAction(rs.getString("action"));
-                    vo.setContent(rs.getString("content"));
-                    Timestamp c = rs.getTimestamp("created_at");
-                    vo.setCreatedAt(c == null ? null : c.toLocalDateTime());
-                    long cb = rs.getLong("created_by");
-                    vo.setCreatedBy(rs.wasNull() ? null : cb);
-                    return vo;
-                },
+                VO_MAPPER,
                 repairOrderId
         );
     }
@@ -1,52 +1,101 @@
 package com.example.dormitory.repair.repository;
 
+import com.example.dormitory.common.CountCache;
+import com.example.dormitory.common.JdbcRows;
+import com.example.dormitory.common.PageCursor;
+import com.example.dormitory.common.SortSpec;
 import com.example.dormitory.repair.model.RepairOrder;
 import com.example.dormitory.repair.vo.RepairOrderDetailVo;
 import com.example.dormitory.repair.vo.RepairOrderVo;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
 import java.sql.Statement;
-import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Repository
 public class RepairOrderRepository {
 
+    private static final String TABLE = "repair_order";
+    private static final List<String> COUNT_TABLES = List.of("repair_order");
+    private static final int NGRAM_TOKEN_SIZE = 2;
+
+    private static final String COLUMNS =
+            "id, student_id, building_id, room_id, title, description, priority, status, assignee_user_id, deleted, created_at";
+    private static final String VO_SELECT =
+            "SELECT r.id, r.title, r.priority, r.status, r.assignee_user_id, u.username AS assignee_username, u.real_name AS assignee_real_name, r.created_at " +
+                    "FROM repair_order r " +
+                    "LEFT JOIN sys_user u ON u.id=r.assignee_user_id ";
+
+    private static final RowMapper<RepairOrder> ROW_MAPPER = (rs, rowNum) -> {
+        RepairOrder o = new RepairOrder();
+        o.setId(rs.getLong(1));
+        o.setStudentId(JdbcRows.getLong(rs, 2));
+        o.setBuildingId(JdbcRows.getLong(rs, 3));
+        o.setRoomId(JdbcRows.getLong(rs, 4));
+        o.setTitle(rs.getString(5));
+        o.setDescription(rs.getString(6));
+        o.setPriority(rs.getString(7));
+        o.setStatus(rs.getString(8));
+        o.setAssigneeUserId(JdbcRows.getLong(rs, 9));
+        o.setDeleted(rs.getInt(10));
+        o.setCreatedAt(JdbcRows.getLocalDateTime(rs, 11));
+        return o;
+    };
+
+    private static final RowMapper<RepairOrderDetailVo> DETAIL_MAPPER = (rs, rowNum) -> {
+        RepairOrderDetailVo vo = new RepairOrderDetailVo();
+        vo.setId(rs.getLong(1));
+        vo.setStudentId(JdbcRows.getLong(rs, 2));
+        vo.setStudentNo(rs.getString(3));
+        vo.setStudentName(rs.getString(4));
+        vo.setBuildingId(JdbcRows.getLong(rs, 5));
+        vo.setBuildingCode(rs.getString(6));
+        vo.setBuildingName(rs.getString(7));
+        vo.setRoomId(JdbcRows.getLong(rs, 8));
+        vo.setRoomNo(rs.getString(9));
+        vo.setTitle(rs.getString(10));
+        vo.setDescription(rs.getString(11));
+        vo.setPriority(rs.getString(12));
+        vo.setStatus(rs.getString(13));
+        vo.setAssigneeUserId(JdbcRows.getLong(rs, 14));
+        vo.setAssigneeUsername(rs.getString(15));
+        vo.setAssigneeRealName(rs.getString(16));
+        vo.setCreatedAt(JdbcRows.getLocalDateTime(rs, 17));
+        return vo;
+    };
+
+    private static final RowMapper<RepairOrderVo> VO_MAPPER = (rs, rowNum) -> {
+        RepairOrderVo vo = new RepairOrderVo();
+        vo.setId(rs.getLong(1));
+        vo.setTitle(rs.getString(2));
+        vo.setPriority(rs.getString(3));
+        vo.setStatus(rs.getString(4));
+        vo.setAssigneeUserId(JdbcRows.getLong(rs, 5));
+        vo.setAssigneeUsername(rs.getString(6));
+        vo.setAssigneeRealName(rs.getString(7));
+        vo.setCreatedAt(JdbcRows.getLocalDateTime(rs, 8));
+        return vo;
+    };
+
     private final JdbcTemplate jdbcTemplate;
+    private final CountCache countCache;
 
-    public RepairOrderRepository(JdbcTemplate jdbcTemplate) {
+    public RepairOrderRepository(JdbcTemplate jdbcTemplate, CountCache countCache) {
         this.jdbcTemplate = jdbcTemplate;
+        this.countCache = countCache;
     }
 
     public RepairOrder findById(Long id) {
         List<RepairOrder> list = jdbcTemplate.query(
-                "SELECT id, student_id, building_id, room_id, title, description, priority, status, assignee_user_id, deleted, created_at " +
-                        "FROM repair_order WHERE id=? AND deleted=0 LIMIT 1",
-                (rs, rowNum) -> {
-                    RepairOrder o = new RepairOrder();
-                    o.setId(rs.getLong("id"));
-                    long sid = rs.getLong("student_id");
-                    o.setStudentId(rs.wasNull() ? null : sid);
-                    long bid = rs.getLong("building_id");
-                    o.setBuildingId(rs.wasNull() ? null : bid);
-                    long rid = rs.getLong("room_id");
-                    o.setRoomId(rs.wasNull() ? null : rid);
-                    o.setTitle(rs.getString("title"));
-                    o.setDescription(rs.getString("description"));
-                    o.setPriority(rs.getString("priority"));
-                    o.setStatus(rs.getString("status"));
-                    long au = rs.getLong("assignee_user_id");
-                    o.setAssigneeUserId(rs.wasNull() ? null : au);
-                    o.setDeleted(rs.getInt("deleted"));
-                    Timestamp c = rs.getTimestamp("created_at");
-                    o.setCreatedAt(c == null ? null : c.toLocalDateTime());
-                    return o;
-                },
+                "SELECT " + COLUMNS + " FROM repair_order WHERE id=? AND deleted=0 LIMIT 1",
+                ROW_MAPPER,
                 id
         );
         return list.isEmpty() ? null : list.get(0);
@@ -66,38 +115,7 @@ public class RepairOrderRepository {
                         "LEFT JOIN dorm_room room ON room.id=r.room_id " +
                         "LEFT JOIN sys_user u ON u.id=r.assignee_user_id " +
                         "WHERE r.id=? AND r.deleted=0 LIMIT 1",
-                (rs, rowNum) -> {
-                    RepairOrderDetailVo vo = new RepairOrderDetailVo();
-                    vo.setId(rs.getLong("id"));
-
-                    long sid = rs.getLong("student_id");
-                    vo.setStudentId(rs.wasNull() ? null : sid);
-                    vo.setStudentNo(rs.getString("student_no"));
-                    vo.setStudentName(rs.getString("student_name"));
-
-                    long bid = rs.getLong("building_id");
-                    vo.setBuildingId(rs.wasNull() ? null : bid);
-                    vo.setBuildingCode(rs.getString("building_code"));
-                    vo.setBuildingName(rs.getString("building_name"));
-
-                    long rid = rs.getLong("room_id");
-                    vo.setRoomId(rs.wasNull() ? null : rid);
-                    vo.setRoomNo(rs.getString("room_no"));
-
-                    vo.setTitle(rs.getString("title"));
-                    vo.setDescription(rs.getString("description"));
-                    vo.setPriority(rs.getString("priority"));
-                    vo.setStatus(rs.getString("status"));
-
-                    long au = rs.getLong("assignee_user_id");
-                    vo.setAssigneeUserId(rs.wasNull() ? null : au);
-                    vo.setAssigneeUsername(rs.getString("assignee_username"));
-                    vo.setAssigneeRealName(rs.getString("assignee_real_name"));
-
-                    Timestamp c = rs.getTimestamp("created_at");
-                    vo.setCreatedAt(c == null ? null : c.toLocalDateTime());
-                    return vo;
-                },
+                DETAIL_MAPPER,
                 id
         );
         return list.isEmpty() ? null : list.get(0);
@@ -107,38 +125,57 @@ public class RepairOrderRepository {
         StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM repair_order r WHERE r.deleted=0");
         List<Object> args = new ArrayList<>();
 
-        if (status != null && !status.isBlank()) {
-            sql.append(" AND r.status=?");
-            args.add(status.trim());
-        }
-        if (priority != null && !priority.isBlank()) {
-            sql.append(" AND r.priority=?");
-            args.add(priority.trim());
-        }
-        if (assigneeUserId != null) {
-            sql.append(" AND r.assignee_user_id=?");
-            args.add(assigneeUserId);
-        }
-        if (keyword != null && !keyword.isBlank()) {
-            sql.append(" AND (r.title LIKE ? OR r.description LIKE ?)");
-            String like = "%" + keyword.trim() + "%";
-            args.add(like);
-            args.add(like);
+        appendFilters(sql, args, status, priority, assigneeUserId, keyword);
+
+        return countCache.count(COUNT_TABLES, sql.toString(), args, () -> {
+            Long cnt = jdbcTemplate.queryForObject(sql.toString(), args.toArray(), Long.class);
+            return cnt == null ? 0 : cnt;
+        });
+    }
+
+    public List<RepairOrderVo> list(String status, String priority, Long assigneeUserId, String keyword, SortSpec<?> sort, PageCursor after,
+                                    boolean orderByRelevance, int limit, int offset) {
+        StringBuilder sql = new StringBuilder(VO_SELECT + "WHERE r.deleted=0");
+        List<Object> args = new ArrayList<>();
+
+        appendFilters(sql, args, status, priority, assigneeUserId, keyword);
+
+        if (orderByRelevance && isFullTextKeyword(keyword)) {
+            sql.append(" ORDER BY MATCH(r.title, r.description) AGAINST (? IN BOOLEAN MODE) DESC, r.id DESC");
+            args.add(booleanPhrase(keyword));
+        } else {
+            if (after != null) {
+                after.appendSeek(sql, args, sort);
+            }
+            sql.append(" ORDER BY ").append(sort.orderBy());
         }
+        sql.append(" LIMIT ? OFFSET ?");
+        args.add(limit);
+        args.add(offset);
 
-        Long cnt = jdbcTemplate.queryForObject(sql.toString(), args.toArray(), Long.class);
-        return cnt == null ? 0 : cnt;
+        return jdbcTemplate.query(sql.toString(), VO_MAPPER, args.toArray());
     }
 
-    public List<RepairOrderVo> list(String status, String priority, Long assigneeUserId, String keyword, String orderBy, int limit, int offset) {
-        StringBuilder sql = new StringBuilder(
-                "SELECT r.id, r.title, r.priority, r.status, r.assignee_user_id, u.username AS assignee_username, u.real_name AS assignee_real_name, r.created_at " +
-                        "FROM repair_order r " +
-                        "LEFT JOIN sys_user u ON u.id=r.assignee_user_id " +
-                        "WHERE r.deleted=0"
-        );
+    public void export(String status, String priority, Long assigneeUserId, String keyword, Consumer<RepairOrderVo> consumer) {
+        StringBuilder sql = new StringBuilder(VO_SELECT + "WHERE r.deleted=0");
         List<Object> args = new ArrayList<>();
+        appendFilters(sql, args, status, priority, assigneeUserId, keyword);
+        sql.append(" ORDER BY r.id");
+        JdbcRows.stream(jdbcTemplate, sql.toString(), args, VO_MAPPER, consumer);
+    }
 
+    public static boolean isFullTextKeyword(String keyword) {
+        if (keyword == null) {
+            return false;
+        }
+        int longest = 0;
+        for (String token : keyword.replace("\"", " ").trim().split("\\s+")) {
+            longest = Math.max(longest, token.codePointCount(0, token.length()));
+        }
+        return longest >= NGRAM_TOKEN_SIZE;
+    }
+
+    private static void appendFilters(StringBuilder sql, List<Object> args, String status, String priority, Long assigneeUserId, String keyword) {
         if (status != null && !status.isBlank()) {
             sql.append(" AND r.status=?");
             args.add(status.trim());
@@ -152,30 +189,24 @@ public class RepairOrderRepository {
             args.add(assigneeUserId);
         }
         if (keyword != null && !keyword.isBlank()) {
-            sql.append(" AND (r.title LIKE ? OR r.description LIKE ?)");
-            String like = "%" + keyword.trim() + "%";
-            args.add(like);
-            args.add(like);
+            appendKeyword(sql, args, keyword);
         }
+    }
 
-        sql.append(" ORDER BY ").append(orderBy).append(" LIMIT ? OFFSET ?");
-        args.add(limit);
-        args.add(offset);
+    private static void appendKeyword(StringBuilder sql, List<Object> args, String keyword) {
+        if (isFullTextKeyword(keyword)) {
+            sql.append(" AND MATCH(r.title, r.description) AGAINST (? IN BOOLEAN MODE)");
+            args.add(booleanPhrase(keyword));
+            return;
+        }
+        sql.append(" AND (r.title LIKE ? OR r.description LIKE ?)");
+        String like = "%" + keyword.trim() + "%";
+        args.add(like);
+        args.add(like);
+    }
 
-        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
-            RepairOrderVo vo = new RepairOrderVo();
-            vo.setId(rs.getLong("id"));
-            vo.setTitle(rs.getString("title"));
-            vo.setPriority(rs.getString("priority"));
-            vo.setStatus(rs.getString("status"));
-            long au = rs.getLong("assignee_user_id");
-            vo.setAssigneeUserId(rs.wasNull() ? null : au);
-            vo.setAssigneeUsername(rs.getString("assignee_username"));
-            vo.setAssigneeRealName(rs.getString("assignee_real_name"));
-            Timestamp c = rs.getTimestamp("created_at");
-            vo.setCreatedAt(c == null ? null : c.toLocalDateTime());
-            return vo;
-        }, args.toArray());
+    private static String booleanPhrase(String keyword) {
+        return "\"" + keyword.replace("\"", " ").trim() + "\"";
     }
 
     public Long insert(RepairOrder order) {
@@ -212,24 +243,25 @@ public class RepairOrderRepository {
             }
             return ps;
         }, keyHolder);
+        countCache.invalidate(TABLE);
         Number key = keyHolder.getKey();
         return key == null ? null : key.longValue();
     }
 
     public int updateAssigneeIfNotFinal(Long id, Long assigneeUserId) {
-        return jdbcTemplate.update(
+        return countCache.afterWrite(TABLE, jdbcTemplate.update(
                 "UPDATE repair_order SET assignee_user_id=? WHERE id=? AND deleted=0 AND status NOT IN ('DONE','REJECTED')",
                 assigneeUserId,
                 id
-        );
+        ));
     }
 
     public int updateStatusIfCurrent(Long id, String currentStatus, String newStatus) {
-        return jdbcTemplate.update(
+        return countCache.afterWrite(TABLE, jdbcTemplate.update(
                 "UPDATE repair_order SET status=? WHERE id=? AND status=? AND deleted=0",
                 newStatus,
                 id,
                 currentStatus
-        );
+        ));
     }
 }
@@ -1,7 +1,10 @@
 package com.example.dormitory.repair.service;
 
 import com.example.dormitory.common.BizException;
+import com.example.dormitory.common.PageCursor;
 import com.example.dormitory.common.PageResult;
+import com.example.dormitory.common.SortSpec;
+import com.example.dormitory.common.export.ExportColumn;
 import com.example.dormitory.dorm.repository.DormBuildingRepository;
 import com.example.dormitory.dorm.repository.DormRoomRepository;
 import com.example.dormitory.repair.dto.AssignRepairRequest;
@@ -23,10 +26,22 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class RepairService {
 
+    public static final List<ExportColumn<RepairOrderVo>> EXPORT_COLUMNS = List.of(
+            ExportColumn.of("id", RepairOrderVo::getId),
+            ExportColumn.of("title", RepairOrderVo::getTitle),
+            ExportColumn.of("priority", RepairOrderVo::getPriority),
+            ExportColumn.of("status", RepairOrderVo::getStatus),
+            ExportColumn.of("assigneeUserId", RepairOrderVo::getAssigneeUserId),
+            ExportColumn.of("assigneeUsername", RepairOrderVo::getAssigneeUsername),
+            ExportColumn.of("assigneeRealName", RepairOrderVo::getAssigneeRealName),
+            ExportColumn.of("createdAt", RepairOrderVo::getCreatedAt)
+    );
+
     private final RepairOrderRepository orderRepository;
     private final RepairLogRepository logRepository;
     private final StudentRepository studentRepository;
@@ -50,18 +65,36 @@ public class RepairService {
         this.sysUserService = sysUserService;
     }
 
+    @Transactional(readOnly = true)
     public PageResult<RepairOrderVo> list(String status, String priority, Long assigneeUserId, String keyword,
-                                         Integer page, Integer pageSize, String sortBy, String sortOrder) {
+                                         Integer page, Integer pageSize, String sortBy, String sortOrder, String cursor, Boolean withTotal) {
         int p = page == null || page < 1 ? 1 : page;
         int ps = pageSize == null || pageSize < 1 ? 20 : Math.min(pageSize, 200);
-        int offset = (p - 1) * ps;
 
-        String orderBy = resolveOrderBy(sortBy, sortOrder);
-        long total = orderRepository.count(status, priority, assigneeUserId, keyword);
-        List<RepairOrderVo> list = orderRepository.list(status, priority, assigneeUserId, keyword, orderBy, ps, offset);
-        return new PageResult<>(list, p, ps, total);
+        SortSpec<RepairOrderVo> sort = resolveSort(sortBy, sortOrder);
+        PageCursor after = PageCursor.decode(cursor, sort);
+        int offset = cursor == null ? (p - 1) * ps : 0;
+        Long total = withTotal == null || withTotal ? orderRepository.count(status, priority, assigneeUserId, keyword) : null;
+        boolean byRelevance = cursor == null && RepairOrderRepository.isFullTextKeyword(keyword)
+                && (sortBy == null || sortBy.isBlank() || "relevance".equalsIgnoreCase(sortBy));
+        List<RepairOrderVo> list = orderRepository.list(status, priority, assigneeUserId, keyword, sort, after, byRelevance, ps + 1, offset);
+        boolean hasMore = list.size() > ps;
+        if (hasMore) {
+            list = list.subList(0, ps);
+        }
+        PageResult<RepairOrderVo> result = new PageResult<>(list, p, ps, total);
+        result.setHasMore(hasMore);
+        if (cursor != null && hasMore) {
+            result.setNextCursor(PageCursor.encode(sort, list.get(list.size() - 1)));
+        }
+        return result;
     }
 
+    public void export(String status, String priority, Long assigneeUserId, String keyword, Consumer<RepairOrderVo> consumer) {
+        orderRepository.export(status, priority, assigneeUserId, keyword, consumer);
+    }
+
+    @Transactional(readOnly = true)
     public RepairOrderDetailVo get(Long id) {
         RepairOrderDetailVo vo = orderRepository.findDetailById(id);
         if (vo == null) {
@@ -233,22 +266,11 @@ public class RepairService {
         return "assigneeUserId=" + assigneeUserId;
     }
 
-    private String resolveOrderBy(String sortBy, String sortOrder) {
-        String column;
+    private SortSpec<RepairOrderVo> resolveSort(String sortBy, String sortOrder) {
+        boolean asc = "asc".equalsIgnoreCase(sortOrder);
         if ("createdAt".equalsIgnoreCase(sortBy) || "created_at".equalsIgnoreCase(sortBy)) {
-            column = "r.created_at";
-        } else if ("id".equalsIgnoreCase(sortBy)) {
-            column = "r.id";
-        } else {
-            column = "r.id";
-        }
-
-        String order = "desc";
-        if ("asc".equalsIgnoreCase(sortOrder)) {
-            order = "asc";
-        } else if ("desc".equalsIgnoreCase(sortOrder)) {
-            order = "desc";
+            return new SortSpec<>("createdAt", "r.created_at", "r.id", asc, RepairOrderVo::getCreatedAt, RepairOrderVo::getId);
         }
-        return column + " " + order;
+        return new SortSpec<>("id", "r.id", "r.id", asc, RepairOrderVo::getId, RepairOrderVo::getId);
     }
 }
@@ -0,0 +1,38 @@
+package com.example.dormitory.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the client address behind {@code app.login.trusted-proxy-hops} reverse proxies. The hop count is the number
+ * of proxies in front of the application, counted from the socket peer; {@code X-Forwarded-For} entries further left
+ * are client-supplied and are not trusted. With zero hops the header is ignored.
+ */
+@Component
+public class ClientAddressResolver {
+
+    private final int trustedHops;
+
+    public ClientAddressResolver(LoginProperties properties) {
+        this.trustedHops = Math.max(0, properties.getTrustedProxyHops());
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remote = request.getRemoteAddr();
+        if (trustedHops == 0) {
+            return remote;
+        }
+        String header = request.getHeader("X-Forwarded-For");
+        if (header == null || header.isBlank()) {
+            return remote;
+        }
+        String[] forwarded = header.split(",");
+        // chain = forwarded..., remote; the last trustedHops entries are our own proxies.
+        int index = forwarded.length - trustedHops;
+        if (index < 0) {
+            index = 0;
+        }
+        String client = forwarded[index].trim();
+        return client.isEmpty() ? remote : client;
+    }
+}
@@ -1,8 +1,6 @@
 package com.example.dormitory.security;
 
-import com.example.dormitory.sys.service.SysUserService;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,13 +8,11 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -24,11 +20,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     private final JwtService jwtService;
-    private final SysUserService sysUserService;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationList revocationList;
 
-    public JwtAuthenticationFilter(JwtService jwtService, SysUserService sysUserService) {
+    public JwtAuthenticationFilter(JwtService jwtService, PrincipalCache principalCache, TokenRevocationList revocationList) {
         this.jwtService = jwtService;
-        this.sysUserService = sysUserService;
+        this.principalCache = principalCache;
+        this.revocationList = revocationList;
     }
 
     @Override
@@ -38,21 +36,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ") && SecurityContextHolder.getContext().getAuthentication() == null) {
             String token = header.substring("Bearer ".length());
             try {
-                Jws<Claims> jws = jwtService.parseToken(token);
-                Claims claims = jws.getPayload();
+                Claims claims = jwtService.verify(token);
+                if (revocationList.isRevoked(claims.getId())) {
+                    log.debug("JWT revoked: jti={}", claims.getId());
+                    filterChain.doFilter(request, response);
+                    return;
+                }
                 Long userId = Long.valueOf(claims.getSubject());
-                String username = claims.get("username", String.class);
+                String username = claims.get(JwtService.CLAIM_USERNAME, String.class);
 
-                UserPrincipal principal = sysUserService.getPrincipal(userId, username);
-                if (principal != null) {
-                    List<String> permissions = sysUserService.getPermissionCodes(userId);
-                    List<SimpleGrantedAuthority> authorities = permissions.stream()
-                            .map(SimpleGrantedAuthority::new)
-                            .toList();
+                PrincipalCache.AuthenticatedUser user = null;
+                Long version = claims.get(JwtService.CLAIM_PERMISSION_VERSION, Long.class);
+                if (version != null) {
+                    user = principalCache.fromClaims(userId, username,
+                            claims.get(JwtService.CLAIM_REAL_NAME, String.class),
+                            claims.get(JwtService.CLAIM_PERMISSIONS, String.class),
+                            version);
+                }
+                if (user == null) {
+                    user = principalCache.get(userId, username);
+                }
+                if (user != null) {
                     UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(principal, null, authorities);
+                            new UsernamePasswordAuthenticationToken(user.getPrincipal(), null, user.getAuthorities());
                     SecurityContextHolder.getContext().setAuthentication(authentication);
-                    log.debug("JWT authenticated: userId={}, username={}, perms={}", userId, username, authorities.size());
+                    log.debug("JWT authenticated: userId={}, username={}, perms={}", userId, username, user.getAuthorities().size());
                 } else {
                     log.warn("JWT token accepted but principal not found/invalid: userId={}, username={}", userId, username);
                 }
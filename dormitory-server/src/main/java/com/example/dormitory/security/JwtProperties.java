@@ -2,13 +2,26 @@ package com.example.dormitory.security;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @ConfigurationProperties(prefix = "app.jwt")
 public class JwtProperties {
 
     private String secret;
 
+    private String keyId = "default";
+
+    private List<VerificationKey> previousKeys = new ArrayList<>();
+
     private long expirationSeconds;
 
+    private long refreshExpirationSeconds = 1209600;
+
+    private int verifiedCacheSize = 10000;
+
+    private long verifiedCacheTtlSeconds = 300;
+
     public String getSecret() {
         return secret;
     }
@@ -17,6 +30,22 @@ public class JwtProperties {
         this.secret = secret;
     }
 
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public void setKeyId(String keyId) {
+        this.keyId = keyId;
+    }
+
+    public List<VerificationKey> getPreviousKeys() {
+        return previousKeys;
+    }
+
+    public void setPreviousKeys(List<VerificationKey> previousKeys) {
+        this.previousKeys = previousKeys;
+    }
+
     public long getExpirationSeconds() {
         return expirationSeconds;
     }
@@ -24,4 +53,51 @@ public class JwtProperties {
     public void setExpirationSeconds(long expirationSeconds) {
         this.expirationSeconds = expirationSeconds;
     }
+
+    public long getRefreshExpirationSeconds() {
+        return refreshExpirationSeconds;
+    }
+
+    public void setRefreshExpirationSeconds(long refreshExpirationSeconds) {
+        this.refreshExpirationSeconds = refreshExpirationSeconds;
+    }
+
+    public int getVerifiedCacheSize() {
+        return verifiedCacheSize;
+    }
+
+    public void setVerifiedCacheSize(int verifiedCacheSize) {
+        this.verifiedCacheSize = verifiedCacheSize;
+    }
+
+    public long getVerifiedCacheTtlSeconds() {
+        return verifiedCacheTtlSeconds;
+    }
+
+    public void setVerifiedCacheTtlSeconds(long verifiedCacheTtlSeconds) {
+        this.verifiedCacheTtlSeconds = verifiedCacheTtlSeconds;
+    }
+
+    public static class VerificationKey {
+
+        private String id;
+
+        private String secret;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+    }
 }
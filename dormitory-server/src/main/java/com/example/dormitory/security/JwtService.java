@@ -1,45 +1,167 @@
 package com.example.dormitory.security;
 
+import com.example.dormitory.common.ExpiringLruCache;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Service
 public class JwtService {
 
+    public static final String CLAIM_USERNAME = "username";
+    public static final String CLAIM_REAL_NAME = "realName";
+    public static final String CLAIM_PERMISSIONS = "perms";
+    public static final String CLAIM_PERMISSION_VERSION = "pv";
+
     private final JwtProperties properties;
+    private final PermissionDictionary permissionDictionary;
+    private final String activeKeyId;
+    private final SecretKey activeKey;
+    private final Map<String, SecretKey> keyRing;
+    private final JwtParser parser;
+    private final ExpiringLruCache<String, Claims> verifiedTokens;
+    private final long verifiedTtlMillis;
 
-    public JwtService(JwtProperties properties) {
+    public JwtService(JwtProperties properties, PermissionDictionary permissionDictionary, MeterRegistry meterRegistry) {
         this.properties = properties;
+        this.permissionDictionary = permissionDictionary;
+        this.activeKeyId = properties.getKeyId() == null || properties.getKeyId().isBlank() ? "default" : properties.getKeyId().trim();
+        this.activeKey = hmacKey(properties.getSecret());
+
+        Map<String, SecretKey> ring = new HashMap<>();
+        if (properties.getPreviousKeys() != null) {
+            for (JwtProperties.VerificationKey k : properties.getPreviousKeys()) {
+                if (k.getId() != null && k.getSecret() != null) {
+                    ring.put(k.getId().trim(), hmacKey(k.getSecret()));
+                }
+            }
+        }
+        ring.put(activeKeyId, activeKey);
+        this.keyRing = Map.copyOf(ring);
+
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String kid = header.getKeyId();
+                        if (kid == null) {
+                            return activeKey;
+                        }
+                        SecretKey key = keyRing.get(kid);
+                        if (key == null) {
+                            throw new JwtException("unknown key id: " + kid);
+                        }
+                        return key;
+                    }
+                })
+                .build();
+
+        this.verifiedTtlMillis = properties.getVerifiedCacheTtlSeconds() * 1000L;
+        this.verifiedTokens = new ExpiringLruCache<>(properties.getVerifiedCacheSize());
+        this.verifiedTokens.bindTo(meterRegistry, "jwt.verified");
     }
 
     public String createToken(Long userId, String username) {
         Instant now = Instant.now();
         Instant exp = now.plusSeconds(properties.getExpirationSeconds());
         return Jwts.builder()
+                .header().keyId(activeKeyId).and()
+                .id(UUID.randomUUID().toString())
                 .subject(String.valueOf(userId))
-                .claim("username", username)
+                .claim(CLAIM_USERNAME, username)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(exp))
-                .signWith(signingKey())
+                .signWith(activeKey)
                 .compact();
     }
 
+    public String createToken(PrincipalCache.AuthenticatedUser user) {
+        UserPrincipal principal = user.getPrincipal();
+        List<String> codes = new ArrayList<>(user.getAuthorities().size());
+        for (GrantedAuthority authority : user.getAuthorities()) {
+            codes.add(authority.getAuthority());
+        }
+        String bitmap = permissionDictionary.encode(codes);
+        if (bitmap == null) {
+            return createToken(principal.getId(), principal.getUsername());
+        }
+
+        Instant now = Instant.now();
+        Instant exp = now.plusSeconds(properties.getExpirationSeconds());
+        return Jwts.builder()
+                .header().keyId(activeKeyId).and()
+                .id(UUID.randomUUID().toString())
+                .subject(String.valueOf(principal.getId()))
+                .claim(CLAIM_USERNAME, principal.getUsername())
+                .claim(CLAIM_REAL_NAME, principal.getRealName())
+                .claim(CLAIM_PERMISSIONS, bitmap)
+                .claim(CLAIM_PERMISSION_VERSION, user.getVersion())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(exp))
+                .signWith(activeKey)
+                .compact();
+    }
+
+    public long getExpirationSeconds() {
+        return properties.getExpirationSeconds();
+    }
+
     public Jws<Claims> parseToken(String token) {
-        return Jwts.parser()
-                .verifyWith(signingKey())
-                .build()
-                .parseSignedClaims(token);
+        return parser.parseSignedClaims(token);
+    }
+
+    public Claims verify(String token) {
+        if (verifiedTtlMillis <= 0) {
+            return parseToken(token).getPayload();
+        }
+        String digest = digest(token);
+        Claims cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = parseToken(token).getPayload();
+        long expiresAt = System.currentTimeMillis() + verifiedTtlMillis;
+        Date exp = claims.getExpiration();
+        if (exp != null && exp.getTime() < expiresAt) {
+            expiresAt = exp.getTime();
+        }
+        verifiedTokens.put(digest, claims, expiresAt);
+        return claims;
+    }
+
+    private static SecretKey hmacKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
     }
 
-    private SecretKey signingKey() {
-        return Keys.hmacShaKeyFor(properties.getSecret().getBytes(StandardCharsets.UTF_8));
+    private static String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
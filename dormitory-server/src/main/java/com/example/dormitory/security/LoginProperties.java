@@ -0,0 +1,97 @@
+package com.example.dormitory.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.login")
+public class LoginProperties {
+
+    private int hashThreads = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    private int hashQueueCapacity = 64;
+
+    private long hashTimeoutMillis = 5000;
+
+    private long busyRetryAfterSeconds = 2;
+
+    private long failureWindowSeconds = 300;
+
+    private int maxFailuresPerUsername = 5;
+
+    private int maxFailuresPerIp = 30;
+
+    private int maxTrackedKeys = 100000;
+
+    private int trustedProxyHops = 0;
+
+    public int getHashThreads() {
+        return hashThreads;
+    }
+
+    public void setHashThreads(int hashThreads) {
+        this.hashThreads = hashThreads;
+    }
+
+    public int getHashQueueCapacity() {
+        return hashQueueCapacity;
+    }
+
+    public void setHashQueueCapacity(int hashQueueCapacity) {
+        this.hashQueueCapacity = hashQueueCapacity;
+    }
+
+    public long getHashTimeoutMillis() {
+        return hashTimeoutMillis;
+    }
+
+    public void setHashTimeoutMillis(long hashTimeoutMillis) {
+        this.hashTimeoutMillis = hashTimeoutMillis;
+    }
+
+    public long getBusyRetryAfterSeconds() {
+        return busyRetryAfterSeconds;
+    }
+
+    public void setBusyRetryAfterSeconds(long busyRetryAfterSeconds) {
+        this.busyRetryAfterSeconds = busyRetryAfterSeconds;
+    }
+
+    public long getFailureWindowSeconds() {
+        return failureWindowSeconds;
+    }
+
+    public void setFailureWindowSeconds(long failureWindowSeconds) {
+        this.failureWindowSeconds = failureWindowSeconds;
+    }
+
+    public int getMaxFailuresPerUsername() {
+        return maxFailuresPerUsername;
+    }
+
+    public void setMaxFailuresPerUsername(int maxFailuresPerUsername) {
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+    }
+
+    public int getMaxFailuresPerIp() {
+        return maxFailuresPerIp;
+    }
+
+    public void setMaxFailuresPerIp(int maxFailuresPerIp) {
+        this.maxFailuresPerIp = maxFailuresPerIp;
+    }
+
+    public int getMaxTrackedKeys() {
+        return maxTrackedKeys;
+    }
+
+    public void setMaxTrackedKeys(int maxTrackedKeys) {
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    public int getTrustedProxyHops() {
+        return trustedProxyHops;
+    }
+
+    public void setTrustedProxyHops(int trustedProxyHops) {
+        this.trustedProxyHops = trustedProxyHops;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.dormitory.security;
+
+import com.example.dormitory.common.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sliding-window login throttle per username and per client IP. Every attempt takes a slot up front, atomically with
+ * the limit check, so parallel attempts cannot all slip past the check; a successful login hands its slots back. When
+ * the key tables are full of live windows, attempts for keys not yet tracked are refused rather than let through
+ * unthrottled.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final long PURGE_INTERVAL_MILLIS = 1000;
+
+    private final long windowMillis;
+    private final int maxPerUsername;
+    private final int maxPerIp;
+    private final int maxTrackedKeys;
+    private final ConcurrentHashMap<String, FailureWindow> usernames = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, FailureWindow> ips = new ConcurrentHashMap<>();
+    private final AtomicLong lastPurge = new AtomicLong();
+    private final Counter usernameRejected;
+    private final Counter ipRejected;
+    private final Counter fullRejected;
+
+    public LoginThrottle(LoginProperties properties, MeterRegistry meterRegistry) {
+        this.windowMillis = properties.getFailureWindowSeconds() * 1000L;
+        this.maxPerUsername = properties.getMaxFailuresPerUsername();
+        this.maxPerIp = properties.getMaxFailuresPerIp();
+        this.maxTrackedKeys = properties.getMaxTrackedKeys();
+        this.usernameRejected = Counter.builder("auth.login.throttled").tag("scope", "username").register(meterRegistry);
+        this.ipRejected = Counter.builder("auth.login.throttled").tag("scope", "ip").register(meterRegistry);
+        this.fullRejected = Counter.builder("auth.login.throttled").tag("scope", "full").register(meterRegistry);
+    }
+
+    /**
+     * Counts one attempt against the username and the IP, or fails with 42902 when either is over its limit. The
+     * attempt stays counted as a failure unless it is passed to {@link #recordSuccess}.
+     */
+    public Attempt acquire(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        String user = normalize(username);
+        String ip = clientIp == null || clientIp.isBlank() ? null : clientIp;
+        acquire(usernames, user, maxPerUsername, now, usernameRejected);
+        try {
+            acquire(ips, ip, maxPerIp, now, ipRejected);
+        } catch (TooManyRequestsException e) {
+            refund(usernames, user, maxPerUsername, now);
+            throw e;
+        }
+        return new Attempt(user, ip, now);
+    }
+
+    public void recordSuccess(Attempt attempt) {
+        if (attempt.username != null) {
+            usernames.remove(attempt.username);
+        }
+        refund(ips, attempt.clientIp, maxPerIp, attempt.at);
+    }
+
+    /**
+     * Hands the attempt's slots back without treating it as a success, e.g. when the password check never ran.
+     */
+    public void release(Attempt attempt) {
+        refund(usernames, attempt.username, maxPerUsername, attempt.at);
+        refund(ips, attempt.clientIp, maxPerIp, attempt.at);
+    }
+
+    private void acquire(ConcurrentHashMap<String, FailureWindow> map, String key, int max, long now, Counter rejected) {
+        if (key == null || max <= 0) {
+            return;
+        }
+        FailureWindow w = map.get(key);
+        if (w == null) {
+            if (map.size() >= maxTrackedKeys) {
+                purge(now);
+                if (map.size() >= maxTrackedKeys) {
+                    fullRejected.increment();
+                    throw new TooManyRequestsException(42902, "too many failed login attempts", (windowMillis + 999) / 1000);
+                }
+            }
+            w = map.computeIfAbsent(key, k -> new FailureWindow(max));
+        }
+        long wait = w.tryAcquire(now, windowMillis);
+        if (wait > 0) {
+            rejected.increment();
+            throw new TooManyRequestsException(42902, "too many failed login attempts", (wait + 999) / 1000);
+        }
+    }
+
+    private void refund(ConcurrentHashMap<String, FailureWindow> map, String key, int max, long at) {
+        if (key == null || max <= 0) {
+            return;
+        }
+        FailureWindow w = map.get(key);
+        if (w != null) {
+            w.refund(at);
+        }
+    }
+
+    private void purge(long now) {
+        long last = lastPurge.get();
+        if (now - last < PURGE_INTERVAL_MILLIS || !lastPurge.compareAndSet(last, now)) {
+            return;
+        }
+        usernames.values().removeIf(w -> w.isIdle(now, windowMillis));
+        ips.values().removeIf(w -> w.isIdle(now, windowMillis));
+    }
+
+    private static String normalize(String username) {
+        if (username == null) {
+            return null;
+        }
+        String u = username.trim();
+        return u.isEmpty() ? null : u.toLowerCase(Locale.ROOT);
+    }
+
+    public static final class Attempt {
+
+        private final String username;
+        private final String clientIp;
+        private final long at;
+
+        private Attempt(String username, String clientIp, long at) {
+            this.username = username;
+            this.clientIp = clientIp;
+            this.at = at;
+        }
+    }
+
+    private static final class FailureWindow {
+
+        private final int capacity;
+        private final ArrayDeque<Long> timestamps;
+
+        private FailureWindow(int capacity) {
+            this.capacity = capacity;
+            this.timestamps = new ArrayDeque<>(capacity);
+        }
+
+        /**
+         * Takes a slot and returns 0, or returns how long until the oldest slot frees up.
+         */
+        private synchronized long tryAcquire(long now, long windowMillis) {
+            while (!timestamps.isEmpty() && timestamps.peekFirst() + windowMillis <= now) {
+                timestamps.pollFirst();
+            }
+            if (timestamps.size() >= capacity) {
+                return Math.max(1, timestamps.peekFirst() + windowMillis - now);
+            }
+            timestamps.addLast(now);
+            return 0;
+        }
+
+        private synchronized void refund(long at) {
+            timestamps.removeLastOccurrence(at);
+        }
+
+        private synchronized boolean isIdle(long now, long windowMillis) {
+            Long newest = timestamps.peekLast();
+            return newest == null || newest + windowMillis <= now;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.dormitory.security;
+
+import com.example.dormitory.sys.service.SysUserService;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class PermissionDictionary {
+
+    private static final long MIN_RELOAD_INTERVAL_MILLIS = 30_000L;
+
+    private final SysUserService sysUserService;
+    private volatile Snapshot snapshot;
+    private volatile long loadedAt;
+
+    public PermissionDictionary(SysUserService sysUserService) {
+        this.sysUserService = sysUserService;
+    }
+
+    public String encode(Collection<String> codes) {
+        Snapshot s = snapshot();
+        BitSet bits = new BitSet();
+        for (String code : codes) {
+            Integer index = s.indexByCode.get(code);
+            if (index == null) {
+                s = reload(false);
+                index = s.indexByCode.get(code);
+                if (index == null) {
+                    return null;
+                }
+            }
+            bits.set(index);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray());
+    }
+
+    public List<String> decode(String bitmap) {
+        BitSet bits;
+        try {
+            bits = BitSet.valueOf(Base64.getUrlDecoder().decode(bitmap));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        Snapshot s = snapshot();
+        if (!s.covers(bits)) {
+            s = reload(false);
+            if (!s.covers(bits)) {
+                return null;
+            }
+        }
+        List<String> codes = new ArrayList<>(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            codes.add(s.codes[i]);
+        }
+        return codes;
+    }
+
+    public void refresh() {
+        reload(true);
+    }
+
+    private Snapshot snapshot() {
+        Snapshot s = snapshot;
+        return s != null ? s : reload(true);
+    }
+
+    private synchronized Snapshot reload(boolean force) {
+        long now = System.currentTimeMillis();
+        Snapshot current = snapshot;
+        if (current != null && !force && now - loadedAt < MIN_RELOAD_INTERVAL_MILLIS) {
+            return current;
+        }
+        Map<Long, String> dictionary = sysUserService.getPermissionDictionary();
+        int size = 0;
+        for (Long id : dictionary.keySet()) {
+            size = Math.max(size, (int) (id + 1));
+        }
+        String[] codes = new String[size];
+        Map<String, Integer> indexByCode = new HashMap<>();
+        for (Map.Entry<Long, String> e : dictionary.entrySet()) {
+            int index = e.getKey().intValue();
+            codes[index] = e.getValue();
+            indexByCode.put(e.getValue(), index);
+        }
+        Snapshot s = new Snapshot(codes, indexByCode);
+        snapshot = s;
+        loadedAt = now;
+        return s;
+    }
+
+    private static final class Snapshot {
+
+        private final String[] codes;
+        private final Map<String, Integer> indexByCode;
+
+        private Snapshot(String[] codes, Map<String, Integer> indexByCode) {
+            this.codes = codes;
+            this.indexByCode = indexByCode;
+        }
+
+        private boolean covers(BitSet bits) {
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                if (i >= codes.length || codes[i] == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
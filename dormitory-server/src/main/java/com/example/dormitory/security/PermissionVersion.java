@@ -0,0 +1,80 @@
+package com.example.dormitory.security;
+
+import com.example.dormitory.common.AfterCommit;
+import com.example.dormitory.common.ExpiringLruCache;
+import com.example.dormitory.sys.model.SysUser;
+import com.example.dormitory.sys.repository.SysUserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Per-user permission version, persisted in {@code sys_user.perm_version} so it survives restarts and is shared by
+ * every node. Lookups are cached together with the user's status for the principal-cache TTL; a bump on this node
+ * drops the entry after commit, other nodes pick it up when the entry expires.
+ */
+@Component
+public class PermissionVersion {
+
+    private static final long INACTIVE = -1;
+
+    private final SysUserRepository repository;
+    private final long ttlMillis;
+    private final ExpiringLruCache<Long, Long> cache;
+
+    public PermissionVersion(SysUserRepository repository, PrincipalCacheProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.ttlMillis = properties.getTtlSeconds() * 1000L;
+        this.cache = new ExpiringLruCache<>(properties.getMaxSize());
+        this.cache.bindTo(meterRegistry, "permission-version");
+    }
+
+    /**
+     * The user's current version, or {@code null} when the user is missing, deleted or not ACTIVE.
+     */
+    public Long current(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        Long version = ttlMillis > 0 ? cache.get(userId) : null;
+        if (version == null) {
+            SysUser user = repository.findById(userId);
+            boolean active = user != null
+                    && (user.getDeleted() == null || user.getDeleted() == 0)
+                    && (user.getStatus() == null || "ACTIVE".equalsIgnoreCase(user.getStatus()));
+            version = active ? user.getPermVersion() : INACTIVE;
+            if (ttlMillis > 0) {
+                cache.put(userId, version, System.currentTimeMillis() + ttlMillis);
+            }
+        }
+        return version == INACTIVE ? null : version;
+    }
+
+    /**
+     * Call after changing the user's roles or status, inside the writing transaction.
+     */
+    public void bumpUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        repository.bumpPermVersion(userId);
+        AfterCommit.run(() -> cache.invalidate(userId));
+    }
+
+    public void bumpUsers(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return;
+        }
+        repository.bumpPermVersions(userIds);
+        AfterCommit.run(() -> userIds.forEach(cache::invalidate));
+    }
+
+    /**
+     * Call after changing a role's permissions.
+     */
+    public void bumpAll() {
+        repository.bumpAllPermVersions();
+        AfterCommit.run(cache::invalidateAll);
+    }
+}
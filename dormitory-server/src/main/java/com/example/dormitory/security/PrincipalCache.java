@@ -0,0 +1,133 @@
+package com.example.dormitory.security;
+
+import com.example.dormitory.common.ExpiringLruCache;
+import com.example.dormitory.sys.service.SysUserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class PrincipalCache {
+
+    private static final int MAX_INTERNED_SETS = 1024;
+
+    private final SysUserService sysUserService;
+    private final PermissionVersion permissionVersion;
+    private final PermissionDictionary permissionDictionary;
+    private final long ttlMillis;
+    private final ExpiringLruCache<Long, AuthenticatedUser> cache;
+    private final ConcurrentHashMap<String, GrantedAuthority> authorityPool = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<List<String>, List<GrantedAuthority>> authoritySetPool = new ConcurrentHashMap<>();
+
+    public PrincipalCache(SysUserService sysUserService, PermissionVersion permissionVersion,
+                          PermissionDictionary permissionDictionary,
+                          PrincipalCacheProperties properties, MeterRegistry meterRegistry) {
+        this.sysUserService = sysUserService;
+        this.permissionVersion = permissionVersion;
+        this.permissionDictionary = permissionDictionary;
+        this.ttlMillis = properties.getTtlSeconds() * 1000L;
+        this.cache = new ExpiringLruCache<>(properties.getMaxSize());
+        this.cache.bindTo(meterRegistry, "principal");
+    }
+
+    public AuthenticatedUser get(Long userId, String usernameFromToken) {
+        Long version = permissionVersion.current(userId);
+        if (version == null) {
+            // Disabled or deleted since the entry was cached.
+            cache.invalidate(userId);
+            return null;
+        }
+        AuthenticatedUser cached = ttlMillis > 0 ? cache.get(userId) : null;
+        if (cached != null && cached.getVersion() == version) {
+            if (usernameFromToken != null && !usernameFromToken.equals(cached.getPrincipal().getUsername())) {
+                return null;
+            }
+            return cached;
+        }
+
+        UserPrincipal principal = sysUserService.getPrincipal(userId, usernameFromToken);
+        if (principal == null) {
+            cache.invalidate(userId);
+            return null;
+        }
+        List<GrantedAuthority> authorities = intern(sysUserService.getPermissionCodes(userId));
+        AuthenticatedUser loaded = new AuthenticatedUser(principal, authorities, version);
+        if (ttlMillis > 0) {
+            cache.put(userId, loaded, System.currentTimeMillis() + ttlMillis);
+        }
+        return loaded;
+    }
+
+    public AuthenticatedUser fromClaims(Long userId, String username, String realName, String permissionBitmap, long version) {
+        if (userId == null || username == null || permissionBitmap == null) {
+            return null;
+        }
+        // Also rejects users that were disabled or deleted after the token was issued.
+        Long current = permissionVersion.current(userId);
+        if (current == null || current != version) {
+            return null;
+        }
+        List<String> codes = permissionDictionary.decode(permissionBitmap);
+        if (codes == null) {
+            return null;
+        }
+        return new AuthenticatedUser(new UserPrincipal(userId, username, realName), intern(codes), version);
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    List<GrantedAuthority> intern(Collection<String> codes) {
+        List<String> key = List.copyOf(codes);
+        List<GrantedAuthority> interned = authoritySetPool.get(key);
+        if (interned != null) {
+            return interned;
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>(key.size());
+        for (String code : key) {
+            authorities.add(authorityPool.computeIfAbsent(code, SimpleGrantedAuthority::new));
+        }
+        if (authoritySetPool.size() >= MAX_INTERNED_SETS) {
+            authoritySetPool.clear();
+        }
+        List<GrantedAuthority> immutable = List.copyOf(authorities);
+        List<GrantedAuthority> existing = authoritySetPool.putIfAbsent(key, immutable);
+        return existing == null ? immutable : existing;
+    }
+
+    public static final class AuthenticatedUser {
+
+        private final UserPrincipal principal;
+        private final List<GrantedAuthority> authorities;
+        private final long version;
+
+        AuthenticatedUser(UserPrincipal principal, List<GrantedAuthority> authorities, long version) {
+            this.principal = principal;
+            this.authorities = authorities;
+            this.version = version;
+        }
+
+        public UserPrincipal getPrincipal() {
+            return principal;
+        }
+
+        public List<GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+}
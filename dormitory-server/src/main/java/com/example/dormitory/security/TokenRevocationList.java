@@ -0,0 +1,115 @@
+package com.example.dormitory.security;
+
+import com.example.dormitory.auth.repository.TokenRevocationRepository;
+import com.example.dormitory.common.BloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final long PENDING_GRACE_MILLIS = 60_000L;
+
+    private final TokenRevocationRepository repository;
+    private final ConcurrentHashMap<String, Pending> pending = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot = new Snapshot(0);
+
+    public TokenRevocationList(TokenRevocationRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        Gauge.builder("auth.revocation.size", this, l -> l.snapshot.exact.size())
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        Snapshot s = snapshot;
+        return s.bloom.mightContain(jti) && s.exact.contains(jti);
+    }
+
+    public void revoke(String jti, Long userId, long expiresAtMillis) {
+        if (jti == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        repository.insert(jti, userId, expiresAtMillis);
+        pending.put(jti, new Pending(System.currentTimeMillis(), expiresAtMillis));
+        snapshot.add(jti);
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-reload-millis:30000}")
+    public void reload() {
+        long startedAt = System.currentTimeMillis();
+        List<String> jtis;
+        try {
+            jtis = repository.findActiveJtis(startedAt);
+        } catch (Exception e) {
+            log.warn("reload token revocations failed: {}", e.getMessage());
+            return;
+        }
+
+        pending.values().removeIf(p -> p.expiresAtMillis <= startedAt);
+        Snapshot next = new Snapshot(jtis.size() + pending.size());
+        for (String jti : jtis) {
+            next.add(jti);
+        }
+        for (String jti : pending.keySet()) {
+            next.add(jti);
+        }
+        snapshot = next;
+
+        for (Map.Entry<String, Pending> e : pending.entrySet()) {
+            if (e.getValue().addedAtMillis >= startedAt) {
+                next.add(e.getKey());
+            } else if (e.getValue().addedAtMillis < startedAt - PENDING_GRACE_MILLIS) {
+                pending.remove(e.getKey());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-purge-millis:3600000}")
+    public void purgeExpired() {
+        try {
+            repository.deleteExpiredBefore(System.currentTimeMillis(), 5000);
+        } catch (Exception e) {
+            log.warn("purge token revocations failed: {}", e.getMessage());
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final BloomFilter bloom;
+        private final Set<String> exact = ConcurrentHashMap.newKeySet();
+
+        private Snapshot(int expected) {
+            this.bloom = new BloomFilter(Math.max(1024, expected * 2), 0.01);
+        }
+
+        private void add(String jti) {
+            exact.add(jti);
+            bloom.put(jti);
+        }
+    }
+
+    private static final class Pending {
+
+        private final long addedAtMillis;
+        private final long expiresAtMillis;
+
+        private Pending(long addedAtMillis, long expiresAtMillis) {
+            this.addedAtMillis = addedAtMillis;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
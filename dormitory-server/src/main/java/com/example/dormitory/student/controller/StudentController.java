@@ -2,10 +2,17 @@ package com.example.dormitory.student.controller;
 
 import com.example.dormitory.common.ApiResponse;
 import com.example.dormitory.common.PageResult;
+import com.example.dormitory.common.export.ExportFormat;
+import com.example.dormitory.common.export.ExportWriter;
 import com.example.dormitory.student.dto.CreateStudentRequest;
 import com.example.dormitory.student.dto.UpdateStudentRequest;
+import com.example.dormitory.student.service.StudentImportService;
 import com.example.dormitory.student.service.StudentService;
+import com.example.dormitory.student.vo.StudentImportResultVo;
 import com.example.dormitory.student.vo.StudentVo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,14 +25,24 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/students")
 public class StudentController {
 
     private final StudentService studentService;
+    private final StudentImportService studentImportService;
+    private final ObjectMapper objectMapper;
 
-    public StudentController(StudentService studentService) {
+    public StudentController(StudentService studentService, StudentImportService studentImportService, ObjectMapper objectMapper) {
         this.studentService = studentService;
+        this.studentImportService = studentImportService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -37,9 +54,45 @@ public class StudentController {
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer pageSize,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(required = false) String sortOrder
+            @RequestParam(required = false) String sortOrder,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Boolean withTotal
     ) {
-        return ApiResponse.ok(studentService.list(gender, status, keyword, page, pageSize, sortBy, sortOrder));
+        return ApiResponse.ok(studentService.list(gender, status, keyword, page, pageSize, sortBy, sortOrder, cursor, withTotal));
+    }
+
+    @GetMapping("/suggest")
+    @PreAuthorize("hasAuthority('student:read')")
+    public ApiResponse<List<StudentVo>> suggest(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ApiResponse.ok(studentService.suggest(q, limit));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('student:read')")
+    public void export(
+            @RequestParam(required = false) String gender,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) Boolean gzip,
+            HttpServletResponse response
+    ) throws IOException {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        ExportWriter.open(response, "students", exportFormat, Boolean.TRUE.equals(gzip), StudentService.EXPORT_COLUMNS, objectMapper)
+                .write(writer -> studentService.export(gender, status, keyword, writer));
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain"})
+    @PreAuthorize("hasAuthority('student:write')")
+    public ApiResponse<StudentImportResultVo> importCsv(
+            HttpServletRequest request,
+            @RequestParam(required = false) Boolean updateExisting
+    ) throws IOException {
+        Reader reader = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+        return ApiResponse.ok(studentImportService.importCsv(reader, updateExisting == null || updateExisting));
     }
 
     @GetMapping("/{id}")
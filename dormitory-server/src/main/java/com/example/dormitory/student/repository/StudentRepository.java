@@ -1,105 +1,112 @@
 package com.example.dormitory.student.repository;
 
+import com.example.dormitory.common.CountCache;
+import com.example.dormitory.common.JdbcRows;
+import com.example.dormitory.common.PageCursor;
+import com.example.dormitory.common.SortSpec;
 import com.example.dormitory.student.model.Student;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Repository
 public class StudentRepository {
 
+    private static final String TABLE = "student";
+    private static final List<String> COUNT_TABLES = List.of("student");
+
+    private static final String COLUMNS = "id, student_no, name, gender, college, major, class_name, phone, status, deleted";
+
+    private static final RowMapper<Student> ROW_MAPPER = (rs, rowNum) -> {
+        Student s = new Student();
+        s.setId(rs.getLong(1));
+        s.setStudentNo(rs.getString(2));
+        s.setName(rs.getString(3));
+        s.setGender(rs.getString(4));
+        s.setCollege(rs.getString(5));
+        s.setMajor(rs.getString(6));
+        s.setClassName(rs.getString(7));
+        s.setPhone(rs.getString(8));
+        s.setStatus(rs.getString(9));
+        s.setDeleted(rs.getInt(10));
+        return s;
+    };
+
+    private static final Set<String> UPSERT_COLUMNS = Set.of("name", "gender", "college", "major", "class_name", "phone", "status");
+
     private final JdbcTemplate jdbcTemplate;
+    private final CountCache countCache;
 
-    public StudentRepository(JdbcTemplate jdbcTemplate) {
+    public StudentRepository(JdbcTemplate jdbcTemplate, CountCache countCache) {
         this.jdbcTemplate = jdbcTemplate;
+        this.countCache = countCache;
     }
 
     public Student findById(Long id) {
         List<Student> list = jdbcTemplate.query(
-                "SELECT id, student_no, name, gender, college, major, class_name, phone, status, deleted FROM student WHERE id=? AND deleted=0 LIMIT 1",
-                (rs, rowNum) -> {
-                    Student s = new Student();
-                    s.setId(rs.getLong("id"));
-                    s.setStudentNo(rs.getString("student_no"));
-                    s.setName(rs.getString("name"));
-                    s.setGender(rs.getString("gender"));
-                    s.setCollege(rs.getString("college"));
-                    s.setMajor(rs.getString("major"));
-                    s.setClassName(rs.getString("class_name"));
-                    s.setPhone(rs.getString("phone"));
-                    s.setStatus(rs.getString("status"));
-                    s.setDeleted(rs.getInt("deleted"));
-                    return s;
-                },
+                "SELECT " + COLUMNS + " FROM student WHERE id=? AND deleted=0 LIMIT 1",
+                ROW_MAPPER,
                 id
         );
         return list.isEmpty() ? null : list.get(0);
     }
 
+    public List<Student> findByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM student WHERE deleted=0 AND id IN (" + placeholders(ids.size()) + ")",
+                ROW_MAPPER,
+                ids.toArray()
+        );
+    }
+
     public long count(String gender, String status, String keyword) {
         StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM student WHERE deleted=0");
         List<Object> args = new ArrayList<>();
-        if (gender != null && !gender.isBlank()) {
-            sql.append(" AND gender=?");
-            args.add(gender.trim());
-        }
-        if (status != null && !status.isBlank()) {
-            sql.append(" AND status=?");
-            args.add(status.trim());
-        }
-        if (keyword != null && !keyword.isBlank()) {
-            sql.append(" AND (student_no LIKE ? OR name LIKE ? OR phone LIKE ?)");
-            String like = "%" + keyword.trim() + "%";
-            args.add(like);
-            args.add(like);
-            args.add(like);
-        }
-        Long cnt = jdbcTemplate.queryForObject(sql.toString(), args.toArray(), Long.class);
-        return cnt == null ? 0 : cnt;
+        appendFilters(sql, args, gender, status, keyword);
+        return countCache.count(COUNT_TABLES, sql.toString(), args, () -> {
+            Long cnt = jdbcTemplate.queryForObject(sql.toString(), args.toArray(), Long.class);
+            return cnt == null ? 0 : cnt;
+        });
     }
 
-    public List<Student> list(String gender, String status, String keyword, String orderBy, int limit, int offset) {
-        StringBuilder sql = new StringBuilder("SELECT id, student_no, name, gender, college, major, class_name, phone, status, deleted FROM student WHERE deleted=0");
+    public List<Student> list(String gender, String status, String keyword, SortSpec<?> sort, PageCursor after, int limit, int offset) {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM student WHERE deleted=0");
         List<Object> args = new ArrayList<>();
-        if (gender != null && !gender.isBlank()) {
-            sql.append(" AND gender=?");
-            args.add(gender.trim());
+        appendFilters(sql, args, gender, status, keyword);
+        if (after != null) {
+            after.appendSeek(sql, args, sort);
         }
-        if (status != null && !status.isBlank()) {
-            sql.append(" AND status=?");
-            args.add(status.trim());
-        }
-        if (keyword != null && !keyword.isBlank()) {
-            sql.append(" AND (student_no LIKE ? OR name LIKE ? OR phone LIKE ?)");
-            String like = "%" + keyword.trim() + "%";
-            args.add(like);
-            args.add(like);
-            args.add(like);
-        }
-        sql.append(" ORDER BY ").append(orderBy).append(" LIMIT ? OFFSET ?");
+        sql.append(" ORDER BY ").append(sort.orderBy()).append(" LIMIT ? OFFSET ?");
         args.add(limit);
         args.add(offset);
 
-        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
-            Student s = new Student();
-            s.setId(rs.getLong("id"));
-            s.setStudentNo(rs.getString("student_no"));
-            s.setName(rs.getString("name"));
-            s.setGender(rs.getString("gender"));
-            s.setCollege(rs.getString("college"));
-            s.setMajor(rs.getString("major"));
-            s.setClassName(rs.getString("class_name"));
-            s.setPhone(rs.getString("phone"));
-            s.setStatus(rs.getString("status"));
-            s.setDeleted(rs.getInt("deleted"));
-            return s;
-        }, args.toArray());
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    public void export(String gender, String status, String keyword, Consumer<Student> consumer) {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM student WHERE deleted=0");
+        List<Object> args = new ArrayList<>();
+        appendFilters(sql, args, gender, status, keyword);
+        sql.append(" ORDER BY id");
+        JdbcRows.stream(jdbcTemplate, sql.toString(), args, ROW_MAPPER, consumer);
     }
 
     public Long insert(Student s) {
@@ -119,12 +126,13 @@ public class StudentRepository {
             ps.setString(8, s.getStatus());
             return ps;
         }, keyHolder);
+        countCache.invalidate(TABLE);
         Number key = keyHolder.getKey();
         return key == null ? null : key.longValue();
     }
 
     public int update(Long id, Student s) {
-        return jdbcTemplate.update(
+        return countCache.afterWrite(TABLE, jdbcTemplate.update(
                 "UPDATE student SET student_no=?, name=?, gender=?, college=?, major=?, class_name=?, phone=?, status=? WHERE id=? AND deleted=0",
                 s.getStudentNo(),
                 s.getName(),
@@ -135,10 +143,108 @@ public class StudentRepository {
                 s.getPhone(),
                 s.getStatus(),
                 id
-        );
+        ));
     }
 
     public int softDelete(Long id) {
-        return jdbcTemplate.update("UPDATE student SET deleted=1 WHERE id=? AND deleted=0", id);
+        return countCache.afterWrite(TABLE, jdbcTemplate.update("UPDATE student SET deleted=1 WHERE id=? AND deleted=0", id));
+    }
+
+    public Map<String, Integer> findDeletedFlagsByStudentNos(Collection<String> studentNos) {
+        if (studentNos == null || studentNos.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return jdbcTemplate.query(
+                "SELECT student_no, deleted FROM student WHERE student_no IN (" + placeholders(studentNos.size()) + ")",
+                rs -> {
+                    Map<String, Integer> map = new HashMap<>();
+                    while (rs.next()) {
+                        map.put(rs.getString(1), rs.getInt(2));
+                    }
+                    return map;
+                },
+                studentNos.toArray()
+        );
+    }
+
+    /**
+     * Inserts new students and, for existing live ones, overwrites only {@code updateColumns}. Rows that are soft-deleted
+     * when the statement runs are left untouched.
+     */
+    public void batchUpsert(List<Student> students, Collection<String> updateColumns) {
+        if (students.isEmpty()) {
+            return;
+        }
+        StringBuilder update = new StringBuilder();
+        for (String column : updateColumns) {
+            if (!UPSERT_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("not an upsert column: " + column);
+            }
+            if (update.length() > 0) {
+                update.append(", ");
+            }
+            update.append(column).append("=IF(deleted=0, VALUES(").append(column).append("), ").append(column).append(")");
+        }
+        if (update.length() == 0) {
+            update.append("student_no=student_no");
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO student(student_no, name, gender, college, major, class_name, phone, status, deleted) VALUES (?,?,?,?,?,?,?,?,0) " +
+                        "ON DUPLICATE KEY UPDATE " + update,
+                students,
+                students.size(),
+                (ps, s) -> {
+                    ps.setString(1, s.getStudentNo());
+                    ps.setString(2, s.getName());
+                    ps.setString(3, s.getGender());
+                    ps.setString(4, s.getCollege());
+                    ps.setString(5, s.getMajor());
+                    ps.setString(6, s.getClassName());
+                    ps.setString(7, s.getPhone());
+                    ps.setString(8, s.getStatus());
+                }
+        );
+        countCache.invalidate(TABLE);
+    }
+
+    public void scanSuggestDocuments(Consumer<Student> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT id, student_no, name, gender, phone, status FROM student WHERE deleted=0",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            Student s = new Student();
+            s.setId(rs.getLong(1));
+            s.setStudentNo(rs.getString(2));
+            s.setName(rs.getString(3));
+            s.setGender(rs.getString(4));
+            s.setPhone(rs.getString(5));
+            s.setStatus(rs.getString(6));
+            consumer.accept(s);
+        });
+    }
+
+    private static void appendFilters(StringBuilder sql, List<Object> args, String gender, String status, String keyword) {
+        if (gender != null && !gender.isBlank()) {
+            sql.append(" AND gender=?");
+            args.add(gender.trim());
+        }
+        if (status != null && !status.isBlank()) {
+            sql.append(" AND status=?");
+            args.add(status.trim());
+        }
+        if (keyword != null && !keyword.isBlank()) {
+            sql.append(" AND (student_no LIKE ? OR name LIKE ? OR phone LIKE ?)");
+            String like = "%" + keyword.trim() + "%";
+            args.add(like);
+            args.add(like);
+            args.add(like);
+        }
+    }
+
+    private static String placeholders(int n) {
+        return String.join(",", Collections.nCopies(n, "?"));
     }
 }
@@ -0,0 +1,274 @@
+package com.example.dormitory.student.service;
+
+import com.example.dormitory.common.BizException;
+import com.example.dormitory.common.csv.CsvReader;
+import com.example.dormitory.student.model.Student;
+import com.example.dormitory.student.repository.StudentRepository;
+import com.example.dormitory.student.vo.StudentImportResultVo;
+import com.example.dormitory.student.vo.StudentImportRowVo;
+import com.example.dormitory.visitor.service.VisitorSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams a student CSV: each record is parsed and validated as it is read, and valid rows are
+ * flushed in chunks (one IN lookup plus one batched upsert per chunk), so memory use is bounded by
+ * the chunk size rather than the upload size.
+ */
+@Service
+public class StudentImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentImportService.class);
+
+    private static final int MAX_ROWS = 100000;
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_ROWS = 1000;
+    private static final Set<String> GENDERS = Set.of("MALE", "FEMALE");
+    private static final Set<String> STATUSES = Set.of("IN_SCHOOL", "GRADUATED", "LEFT");
+
+    private final StudentRepository repository;
+    private final StudentSuggestIndex suggestIndex;
+    private final VisitorSearchIndex visitorSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    public StudentImportService(StudentRepository repository, StudentSuggestIndex suggestIndex, VisitorSearchIndex visitorSearchIndex,
+                                TransactionTemplate transactionTemplate) {
+        this.repository = repository;
+        this.suggestIndex = suggestIndex;
+        this.visitorSearchIndex = visitorSearchIndex;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public StudentImportResultVo importCsv(Reader reader, boolean updateExisting) throws IOException {
+        StudentImportResultVo result = new StudentImportResultVo();
+        List<Pending> chunk = new ArrayList<>(CHUNK_SIZE);
+        Set<String> seen = new HashSet<>();
+        try (CsvReader csv = new CsvReader(reader)) {
+            List<String> header = csv.next();
+            if (header == null) {
+                throw new BizException(40001, "empty csv");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+            }
+            Integer studentNoCol = columns.get("studentno");
+            Integer nameCol = columns.get("name");
+            Integer genderCol = columns.get("gender");
+            if (studentNoCol == null || nameCol == null || genderCol == null) {
+                throw new BizException(40001, "csv header must contain studentNo,name,gender");
+            }
+            Integer collegeCol = columns.get("college");
+            Integer majorCol = columns.get("major");
+            Integer classNameCol = columns.get("classname");
+            Integer phoneCol = columns.get("phone");
+            Integer statusCol = columns.get("status");
+            // Re-importing a roster only overwrites the columns the file actually carries.
+            List<String> updateColumns = new ArrayList<>(List.of("name", "gender"));
+            addIfPresent(updateColumns, collegeCol, "college");
+            addIfPresent(updateColumns, majorCol, "major");
+            addIfPresent(updateColumns, classNameCol, "class_name");
+            addIfPresent(updateColumns, phoneCol, "phone");
+            addIfPresent(updateColumns, statusCol, "status");
+
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                long line = csv.getRecordLine();
+                if (result.getTotal() >= MAX_ROWS) {
+                    reject(result, line, null, "INVALID", "row limit " + MAX_ROWS + " reached, remaining rows ignored");
+                    break;
+                }
+                result.setTotal(result.getTotal() + 1);
+
+                Student s = new Student();
+                s.setStudentNo(trimToNull(field(record, studentNoCol)));
+                s.setName(trimToNull(field(record, nameCol)));
+                s.setGender(upper(field(record, genderCol)));
+                s.setCollege(trimToNull(field(record, collegeCol)));
+                s.setMajor(trimToNull(field(record, majorCol)));
+                s.setClassName(trimToNull(field(record, classNameCol)));
+                s.setPhone(trimToNull(field(record, phoneCol)));
+                String status = upper(field(record, statusCol));
+                s.setStatus(status == null ? "IN_SCHOOL" : status);
+
+                String error = validate(s);
+                if (error != null) {
+                    reject(result, line, s.getStudentNo(), "INVALID", error);
+                    continue;
+                }
+                if (!seen.add(s.getStudentNo())) {
+                    reject(result, line, s.getStudentNo(), "DUPLICATE", "duplicate studentNo in file");
+                    continue;
+                }
+                chunk.add(new Pending(line, s));
+                if (chunk.size() >= CHUNK_SIZE) {
+                    flush(chunk, updateExisting, updateColumns, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                flush(chunk, updateExisting, updateColumns, result);
+            }
+        } finally {
+            if (result.getCreated() + result.getUpdated() > 0) {
+                suggestIndex.rebuild();
+            }
+        }
+        return result;
+    }
+
+    private void flush(List<Pending> chunk, boolean updateExisting, List<String> updateColumns, StudentImportResultVo result) {
+        List<String> studentNos = new ArrayList<>(chunk.size());
+        for (Pending p : chunk) {
+            studentNos.add(p.student.getStudentNo());
+        }
+        Map<String, Integer> existing;
+        try {
+            existing = repository.findDeletedFlagsByStudentNos(studentNos);
+        } catch (Exception e) {
+            failChunk(chunk, result, e);
+            return;
+        }
+
+        List<Student> upserts = new ArrayList<>(chunk.size());
+        List<String> updatedNos = new ArrayList<>(chunk.size());
+        int created = 0;
+        for (Pending p : chunk) {
+            Integer deleted = existing.get(p.student.getStudentNo());
+            boolean exists = deleted != null;
+            if (exists && deleted != 0) {
+                reject(result, p.line, p.student.getStudentNo(), "DELETED", "studentNo belongs to a deleted student");
+                continue;
+            }
+            if (exists && !updateExisting) {
+                reject(result, p.line, p.student.getStudentNo(), "EXISTS", "studentNo already exists");
+                continue;
+            }
+            if (exists) {
+                updatedNos.add(p.student.getStudentNo());
+            } else {
+                created++;
+            }
+            upserts.add(p.student);
+        }
+        if (upserts.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.batchUpsert(upserts, updateColumns));
+        } catch (Exception e) {
+            failChunk(chunk, result, e);
+            return;
+        }
+        result.setCreated(result.getCreated() + created);
+        result.setUpdated(result.getUpdated() + upserts.size() - created);
+        visitorSearchIndex.refreshStudents(updatedNos);
+    }
+
+    private static void addIfPresent(List<String> columns, Integer index, String column) {
+        if (index != null) {
+            columns.add(column);
+        }
+    }
+
+    private static void failChunk(List<Pending> chunk, StudentImportResultVo result, Exception e) {
+        log.warn("student import chunk failed: {}", e.getMessage());
+        for (Pending p : chunk) {
+            reject(result, p.line, p.student.getStudentNo(), "FAILED", "write failed");
+        }
+    }
+
+    private static void reject(StudentImportResultVo result, long line, String studentNo, String status, String message) {
+        if ("FAILED".equals(status) || "INVALID".equals(status)) {
+            result.setFailed(result.getFailed() + 1);
+        } else {
+            result.setSkipped(result.getSkipped() + 1);
+        }
+        if (result.getErrors().size() < MAX_REPORTED_ROWS) {
+            result.getErrors().add(new StudentImportRowVo(line, studentNo, status, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static String validate(Student s) {
+        if (s.getStudentNo() == null) {
+            return "studentNo required";
+        }
+        if (s.getStudentNo().length() > 32) {
+            return "studentNo too long";
+        }
+        if (s.getName() == null) {
+            return "name required";
+        }
+        if (s.getName().length() > 64) {
+            return "name too long";
+        }
+        if (s.getGender() == null) {
+            return "gender required";
+        }
+        if (!GENDERS.contains(s.getGender())) {
+            return "invalid gender: " + s.getGender();
+        }
+        if (!STATUSES.contains(s.getStatus())) {
+            return "invalid status: " + s.getStatus();
+        }
+        if (tooLong(s.getCollege(), 64) || tooLong(s.getMajor(), 64) || tooLong(s.getClassName(), 64)) {
+            return "college/major/className too long";
+        }
+        if (tooLong(s.getPhone(), 32)) {
+            return "phone too long";
+        }
+        return null;
+    }
+
+    private static boolean tooLong(String value, int max) {
+        return value != null && value.length() > max;
+    }
+
+    private static String field(List<String> record, Integer index) {
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        return record.get(index);
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String t = value.trim();
+        return t.isEmpty() ? null : t;
+    }
+
+    private static String upper(String value) {
+        String t = trimToNull(value);
+        return t == null ? null : t.toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Pending {
+
+        private final long line;
+        private final Student student;
+
+        private Pending(long line, Student student) {
+            this.line = line;
+            this.student = student;
+        }
+    }
+}
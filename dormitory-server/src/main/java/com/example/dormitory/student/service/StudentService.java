@@ -1,38 +1,82 @@
 package com.example.dormitory.student.service;
 
+import com.example.dormitory.common.AfterCommit;
 import com.example.dormitory.common.BizException;
+import com.example.dormitory.common.PageCursor;
 import com.example.dormitory.common.PageResult;
+import com.example.dormitory.common.SortSpec;
+import com.example.dormitory.common.export.ExportColumn;
 import com.example.dormitory.student.dto.CreateStudentRequest;
 import com.example.dormitory.student.dto.UpdateStudentRequest;
 import com.example.dormitory.student.model.Student;
 import com.example.dormitory.student.repository.StudentRepository;
 import com.example.dormitory.student.vo.StudentVo;
+import com.example.dormitory.visitor.service.VisitorSearchIndex;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class StudentService {
 
+    public static final List<ExportColumn<StudentVo>> EXPORT_COLUMNS = List.of(
+            ExportColumn.of("id", StudentVo::getId),
+            ExportColumn.of("studentNo", StudentVo::getStudentNo),
+            ExportColumn.of("name", StudentVo::getName),
+            ExportColumn.of("gender", StudentVo::getGender),
+            ExportColumn.of("college", StudentVo::getCollege),
+            ExportColumn.of("major", StudentVo::getMajor),
+            ExportColumn.of("className", StudentVo::getClassName),
+            ExportColumn.of("phone", StudentVo::getPhone),
+            ExportColumn.of("status", StudentVo::getStatus)
+    );
+
     private final StudentRepository repository;
+    private final StudentSuggestIndex suggestIndex;
+    private final VisitorSearchIndex visitorSearchIndex;
 
-    public StudentService(StudentRepository repository) {
+    public StudentService(StudentRepository repository, StudentSuggestIndex suggestIndex, VisitorSearchIndex visitorSearchIndex) {
         this.repository = repository;
+        this.suggestIndex = suggestIndex;
+        this.visitorSearchIndex = visitorSearchIndex;
     }
 
+    @Transactional(readOnly = true)
     public PageResult<StudentVo> list(String gender, String status, String keyword,
-                                     Integer page, Integer pageSize, String sortBy, String sortOrder) {
+                                     Integer page, Integer pageSize, String sortBy, String sortOrder, String cursor, Boolean withTotal) {
         int p = page == null || page < 1 ? 1 : page;
         int ps = pageSize == null || pageSize < 1 ? 20 : Math.min(pageSize, 200);
-        int offset = (p - 1) * ps;
 
-        String orderBy = resolveOrderBy(sortBy, sortOrder);
-        long total = repository.count(gender, status, keyword);
-        List<Student> list = repository.list(gender, status, keyword, orderBy, ps, offset);
+        SortSpec<StudentVo> sort = resolveSort(sortBy, sortOrder);
+        PageCursor after = PageCursor.decode(cursor, sort);
+        int offset = cursor == null ? (p - 1) * ps : 0;
+        Long total = withTotal == null || withTotal ? repository.count(gender, status, keyword) : null;
+        List<Student> list = repository.list(gender, status, keyword, sort, after, ps + 1, offset);
+        boolean hasMore = list.size() > ps;
+        if (hasMore) {
+            list = list.subList(0, ps);
+        }
         List<StudentVo> voList = list.stream().map(this::toVo).toList();
-        return new PageResult<>(voList, p, ps, total);
+        PageResult<StudentVo> result = new PageResult<>(voList, p, ps, total);
+        result.setHasMore(hasMore);
+        if (cursor != null && hasMore) {
+            result.setNextCursor(PageCursor.encode(sort, voList.get(voList.size() - 1)));
+        }
+        return result;
+    }
+
+    public void export(String gender, String status, String keyword, Consumer<StudentVo> consumer) {
+        repository.export(gender, status, keyword, s -> consumer.accept(toVo(s)));
     }
 
+    public List<StudentVo> suggest(String q, Integer limit) {
+        int k = limit == null || limit < 1 ? 10 : Math.min(limit, 50);
+        return suggestIndex.suggest(q, k);
+    }
+
+    @Transactional(readOnly = true)
     public StudentVo get(Long id) {
         Student s = repository.findById(id);
         if (s == null) {
@@ -41,6 +85,7 @@ public class StudentService {
         return toVo(s);
     }
 
+    @Transactional
     public StudentVo create(CreateStudentRequest req) {
         Student s = new Student();
         s.setStudentNo(req.getStudentNo().trim());
@@ -56,9 +101,12 @@ public class StudentService {
         if (id == null) {
             throw new BizException(50000, "create student failed");
         }
-        return get(id);
+        StudentVo created = get(id);
+        AfterCommit.run(() -> suggestIndex.put(created));
+        return created;
     }
 
+    @Transactional
     public StudentVo update(Long id, UpdateStudentRequest req) {
         Student s = new Student();
         s.setStudentNo(req.getStudentNo().trim());
@@ -74,14 +122,21 @@ public class StudentService {
         if (affected == 0) {
             throw new BizException(40004, "student not found");
         }
-        return get(id);
+        StudentVo updated = get(id);
+        AfterCommit.run(() -> {
+            suggestIndex.put(updated);
+            visitorSearchIndex.refreshStudents(List.of(updated.getStudentNo()));
+        });
+        return updated;
     }
 
+    @Transactional
     public void delete(Long id) {
         int affected = repository.softDelete(id);
         if (affected == 0) {
             throw new BizException(40004, "student not found");
         }
+        AfterCommit.run(() -> suggestIndex.remove(id));
     }
 
     private StudentVo toVo(Student s) {
@@ -98,26 +153,20 @@ public class StudentService {
         return vo;
     }
 
-    private String resolveOrderBy(String sortBy, String sortOrder) {
-        String column;
+    private SortSpec<StudentVo> resolveSort(String sortBy, String sortOrder) {
+        boolean asc = "asc".equalsIgnoreCase(sortOrder);
         if ("studentNo".equalsIgnoreCase(sortBy) || "student_no".equalsIgnoreCase(sortBy)) {
-            column = "student_no";
-        } else if ("name".equalsIgnoreCase(sortBy)) {
-            column = "name";
-        } else if ("gender".equalsIgnoreCase(sortBy)) {
-            column = "gender";
-        } else if ("status".equalsIgnoreCase(sortBy)) {
-            column = "status";
-        } else {
-            column = "id";
+            return new SortSpec<>("studentNo", "student_no", "id", asc, StudentVo::getStudentNo, StudentVo::getId);
         }
-
-        String order = "desc";
-        if ("asc".equalsIgnoreCase(sortOrder)) {
-            order = "asc";
-        } else if ("desc".equalsIgnoreCase(sortOrder)) {
-            order = "desc";
+        if ("name".equalsIgnoreCase(sortBy)) {
+            return new SortSpec<>("name", "name", "id", asc, StudentVo::getName, StudentVo::getId);
+        }
+        if ("gender".equalsIgnoreCase(sortBy)) {
+            return new SortSpec<>("gender", "gender", "id", asc, StudentVo::getGender, StudentVo::getId);
+        }
+        if ("status".equalsIgnoreCase(sortBy)) {
+            return new SortSpec<>("status", "status", "id", asc, StudentVo::getStatus, StudentVo::getId);
         }
-        return column + " " + order;
+        return new SortSpec<>("id", "id", "id", asc, StudentVo::getId, StudentVo::getId);
     }
 }
@@ -0,0 +1,307 @@
+package com.example.dormitory.student.service;
+
+import com.example.dormitory.common.PinyinInitials;
+import com.example.dormitory.student.model.Student;
+import com.example.dormitory.student.repository.StudentRepository;
+import com.example.dormitory.student.vo.StudentVo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prefix index for the student picker. Each searchable field is a pair of parallel arrays (sorted keys and document
+ * slots) so a lookup is a binary search plus a short forward scan. Edits land in a small overlay that shadows the
+ * snapshot until it is folded back in, either when it grows past {@link #COMPACT_THRESHOLD} or on the periodic
+ * rebuild from the database.
+ */
+@Component
+public class StudentSuggestIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentSuggestIndex.class);
+
+    private static final int FIELD_STUDENT_NO = 0;
+    private static final int FIELD_NAME = 1;
+    private static final int FIELD_INITIALS = 2;
+    private static final int FIELD_PHONE = 3;
+    private static final int FIELD_COUNT = 4;
+    private static final int COMPACT_THRESHOLD = 512;
+
+    private final StudentRepository repository;
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile State state = new State(Snapshot.build(new StudentVo[0]), new ConcurrentHashMap<>());
+
+    public StudentSuggestIndex(StudentRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        Gauge.builder("student.suggest.size", this, i -> i.state.snapshot.docs.length)
+                .register(meterRegistry);
+    }
+
+    public List<StudentVo> suggest(String query, int limit) {
+        String q = query == null ? "" : query.trim().toLowerCase();
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        State st = state;
+        Map<Long, Hit> hits = new HashMap<>();
+        for (Overlay o : st.overlay.values()) {
+            if (o.doc == null) {
+                continue;
+            }
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                if (o.keys[f] != null && o.keys[f].startsWith(q)) {
+                    offer(hits, o.doc, rank(f, o.keys[f], q));
+                }
+            }
+        }
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            Field field = st.snapshot.fields[f];
+            int taken = 0;
+            for (int i = lowerBound(field.keys, q); i < field.keys.length && taken < limit; i++) {
+                String key = field.keys[i];
+                if (!key.startsWith(q)) {
+                    break;
+                }
+                StudentVo doc = st.snapshot.docs[field.slots[i]];
+                if (st.overlay.containsKey(doc.getId())) {
+                    continue;
+                }
+                offer(hits, doc, rank(f, key, q));
+                taken++;
+            }
+        }
+        List<Hit> sorted = new ArrayList<>(hits.values());
+        sorted.sort(Comparator.comparingInt((Hit h) -> h.rank)
+                .thenComparing(h -> h.doc.getStudentNo(), Comparator.nullsLast(Comparator.naturalOrder())));
+        List<StudentVo> result = new ArrayList<>(Math.min(limit, sorted.size()));
+        for (int i = 0; i < sorted.size() && i < limit; i++) {
+            result.add(sorted.get(i).doc);
+        }
+        return result;
+    }
+
+    public synchronized void put(StudentVo vo) {
+        if (vo == null || vo.getId() == null) {
+            return;
+        }
+        StudentVo doc = copy(vo);
+        state.overlay.put(doc.getId(), new Overlay(doc, keys(doc), sequence.incrementAndGet()));
+        compactIfNeeded();
+    }
+
+    public synchronized void remove(Long id) {
+        if (id == null) {
+            return;
+        }
+        state.overlay.put(id, new Overlay(null, null, sequence.incrementAndGet()));
+        compactIfNeeded();
+    }
+
+    @Scheduled(fixedDelayString = "${app.student-suggest.rebuild-millis:600000}")
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        long seqAtStart = sequence.get();
+        List<StudentVo> docs = new ArrayList<>();
+        try {
+            repository.scanSuggestDocuments(s -> docs.add(toDoc(s)));
+        } catch (Exception e) {
+            log.warn("rebuild student suggest index failed: {}", e.getMessage());
+            return;
+        }
+        Snapshot snapshot = Snapshot.build(docs.toArray(new StudentVo[0]));
+        synchronized (this) {
+            ConcurrentHashMap<Long, Overlay> remaining = new ConcurrentHashMap<>();
+            state.overlay.forEach((id, o) -> {
+                if (o.sequence > seqAtStart) {
+                    remaining.put(id, o);
+                }
+            });
+            state = new State(snapshot, remaining);
+        }
+        log.info("student suggest index rebuilt: {} students in {} ms", docs.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    private void compactIfNeeded() {
+        State st = state;
+        if (st.overlay.size() < COMPACT_THRESHOLD) {
+            return;
+        }
+        List<StudentVo> docs = new ArrayList<>(st.snapshot.docs.length + st.overlay.size());
+        for (StudentVo doc : st.snapshot.docs) {
+            if (!st.overlay.containsKey(doc.getId())) {
+                docs.add(doc);
+            }
+        }
+        for (Overlay o : st.overlay.values()) {
+            if (o.doc != null) {
+                docs.add(o.doc);
+            }
+        }
+        state = new State(Snapshot.build(docs.toArray(new StudentVo[0])), new ConcurrentHashMap<>());
+    }
+
+    private static void offer(Map<Long, Hit> hits, StudentVo doc, int rank) {
+        Hit existing = hits.get(doc.getId());
+        if (existing == null || rank < existing.rank) {
+            hits.put(doc.getId(), new Hit(doc, rank));
+        }
+    }
+
+    private static int rank(int field, String key, String q) {
+        return (key.length() == q.length() ? 0 : FIELD_COUNT) + field;
+    }
+
+    private static String[] keys(StudentVo doc) {
+        String[] keys = new String[FIELD_COUNT];
+        keys[FIELD_STUDENT_NO] = normalize(doc.getStudentNo());
+        keys[FIELD_NAME] = normalize(doc.getName());
+        keys[FIELD_INITIALS] = normalize(PinyinInitials.of(doc.getName()));
+        keys[FIELD_PHONE] = normalize(doc.getPhone());
+        return keys;
+    }
+
+    private static String normalize(String s) {
+        if (s == null) {
+            return null;
+        }
+        String t = s.trim().toLowerCase();
+        return t.isEmpty() ? null : t;
+    }
+
+    private static int lowerBound(String[] keys, String q) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(q) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static StudentVo toDoc(Student s) {
+        StudentVo vo = new StudentVo();
+        vo.setId(s.getId());
+        vo.setStudentNo(s.getStudentNo());
+        vo.setName(s.getName());
+        vo.setGender(s.getGender());
+        vo.setPhone(s.getPhone());
+        vo.setStatus(s.getStatus());
+        return vo;
+    }
+
+    private static StudentVo copy(StudentVo s) {
+        StudentVo vo = new StudentVo();
+        vo.setId(s.getId());
+        vo.setStudentNo(s.getStudentNo());
+        vo.setName(s.getName());
+        vo.setGender(s.getGender());
+        vo.setPhone(s.getPhone());
+        vo.setStatus(s.getStatus());
+        return vo;
+    }
+
+    private static final class State {
+
+        private final Snapshot snapshot;
+        private final ConcurrentHashMap<Long, Overlay> overlay;
+
+        private State(Snapshot snapshot, ConcurrentHashMap<Long, Overlay> overlay) {
+            this.snapshot = snapshot;
+            this.overlay = overlay;
+        }
+    }
+
+    private static final class Overlay {
+
+        private final StudentVo doc;
+        private final String[] keys;
+        private final long sequence;
+
+        private Overlay(StudentVo doc, String[] keys, long sequence) {
+            this.doc = doc;
+            this.keys = keys;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class Hit {
+
+        private final StudentVo doc;
+        private final int rank;
+
+        private Hit(StudentVo doc, int rank) {
+            this.doc = doc;
+            this.rank = rank;
+        }
+    }
+
+    private static final class Field {
+
+        private final String[] keys;
+        private final int[] slots;
+
+        private Field(String[] keys, int[] slots) {
+            this.keys = keys;
+            this.slots = slots;
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final StudentVo[] docs;
+        private final Field[] fields;
+
+        private Snapshot(StudentVo[] docs, Field[] fields) {
+            this.docs = docs;
+            this.fields = fields;
+        }
+
+        private static Snapshot build(StudentVo[] docs) {
+            String[][] perDoc = new String[docs.length][];
+            int[] counts = new int[FIELD_COUNT];
+            for (int d = 0; d < docs.length; d++) {
+                perDoc[d] = keys(docs[d]);
+                for (int f = 0; f < FIELD_COUNT; f++) {
+                    if (perDoc[d][f] != null) {
+                        counts[f]++;
+                    }
+                }
+            }
+            Field[] fields = new Field[FIELD_COUNT];
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                Integer[] order = new Integer[counts[f]];
+                int n = 0;
+                for (int d = 0; d < docs.length; d++) {
+                    if (perDoc[d][f] != null) {
+                        order[n++] = d;
+                    }
+                }
+                int field = f;
+                Arrays.sort(order, Comparator.comparing((Integer d) -> perDoc[d][field]).thenComparingInt(d -> d));
+                String[] keys = new String[n];
+                int[] slots = new int[n];
+                for (int i = 0; i < n; i++) {
+                    keys[i] = perDoc[order[i]][f];
+                    slots[i] = order[i];
+                }
+                fields[f] = new Field(keys, slots);
+            }
+            return new Snapshot(docs, fields);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.dormitory.student.vo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StudentImportResultVo {
+
+    private int total;
+    private int created;
+    private int updated;
+    private int skipped;
+    private int failed;
+    private boolean errorsTruncated;
+    private List<StudentImportRowVo> errors = new ArrayList<>();
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public List<StudentImportRowVo> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<StudentImportRowVo> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.dormitory.student.vo;
+
+public class StudentImportRowVo {
+
+    private long line;
+    private String studentNo;
+    private String status;
+    private String message;
+
+    public StudentImportRowVo() {
+    }
+
+    public StudentImportRowVo(long line, String studentNo, String status, String message) {
+        this.line = line;
+        this.studentNo = studentNo;
+        this.status = status;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getStudentNo() {
+        return studentNo;
+    }
+
+    public void setStudentNo(String studentNo) {
+        this.studentNo = studentNo;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
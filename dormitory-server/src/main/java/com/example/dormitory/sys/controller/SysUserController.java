@@ -2,13 +2,22 @@ package com.example.dormitory.sys.controller;
 
 import com.example.dormitory.common.ApiResponse;
 import com.example.dormitory.sys.model.SysUser;
+import com.example.dormitory.sys.service.SysUserBulkService;
 import com.example.dormitory.sys.service.SysUserService;
+import com.example.dormitory.sys.vo.SysUserBulkResultVo;
 import com.example.dormitory.sys.vo.SysUserVo;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -16,9 +25,11 @@ import java.util.List;
 public class SysUserController {
 
     private final SysUserService sysUserService;
+    private final SysUserBulkService sysUserBulkService;
 
-    public SysUserController(SysUserService sysUserService) {
+    public SysUserController(SysUserService sysUserService, SysUserBulkService sysUserBulkService) {
         this.sysUserService = sysUserService;
+        this.sysUserBulkService = sysUserBulkService;
     }
 
     @GetMapping
@@ -35,4 +46,22 @@ public class SysUserController {
         }).toList();
         return ApiResponse.ok(voList);
     }
+
+    @PostMapping(value = "/bulk", consumes = {"text/csv", "text/plain", "application/x-ndjson", "application/jsonl"})
+    @PreAuthorize("hasAuthority('sys:user:write')")
+    public ApiResponse<SysUserBulkResultVo> bulkCreate(
+            HttpServletRequest request,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String roleCode
+    ) throws IOException {
+        String contentType = request.getContentType() == null ? "" : request.getContentType().toLowerCase();
+        boolean ndjson = format != null
+                ? "ndjson".equalsIgnoreCase(format) || "jsonl".equalsIgnoreCase(format)
+                : contentType.contains("ndjson") || contentType.contains("jsonl");
+        Reader reader = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+        SysUserBulkResultVo result = ndjson
+                ? sysUserBulkService.importNdjson(reader, roleCode)
+                : sysUserBulkService.importCsv(reader, roleCode);
+        return ApiResponse.ok(result);
+    }
 }
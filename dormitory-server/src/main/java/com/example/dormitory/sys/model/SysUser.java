@@ -8,6 +8,7 @@ public class SysUser {
     private String realName;
     private String status;
     private Integer deleted;
+    private Long permVersion;
 
     public Long getId() {
         return id;
@@ -56,4 +57,12 @@ public class SysUser {
     public void setDeleted(Integer deleted) {
         this.deleted = deleted;
     }
+
+    public Long getPermVersion() {
+        return permVersion;
+    }
+
+    public void setPermVersion(Long permVersion) {
+        this.permVersion = permVersion;
+    }
 }
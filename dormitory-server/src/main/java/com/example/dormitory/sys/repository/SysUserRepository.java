@@ -9,11 +9,34 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
 import java.sql.Statement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Repository
 public class SysUserRepository {
 
+    private static final String USER_COLUMNS = "id, username, password_hash, real_name, status, deleted, perm_version";
+
+    private static final RowMapper<SysUser> USER_MAPPER = (rs, rowNum) -> {
+        SysUser u = new SysUser();
+        u.setId(rs.getLong(1));
+        u.setUsername(rs.getString(2));
+        u.setPasswordHash(rs.getString(3));
+        u.setRealName(rs.getString(4));
+        u.setStatus(rs.getString(5));
+        u.setDeleted(rs.getInt(6));
+        u.setPermVersion(rs.getLong(7));
+        return u;
+    };
+
+    private static final RowMapper<String> STRING_MAPPER = (rs, rowNum) -> rs.getString(1);
+
     private final JdbcTemplate jdbcTemplate;
 
     public SysUserRepository(JdbcTemplate jdbcTemplate) {
@@ -22,8 +45,8 @@ public class SysUserRepository {
 
     public SysUser findByUsername(String username) {
         List<SysUser> list = jdbcTemplate.query(
-                "SELECT id, username, password_hash, real_name, status, deleted FROM sys_user WHERE username=? LIMIT 1",
-                userRowMapper(),
+                "SELECT " + USER_COLUMNS + " FROM sys_user WHERE username=? LIMIT 1",
+                USER_MAPPER,
                 username
         );
         return list.isEmpty() ? null : list.get(0);
@@ -31,8 +54,8 @@ public class SysUserRepository {
 
     public SysUser findById(Long id) {
         List<SysUser> list = jdbcTemplate.query(
-                "SELECT id, username, password_hash, real_name, status, deleted FROM sys_user WHERE id=? LIMIT 1",
-                userRowMapper(),
+                "SELECT " + USER_COLUMNS + " FROM sys_user WHERE id=? LIMIT 1",
+                USER_MAPPER,
                 id
         );
         return list.isEmpty() ? null : list.get(0);
@@ -41,7 +64,7 @@ public class SysUserRepository {
     public List<String> findRoleCodesByUserId(Long userId) {
         return jdbcTemplate.query(
                 "SELECT r.code FROM sys_role r JOIN sys_user_role ur ON ur.role_id=r.id WHERE ur.user_id=? ORDER BY r.id",
-                (rs, rowNum) -> rs.getString("code"),
+                STRING_MAPPER,
                 userId
         );
     }
@@ -54,15 +77,28 @@ public class SysUserRepository {
                         "JOIN sys_user_role ur ON ur.role_id=rp.role_id " +
                         "WHERE ur.user_id=? " +
                         "ORDER BY p.code",
-                (rs, rowNum) -> rs.getString("code"),
+                STRING_MAPPER,
                 userId
         );
     }
 
+    public Map<Long, String> findPermissionDictionary() {
+        return jdbcTemplate.query(
+                "SELECT id, code FROM sys_permission WHERE deleted=0 ORDER BY id",
+                rs -> {
+                    Map<Long, String> map = new LinkedHashMap<>();
+                    while (rs.next()) {
+                        map.put(rs.getLong(1), rs.getString(2));
+                    }
+                    return map;
+                }
+        );
+    }
+
     public List<SysUser> listUsers() {
         return jdbcTemplate.query(
-                "SELECT id, username, password_hash, real_name, status, deleted FROM sys_user WHERE deleted=0 ORDER BY id LIMIT 200",
-                userRowMapper()
+                "SELECT " + USER_COLUMNS + " FROM sys_user WHERE deleted=0 ORDER BY id LIMIT 200",
+                USER_MAPPER
         );
     }
 
@@ -93,16 +129,115 @@ public class SysUserRepository {
         );
     }
 
-    private RowMapper<SysUser> userRowMapper() {
-        return (rs, rowNum) -> {
-            SysUser u = new SysUser();
-            u.setId(rs.getLong("id"));
-            u.setUsername(rs.getString("username"));
-            u.setPasswordHash(rs.getString("password_hash"));
-            u.setRealName(rs.getString("real_name"));
-            u.setStatus(rs.getString("status"));
-            u.setDeleted(rs.getInt("deleted"));
-            return u;
-        };
+    public List<String> findExistingUsernames(Collection<String> usernames) {
+        if (usernames == null || usernames.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query(
+                "SELECT username FROM sys_user WHERE username IN (" + placeholders(usernames.size()) + ")",
+                STRING_MAPPER,
+                usernames.toArray()
+        );
+    }
+
+    public List<SysUser> findByUsernames(Collection<String> usernames) {
+        if (usernames == null || usernames.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query(
+                "SELECT " + USER_COLUMNS + " FROM sys_user WHERE username IN (" + placeholders(usernames.size()) + ")",
+                USER_MAPPER,
+                usernames.toArray()
+        );
+    }
+
+    public Map<String, Long> findRoleIdsByCodes(Collection<String> roleCodes) {
+        if (roleCodes == null || roleCodes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return jdbcTemplate.query(
+                "SELECT id, code FROM sys_role WHERE deleted=0 AND code IN (" + placeholders(roleCodes.size()) + ")",
+                rs -> {
+                    Map<String, Long> map = new HashMap<>();
+                    while (rs.next()) {
+                        map.put(rs.getString(2), rs.getLong(1));
+                    }
+                    return map;
+                },
+                roleCodes.toArray()
+        );
+    }
+
+    public Map<String, Set<String>> findPermissionCodesByRoleCodes(Collection<String> roleCodes) {
+        if (roleCodes == null || roleCodes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return jdbcTemplate.query(
+                "SELECT r.code, p.code " +
+                        "FROM sys_role r " +
+                        "JOIN sys_role_permission rp ON rp.role_id=r.id " +
+                        "JOIN sys_permission p ON p.id=rp.permission_id " +
+                        "WHERE r.deleted=0 AND r.code IN (" + placeholders(roleCodes.size()) + ")",
+                rs -> {
+                    Map<String, Set<String>> map = new HashMap<>();
+                    while (rs.next()) {
+                        map.computeIfAbsent(rs.getString(1), k -> new HashSet<>()).add(rs.getString(2));
+                    }
+                    return map;
+                },
+                roleCodes.toArray()
+        );
+    }
+
+    public void batchInsertIgnore(List<SysUser> users) {
+        jdbcTemplate.batchUpdate(
+                "INSERT IGNORE INTO sys_user (username, password_hash, real_name, status, deleted) VALUES (?,?,?,?,?)",
+                users,
+                users.size(),
+                (ps, u) -> {
+                    ps.setString(1, u.getUsername());
+                    ps.setString(2, u.getPasswordHash());
+                    ps.setString(3, u.getRealName());
+                    ps.setString(4, u.getStatus());
+                    ps.setInt(5, u.getDeleted() == null ? 0 : u.getDeleted());
+                }
+        );
+    }
+
+    public void batchBindRoles(List<long[]> userRolePairs) {
+        if (userRolePairs.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT IGNORE INTO sys_user_role (user_id, role_id) VALUES (?,?)",
+                userRolePairs,
+                userRolePairs.size(),
+                (ps, pair) -> {
+                    ps.setLong(1, pair[0]);
+                    ps.setLong(2, pair[1]);
+                }
+        );
+    }
+
+    public void bumpPermVersion(Long userId) {
+        jdbcTemplate.update("UPDATE sys_user SET perm_version=perm_version+1 WHERE id=?", userId);
+    }
+
+    public void bumpPermVersions(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(
+                "UPDATE sys_user SET perm_version=perm_version+1 WHERE id IN (" + placeholders(userIds.size()) + ")",
+                userIds.toArray()
+        );
+    }
+
+    public void bumpAllPermVersions() {
+        jdbcTemplate.update("UPDATE sys_user SET perm_version=perm_version+1");
+    }
+
+    private static String placeholders(int n) {
+        return String.join(",", Collections.nCopies(n, "?"));
     }
 }
@@ -0,0 +1,372 @@
+package com.example.dormitory.sys.service;
+
+import com.example.dormitory.common.BizException;
+import com.example.dormitory.common.TooManyRequestsException;
+import com.example.dormitory.common.csv.CsvReader;
+import com.example.dormitory.security.PasswordHasher;
+import com.example.dormitory.security.PermissionVersion;
+import com.example.dormitory.security.SecurityUtils;
+import com.example.dormitory.security.UserPrincipal;
+import com.example.dormitory.sys.dto.SysUserImportRow;
+import com.example.dormitory.sys.model.SysUser;
+import com.example.dormitory.sys.repository.SysUserRepository;
+import com.example.dormitory.sys.vo.SysUserBulkResultVo;
+import com.example.dormitory.sys.vo.SysUserBulkRowVo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk user creation from CSV or NDJSON. Rows are validated as they are read and written in chunks, so only one chunk
+ * of plaintext passwords is held at a time; hashing goes through {@link PasswordHasher} and shares its admission
+ * control with logins. A row may only grant a role whose permissions the caller already holds, so an upload cannot
+ * hand out more than its author has.
+ */
+@Service
+public class SysUserBulkService {
+
+    private static final Logger log = LoggerFactory.getLogger(SysUserBulkService.class);
+
+    private static final int MAX_ROWS = 20000;
+    private static final int CHUNK_SIZE = 500;
+
+    private final SysUserRepository repository;
+    private final PermissionVersion permissionVersion;
+    private final PasswordHasher passwordHasher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public SysUserBulkService(SysUserRepository repository, PermissionVersion permissionVersion, PasswordHasher passwordHasher,
+                              TransactionTemplate transactionTemplate, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.permissionVersion = permissionVersion;
+        this.passwordHasher = passwordHasher;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public SysUserBulkResultVo importCsv(Reader reader, String defaultRoleCode) throws IOException {
+        Batch batch = new Batch(defaultRoleCode);
+        try (CsvReader csv = new CsvReader(reader)) {
+            List<String> header = csv.next();
+            if (header == null) {
+                throw new BizException(40001, "empty csv");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+            }
+            Integer usernameCol = columns.get("username");
+            Integer passwordCol = columns.get("password");
+            if (usernameCol == null || passwordCol == null) {
+                throw new BizException(40001, "csv header must contain username,password");
+            }
+            Integer realNameCol = columns.get("realname");
+            Integer roleCol = columns.containsKey("rolecode") ? columns.get("rolecode") : columns.get("role");
+
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                SysUserImportRow row = new SysUserImportRow();
+                row.setLine(csv.getRecordLine());
+                row.setUsername(field(record, usernameCol));
+                row.setPassword(field(record, passwordCol));
+                row.setRealName(field(record, realNameCol));
+                row.setRoleCode(field(record, roleCol));
+                if (!batch.add(row)) {
+                    break;
+                }
+            }
+        }
+        return batch.finish();
+    }
+
+    public SysUserBulkResultVo importNdjson(Reader reader, String defaultRoleCode) throws IOException {
+        Batch batch = new Batch(defaultRoleCode);
+        try (BufferedReader br = new BufferedReader(reader)) {
+            String line;
+            long lineNo = 0;
+            while ((line = br.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                SysUserImportRow row = new SysUserImportRow();
+                row.setLine(lineNo);
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    row.setUsername(text(node, "username"));
+                    row.setPassword(text(node, "password"));
+                    row.setRealName(text(node, "realName"));
+                    row.setRoleCode(node.hasNonNull("roleCode") ? text(node, "roleCode") : text(node, "role"));
+                } catch (IOException e) {
+                    row.setError("invalid json");
+                }
+                if (!batch.add(row)) {
+                    break;
+                }
+            }
+        }
+        return batch.finish();
+    }
+
+    private void processChunk(List<Pending> chunk) {
+        List<String> names = new ArrayList<>(chunk.size());
+        for (Pending p : chunk) {
+            names.add(p.username);
+        }
+        Set<String> existing = new HashSet<>();
+        for (String u : repository.findExistingUsernames(names)) {
+            existing.add(u.toLowerCase(Locale.ROOT));
+        }
+
+        List<Pending> toCreate = new ArrayList<>(chunk.size());
+        for (Pending p : chunk) {
+            if (existing.contains(p.username.toLowerCase(Locale.ROOT))) {
+                mark(p.result, "EXISTS", "username already exists");
+            } else {
+                toCreate.add(p);
+            }
+        }
+        if (toCreate.isEmpty()) {
+            return;
+        }
+
+        List<String> passwords = new ArrayList<>(toCreate.size());
+        for (Pending p : toCreate) {
+            passwords.add(p.row.getPassword());
+        }
+        List<String> hashes = passwordHasher.encodeAll(passwords);
+        for (int i = 0; i < toCreate.size(); i++) {
+            toCreate.get(i).passwordHash = hashes.get(i);
+        }
+
+        Map<Pending, Long> created = transactionTemplate.execute(status -> {
+            List<SysUser> users = new ArrayList<>(toCreate.size());
+            List<String> createNames = new ArrayList<>(toCreate.size());
+            for (Pending p : toCreate) {
+                SysUser u = new SysUser();
+                u.setUsername(p.username);
+                u.setPasswordHash(p.passwordHash);
+                u.setRealName(p.row.getRealName() == null || p.row.getRealName().isBlank() ? null : p.row.getRealName().trim());
+                u.setStatus("ACTIVE");
+                u.setDeleted(0);
+                users.add(u);
+                createNames.add(p.username);
+            }
+            repository.batchInsertIgnore(users);
+
+            Map<String, SysUser> stored = new HashMap<>();
+            for (SysUser u : repository.findByUsernames(createNames)) {
+                stored.put(u.getUsername().toLowerCase(Locale.ROOT), u);
+            }
+            Map<Pending, Long> ids = new HashMap<>();
+            List<long[]> bindings = new ArrayList<>(toCreate.size());
+            for (Pending p : toCreate) {
+                SysUser u = stored.get(p.username.toLowerCase(Locale.ROOT));
+                if (u != null && p.passwordHash.equals(u.getPasswordHash())) {
+                    bindings.add(new long[]{u.getId(), p.roleId});
+                    ids.put(p, u.getId());
+                }
+            }
+            repository.batchBindRoles(bindings);
+            permissionVersion.bumpUsers(ids.values());
+            return ids;
+        });
+
+        for (Pending p : toCreate) {
+            Long id = created == null ? null : created.get(p);
+            if (id != null) {
+                p.result.setUserId(id);
+                mark(p.result, "CREATED", null);
+            } else {
+                mark(p.result, "EXISTS", "username already exists");
+            }
+        }
+    }
+
+    private static String validate(String username, String password, String realName) {
+        if (username == null || username.isEmpty()) {
+            return "username required";
+        }
+        if (username.length() < 3 || username.length() > 64) {
+            return "username length 3-64";
+        }
+        if (password == null || password.isEmpty()) {
+            return "password required";
+        }
+        if (password.length() < 6 || password.length() > 64) {
+            return "password length 6-64";
+        }
+        if (realName != null && realName.trim().length() > 64) {
+            return "realName too long";
+        }
+        return null;
+    }
+
+    private static void mark(SysUserBulkRowVo result, String status, String message) {
+        result.setStatus(status);
+        result.setMessage(message);
+    }
+
+    private static String field(List<String> record, Integer index) {
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        return record.get(index);
+    }
+
+    private static String text(JsonNode node, String name) {
+        JsonNode v = node.get(name);
+        return v == null || v.isNull() ? null : v.asText();
+    }
+
+    /**
+     * One upload in progress: per-row results plus the current chunk of rows waiting to be written.
+     */
+    private final class Batch {
+
+        private final String defaultRole;
+        private final List<SysUserBulkRowVo> results = new ArrayList<>();
+        private final Set<String> seen = new HashSet<>();
+        private final Map<String, Long> roleIds = new HashMap<>();
+        private final Set<String> deniedRoles = new HashSet<>();
+        private final Set<String> callerPermissions;
+        private final List<Pending> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        private Batch(String defaultRoleCode) {
+            this.defaultRole = defaultRoleCode == null || defaultRoleCode.isBlank() ? "USER" : defaultRoleCode.trim();
+            UserPrincipal caller = SecurityUtils.currentUser();
+            this.callerPermissions = caller == null ? Set.of() : new HashSet<>(repository.findPermissionCodesByUserId(caller.getId()));
+        }
+
+        /**
+         * Returns {@code false} once the row limit is reached; that row is reported and the rest are not read.
+         */
+        private boolean add(SysUserImportRow row) {
+            String username = row.getUsername() == null ? null : row.getUsername().trim();
+            SysUserBulkRowVo result = new SysUserBulkRowVo(row.getLine(), username);
+            results.add(result);
+            if (results.size() > MAX_ROWS) {
+                mark(result, "INVALID", "too many rows, max " + MAX_ROWS + "; the rest of the upload was not read");
+                return false;
+            }
+
+            String error = row.getError() != null ? row.getError() : validate(username, row.getPassword(), row.getRealName());
+            if (error != null) {
+                mark(result, "INVALID", error);
+                return true;
+            }
+            if (!seen.add(username.toLowerCase(Locale.ROOT))) {
+                mark(result, "DUPLICATE", "duplicate username in batch");
+                return true;
+            }
+            String roleCode = row.getRoleCode() == null || row.getRoleCode().isBlank() ? defaultRole : row.getRoleCode().trim();
+            chunk.add(new Pending(row, username, roleCode, result));
+            if (chunk.size() >= CHUNK_SIZE) {
+                flush();
+            }
+            return true;
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            Set<String> unknown = new LinkedHashSet<>();
+            for (Pending p : chunk) {
+                if (!roleIds.containsKey(p.roleCode)) {
+                    unknown.add(p.roleCode);
+                }
+            }
+            if (!unknown.isEmpty()) {
+                Map<String, Long> found = repository.findRoleIdsByCodes(unknown);
+                Map<String, Set<String>> permissions = repository.findPermissionCodesByRoleCodes(unknown);
+                for (String code : unknown) {
+                    roleIds.put(code, found.get(code));
+                    if (!callerPermissions.containsAll(permissions.getOrDefault(code, Set.of()))) {
+                        deniedRoles.add(code);
+                    }
+                }
+            }
+            List<Pending> ready = new ArrayList<>(chunk.size());
+            for (Pending p : chunk) {
+                Long roleId = roleIds.get(p.roleCode);
+                if (roleId == null) {
+                    mark(p.result, "INVALID", "role not found: " + p.roleCode);
+                } else if (deniedRoles.contains(p.roleCode)) {
+                    mark(p.result, "INVALID", "role not allowed: " + p.roleCode);
+                } else {
+                    p.roleId = roleId;
+                    ready.add(p);
+                }
+            }
+            chunk.clear();
+            if (ready.isEmpty()) {
+                return;
+            }
+            try {
+                processChunk(ready);
+            } catch (RuntimeException e) {
+                log.warn("bulk user chunk failed: {}", e.getMessage());
+                String message = e instanceof TooManyRequestsException ? "server busy, retry later" : "insert failed";
+                for (Pending p : ready) {
+                    if (p.result.getStatus() == null) {
+                        mark(p.result, "FAILED", message);
+                    }
+                }
+            }
+        }
+
+        private SysUserBulkResultVo finish() {
+            flush();
+            SysUserBulkResultVo vo = new SysUserBulkResultVo();
+            vo.setTotal(results.size());
+            for (SysUserBulkRowVo r : results) {
+                if ("CREATED".equals(r.getStatus())) {
+                    vo.setCreated(vo.getCreated() + 1);
+                } else if ("EXISTS".equals(r.getStatus()) || "DUPLICATE".equals(r.getStatus())) {
+                    vo.setSkipped(vo.getSkipped() + 1);
+                } else {
+                    vo.setFailed(vo.getFailed() + 1);
+                }
+            }
+            vo.setRows(results);
+            return vo;
+        }
+    }
+
+    private static final class Pending {
+
+        private final SysUserImportRow row;
+        private final String username;
+        private final String roleCode;
+        private final SysUserBulkRowVo result;
+        private Long roleId;
+        private String passwordHash;
+
+        private Pending(SysUserImportRow row, String username, String roleCode, SysUserBulkRowVo result) {
+            this.row = row;
+            this.username = username;
+            this.roleCode = roleCode;
+            this.result = result;
+        }
+    }
+}
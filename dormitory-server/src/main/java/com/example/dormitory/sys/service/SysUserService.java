@@ -1,39 +1,55 @@
 package com.example.dormitory.sys.service;
 
 import com.example.dormitory.common.BizException;
+import com.example.dormitory.security.LoginThrottle;
+import com.example.dormitory.security.PasswordHasher;
+import com.example.dormitory.security.PermissionVersion;
 import com.example.dormitory.security.UserPrincipal;
 import com.example.dormitory.sys.model.SysUser;
 import com.example.dormitory.sys.repository.SysUserRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class SysUserService {
 
     private final SysUserRepository repository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final PermissionVersion permissionVersion;
+    private final LoginThrottle loginThrottle;
 
-    public SysUserService(SysUserRepository repository, PasswordEncoder passwordEncoder) {
+    public SysUserService(SysUserRepository repository, PasswordHasher passwordHasher, PermissionVersion permissionVersion,
+                          LoginThrottle loginThrottle) {
         this.repository = repository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
+        this.permissionVersion = permissionVersion;
+        this.loginThrottle = loginThrottle;
     }
 
     public SysUser authenticate(String username, String password) {
-        SysUser user = repository.findByUsername(username);
-        if (user == null) {
-            return null;
-        }
-        if (user.getDeleted() != null && user.getDeleted() == 1) {
-            return null;
-        }
-        if (user.getStatus() != null && !"ACTIVE".equalsIgnoreCase(user.getStatus())) {
-            return null;
+        return authenticate(username, password, null);
+    }
+
+    public SysUser authenticate(String username, String password, String clientIp) {
+        LoginThrottle.Attempt attempt = loginThrottle.acquire(username, clientIp);
+        SysUser user;
+        boolean matched;
+        try {
+            user = repository.findByUsername(username);
+            matched = user != null
+                    && (user.getDeleted() == null || user.getDeleted() != 1)
+                    && (user.getStatus() == null || "ACTIVE".equalsIgnoreCase(user.getStatus()))
+                    && passwordHasher.matches(password, user.getPasswordHash());
+        } catch (RuntimeException e) {
+            loginThrottle.release(attempt);
+            throw e;
         }
-        if (!passwordEncoder.matches(password, user.getPasswordHash())) {
+        if (!matched) {
             return null;
         }
+        loginThrottle.recordSuccess(attempt);
         return user;
     }
 
@@ -53,7 +69,7 @@ public class SysUserService {
 
         SysUser user = new SysUser();
         user.setUsername(u);
-        user.setPasswordHash(passwordEncoder.encode(password));
+        user.setPasswordHash(passwordHasher.encode(password));
         user.setRealName(realName == null || realName.trim().isEmpty() ? null : realName.trim());
         user.setStatus("ACTIVE");
         user.setDeleted(0);
@@ -63,6 +79,7 @@ public class SysUserService {
             throw new BizException(50000, "register failed");
         }
         repository.bindRoleByCode(id, "USER");
+        permissionVersion.bumpUser(id);
         user.setId(id);
         return user;
     }
@@ -96,6 +113,10 @@ public class SysUserService {
         return repository.findPermissionCodesByUserId(userId);
     }
 
+    public Map<Long, String> getPermissionDictionary() {
+        return repository.findPermissionDictionary();
+    }
+
     public List<SysUser> listUsers() {
         return repository.listUsers();
     }
@@ -0,0 +1,52 @@
+package com.example.dormitory.sys.vo;
+
+import java.util.List;
+
+public class SysUserBulkResultVo {
+
+    private int total;
+    private int created;
+    private int skipped;
+    private int failed;
+    private List<SysUserBulkRowVo> rows;
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<SysUserBulkRowVo> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<SysUserBulkRowVo> rows) {
+        this.rows = rows;
+    }
+}
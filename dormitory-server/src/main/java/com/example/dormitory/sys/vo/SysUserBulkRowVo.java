@@ -0,0 +1,58 @@
+package com.example.dormitory.sys.vo;
+
+public class SysUserBulkRowVo {
+
+    private long line;
+    private String username;
+    private String status;
+    private Long userId;
+    private String message;
+
+    public SysUserBulkRowVo() {
+    }
+
+    public SysUserBulkRowVo(long line, String username) {
+        this.line = line;
+        this.username = username;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
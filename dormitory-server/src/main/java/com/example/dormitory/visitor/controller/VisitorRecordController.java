@@ -2,9 +2,13 @@ package com.example.dormitory.visitor.controller;
 
 import com.example.dormitory.common.ApiResponse;
 import com.example.dormitory.common.PageResult;
+import com.example.dormitory.common.export.ExportFormat;
+import com.example.dormitory.common.export.ExportWriter;
 import com.example.dormitory.visitor.dto.CreateVisitorRecordRequest;
 import com.example.dormitory.visitor.service.VisitorRecordService;
 import com.example.dormitory.visitor.vo.VisitorRecordVo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,14 +19,18 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/api/v1/visitors")
 public class VisitorRecordController {
 
     private final VisitorRecordService service;
+    private final ObjectMapper objectMapper;
 
-    public VisitorRecordController(VisitorRecordService service) {
+    public VisitorRecordController(VisitorRecordService service, ObjectMapper objectMapper) {
         this.service = service;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -36,9 +44,28 @@ public class VisitorRecordController {
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer pageSize,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(required = false) String sortOrder
+            @RequestParam(required = false) String sortOrder,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Boolean withTotal
     ) {
-        return ApiResponse.ok(service.list(status, keyword, fromAt, toAt, studentId, page, pageSize, sortBy, sortOrder));
+        return ApiResponse.ok(service.list(status, keyword, fromAt, toAt, studentId, page, pageSize, sortBy, sortOrder, cursor, withTotal));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('visitor:record:read')")
+    public void export(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String fromAt,
+            @RequestParam(required = false) String toAt,
+            @RequestParam(required = false) Long studentId,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) Boolean gzip,
+            HttpServletResponse response
+    ) throws IOException {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        ExportWriter.open(response, "visitors", exportFormat, Boolean.TRUE.equals(gzip), VisitorRecordService.EXPORT_COLUMNS, objectMapper)
+                .write(writer -> service.export(status, keyword, fromAt, toAt, studentId, writer));
     }
 
     @GetMapping("/{id}")
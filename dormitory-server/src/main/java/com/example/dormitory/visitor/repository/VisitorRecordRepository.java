@@ -1,90 +1,115 @@
 package com.example.dormitory.visitor.repository;
 
+import com.example.dormitory.common.CountCache;
+import com.example.dormitory.common.JdbcRows;
+import com.example.dormitory.common.PageCursor;
+import com.example.dormitory.common.SortSpec;
 import com.example.dormitory.visitor.model.VisitorRecord;
 import com.example.dormitory.visitor.vo.VisitorRecordVo;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Repository
 public class VisitorRecordRepository {
 
+    private static final String TABLE = "visitor_record";
+    private static final List<String> COUNT_TABLES = List.of("visitor_record", "student");
+
+    private static final String COLUMNS =
+            "id, student_id, visitor_name, id_no, phone, visit_reason, visit_at, leave_at, status, deleted, created_by, updated_by";
+    private static final String VO_SELECT =
+            "SELECT v.id, v.student_id, s.student_no, s.name AS student_name, v.visitor_name, v.id_no, v.phone, v.visit_reason, v.visit_at, v.leave_at, v.status, v.created_at " +
+                    "FROM visitor_record v " +
+                    "LEFT JOIN student s ON s.id=v.student_id ";
+
+    private static final RowMapper<VisitorRecord> ROW_MAPPER = (rs, rowNum) -> {
+        VisitorRecord r = new VisitorRecord();
+        r.setId(rs.getLong(1));
+        r.setStudentId(JdbcRows.getLong(rs, 2));
+        r.setVisitorName(rs.getString(3));
+        r.setIdNo(rs.getString(4));
+        r.setPhone(rs.getString(5));
+        r.setVisitReason(rs.getString(6));
+        r.setVisitAt(JdbcRows.getLocalDateTime(rs, 7));
+        r.setLeaveAt(JdbcRows.getLocalDateTime(rs, 8));
+        r.setStatus(rs.getString(9));
+        r.setDeleted(rs.getInt(10));
+        r.setCreatedBy(JdbcRows.getLong(rs, 11));
+        r.setUpdatedBy(JdbcRows.getLong(rs, 12));
+        return r;
+    };
+
+    private static final RowMapper<VisitorRecordVo> VO_MAPPER = (rs, rowNum) -> {
+        VisitorRecordVo vo = new VisitorRecordVo();
+        vo.setId(rs.getLong(1));
+        vo.setStudentId(JdbcRows.getLong(rs, 2));
+        vo.setStudentNo(rs.getString(3));
+        vo.setStudentName(rs.getString(4));
+        vo.setVisitorName(rs.getString(5));
+        vo.setIdNo(rs.getString(6));
+        vo.setPhone(rs.getString(7));
+        vo.setVisitReason(rs.getString(8));
+        vo.setVisitAt(JdbcRows.getLocalDateTime(rs, 9));
+        vo.setLeaveAt(JdbcRows.getLocalDateTime(rs, 10));
+        vo.setStatus(rs.getString(11));
+        vo.setCreatedAt(JdbcRows.getLocalDateTime(rs, 12));
+        return vo;
+    };
+
+    private static final String SEARCH_DOCUMENT_SELECT =
+            "SELECT v.id, v.visitor_name, v.id_no, v.phone, v.visit_reason, s.student_no, s.name AS student_name " +
+                    "FROM visitor_record v " +
+                    "LEFT JOIN student s ON s.id=v.student_id ";
+
+    private static final RowMapper<VisitorRecordVo> SEARCH_DOCUMENT_MAPPER = (rs, rowNum) -> {
+        VisitorRecordVo vo = new VisitorRecordVo();
+        vo.setId(rs.getLong(1));
+        vo.setVisitorName(rs.getString(2));
+        vo.setIdNo(rs.getString(3));
+        vo.setPhone(rs.getString(4));
+        vo.setVisitReason(rs.getString(5));
+        vo.setStudentNo(rs.getString(6));
+        vo.setStudentName(rs.getString(7));
+        return vo;
+    };
+
     private final JdbcTemplate jdbcTemplate;
+    private final CountCache countCache;
 
-    public VisitorRecordRepository(JdbcTemplate jdbcTemplate) {
+    public VisitorRecordRepository(JdbcTemplate jdbcTemplate, CountCache countCache) {
         this.jdbcTemplate = jdbcTemplate;
+        this.countCache = countCache;
     }
 
     public VisitorRecord findById(Long id) {
         List<VisitorRecord> list = jdbcTemplate.query(
-                "SELECT id, student_id, visitor_name, id_no, phone, visit_reason, visit_at, leave_at, status, deleted, created_by, updated_by " +
-                        "FROM visitor_record WHERE id=? AND deleted=0 LIMIT 1",
-                (rs, rowNum) -> {
-                    VisitorRecord r = new VisitorRecord();
-                    r.setId(rs.getLong("id"));
-                    long sid = rs.getLong("student_id");
-                    r.setStudentId(rs.wasNull() ? null : sid);
-                    r.setVisitorName(rs.getString("visitor_name"));
-                    r.setIdNo(rs.getString("id_no"));
-                    r.setPhone(rs.getString("phone"));
-                    r.setVisitReason(rs.getString("visit_reason"));
-                    Timestamp va = rs.getTimestamp("visit_at");
-                    r.setVisitAt(va == null ? null : va.toLocalDateTime());
-                    Timestamp la = rs.getTimestamp("leave_at");
-                    r.setLeaveAt(la == null ? null : la.toLocalDateTime());
-                    r.setStatus(rs.getString("status"));
-                    r.setDeleted(rs.getInt("deleted"));
-                    long cb = rs.getLong("created_by");
-                    r.setCreatedBy(rs.wasNull() ? null : cb);
-                    long ub = rs.getLong("updated_by");
-                    r.setUpdatedBy(rs.wasNull() ? null : ub);
-                    return r;
-                },
+                "SELECT " + COLUMNS + " FROM visitor_record WHERE id=? AND deleted=0 LIMIT 1",
+                ROW_MAPPER,
                 id
         );
         return list.isEmpty() ? null : list.get(0);
     }
 
     public VisitorRecordVo findVoById(Long id) {
-        List<VisitorRecordVo> list = jdbcTemplate.query(
-                "SELECT v.id, v.student_id, s.student_no, s.name AS student_name, v.visitor_name, v.id_no, v.phone, v.visit_reason, v.visit_at, v.leave_at, v.status, v.created_at " +
-                        "FROM visitor_record v " +
-                        "LEFT JOIN student s ON s.id=v.student_id " +
-                        "WHERE v.id=? AND v.deleted=0 LIMIT 1",
-                (rs, rowNum) -> {
-                    VisitorRecordVo vo = new VisitorRecordVo();
-                    vo.setId(rs.getLong("id"));
-                    long sid = rs.getLong("student_id");
-                    vo.setStudentId(rs.wasNull() ? null : sid);
-                    vo.setStudentNo(rs.getString("student_no"));
-                    vo.setStudentName(rs.getString("student_name"));
-                    vo.setVisitorName(rs.getString("visitor_name"));
-                    vo.setIdNo(rs.getString("id_no"));
-                    vo.setPhone(rs.getString("phone"));
-                    vo.setVisitReason(rs.getString("visit_reason"));
-                    Timestamp va = rs.getTimestamp("visit_at");
-                    vo.setVisitAt(va == null ? null : va.toLocalDateTime());
-                    Timestamp la = rs.getTimestamp("leave_at");
-                    vo.setLeaveAt(la == null ? null : la.toLocalDateTime());
-                    vo.setStatus(rs.getString("status"));
-                    Timestamp ca = rs.getTimestamp("created_at");
-                    vo.setCreatedAt(ca == null ? null : ca.toLocalDateTime());
-                    return vo;
-                },
-                id
-        );
+        List<VisitorRecordVo> list = jdbcTemplate.query(VO_SELECT + "WHERE v.id=? AND v.deleted=0 LIMIT 1", VO_MAPPER, id);
         return list.isEmpty() ? null : list.get(0);
     }
 
-    public long count(String status, String keyword, LocalDateTime fromAt, LocalDateTime toAt, Long studentId) {
+    public long count(String status, String keyword, List<Long> keywordIds, LocalDateTime fromAt, LocalDateTime toAt, Long studentId) {
         StringBuilder sql = new StringBuilder(
                 "SELECT COUNT(*) FROM visitor_record v " +
                         "LEFT JOIN student s ON s.id=v.student_id " +
@@ -92,98 +117,38 @@ public class VisitorRecordRepository {
         );
         List<Object> args = new ArrayList<>();
 
-        if (status != null && !status.isBlank()) {
-            sql.append(" AND v.status=?");
-            args.add(status.trim());
-        }
-        if (studentId != null) {
-            sql.append(" AND v.student_id=?");
-            args.add(studentId);
-        }
-        if (fromAt != null) {
-            sql.append(" AND v.visit_at>=?");
-            args.add(Timestamp.valueOf(fromAt));
-        }
-        if (toAt != null) {
-            sql.append(" AND v.visit_at<=?");
-            args.add(Timestamp.valueOf(toAt));
-        }
-        if (keyword != null && !keyword.isBlank()) {
-            sql.append(" AND (v.visitor_name LIKE ? OR v.id_no LIKE ? OR v.phone LIKE ? OR v.visit_reason LIKE ? OR s.student_no LIKE ? OR s.name LIKE ?)");
-            String like = "%" + keyword.trim() + "%";
-            args.add(like);
-            args.add(like);
-            args.add(like);
-            args.add(like);
-            args.add(like);
-            args.add(like);
-        }
+        appendFilters(sql, args, status, keyword, keywordIds, fromAt, toAt, studentId);
 
-        Long cnt = jdbcTemplate.queryForObject(sql.toString(), args.toArray(), Long.class);
-        return cnt == null ? 0 : cnt;
+        return countCache.count(COUNT_TABLES, sql.toString(), args, () -> {
+            Long cnt = jdbcTemplate.queryForObject(sql.toString(), args.toArray(), Long.class);
+            return cnt == null ? 0 : cnt;
+        });
     }
 
-    public List<VisitorRecordVo> list(String status, String keyword, LocalDateTime fromAt, LocalDateTime toAt, Long studentId,
-                                     String orderBy, int limit, int offset) {
-        StringBuilder sql = new StringBuilder(
-                "SELECT v.id, v.student_id, s.student_no, s.name AS student_name, v.visitor_name, v.id_no, v.phone, v.visit_reason, v.visit_at, v.leave_at, v.status, v.created_at " +
-                        "FROM visitor_record v " +
-                        "LEFT JOIN student s ON s.id=v.student_id " +
-                        "WHERE v.deleted=0"
-        );
+    public List<VisitorRecordVo> list(String status, String keyword, List<Long> keywordIds, LocalDateTime fromAt, LocalDateTime toAt, Long studentId,
+                                     SortSpec<?> sort, PageCursor after, int limit, int offset) {
+        StringBuilder sql = new StringBuilder(VO_SELECT + "WHERE v.deleted=0");
         List<Object> args = new ArrayList<>();
 
-        if (status != null && !status.isBlank()) {
-            sql.append(" AND v.status=?");
-            args.add(status.trim());
-        }
-        if (studentId != null) {
-            sql.append(" AND v.student_id=?");
-            args.add(studentId);
-        }
-        if (fromAt != null) {
-            sql.append(" AND v.visit_at>=?");
-            args.add(Timestamp.valueOf(fromAt));
-        }
-        if (toAt != null) {
-            sql.append(" AND v.visit_at<=?");
-            args.add(Timestamp.valueOf(toAt));
-        }
-        if (keyword != null && !keyword.isBlank()) {
-            sql.append(" AND (v.visitor_name LIKE ? OR v.id_no LIKE ? OR v.phone LIKE ? OR v.visit_reason LIKE ? OR s.student_no LIKE ? OR s.name LIKE ?)");
-            String like = "%" + keyword.trim() + "%";
-            args.add(like);
-            args.add(like);
-            args.add(like);
-            args.add(like);
-            args.add(like);
-            args.add(like);
-        }
+        appendFilters(sql, args, status, keyword, keywordIds, fromAt, toAt, studentId);
 
-        sql.append(" ORDER BY ").append(orderBy).append(" LIMIT ? OFFSET ?");
+        if (after != null) {
+            after.appendSeek(sql, args, sort);
+        }
+        sql.append(" ORDER BY ").append(sort.orderBy()).append(" LIMIT ? OFFSET ?");
         args.add(limit);
         args.add(offset);
 
-        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
-            VisitorRecordVo vo = new VisitorRecordVo();
-            vo.setId(rs.getLong("id"));
-            long sid = rs.getLong("student_id");
-            vo.setStudentId(rs.wasNull() ? null : sid);
-            vo.setStudentNo(rs.getString("student_no"));
-            vo.setStudentName(rs.getString("student_name"));
-            vo.setVisitorName(rs.getString("visitor_name"));
-            vo.setIdNo(rs.getString("id_no"));
-            vo.setPhone(rs.getString("phone"));
-            vo.setVisitReason(rs.getString("visit_reason"));
-            Timestamp va = rs.getTimestamp("visit_at");
-            vo.setVisitAt(va == null ? null : va.toLocalDateTime());
-            Timestamp la = rs.getTimestamp("leave_at");
-            vo.setLeaveAt(la == null ? null : la.toLocalDateTime());
-            vo.setStatus(rs.getString("status"));
-            Timestamp ca = rs.getTimestamp("created_at");
-            vo.setCreatedAt(ca == null ? null : ca.toLocalDateTime());
-            return vo;
-        }, args.toArray());
+        return jdbcTemplate.query(sql.toString(), VO_MAPPER, args.toArray());
+    }
+
+    public void export(String status, String keyword, List<Long> keywordIds, LocalDateTime fromAt, LocalDateTime toAt, Long studentId,
+                       Consumer<VisitorRecordVo> consumer) {
+        StringBuilder sql = new StringBuilder(VO_SELECT + "WHERE v.deleted=0");
+        List<Object> args = new ArrayList<>();
+        appendFilters(sql, args, status, keyword, keywordIds, fromAt, toAt, studentId);
+        sql.append(" ORDER BY v.id");
+        JdbcRows.stream(jdbcTemplate, sql.toString(), args, VO_MAPPER, consumer);
     }
 
     public Long insert(VisitorRecord r) {
@@ -222,12 +187,13 @@ public class VisitorRecordRepository {
             }
             return ps;
         }, keyHolder);
+        countCache.invalidate(TABLE);
         Number key = keyHolder.getKey();
         return key == null ? null : key.longValue();
     }
 
     public int leaveIfIn(Long id, LocalDateTime leaveAt, Long operatorUserId) {
-        return jdbcTemplate.update(
+        return countCache.afterWrite(TABLE, jdbcTemplate.update(
                 "UPDATE visitor_record SET status='OUT', leave_at=?, updated_by=? WHERE id=? AND deleted=0 AND status='IN' AND leave_at IS NULL",
                 ps -> {
                     ps.setTimestamp(1, Timestamp.valueOf(leaveAt));
@@ -238,6 +204,72 @@ public class VisitorRecordRepository {
                     }
                     ps.setLong(3, id);
                 }
+        ));
+    }
+
+    public void scanSearchDocuments(Consumer<VisitorRecordVo> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    SEARCH_DOCUMENT_SELECT + "WHERE v.deleted=0 ORDER BY v.id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(SEARCH_DOCUMENT_MAPPER.mapRow(rs, 0)));
+    }
+
+    public List<VisitorRecordVo> findSearchDocumentsByStudentNos(Collection<String> studentNos) {
+        if (studentNos.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                SEARCH_DOCUMENT_SELECT + "WHERE v.deleted=0 AND s.student_no IN (" + placeholders(studentNos.size()) + ") ORDER BY v.id",
+                SEARCH_DOCUMENT_MAPPER,
+                studentNos.toArray()
         );
     }
+
+    private static void appendFilters(StringBuilder sql, List<Object> args, String status, String keyword, List<Long> keywordIds,
+                                      LocalDateTime fromAt, LocalDateTime toAt, Long studentId) {
+        if (status != null && !status.isBlank()) {
+            sql.append(" AND v.status=?");
+            args.add(status.trim());
+        }
+        if (studentId != null) {
+            sql.append(" AND v.student_id=?");
+            args.add(studentId);
+        }
+        if (fromAt != null) {
+            sql.append(" AND v.visit_at>=?");
+            args.add(Timestamp.valueOf(fromAt));
+        }
+        if (toAt != null) {
+            sql.append(" AND v.visit_at<=?");
+            args.add(Timestamp.valueOf(toAt));
+        }
+        if (keywordIds != null && !keywordIds.isEmpty()) {
+            sql.append(" AND v.id IN (").append(placeholders(keywordIds.size())).append(")");
+            args.addAll(keywordIds);
+        }
+        if (keyword != null && !keyword.isBlank()) {
+            sql.append(" AND (v.visitor_name LIKE ? OR v.id_no LIKE ? OR v.phone LIKE ? OR v.visit_reason LIKE ? OR s.student_no LIKE ? OR s.name LIKE ?)");
+            String like = "%" + keyword.trim() + "%";
+            args.add(like);
+            args.add(like);
+            args.add(like);
+            args.add(like);
+            args.add(like);
+            args.add(like);
+        }
+    }
+
+    private static String placeholders(int n) {
+        StringBuilder sb = new StringBuilder(n * 2);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
 }
@@ -1,7 +1,11 @@
 package com.example.dormitory.visitor.service;
 
+import com.example.dormitory.common.AfterCommit;
 import com.example.dormitory.common.BizException;
+import com.example.dormitory.common.PageCursor;
 import com.example.dormitory.common.PageResult;
+import com.example.dormitory.common.SortSpec;
+import com.example.dormitory.common.export.ExportColumn;
 import com.example.dormitory.security.SecurityUtils;
 import com.example.dormitory.security.UserPrincipal;
 import com.example.dormitory.student.repository.StudentRepository;
@@ -15,34 +19,75 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class VisitorRecordService {
 
+    public static final List<ExportColumn<VisitorRecordVo>> EXPORT_COLUMNS = List.of(
+            ExportColumn.of("id", VisitorRecordVo::getId),
+            ExportColumn.of("studentId", VisitorRecordVo::getStudentId),
+            ExportColumn.of("studentNo", VisitorRecordVo::getStudentNo),
+            ExportColumn.of("studentName", VisitorRecordVo::getStudentName),
+            ExportColumn.of("visitorName", VisitorRecordVo::getVisitorName),
+            ExportColumn.of("idNo", VisitorRecordVo::getIdNo),
+            ExportColumn.of("phone", VisitorRecordVo::getPhone),
+            ExportColumn.of("visitReason", VisitorRecordVo::getVisitReason),
+            ExportColumn.of("visitAt", VisitorRecordVo::getVisitAt),
+            ExportColumn.of("leaveAt", VisitorRecordVo::getLeaveAt),
+            ExportColumn.of("status", VisitorRecordVo::getStatus),
+            ExportColumn.of("createdAt", VisitorRecordVo::getCreatedAt)
+    );
+
     private final VisitorRecordRepository repository;
     private final StudentRepository studentRepository;
+    private final VisitorSearchIndex searchIndex;
 
-    public VisitorRecordService(VisitorRecordRepository repository, StudentRepository studentRepository) {
+    public VisitorRecordService(VisitorRecordRepository repository, StudentRepository studentRepository,
+                                VisitorSearchIndex searchIndex) {
         this.repository = repository;
         this.studentRepository = studentRepository;
+        this.searchIndex = searchIndex;
     }
 
+    @Transactional(readOnly = true)
     public PageResult<VisitorRecordVo> list(String status, String keyword, String fromAt, String toAt, Long studentId,
-                                           Integer page, Integer pageSize, String sortBy, String sortOrder) {
+                                           Integer page, Integer pageSize, String sortBy, String sortOrder, String cursor, Boolean withTotal) {
         int p = page == null || page < 1 ? 1 : page;
         int ps = pageSize == null || pageSize < 1 ? 20 : Math.min(pageSize, 200);
-        int offset = (p - 1) * ps;
 
         String st = normalizeStatus(status);
         LocalDateTime from = parseDateTime(fromAt, "fromAt");
         LocalDateTime to = parseDateTime(toAt, "toAt");
 
-        String orderBy = resolveOrderBy(sortBy, sortOrder);
-        long total = repository.count(st, keyword, from, to, studentId);
-        List<VisitorRecordVo> list = repository.list(st, keyword, from, to, studentId, orderBy, ps, offset);
-        return new PageResult<>(list, p, ps, total);
+        SortSpec<VisitorRecordVo> sort = resolveSort(sortBy, sortOrder);
+        PageCursor after = PageCursor.decode(cursor, sort);
+        int offset = cursor == null ? (p - 1) * ps : 0;
+        boolean includeTotal = withTotal == null || withTotal;
+        List<Long> keywordIds = keyword == null || keyword.isBlank() ? null : searchIndex.search(keyword.trim());
+        Long total = includeTotal ? repository.count(st, keyword, keywordIds, from, to, studentId) : null;
+        List<VisitorRecordVo> list = repository.list(st, keyword, keywordIds, from, to, studentId, sort, after, ps + 1, offset);
+        boolean hasMore = list.size() > ps;
+        if (hasMore) {
+            list = list.subList(0, ps);
+        }
+        PageResult<VisitorRecordVo> result = new PageResult<>(list, p, ps, total);
+        result.setHasMore(hasMore);
+        if (cursor != null && hasMore) {
+            result.setNextCursor(PageCursor.encode(sort, list.get(list.size() - 1)));
+        }
+        return result;
+    }
+
+    public void export(String status, String keyword, String fromAt, String toAt, Long studentId, Consumer<VisitorRecordVo> consumer) {
+        String st = normalizeStatus(status);
+        LocalDateTime from = parseDateTime(fromAt, "fromAt");
+        LocalDateTime to = parseDateTime(toAt, "toAt");
+        List<Long> keywordIds = keyword == null || keyword.isBlank() ? null : searchIndex.search(keyword.trim());
+        repository.export(st, keyword, keywordIds, from, to, studentId, consumer);
     }
 
+    @Transactional(readOnly = true)
     public VisitorRecordVo get(Long id) {
         VisitorRecordVo vo = repository.findVoById(id);
         if (vo == null) {
@@ -80,7 +125,9 @@ public class VisitorRecordService {
         if (id == null) {
             throw new BizException(50000, "create visitor record failed");
         }
-        return get(id);
+        VisitorRecordVo created = get(id);
+        AfterCommit.run(() -> searchIndex.add(created));
+        return created;
     }
 
     @Transactional
@@ -130,26 +177,17 @@ public class VisitorRecordService {
         }
     }
 
-    private String resolveOrderBy(String sortBy, String sortOrder) {
-        String column;
+    private SortSpec<VisitorRecordVo> resolveSort(String sortBy, String sortOrder) {
+        boolean asc = "asc".equalsIgnoreCase(sortOrder);
         if ("visitAt".equalsIgnoreCase(sortBy) || "visit_at".equalsIgnoreCase(sortBy)) {
-            column = "v.visit_at";
-        } else if ("leaveAt".equalsIgnoreCase(sortBy) || "leave_at".equalsIgnoreCase(sortBy)) {
-            column = "v.leave_at";
-        } else if ("createdAt".equalsIgnoreCase(sortBy) || "created_at".equalsIgnoreCase(sortBy)) {
-            column = "v.created_at";
-        } else if ("id".equalsIgnoreCase(sortBy)) {
-            column = "v.id";
-        } else {
-            column = "v.id";
-        }
-
-        String order = "desc";
-        if ("asc".equalsIgnoreCase(sortOrder)) {
-            order = "asc";
-        } else if ("desc".equalsIgnoreCase(sortOrder)) {
-            order = "desc";
-        }
-        return column + " " + order;
+            return new SortSpec<>("visitAt", "v.visit_at", "v.id", asc, VisitorRecordVo::getVisitAt, VisitorRecordVo::getId);
+        }
+        if ("leaveAt".equalsIgnoreCase(sortBy) || "leave_at".equalsIgnoreCase(sortBy)) {
+            return new SortSpec<>("leaveAt", "v.leave_at", "v.id", asc, VisitorRecordVo::getLeaveAt, VisitorRecordVo::getId);
+        }
+        if ("createdAt".equalsIgnoreCase(sortBy) || "created_at".equalsIgnoreCase(sortBy)) {
+            return new SortSpec<>("createdAt", "v.created_at", "v.id", asc, VisitorRecordVo::getCreatedAt, VisitorRecordVo::getId);
+        }
+        return new SortSpec<>("id", "v.id", "v.id", asc, VisitorRecordVo::getId, VisitorRecordVo::getId);
     }
 }
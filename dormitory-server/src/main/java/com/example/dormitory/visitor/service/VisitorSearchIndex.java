@@ -0,0 +1,331 @@
+package com.example.dormitory.visitor.service;
+
+import com.example.dormitory.visitor.repository.VisitorRecordRepository;
+import com.example.dormitory.visitor.vo.VisitorRecordVo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Unigram/bigram inverted index over the visitor keyword fields, case- and accent-folded. Lookups return a candidate
+ * id superset which the caller still filters with the original LIKE predicates. A miss is never trusted, since the
+ * database collation may match text the folding does not; student edits re-index that student's records.
+ */
+@Component
+public class VisitorSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(VisitorSearchIndex.class);
+
+    static final int MAX_CANDIDATES = 2000;
+    private static final int REFRESH_CHUNK = 1000;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final VisitorRecordRepository repository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Integer, Postings> postings = new HashMap<>();
+    private List<VisitorRecordVo> pendingDuringRebuild;
+    private boolean ready;
+    private boolean disabled;
+
+    public VisitorSearchIndex(VisitorRecordRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        Gauge.builder("visitor.search.grams", this, VisitorSearchIndex::gramCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return candidate ids in ascending order, or {@code null} when the index cannot help (not built yet,
+     * unsearchable keyword, no candidates or too many) and the caller should scan instead.
+     */
+    public List<Long> search(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        int[] grams = queryGrams(keyword);
+        if (grams.length == 0) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return null;
+            }
+            Postings[] lists = new Postings[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                Postings p = postings.get(grams[i]);
+                if (p == null) {
+                    return null;
+                }
+                lists[i] = p;
+            }
+            Arrays.sort(lists, Comparator.comparingInt(p -> p.size));
+            int[] acc = Arrays.copyOf(lists[0].ids, lists[0].size);
+            int n = acc.length;
+            for (int i = 1; i < lists.length && n > 0; i++) {
+                n = intersect(acc, n, lists[i]);
+            }
+            if (n == 0 || n > MAX_CANDIDATES) {
+                return null;
+            }
+            List<Long> ids = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                ids.add((long) acc[i]);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(VisitorRecordVo vo) {
+        if (vo == null || vo.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(vo);
+            }
+            if (ready && !index(postings, vo)) {
+                disable();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes the current name and number of the given students on their visitor records. Grams of the old values stay
+     * until the next rebuild, which only widens the candidate set.
+     */
+    public void refreshStudents(Collection<String> studentNos) {
+        List<String> nos = new ArrayList<>(studentNos);
+        for (int from = 0; from < nos.size(); from += REFRESH_CHUNK) {
+            List<String> chunk = nos.subList(from, Math.min(nos.size(), from + REFRESH_CHUNK));
+            try {
+                for (VisitorRecordVo vo : repository.findSearchDocumentsByStudentNos(chunk)) {
+                    add(vo);
+                }
+            } catch (Exception e) {
+                log.warn("refresh visitor search index for students failed: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.visitor-search.rebuild-millis:600000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (disabled) {
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long startedAt = System.currentTimeMillis();
+        Map<Integer, Postings> fresh = new HashMap<>();
+        boolean[] overflow = new boolean[1];
+        try {
+            repository.scanSearchDocuments(vo -> {
+                if (!index(fresh, vo)) {
+                    overflow[0] = true;
+                }
+            });
+        } catch (Exception e) {
+            log.warn("rebuild visitor search index failed: {}", e.getMessage());
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (VisitorRecordVo vo : pendingDuringRebuild) {
+                if (!index(fresh, vo)) {
+                    overflow[0] = true;
+                }
+            }
+            pendingDuringRebuild = null;
+            if (overflow[0]) {
+                disable();
+                return;
+            }
+            postings = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("visitor search index rebuilt: {} grams in {} ms", fresh.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    private int gramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void disable() {
+        log.warn("visitor ids exceed int range, keyword search falls back to LIKE scans");
+        disabled = true;
+        ready = false;
+        postings = new HashMap<>();
+    }
+
+    private static boolean index(Map<Integer, Postings> target, VisitorRecordVo vo) {
+        long id = vo.getId();
+        if (id > Integer.MAX_VALUE) {
+            return false;
+        }
+        GramBuffer buf = new GramBuffer();
+        collect(vo.getVisitorName(), buf, true);
+        collect(vo.getIdNo(), buf, true);
+        collect(vo.getPhone(), buf, true);
+        collect(vo.getVisitReason(), buf, true);
+        collect(vo.getStudentNo(), buf, true);
+        collect(vo.getStudentName(), buf, true);
+        for (int gram : buf.distinct()) {
+            target.computeIfAbsent(gram, g -> new Postings()).add((int) id);
+        }
+        return true;
+    }
+
+    static int[] queryGrams(String keyword) {
+        GramBuffer bigrams = new GramBuffer();
+        collect(keyword, bigrams, false);
+        if (bigrams.size > 0) {
+            return bigrams.distinct();
+        }
+        GramBuffer unigrams = new GramBuffer();
+        String text = fold(keyword);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                unigrams.add(c);
+            }
+        }
+        return unigrams.distinct();
+    }
+
+    /**
+     * Unigrams are the char value itself (below 0x10000); bigrams pack both chars into the upper and lower half, so
+     * the two key spaces never collide. Whitespace breaks a bigram run, mirroring how the keyword is split.
+     */
+    private static void collect(String text, GramBuffer out, boolean withUnigrams) {
+        if (text == null) {
+            return;
+        }
+        String s = fold(text);
+        char prev = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isWhitespace(c)) {
+                prev = 0;
+                continue;
+            }
+            if (withUnigrams) {
+                out.add(c);
+            }
+            if (prev != 0) {
+                out.add((prev << 16) | c);
+            }
+            prev = c;
+        }
+    }
+
+    private static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static int intersect(int[] acc, int n, Postings p) {
+        int out = 0;
+        int from = 0;
+        for (int k = 0; k < n && from < p.size; k++) {
+            int pos = Arrays.binarySearch(p.ids, from, p.size, acc[k]);
+            if (pos >= 0) {
+                acc[out++] = acc[k];
+                from = pos + 1;
+            } else {
+                from = -pos - 1;
+            }
+        }
+        return out;
+    }
+
+    private static final class Postings {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) {
+                    return;
+                }
+                insertAt(-pos - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        private void insertAt(int pos, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+    }
+
+    private static final class GramBuffer {
+
+        private int[] grams = new int[64];
+        private int size;
+
+        private void add(int gram) {
+            if (size == grams.length) {
+                grams = Arrays.copyOf(grams, size * 2);
+            }
+            grams[size++] = gram;
+        }
+
+        private int[] distinct() {
+            int[] sorted = Arrays.copyOf(grams, size);
+            Arrays.sort(sorted);
+            int n = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[n++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, n);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+-- Benchmark: repair_order keyword search, LIKE scan vs ngram FULLTEXT (V12)
+--
+-- IMPORTANT:
+-- - This script is NOT managed by Flyway (not under db/migration). Run it manually in dev/test only.
+-- - It scales the V7 demo repair orders up by cloning them with a DEMO_BENCH tag, runs both query shapes with
+--   EXPLAIN ANALYZE (MySQL 8.0.18+), then hard deletes the clones. Requires V7 and V12 to be applied.
+-- - Compare the "actual time" of the outer node for each pair; the LIKE queries are full scans, the MATCH queries
+--   should show a "Full-text index search" on ft_repair_title_description.
+
+SET @BENCH_TAG := 'DEMO_BENCH';
+SET @BENCH_COPIES := 100;   -- 1200 V7 orders x 100 = ~120k rows
+
+SET SESSION cte_max_recursion_depth = 100000;
+
+-- 1) scale up
+INSERT INTO repair_order (student_id, building_id, room_id, title, description, priority, status, assignee_user_id, deleted, created_at, updated_at)
+WITH RECURSIVE copies (c) AS (
+  SELECT 1
+  UNION ALL
+  SELECT c + 1 FROM copies WHERE c < @BENCH_COPIES
+)
+SELECT
+  ro.student_id,
+  ro.building_id,
+  ro.room_id,
+  CONCAT(@BENCH_TAG, '_', LPAD(copies.c, 3, '0'), '_', ro.title),
+  CONCAT(ro.description, '，第', copies.c, '次复现'),
+  ro.priority,
+  ro.status,
+  ro.assignee_user_id,
+  0,
+  TIMESTAMPADD(MINUTE, copies.c, ro.created_at),
+  TIMESTAMPADD(MINUTE, copies.c, ro.updated_at)
+FROM repair_order ro
+CROSS JOIN copies
+WHERE ro.deleted = 0
+  AND ro.title LIKE 'DEMO_V7_RO_%';
+
+ANALYZE TABLE repair_order;
+SELECT COUNT(*) AS bench_rows FROM repair_order WHERE deleted = 0;
+
+-- 2) two-character keyword, selective
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM repair_order r
+WHERE r.deleted = 0 AND (r.title LIKE '%漏水%' OR r.description LIKE '%漏水%');
+
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM repair_order r
+WHERE r.deleted = 0 AND MATCH(r.title, r.description) AGAINST ('"漏水"' IN BOOLEAN MODE);
+
+-- 3) longer keyword, list page ordered by relevance
+EXPLAIN ANALYZE
+SELECT r.id, r.title FROM repair_order r
+WHERE r.deleted = 0 AND (r.title LIKE '%下水道堵塞%' OR r.description LIKE '%下水道堵塞%')
+ORDER BY r.id DESC LIMIT 21;
+
+EXPLAIN ANALYZE
+SELECT r.id, r.title FROM repair_order r
+WHERE r.deleted = 0 AND MATCH(r.title, r.description) AGAINST ('"下水道堵塞"' IN BOOLEAN MODE)
+ORDER BY MATCH(r.title, r.description) AGAINST ('"下水道堵塞"' IN BOOLEAN MODE) DESC, r.id DESC LIMIT 21;
+
+-- 4) code-style keyword (matches a single order)
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM repair_order r
+WHERE r.deleted = 0 AND (r.title LIKE '%V7_RO_000123%' OR r.description LIKE '%V7_RO_000123%');
+
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM repair_order r
+WHERE r.deleted = 0 AND MATCH(r.title, r.description) AGAINST ('"V7_RO_000123"' IN BOOLEAN MODE);
+
+-- 5) cleanup: hard delete so the clones do not linger in the table, its FULLTEXT index and count statistics
+DELETE FROM repair_order
+WHERE title LIKE CONCAT(@BENCH_TAG, '\_%');
+
+ANALYZE TABLE repair_order;
@@ -0,0 +1,8 @@
+INSERT IGNORE INTO sys_permission (code, name) VALUES ('sys:user:write', '批量创建用户');
+
+INSERT IGNORE INTO sys_role_permission (role_id, permission_id)
+SELECT r.id, p.id
+FROM sys_role r
+JOIN sys_permission p
+WHERE r.code = 'SUPER_ADMIN'
+  AND p.code = 'sys:user:write';
@@ -0,0 +1,4 @@
+CREATE INDEX idx_assignment_start_at ON dorm_assignment (start_at);
+CREATE INDEX idx_assignment_end_at ON dorm_assignment (end_at);
+CREATE INDEX idx_visitor_leave_at ON visitor_record (leave_at);
+CREATE INDEX idx_visitor_created_at ON visitor_record (created_at);
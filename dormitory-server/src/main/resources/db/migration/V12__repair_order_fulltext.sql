@@ -0,0 +1,7 @@
+-- ngram tokens that contain a stopword (e.g. "a", "in") would be dropped from the index, which breaks
+-- substring-style matching on codes and English words, so build the index without the stopword list.
+SET SESSION innodb_ft_enable_stopword = 0;
+
+ALTER TABLE repair_order ADD FULLTEXT INDEX ft_repair_title_description (title, description) WITH PARSER ngram;
+
+SET SESSION innodb_ft_enable_stopword = 1;
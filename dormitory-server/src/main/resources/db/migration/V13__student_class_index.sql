@@ -0,0 +1 @@
+CREATE INDEX idx_student_class ON student (class_name, major, college);
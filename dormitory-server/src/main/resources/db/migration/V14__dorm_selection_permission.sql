@@ -0,0 +1,8 @@
+INSERT IGNORE INTO sys_permission (code, name) VALUES ('dorm:selection:claim', '代学生选床（工作人员）');
+
+INSERT IGNORE INTO sys_role_permission (role_id, permission_id)
+SELECT r.id, p.id
+FROM sys_role r
+JOIN sys_permission p
+WHERE r.code = 'SUPER_ADMIN'
+  AND p.code = 'dorm:selection:claim';
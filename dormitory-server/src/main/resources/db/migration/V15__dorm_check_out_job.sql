@@ -0,0 +1,20 @@
+CREATE TABLE IF NOT EXISTS dorm_check_out_job (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  building_id BIGINT NULL,
+  college VARCHAR(64) NULL,
+  class_name VARCHAR(64) NULL,
+  student_status VARCHAR(16) NULL,
+  reason VARCHAR(255) NULL,
+  status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+  total INT NOT NULL DEFAULT 0,
+  processed INT NOT NULL DEFAULT 0,
+  last_assignment_id BIGINT NOT NULL DEFAULT 0,
+  lease_until DATETIME(3) NULL,
+  lease_owner VARCHAR(36) NULL,
+  error VARCHAR(512) NULL,
+  finished_at DATETIME(3) NULL,
+  created_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  created_by BIGINT NULL,
+  updated_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  KEY idx_dorm_check_out_job_status (status, lease_until)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1 @@
+CREATE INDEX idx_assignment_updated_at ON dorm_assignment (updated_at);
@@ -0,0 +1,4 @@
+-- Tokens carry a permission bitmap stamped with perm_version. A later migration that changes role permissions or
+-- user-role bindings must end with `UPDATE sys_user SET perm_version = perm_version + 1;` so existing tokens stop
+-- trusting their bitmap; migrations that only touch schema or indexes must not.
+ALTER TABLE sys_user ADD COLUMN perm_version BIGINT NOT NULL DEFAULT 0;
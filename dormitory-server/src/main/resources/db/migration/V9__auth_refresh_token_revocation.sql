@@ -0,0 +1,25 @@
+CREATE TABLE IF NOT EXISTS sys_refresh_token (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  user_id BIGINT NOT NULL,
+  family_id VARCHAR(36) NOT NULL,
+  token_hash CHAR(64) NOT NULL,
+  expires_at DATETIME(3) NOT NULL,
+  revoked TINYINT NOT NULL DEFAULT 0,
+  revoked_at DATETIME(3) NULL,
+  replaced_by BIGINT NULL,
+  created_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  UNIQUE KEY uk_sys_refresh_token_hash (token_hash),
+  KEY idx_sys_refresh_token_family (family_id),
+  KEY idx_sys_refresh_token_user (user_id),
+  KEY idx_sys_refresh_token_expires (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS sys_token_revocation (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  jti VARCHAR(64) NOT NULL,
+  user_id BIGINT NULL,
+  expires_at DATETIME(3) NOT NULL,
+  created_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  UNIQUE KEY uk_sys_token_revocation_jti (jti),
+  KEY idx_sys_token_revocation_expires (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
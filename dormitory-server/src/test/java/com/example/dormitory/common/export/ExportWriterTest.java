@@ -0,0 +1,80 @@
+package com.example.dormitory.common.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExportWriterTest {
+
+    private static final List<ExportColumn<String>> COLUMNS = List.of(ExportColumn.of("value", v -> v));
+    private static final String ROW = "x".repeat(100);
+
+    @Test
+    void completedExportHasNoFailureMarker() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        open(response, ExportFormat.CSV).write(rows(3, null));
+
+        String body = response.getContentAsString();
+        assertTrue(body.endsWith(ROW + "\r\n") || body.endsWith(ROW + "\n"), body);
+        assertFalse(body.contains(ExportWriter.FAILURE_MARKER));
+    }
+
+    @Test
+    void failureBeforeCommitResetsTheResponse() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        IllegalStateException cause = new IllegalStateException("query failed");
+        ExportWriter<String> writer = open(response, ExportFormat.CSV);
+
+        assertSame(cause, assertThrows(IllegalStateException.class, () -> writer.write(rows(3, cause))));
+        assertFalse(response.isCommitted());
+        assertEquals("", response.getContentAsString());
+        assertEquals(null, response.getHeader("Content-Disposition"));
+    }
+
+    @Test
+    void failureAfterCommitAppendsMarkerAndAborts() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        IllegalStateException cause = new IllegalStateException("query failed");
+        ExportWriter<String> writer = open(response, ExportFormat.CSV);
+
+        ExportAbortedException ex = assertThrows(ExportAbortedException.class, () -> writer.write(rows(2000, cause)));
+        assertSame(cause, ex.getCause());
+        assertEquals(2000, ex.getRowsWritten());
+        assertTrue(response.isCommitted());
+        assertTrue(response.getContentAsString().trim().endsWith(ExportWriter.FAILURE_MARKER + ",2000"));
+    }
+
+    @Test
+    void ndjsonFailureEndsWithErrorLine() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ExportWriter<String> writer = open(response, ExportFormat.NDJSON);
+
+        assertThrows(ExportAbortedException.class, () -> writer.write(rows(2000, new IllegalStateException())));
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals("{\"error\":\"export failed\",\"rows\":2000}", lines[lines.length - 1]);
+    }
+
+    private static ExportWriter<String> open(MockHttpServletResponse response, ExportFormat format) throws Exception {
+        return ExportWriter.open(response, "test", format, false, COLUMNS, new ObjectMapper());
+    }
+
+    private static Consumer<Consumer<String>> rows(int n, RuntimeException failure) {
+        return sink -> {
+            for (int i = 0; i < n; i++) {
+                sink.accept(ROW);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        };
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.dormitory.dorm.service;
+
+import com.example.dormitory.dorm.model.BedSlot;
+import com.example.dormitory.dorm.repository.DormAssignmentRepository;
+import com.example.dormitory.dorm.repository.DormBedRepository;
+import com.example.dormitory.dorm.vo.BedOccupancyVo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class BedOccupancyIndexTest {
+
+    private final List<BedSlot> slots = new ArrayList<>();
+    private final List<Long> activeBedIds = new ArrayList<>();
+    private Runnable duringScan;
+    private DormBedRepository bedRepository;
+    private BedOccupancyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bedRepository = mock(DormBedRepository.class);
+        DormAssignmentRepository assignmentRepository = mock(DormAssignmentRepository.class);
+        doAnswer(inv -> {
+            Consumer<BedSlot> consumer = inv.getArgument(0);
+            Runnable hook = duringScan;
+            duringScan = null;
+            if (hook != null) {
+                hook.run();
+            }
+            new ArrayList<>(slots).forEach(consumer);
+            return null;
+        }).when(bedRepository).scanOccupancySlots(any());
+        doAnswer(inv -> {
+            Consumer<Long> consumer = inv.getArgument(0);
+            new ArrayList<>(activeBedIds).forEach(consumer);
+            return null;
+        }).when(assignmentRepository).scanActiveBedIds(any());
+        index = new BedOccupancyIndex(bedRepository, assignmentRepository, new SimpleMeterRegistry());
+
+        slots.add(slot(1L, 10L, "A"));
+        slots.add(slot(2L, 10L, "B"));
+        slots.add(slot(3L, 11L, "A"));
+        slots.add(slot(4L, 11L, "B"));
+    }
+
+    @Test
+    void notReadyBeforeFirstBuild() {
+        assertFalse(index.isReady());
+        assertNull(index.isFree(1L));
+    }
+
+    @Test
+    void writesCommittedDuringScanAreReplayedOnTheFreshSnapshot() {
+        index.rebuild();
+        // The scan below still sees beds 2 and 3 free; the commits land while it runs.
+        duringScan = () -> {
+            index.assign(2L);
+            index.setHeld(3L, true);
+            index.updateStatus(4L, "REPAIR");
+        };
+        index.rebuild();
+
+        assertTrue(index.isFree(1L));
+        assertFalse(index.isFree(2L));
+        assertFalse(index.isFree(3L));
+        assertFalse(index.isFree(4L));
+        assertEquals(1L, index.countBeds(null, null, "REPAIR"));
+    }
+
+    @Test
+    void rebuildRequestedDuringScanRunsAgain() {
+        index.rebuild();
+        duringScan = () -> {
+            slots.add(slot(5L, 11L, "C"));
+            index.rebuild();
+        };
+        index.rebuild();
+
+        verify(bedRepository, times(3)).scanOccupancySlots(any());
+        assertTrue(index.isFree(5L));
+        assertEquals(5L, index.countBeds(null, null, null));
+    }
+
+    @Test
+    void holdsCarryOverRebuild() {
+        index.rebuild();
+        index.setHeld(1L, true);
+        index.reconcile();
+
+        assertFalse(index.isFree(1L));
+        List<BedOccupancyVo> rooms = index.occupancy(null, null, "room");
+        assertEquals(1, rooms.get(0).getHeld());
+
+        index.setHeld(1L, false);
+        assertTrue(index.isFree(1L));
+    }
+
+    @Test
+    void holdOnRemovedBedIsDropped() {
+        index.rebuild();
+        index.setHeld(2L, true);
+        slots.remove(1);
+        index.rebuild();
+
+        assertNull(index.isFree(2L));
+        assertEquals(0, index.occupancy(null, null, "building").get(0).getHeld());
+    }
+
+    @Test
+    void roomAndBuildingEditsApplyInPlace() {
+        index.rebuild();
+        index.updateRoom(10L, "4P", "UNLIMITED", false);
+        assertEquals(List.of(3L, 4L), freeBedIds());
+
+        index.updateBuilding(1L, "UNLIMITED", false);
+        assertEquals(List.of(), freeBedIds());
+
+        index.updateBuilding(1L, "UNLIMITED", true);
+        index.updateRoom(10L, "4P", "UNLIMITED", true);
+        assertEquals(List.of(1L, 2L, 3L, 4L), freeBedIds());
+        verify(bedRepository, times(1)).scanOccupancySlots(any());
+    }
+
+    private List<Long> freeBedIds() {
+        List<Long> ids = new ArrayList<>();
+        for (BedSlot slot : index.findFree(null, null, null, null, null, 100)) {
+            ids.add(slot.getBedId());
+        }
+        return ids;
+    }
+
+    private static BedSlot slot(Long bedId, Long roomId, String bedNo) {
+        BedSlot slot = new BedSlot();
+        slot.setBedId(bedId);
+        slot.setRoomId(roomId);
+        slot.setBedNo(bedNo);
+        slot.setStatus("AVAILABLE");
+        slot.setBuildingId(1L);
+        slot.setFloorNo(1);
+        slot.setRoomNo(String.valueOf(roomId));
+        slot.setRoomType("4P");
+        slot.setRoomGenderLimit("UNLIMITED");
+        slot.setBuildingGenderLimit("UNLIMITED");
+        slot.setRoomActive(true);
+        slot.setBuildingActive(true);
+        return slot;
+    }
+}
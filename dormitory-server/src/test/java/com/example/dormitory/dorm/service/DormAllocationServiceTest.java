@@ -0,0 +1,92 @@
+package com.example.dormitory.dorm.service;
+
+import com.example.dormitory.dorm.dto.DormAllocationRequest;
+import com.example.dormitory.dorm.model.BedSlot;
+import com.example.dormitory.dorm.repository.DormAssignmentRepository;
+import com.example.dormitory.dorm.repository.DormBedRepository;
+import com.example.dormitory.dorm.vo.DormAllocationItemVo;
+import com.example.dormitory.dorm.vo.DormAllocationResultVo;
+import com.example.dormitory.student.model.Student;
+import com.example.dormitory.student.repository.StudentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DormAllocationServiceTest {
+
+    @Test
+    void classesTakeWholeRoomsBeforeSpillingOver() {
+        List<Student> students = new ArrayList<>();
+        for (long id = 1; id <= 7; id++) {
+            students.add(student(id, id <= 3 ? "A" : "B"));
+        }
+        StudentRepository studentRepository = mock(StudentRepository.class);
+        when(studentRepository.findByIds(any())).thenReturn(students);
+        DormAssignmentRepository assignmentRepository = mock(DormAssignmentRepository.class);
+        when(assignmentRepository.findActiveStudentIds(any())).thenReturn(Set.of());
+        when(assignmentRepository.findActiveGendersByRoom(any())).thenReturn(Map.of());
+        DormBedRepository bedRepository = mock(DormBedRepository.class);
+        when(bedRepository.findSlots(any())).thenReturn(slots(4, 2));
+        DormAllocationService service = new DormAllocationService(studentRepository, bedRepository, assignmentRepository,
+                mock(TransactionTemplate.class), mock(BedOccupancyIndex.class), mock(BedHoldTable.class));
+
+        DormAllocationRequest req = new DormAllocationRequest();
+        req.setStudentIds(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L));
+        req.setDryRun(true);
+        DormAllocationResultVo result = service.allocate(req);
+
+        assertEquals(7, result.getPlanned());
+        Map<Long, Set<String>> classesByRoom = new HashMap<>();
+        for (DormAllocationItemVo item : result.getItems()) {
+            classesByRoom.computeIfAbsent(item.getRoomId(), k -> new HashSet<>()).add(item.getStudentId() <= 3 ? "A" : "B");
+        }
+        for (Set<String> classes : classesByRoom.values()) {
+            assertEquals(1, classes.size(), "room mixes classes: " + classesByRoom);
+        }
+    }
+
+    private static Student student(Long id, String className) {
+        Student s = new Student();
+        s.setId(id);
+        s.setStudentNo(String.format("S%03d", id));
+        s.setGender("M");
+        s.setStatus("IN_SCHOOL");
+        s.setCollege("C");
+        s.setMajor("M");
+        s.setClassName(className);
+        return s;
+    }
+
+    private static List<BedSlot> slots(int rooms, int bedsPerRoom) {
+        List<BedSlot> slots = new ArrayList<>();
+        long bedId = 1;
+        for (long roomId = 1; roomId <= rooms; roomId++) {
+            for (int i = 0; i < bedsPerRoom; i++) {
+                BedSlot slot = new BedSlot();
+                slot.setBedId(bedId++);
+                slot.setRoomId(roomId);
+                slot.setRoomNo(String.valueOf(100 + roomId));
+                slot.setBedNo(String.valueOf((char) ('A' + i)));
+                slot.setBuildingId(1L);
+                slot.setFloorNo(1);
+                slot.setRoomType("2P");
+                slot.setStatus("AVAILABLE");
+                slot.setRoomGenderLimit("UNLIMITED");
+                slot.setBuildingGenderLimit("UNLIMITED");
+                slots.add(slot);
+            }
+        }
+        return slots;
+    }
+}
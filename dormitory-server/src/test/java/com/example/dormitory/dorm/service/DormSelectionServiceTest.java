@@ -0,0 +1,228 @@
+package com.example.dormitory.dorm.service;
+
+import com.example.dormitory.common.BizException;
+import com.example.dormitory.dorm.dto.CreateDormAssignmentRequest;
+import com.example.dormitory.dorm.dto.OpenSelectionRequest;
+import com.example.dormitory.dorm.dto.SelectionClaimRequest;
+import com.example.dormitory.dorm.model.BedSlot;
+import com.example.dormitory.dorm.repository.DormAssignmentRepository;
+import com.example.dormitory.dorm.repository.DormBedRepository;
+import com.example.dormitory.dorm.vo.SelectionClaimVo;
+import com.example.dormitory.student.model.Student;
+import com.example.dormitory.student.repository.StudentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DormSelectionServiceTest {
+
+    private static final int ROOMS = 10;
+    private static final int BEDS_PER_ROOM = 4;
+
+    private DormBedRepository bedRepository;
+    private DormAssignmentRepository assignmentRepository;
+    private StudentRepository studentRepository;
+    private BedOccupancyIndex occupancyIndex;
+    private BedHoldTable holdTable;
+    private DormSelectionService service;
+
+    @BeforeEach
+    void setUp() {
+        bedRepository = mock(DormBedRepository.class);
+        assignmentRepository = mock(DormAssignmentRepository.class);
+        studentRepository = mock(StudentRepository.class);
+        when(studentRepository.findById(anyLong())).thenAnswer(inv -> student(inv.getArgument(0)));
+        when(bedRepository.findSlots(any())).thenReturn(slots());
+        occupancyIndex = mock(BedOccupancyIndex.class);
+        when(occupancyIndex.isFree(anyLong())).thenReturn(true);
+        holdTable = new BedHoldTable(occupancyIndex, new BedHoldProperties(), new SimpleMeterRegistry());
+        service = new DormSelectionService(bedRepository, assignmentRepository, studentRepository, occupancyIndex,
+                holdTable, mock(TransactionTemplate.class), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void concurrentClaimsNeverOversellAndRepeatsReturnTheSameBed() throws Exception {
+        service.open(new OpenSelectionRequest());
+        int students = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        Map<Long, Results> results = new ConcurrentHashMap<>();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int round = 0; round < 2; round++) {
+                for (long id = 1; id <= students; id++) {
+                    long studentId = id;
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        SelectionClaimRequest req = new SelectionClaimRequest();
+                        req.setStudentId(studentId);
+                        Results r = results.computeIfAbsent(studentId, k -> new Results());
+                        try {
+                            r.claims.add(service.claim(req));
+                        } catch (BizException e) {
+                            r.errors.add(e.getCode());
+                        }
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Set<Long> beds = new HashSet<>();
+        Map<Long, Set<String>> roomGenders = new HashMap<>();
+        int winners = 0;
+        for (Map.Entry<Long, Results> e : results.entrySet()) {
+            Results r = e.getValue();
+            if (r.claims.isEmpty()) {
+                continue;
+            }
+            winners++;
+            Long bedId = r.claims.peek().getBedId();
+            assertNotNull(bedId);
+            for (SelectionClaimVo vo : r.claims) {
+                assertEquals(bedId, vo.getBedId(), "repeat claim returned another bed");
+            }
+            assertTrue(r.errors.isEmpty(), "repeat claim failed after the first one succeeded");
+            assertTrue(beds.add(bedId), "bed sold twice: " + bedId);
+            roomGenders.computeIfAbsent(r.claims.peek().getRoomId(), k -> new HashSet<>()).add(gender(e.getKey()));
+        }
+        assertEquals(ROOMS * BEDS_PER_ROOM, winners);
+        for (Set<String> genders : roomGenders.values()) {
+            assertEquals(1, genders.size(), "room mixes genders");
+        }
+        assertEquals(ROOMS * BEDS_PER_ROOM, service.status().getClaimed());
+        assertEquals(0, service.status().getRemaining());
+    }
+
+    @Test
+    void unlimitedRoomFollowsExistingOccupants() {
+        when(assignmentRepository.findActiveGendersByRoom(any())).thenReturn(Map.of(1L, Set.of("m")));
+        service.open(new OpenSelectionRequest());
+
+        BizException e = assertThrows(BizException.class, () -> service.claim(claim(2L, 1L)));
+        assertEquals(40001, e.getCode());
+        assertEquals(1L, service.claim(claim(1L, 1L)).getRoomId());
+    }
+
+    @Test
+    void emptyUnlimitedRoomTakesTheFirstClaimersGender() {
+        service.open(new OpenSelectionRequest());
+
+        assertEquals(1L, service.claim(claim(2L, 1L)).getRoomId());
+        BizException e = assertThrows(BizException.class, () -> service.claim(claim(1L, 1L)));
+        assertEquals(40001, e.getCode());
+        assertEquals(1L, service.claim(claim(4L, 1L)).getRoomId());
+    }
+
+    @Test
+    void checkInCannotTakeAClaimedBed() {
+        service.open(new OpenSelectionRequest());
+        Long bedId = service.claim(claim(1L, 1L)).getBedId();
+        assertTrue(holdTable.isHeld(bedId, null));
+
+        DormCheckInService checkIn = new DormCheckInService(assignmentRepository, bedRepository, studentRepository, occupancyIndex,
+                holdTable, mock(TransactionTemplate.class), new DormCheckInProperties(), new SimpleMeterRegistry());
+        try {
+            CreateDormAssignmentRequest req = new CreateDormAssignmentRequest();
+            req.setStudentId(3L);
+            req.setBedId(bedId);
+            BizException e = assertThrows(BizException.class, () -> checkIn.checkIn(req));
+            assertEquals(40905, e.getCode());
+        } finally {
+            checkIn.shutdown();
+        }
+    }
+
+    @Test
+    void bedTakenOutsideTheSessionIsSkipped() {
+        service.open(new OpenSelectionRequest());
+        when(occupancyIndex.isFree(1L)).thenReturn(false);
+
+        BizException e = assertThrows(BizException.class, () -> service.claim(bedClaim(1L, 1L)));
+        assertEquals(40902, e.getCode());
+        SelectionClaimVo vo = service.claim(claim(1L, 1L));
+        assertEquals(2L, vo.getBedId());
+        assertEquals(ROOMS * BEDS_PER_ROOM - 2, service.status().getRemaining());
+    }
+
+    private static SelectionClaimRequest bedClaim(Long studentId, Long bedId) {
+        SelectionClaimRequest req = new SelectionClaimRequest();
+        req.setStudentId(studentId);
+        req.setBedId(bedId);
+        return req;
+    }
+
+    private static SelectionClaimRequest claim(Long studentId, Long roomId) {
+        SelectionClaimRequest req = new SelectionClaimRequest();
+        req.setStudentId(studentId);
+        req.setRoomId(roomId);
+        return req;
+    }
+
+    private static Student student(Long id) {
+        Student s = new Student();
+        s.setId(id);
+        s.setGender(gender(id));
+        s.setStatus("IN_SCHOOL");
+        return s;
+    }
+
+    private static String gender(Long studentId) {
+        return studentId % 2 == 0 ? "F" : "M";
+    }
+
+    private static List<BedSlot> slots() {
+        List<BedSlot> slots = new ArrayList<>();
+        long bedId = 1;
+        for (long roomId = 1; roomId <= ROOMS; roomId++) {
+            for (int i = 0; i < BEDS_PER_ROOM; i++) {
+                BedSlot slot = new BedSlot();
+                slot.setBedId(bedId++);
+                slot.setRoomId(roomId);
+                slot.setRoomNo(String.valueOf(100 + roomId));
+                slot.setBedNo(String.valueOf((char) ('A' + i)));
+                slot.setBuildingId(1L);
+                slot.setFloorNo(1);
+                slot.setStatus("AVAILABLE");
+                slot.setRoomGenderLimit("UNLIMITED");
+                slot.setBuildingGenderLimit("UNLIMITED");
+                slots.add(slot);
+            }
+        }
+        return slots;
+    }
+
+    private static final class Results {
+        private final ConcurrentLinkedQueue<SelectionClaimVo> claims = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<Integer> errors = new ConcurrentLinkedQueue<>();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.dormitory.repair.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RepairOrderRepositoryTest {
+
+    @Test
+    void fullTextNeedsATokenAsLongAsTheNgramSize() {
+        assertTrue(RepairOrderRepository.isFullTextKeyword("漏水"));
+        assertTrue(RepairOrderRepository.isFullTextKeyword("a 漏水"));
+        assertFalse(RepairOrderRepository.isFullTextKeyword("漏"));
+        assertFalse(RepairOrderRepository.isFullTextKeyword("a b"));
+        assertFalse(RepairOrderRepository.isFullTextKeyword("\"a\" \"b\""));
+        assertFalse(RepairOrderRepository.isFullTextKeyword(null));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.dormitory.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClientAddressResolverTest {
+
+    @Test
+    void forwardedHeaderIsIgnoredWithoutTrustedProxies() {
+        assertEquals("10.0.0.1", resolver(0).resolve(request("10.0.0.1", "1.2.3.4")));
+    }
+
+    @Test
+    void clientIsTakenFromTheTrustedHopCount() {
+        MockHttpServletRequest request = request("10.0.0.2", "6.6.6.6, 1.2.3.4, 10.0.0.1");
+        assertEquals("10.0.0.1", resolver(1).resolve(request));
+        assertEquals("1.2.3.4", resolver(2).resolve(request));
+    }
+
+    @Test
+    void missingHeaderFallsBackToThePeer() {
+        assertEquals("10.0.0.1", resolver(1).resolve(request("10.0.0.1", null)));
+    }
+
+    private static ClientAddressResolver resolver(int hops) {
+        LoginProperties props = new LoginProperties();
+        props.setTrustedProxyHops(hops);
+        return new ClientAddressResolver(props);
+    }
+
+    private static MockHttpServletRequest request(String remote, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remote);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
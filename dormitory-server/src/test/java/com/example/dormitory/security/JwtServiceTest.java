@@ -0,0 +1,89 @@
+package com.example.dormitory.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final String OLD_SECRET = "fedcba9876543210fedcba9876543210";
+
+    @Test
+    void cachedVerificationReturnsTheVerifiedClaims() {
+        JwtService jwt = service("k2", SECRET, 300);
+        String token = jwt.createToken(7L, "alice");
+
+        Claims first = jwt.verify(token);
+        assertEquals("7", first.getSubject());
+        assertSame(first, jwt.verify(token));
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenWhenTheOriginalIsCached() {
+        JwtService jwt = service("k2", SECRET, 300);
+        String token = jwt.createToken(7L, "alice");
+        jwt.verify(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertThrows(JwtException.class, () -> jwt.verify(tampered));
+    }
+
+    @Test
+    void previousKeysStillVerifyAndUnknownKeysDoNot() {
+        String oldToken = service("k1", OLD_SECRET, 300).createToken(7L, "alice");
+        JwtService rotated = service("k2", SECRET, 300);
+        JwtProperties.VerificationKey previous = new JwtProperties.VerificationKey();
+        previous.setId("k1");
+        previous.setSecret(OLD_SECRET);
+        JwtProperties props = properties("k2", SECRET, 300);
+        props.setPreviousKeys(List.of(previous));
+        JwtService withRing = new JwtService(props, mock(PermissionDictionary.class), new SimpleMeterRegistry());
+
+        assertEquals("7", withRing.verify(oldToken).getSubject());
+        assertThrows(JwtException.class, () -> rotated.verify(oldToken));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        JwtService jwt = service("k2", SECRET, 300);
+        Instant issuedAt = Instant.now().minusSeconds(120);
+        String token = Jwts.builder()
+                .header().keyId("k2").and()
+                .subject("7")
+                .issuedAt(Date.from(issuedAt))
+                .expiration(Date.from(issuedAt.plusSeconds(60)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertThrows(ExpiredJwtException.class, () -> jwt.verify(token));
+    }
+
+    private static JwtService service(String keyId, String secret, long cacheTtlSeconds) {
+        return new JwtService(properties(keyId, secret, cacheTtlSeconds), mock(PermissionDictionary.class), new SimpleMeterRegistry());
+    }
+
+    private static JwtProperties properties(String keyId, String secret, long cacheTtlSeconds) {
+        JwtProperties props = new JwtProperties();
+        props.setKeyId(keyId);
+        props.setSecret(secret);
+        props.setExpirationSeconds(3600);
+        props.setVerifiedCacheSize(1000);
+        props.setVerifiedCacheTtlSeconds(cacheTtlSeconds);
+        return props;
+    }
+}
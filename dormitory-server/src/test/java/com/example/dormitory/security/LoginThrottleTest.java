@@ -0,0 +1,80 @@
+package com.example.dormitory.security;
+
+import com.example.dormitory.common.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginThrottleTest {
+
+    @Test
+    void parallelAttemptsCannotAllPassTheCheck() throws Exception {
+        LoginThrottle throttle = throttle(5, 1000, 100);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < 64; i++) {
+                String ip = "10.0.0." + i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        throttle.acquire("admin", ip);
+                        admitted.incrementAndGet();
+                    } catch (TooManyRequestsException ignored) {
+                        // expected for everything past the limit
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(5, admitted.get());
+    }
+
+    @Test
+    void successHandsTheSlotsBack() {
+        LoginThrottle throttle = throttle(2, 2, 100);
+        throttle.recordSuccess(throttle.acquire("alice", "10.0.0.1"));
+        throttle.recordSuccess(throttle.acquire("alice", "10.0.0.1"));
+        throttle.acquire("alice", "10.0.0.1");
+        throttle.acquire("alice", "10.0.0.1");
+        assertThrows(TooManyRequestsException.class, () -> throttle.acquire("alice", "10.0.0.1"));
+    }
+
+    @Test
+    void fullTableBlocksUnknownKeysInsteadOfFailingOpen() {
+        LoginThrottle throttle = throttle(5, 1000, 3);
+        throttle.acquire("u1", null);
+        throttle.acquire("u2", null);
+        throttle.acquire("u3", null);
+
+        assertThrows(TooManyRequestsException.class, () -> throttle.acquire("victim", null));
+        assertDoesNotThrow(() -> throttle.acquire("u1", null));
+    }
+
+    private static LoginThrottle throttle(int perUsername, int perIp, int maxKeys) {
+        LoginProperties props = new LoginProperties();
+        props.setMaxFailuresPerUsername(perUsername);
+        props.setMaxFailuresPerIp(perIp);
+        props.setMaxTrackedKeys(maxKeys);
+        return new LoginThrottle(props, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.dormitory.sys.service;
+
+import com.example.dormitory.security.PasswordHasher;
+import com.example.dormitory.security.PermissionVersion;
+import com.example.dormitory.security.UserPrincipal;
+import com.example.dormitory.sys.model.SysUser;
+import com.example.dormitory.sys.repository.SysUserRepository;
+import com.example.dormitory.sys.vo.SysUserBulkResultVo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SysUserBulkServiceTest {
+
+    private SysUserBulkService service;
+
+    @BeforeEach
+    void setUp() {
+        SysUserRepository repository = mock(SysUserRepository.class);
+        when(repository.findPermissionCodesByUserId(1L)).thenReturn(List.of("sys:user:read", "sys:user:write", "student:read"));
+        when(repository.findRoleIdsByCodes(anyCollection())).thenReturn(Map.of("USER", 2L, "SUPER_ADMIN", 1L));
+        when(repository.findPermissionCodesByRoleCodes(anyCollection()))
+                .thenReturn(Map.of("USER", Set.of("student:read"), "SUPER_ADMIN", Set.of("sys:user:write", "sys:role:write")));
+        when(repository.findByUsernames(anyCollection())).thenAnswer(inv -> {
+            List<SysUser> users = new ArrayList<>();
+            long id = 100;
+            for (String name : inv.<Collection<String>>getArgument(0)) {
+                SysUser u = new SysUser();
+                u.setId(id++);
+                u.setUsername(name);
+                u.setPasswordHash("hash");
+                users.add(u);
+            }
+            return users;
+        });
+        PasswordHasher hasher = mock(PasswordHasher.class);
+        when(hasher.encodeAll(anyList())).thenAnswer(inv -> inv.<List<String>>getArgument(0).stream().map(p -> "hash").toList());
+        TransactionTemplate tx = mock(TransactionTemplate.class);
+        when(tx.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        service = new SysUserBulkService(repository, mock(PermissionVersion.class), hasher, tx, new ObjectMapper());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(new UserPrincipal(1L, "staff", "Staff"), null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void rolesBeyondTheCallersPermissionsAreRejectedPerRow() throws Exception {
+        String csv = "username,password,roleCode\n"
+                + "alice,secret1,USER\n"
+                + "mallory,secret2,SUPER_ADMIN\n";
+        SysUserBulkResultVo result = service.importCsv(new StringReader(csv), null);
+
+        assertEquals(1, result.getCreated());
+        assertEquals("CREATED", result.getRows().get(0).getStatus());
+        assertEquals("INVALID", result.getRows().get(1).getStatus());
+        assertEquals("role not allowed: SUPER_ADMIN", result.getRows().get(1).getMessage());
+    }
+
+    @Test
+    void defaultRoleIsCheckedToo() throws Exception {
+        SysUserBulkResultVo result = service.importCsv(new StringReader("username,password\nmallory,secret2\n"), "SUPER_ADMIN");
+
+        assertEquals(0, result.getCreated());
+        assertEquals("role not allowed: SUPER_ADMIN", result.getRows().get(0).getMessage());
+    }
+}